@@ -0,0 +1,34 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop;
+
+/**
+ * Marker interface implemented by interface-based AOP proxies whose class is
+ * generated at runtime instead of being created through {@link java.lang.reflect.Proxy}.
+ *
+ * <p>Such proxies implement the proxied interfaces only, just like JDK dynamic
+ * proxies, but are not {@link java.lang.reflect.Proxy} instances: They are
+ * recognized by {@link org.springframework.aop.support.AopUtils#isAopProxy(Object)}
+ * but not by {@link org.springframework.aop.support.AopUtils#isJdkDynamicProxy(Object)}.
+ *
+ * @since 3.2.7
+ * @see org.springframework.aop.support.AopUtils#isGeneratedProxy(Object)
+ * @see org.springframework.aop.framework.GeneratedAopProxy
+ */
+public interface GeneratedProxy extends SpringProxy {
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.GeneratedProxy;
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.support.AopUtils;
+
+/**
+ * Base class for the proxy classes that {@link GeneratedAopProxy} generates at runtime.
+ *
+ * <p>A generated subclass implements the proxied interfaces. Methods without advice
+ * call the target directly; all other methods enter {@link #invokeAdvised}, which
+ * runs the interceptor chain linked on proxy creation and finally calls the target
+ * through the generated {@link #invokeJoinpoint} method - again without reflection.
+ *
+ * <p>Implements the {@link GeneratedProxy} marker interface, so that generated
+ * proxies are recognized as interface-based AOP proxies by
+ * {@link AopUtils#isAopProxy} and {@link AopUtils#isGeneratedProxy}.
+ *
+ * <p>Only public since the generated classes live in a separate ClassLoader.
+ * Not intended to be extended or called by application code.
+ *
+ * @since 3.2.7
+ * @see GeneratedAopProxy
+ */
+public abstract class AbstractGeneratedProxy implements GeneratedProxy {
+
+	/** The configuration of this proxy, also serving methods on the Advised interface */
+	protected final AdvisedSupport advised;
+
+	/** The static target of this proxy (may be {@code null}) */
+	protected final Object target;
+
+	/** Whether the method with the given index may directly call the target */
+	protected final boolean[] directCalls;
+
+	private final ProxiedMethod[] proxiedMethods;
+
+	private final Class<?> targetClass;
+
+	private final boolean exposeProxy;
+
+
+	/**
+	 * Create a new proxy instance, linking the interceptor chains for the given methods.
+	 * @param advised the frozen AOP configuration
+	 * @param target the static target (may be {@code null})
+	 * @param methods the proxied methods, in the order of their generated method index
+	 */
+	protected AbstractGeneratedProxy(AdvisedSupport advised, Object target, Method[] methods) {
+		this.advised = advised;
+		this.target = target;
+		this.targetClass = (target != null ? target.getClass() : null);
+		this.exposeProxy = advised.isExposeProxy();
+		this.proxiedMethods = new ProxiedMethod[methods.length];
+		this.directCalls = new boolean[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, this.targetClass);
+			boolean targetCallable = method.getDeclaringClass().isInstance(target);
+			this.proxiedMethods[i] = new ProxiedMethod(method, chain, targetCallable,
+					!RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass()) &&
+							method.getReturnType().isInstance(this));
+			this.directCalls[i] = (chain.isEmpty() && targetCallable && !this.exposeProxy);
+		}
+	}
+
+
+	/**
+	 * Invoke the method with the given index through its interceptor chain.
+	 * <p>Callers will see exactly the exception thrown by the target, unless
+	 * an interceptor throws a checked exception that the method does not declare.
+	 * @param methodIndex the index of the proxied method
+	 * @param args the arguments of the invocation
+	 * @return the return value of the invocation (boxed if primitive)
+	 * @throws Throwable any exception thrown by the interceptors or the target
+	 */
+	protected final Object invokeAdvised(int methodIndex, Object[] args) throws Throwable {
+		ProxiedMethod proxiedMethod = this.proxiedMethods[methodIndex];
+		Object oldProxy = null;
+		if (this.exposeProxy) {
+			// Make invocation available if necessary.
+			oldProxy = AopContext.setCurrentProxy(this);
+		}
+		try {
+			Object retVal;
+			if (proxiedMethod.chain.isEmpty()) {
+				retVal = invokeTarget(methodIndex, args);
+			}
+			else {
+				retVal = new GeneratedMethodInvocation(this, methodIndex, args).proceed();
+			}
+			if (retVal != null && retVal == this.target && proxiedMethod.mayReturnProxy) {
+				// Special case: it returned "this" and the return type of the method
+				// is type-compatible with the proxy.
+				retVal = this;
+			}
+			else if (retVal == null && proxiedMethod.primitiveReturnType) {
+				throw new AopInvocationException(
+						"Null return value from advice does not match primitive return type for: " +
+						proxiedMethod.method);
+			}
+			return retVal;
+		}
+		catch (RuntimeException ex) {
+			throw ex;
+		}
+		catch (Error err) {
+			throw err;
+		}
+		catch (Throwable ex) {
+			for (Class<?> exceptionType : proxiedMethod.exceptionTypes) {
+				if (exceptionType.isInstance(ex)) {
+					throw ex;
+				}
+			}
+			throw new UndeclaredThrowableException(ex);
+		}
+		finally {
+			if (this.exposeProxy) {
+				// Restore old proxy.
+				AopContext.setCurrentProxy(oldProxy);
+			}
+		}
+	}
+
+	/**
+	 * Call the target method with the given index, through the generated
+	 * {@link #invokeJoinpoint} method if the target implements it.
+	 */
+	private Object invokeTarget(int methodIndex, Object[] args) throws Throwable {
+		ProxiedMethod proxiedMethod = this.proxiedMethods[methodIndex];
+		if (proxiedMethod.targetCallable) {
+			return invokeJoinpoint(methodIndex, this.target, args);
+		}
+		return AopUtils.invokeJoinpointUsingReflection(this.target, proxiedMethod.method, args);
+	}
+
+	/**
+	 * Call the method with the given index on the given target, implemented by
+	 * the generated subclass through a direct call on the proxied interface.
+	 * @param methodIndex the index of the proxied method
+	 * @param target the target to call, implementing the method's declaring interface
+	 * @param args the arguments of the invocation
+	 * @return the return value of the method (boxed if primitive),
+	 * or {@code null} for a {@code void} method
+	 * @throws Throwable any exception thrown by the target method
+	 */
+	protected abstract Object invokeJoinpoint(int methodIndex, Object target, Object[] args) throws Throwable;
+
+
+	/**
+	 * Equality means interfaces, advisors and TargetSource are equal.
+	 * <p>Overridden by the generated class if {@code equals} is declared
+	 * on a proxied interface.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof AbstractGeneratedProxy &&
+				AopProxyUtils.equalsInProxy(this.advised, ((AbstractGeneratedProxy) other).advised)));
+	}
+
+	/**
+	 * Proxy uses the hash code of the TargetSource.
+	 * <p>Overridden by the generated class if {@code hashCode} is declared
+	 * on a proxied interface.
+	 */
+	@Override
+	public int hashCode() {
+		return AbstractGeneratedProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
+	}
+
+
+	/**
+	 * Holder for a proxied method and its linked interceptor chain.
+	 */
+	private static final class ProxiedMethod {
+
+		public final Method method;
+
+		public final List<Object> chain;
+
+		public final boolean targetCallable;
+
+		public final boolean mayReturnProxy;
+
+		public final boolean primitiveReturnType;
+
+		public final Class<?>[] exceptionTypes;
+
+		public ProxiedMethod(Method method, List<Object> chain, boolean targetCallable, boolean mayReturnProxy) {
+			this.method = method;
+			this.chain = chain;
+			this.targetCallable = targetCallable;
+			this.mayReturnProxy = mayReturnProxy;
+			this.primitiveReturnType = (method.getReturnType().isPrimitive() && method.getReturnType() != void.class);
+			this.exceptionTypes = method.getExceptionTypes();
+		}
+	}
+
+
+	/**
+	 * MethodInvocation that calls the target through the generated proxy class.
+	 */
+	private static class GeneratedMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final AbstractGeneratedProxy generatedProxy;
+
+		private final int methodIndex;
+
+		public GeneratedMethodInvocation(AbstractGeneratedProxy proxy, int methodIndex, Object[] args) {
+			super(proxy, proxy.target, proxy.proxiedMethods[methodIndex].method, args, proxy.targetClass,
+					proxy.proxiedMethods[methodIndex].chain);
+			this.generatedProxy = proxy;
+			this.methodIndex = methodIndex;
+		}
+
+		@Override
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.generatedProxy.invokeTarget(this.methodIndex, this.arguments);
+		}
+	}
+
+}
@@ -317,7 +317,7 @@ final class CglibAopProxy implements AopProxy, Serializable {
 			for (int x = 0; x < methods.length; x++) {
 				List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(methods[x], rootClass);
 				fixedCallbacks[x] = new FixedChainStaticTargetInterceptor(
-						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass());
+						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass(), exposeProxy);
 				this.fixedInterceptorMap.put(methods[x].toString(), x);
 			}
 
@@ -563,6 +563,7 @@ final class CglibAopProxy implements AopProxy, Serializable {
 
 	/**
 	 * Interceptor used specifically for advised methods on a frozen, static proxy.
+	 * Exposes the proxy through the {@link AopContext} if so configured.
 	 */
 	private static class FixedChainStaticTargetInterceptor implements MethodInterceptor, Serializable {
 
@@ -572,19 +573,35 @@ final class CglibAopProxy implements AopProxy, Serializable {
 
 		private final Class<?> targetClass;
 
-		public FixedChainStaticTargetInterceptor(List<Object> adviceChain, Object target, Class<?> targetClass) {
+		private final boolean exposeProxy;
+
+		public FixedChainStaticTargetInterceptor(
+				List<Object> adviceChain, Object target, Class<?> targetClass, boolean exposeProxy) {
+
 			this.adviceChain = adviceChain;
 			this.target = target;
 			this.targetClass = targetClass;
+			this.exposeProxy = exposeProxy;
 		}
 
 		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-			MethodInvocation invocation = new CglibMethodInvocation(proxy, this.target, method, args,
-					this.targetClass, this.adviceChain, methodProxy);
-			// If we get here, we need to create a MethodInvocation.
-			Object retVal = invocation.proceed();
-			retVal = processReturnType(proxy, this.target, method, retVal);
-			return retVal;
+			Object oldProxy = null;
+			if (this.exposeProxy) {
+				oldProxy = AopContext.setCurrentProxy(proxy);
+			}
+			try {
+				MethodInvocation invocation = new CglibMethodInvocation(proxy, this.target, method, args,
+						this.targetClass, this.adviceChain, methodProxy);
+				// If we get here, we need to create a MethodInvocation.
+				Object retVal = invocation.proceed();
+				retVal = processReturnType(proxy, this.target, method, retVal);
+				return retVal;
+			}
+			finally {
+				if (this.exposeProxy) {
+					AopContext.setCurrentProxy(oldProxy);
+				}
+			}
 		}
 	}
 
@@ -790,16 +807,9 @@ final class CglibAopProxy implements AopProxy, Serializable {
 			boolean isStatic = this.advised.getTargetSource().isStatic();
 			boolean isFrozen = this.advised.isFrozen();
 			if (haveAdvice || !isFrozen) {
-				// If exposing the proxy, then AOP_PROXY must be used.
-				if (exposeProxy) {
-					if (logger.isDebugEnabled()) {
-						logger.debug("Must expose proxy on advised method: " + method);
-					}
-					return AOP_PROXY;
-				}
 				String key = method.toString();
-				// Check to see if we have fixed interceptor to serve this method.
-				// Else use the AOP_PROXY.
+				// Check to see if we have fixed interceptor to serve this method,
+				// which exposes the proxy itself if necessary. Else use the AOP_PROXY.
 				if (isStatic && isFrozen && this.fixedInterceptorMap.containsKey(key)) {
 					if (logger.isDebugEnabled()) {
 						logger.debug("Method has advice and optimisations are enabled: " + method);
@@ -38,6 +38,13 @@ import org.springframework.aop.SpringProxy;
  * <p>In general, specify "proxyTargetClass" to enforce a CGLIB proxy,
  * or specify one or more interfaces to use a JDK dynamic proxy.
  *
+ * <p>As of Spring 3.2.7, interface-based proxies for frozen configurations
+ * with a static target may use a generated proxy class instead of a JDK
+ * dynamic proxy, calling the target without reflection. This needs to be
+ * turned on through {@link #setGeneratedProxies} or the
+ * {@link #GENERATED_PROXIES_PROPERTY_NAME "spring.aop.generatedProxies"}
+ * system property.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @since 12.03.2004
@@ -48,6 +55,54 @@ import org.springframework.aop.SpringProxy;
 @SuppressWarnings("serial")
 public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 
+	/**
+	 * System property that determines whether to use generated proxy classes
+	 * for suitable interface-based proxies by default: "spring.aop.generatedProxies".
+	 * @since 3.2.7
+	 * @see #setGeneratedProxies
+	 */
+	public static final String GENERATED_PROXIES_PROPERTY_NAME = "spring.aop.generatedProxies";
+
+	private static final boolean defaultGeneratedProxies;
+
+	static {
+		boolean generatedProxies = false;
+		try {
+			generatedProxies = Boolean.valueOf(System.getProperty(GENERATED_PROXIES_PROPERTY_NAME));
+		}
+		catch (SecurityException ex) {
+			// Not allowed to read the system property - stick with JDK dynamic proxies
+		}
+		defaultGeneratedProxies = generatedProxies;
+	}
+
+
+	private boolean generatedProxies = defaultGeneratedProxies;
+
+
+	/**
+	 * Set whether to generate proxy classes for interface-based proxies whose
+	 * configuration is frozen and whose target is static, instead of creating
+	 * JDK dynamic proxies. Generated proxies call the target without reflection
+	 * and use interceptor chains that are fixed on proxy creation.
+	 * <p>Default is "false", unless the {@link #GENERATED_PROXIES_PROPERTY_NAME}
+	 * system property is set to "true".
+	 * @since 3.2.7
+	 * @see AdvisedSupport#setFrozen
+	 * @see org.springframework.aop.TargetSource#isStatic()
+	 */
+	public void setGeneratedProxies(boolean generatedProxies) {
+		this.generatedProxies = generatedProxies;
+	}
+
+	/**
+	 * Return whether to generate proxy classes for suitable interface-based proxies.
+	 * @since 3.2.7
+	 */
+	public boolean isGeneratedProxies() {
+		return this.generatedProxies;
+	}
+
 
 	public AopProxy createAopProxy(AdvisedSupport config) throws AopConfigException {
 		if (config.isOptimize() || config.isProxyTargetClass() || hasNoUserSuppliedProxyInterfaces(config)) {
@@ -57,13 +112,24 @@ public class DefaultAopProxyFactory implements AopProxyFactory, Serializable {
 						"Either an interface or a target is required for proxy creation.");
 			}
 			if (targetClass.isInterface()) {
-				return new JdkDynamicAopProxy(config);
+				return createInterfaceBasedProxy(config);
 			}
 			return CglibProxyFactory.createCglibProxy(config);
 		}
 		else {
-			return new JdkDynamicAopProxy(config);
+			return createInterfaceBasedProxy(config);
+		}
+	}
+
+	/**
+	 * Create a generated proxy if turned on and suitable for the given
+	 * configuration, or a JDK dynamic proxy otherwise.
+	 */
+	private AopProxy createInterfaceBasedProxy(AdvisedSupport config) {
+		if (this.generatedProxies && config.isFrozen() && config.getTargetSource().isStatic()) {
+			return new GeneratedAopProxy(config);
 		}
+		return new JdkDynamicAopProxy(config);
 	}
 
 	/**
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.RawTargetAccess;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link AopProxy} implementation that generates a proxy class implementing the
+ * proxied interfaces, as an alternative to {@link JdkDynamicAopProxy} for frozen
+ * configurations with a static target.
+ *
+ * <p>The generated class calls the target through direct {@code invokeinterface}
+ * instructions instead of {@link Method#invoke reflection}: unadvised methods
+ * call the target straight away, while advised methods run the interceptor chain
+ * that has been linked on proxy creation and call the target through a generated
+ * {@code switch} at the end of the chain. This allows the JIT compiler to inline
+ * the target method into the proxy.
+ *
+ * <p>As with CGLIB proxies for frozen configurations, the interceptor chains are
+ * fixed once the proxy has been created. Proxy classes are generated once per
+ * combination of proxied interfaces and shared between proxy instances.
+ *
+ * <p>Falls back to a {@link JdkDynamicAopProxy} if a proxy class cannot be generated,
+ * e.g. for non-public interfaces, or if the proxy is required to be serializable.
+ *
+ * @since 3.2.7
+ * @see DefaultAopProxyFactory#setGeneratedProxies
+ * @see AbstractGeneratedProxy
+ */
+final class GeneratedAopProxy implements AopProxy {
+
+	// Deliberately not using "$$", which would mark the class as a CGLIB class
+	private static final String CLASS_NAME_SUFFIX = "$GeneratedProxyBySpring$";
+
+	private static final String SUPERCLASS = Type.getInternalName(AbstractGeneratedProxy.class);
+
+	private static final String CONSTRUCTOR_DESCRIPTOR =
+			"(Lorg/springframework/aop/framework/AdvisedSupport;Ljava/lang/Object;[Ljava/lang/reflect/Method;)V";
+
+	private static final String INVOKE_ADVISED_DESCRIPTOR = "(I[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String INVOKE_JOINPOINT_DESCRIPTOR =
+			"(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final Log logger = LogFactory.getLog(GeneratedAopProxy.class);
+
+	private static final AtomicInteger classCounter = new AtomicInteger();
+
+	private static final Map<ProxyClassKey, ProxyClass> proxyClassCache =
+			new ConcurrentReferenceHashMap<ProxyClassKey, ProxyClass>();
+
+
+	/** Config used to configure this proxy */
+	private final AdvisedSupport advised;
+
+
+	/**
+	 * Create a new GeneratedAopProxy for the given AOP configuration.
+	 * @param config the AOP configuration as AdvisedSupport object
+	 * @throws AopConfigException if the config is invalid
+	 */
+	public GeneratedAopProxy(AdvisedSupport config) throws AopConfigException {
+		Assert.notNull(config, "AdvisedSupport must not be null");
+		if (config.getAdvisors().length == 0 && config.getTargetSource() == AdvisedSupport.EMPTY_TARGET_SOURCE) {
+			throw new AopConfigException("No advisors and no TargetSource specified");
+		}
+		this.advised = config;
+	}
+
+
+	public Object getProxy() {
+		return getProxy(ClassUtils.getDefaultClassLoader());
+	}
+
+	public Object getProxy(ClassLoader classLoader) {
+		TargetSource targetSource = this.advised.getTargetSource();
+		if (this.advised.isFrozen() && targetSource.isStatic()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating generated proxy: target source is " + targetSource);
+			}
+			Class[] proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised);
+			ProxyClass proxyClass = getProxyClass(classLoader, proxiedInterfaces, this.advised.isOpaque());
+			if (proxyClass != null) {
+				try {
+					return proxyClass.constructor.newInstance(this.advised, targetSource.getTarget(), proxyClass.methods);
+				}
+				catch (Exception ex) {
+					throw new AopConfigException("Could not instantiate generated proxy class [" +
+							proxyClass.constructor.getDeclaringClass().getName() + "]", ex);
+				}
+			}
+		}
+		return new JdkDynamicAopProxy(this.advised).getProxy(classLoader);
+	}
+
+
+	/**
+	 * Obtain the proxy class for the given interfaces, generating it if necessary.
+	 * @return the proxy class, or {@code null} if none can be generated
+	 */
+	private static ProxyClass getProxyClass(ClassLoader classLoader, Class[] proxiedInterfaces, boolean opaque) {
+		ProxyClassKey key = new ProxyClassKey(classLoader, proxiedInterfaces, opaque);
+		ProxyClass proxyClass = proxyClassCache.get(key);
+		if (proxyClass == null) {
+			proxyClass = generateProxyClass(classLoader, proxiedInterfaces, opaque);
+			proxyClassCache.put(key, proxyClass);
+		}
+		return (proxyClass.constructor != null ? proxyClass : null);
+	}
+
+	private static ProxyClass generateProxyClass(ClassLoader classLoader, Class[] proxiedInterfaces, boolean opaque) {
+		List<Method> configMethods = new ArrayList<Method>();
+		List<Method> proxiedMethods = new ArrayList<Method>();
+		if (classLoader == null || !collectMethods(proxiedInterfaces, opaque, configMethods, proxiedMethods)) {
+			return new ProxyClass(null, null);
+		}
+		String className = proxiedInterfaces[0].getName() + CLASS_NAME_SUFFIX +
+				Integer.toHexString(classCounter.incrementAndGet());
+		if (className.startsWith("java.")) {
+			className = "$" + className;
+		}
+		try {
+			byte[] bytes = generateClass(className.replace('.', '/'), proxiedInterfaces, configMethods, proxiedMethods);
+			Class<?> proxyClass = new ProxyClassLoader(classLoader).defineProxyClass(className, bytes);
+			Constructor<?> constructor = proxyClass.getConstructor(AdvisedSupport.class, Object.class, Method[].class);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Generated proxy class [" + className + "] for interfaces " +
+						ClassUtils.classNamesToString(proxiedInterfaces));
+			}
+			return new ProxyClass(constructor, proxiedMethods.toArray(new Method[proxiedMethods.size()]));
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate proxy class for interfaces " +
+						ClassUtils.classNamesToString(proxiedInterfaces) + " - falling back to JDK dynamic proxy", ex);
+			}
+			return new ProxyClass(null, null);
+		}
+	}
+
+	/**
+	 * Collect the methods to implement, separating the methods on the Advised interface
+	 * (served by the configuration itself) from the proxied methods.
+	 * @return whether a proxy class can be generated for the given interfaces
+	 */
+	private static boolean collectMethods(Class[] proxiedInterfaces, boolean opaque,
+			List<Method> configMethods, List<Method> proxiedMethods) {
+
+		Map<String, Method> methodsBySignature = new LinkedHashMap<String, Method>();
+		for (Method method : AbstractGeneratedProxy.class.getDeclaredMethods()) {
+			if (!AopUtils.isEqualsMethod(method) && !AopUtils.isHashCodeMethod(method)) {
+				methodsBySignature.put(getSignature(method), method);
+			}
+		}
+		for (Class<?> proxiedInterface : proxiedInterfaces) {
+			if (!Modifier.isPublic(proxiedInterface.getModifiers()) ||
+					Serializable.class.isAssignableFrom(proxiedInterface)) {
+				return false;
+			}
+			for (Method method : proxiedInterface.getMethods()) {
+				String signature = getSignature(method);
+				Method existing = methodsBySignature.get(signature);
+				if (existing != null) {
+					if (existing.getDeclaringClass() == AbstractGeneratedProxy.class ||
+							existing.getReturnType() != method.getReturnType()) {
+						return false;
+					}
+					continue;
+				}
+				if (!isPublicType(method.getReturnType())) {
+					return false;
+				}
+				for (Class<?> parameterType : method.getParameterTypes()) {
+					if (!isPublicType(parameterType)) {
+						return false;
+					}
+				}
+				methodsBySignature.put(signature, method);
+				if (!opaque && method.getDeclaringClass().isAssignableFrom(Advised.class)) {
+					configMethods.add(method);
+				}
+				else {
+					proxiedMethods.add(method);
+				}
+			}
+		}
+		if (!methodsBySignature.containsKey("toString()")) {
+			proxiedMethods.add(ClassUtils.getMethod(Object.class, "toString"));
+		}
+		return true;
+	}
+
+	private static String getSignature(Method method) {
+		String descriptor = Type.getMethodDescriptor(method);
+		return method.getName() + descriptor.substring(0, descriptor.indexOf(')') + 1);
+	}
+
+	private static boolean isPublicType(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		return (type.isPrimitive() || Modifier.isPublic(type.getModifiers()));
+	}
+
+
+	private static byte[] generateClass(String internalName, Class[] proxiedInterfaces,
+			List<Method> configMethods, List<Method> proxiedMethods) {
+
+		String[] interfaceNames = new String[proxiedInterfaces.length];
+		for (int i = 0; i < proxiedInterfaces.length; i++) {
+			interfaceNames[i] = Type.getInternalName(proxiedInterfaces[i]);
+		}
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null,
+				SUPERCLASS, interfaceNames);
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPERCLASS, "<init>", CONSTRUCTOR_DESCRIPTOR);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		for (Method method : configMethods) {
+			mv = visitProxyMethod(cw, method);
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitFieldInsn(Opcodes.GETFIELD, SUPERCLASS, "advised", Type.getDescriptor(AdvisedSupport.class));
+			loadArguments(mv, method);
+			invokeMethod(mv, method);
+			mv.visitInsn(Type.getReturnType(method).getOpcode(Opcodes.IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		for (int i = 0; i < proxiedMethods.size(); i++) {
+			Method method = proxiedMethods.get(i);
+			Class<?> returnType = method.getReturnType();
+			mv = visitProxyMethod(cw, method);
+
+			// Direct call of the target if there is no advice for the method
+			Label advised = new Label();
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			mv.visitFieldInsn(Opcodes.GETFIELD, SUPERCLASS, "directCalls", "[Z");
+			pushInt(mv, i);
+			mv.visitInsn(Opcodes.BALOAD);
+			mv.visitJumpInsn(Opcodes.IFEQ, advised);
+			loadTarget(mv, method, 0);
+			loadArguments(mv, method);
+			invokeMethod(mv, method);
+			if (mayReturnProxy(method, proxiedInterfaces)) {
+				// Replace a returned target with the proxy
+				Label done = new Label();
+				mv.visitInsn(Opcodes.DUP);
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				mv.visitFieldInsn(Opcodes.GETFIELD, SUPERCLASS, "target", "Ljava/lang/Object;");
+				mv.visitJumpInsn(Opcodes.IF_ACMPNE, done);
+				mv.visitInsn(Opcodes.POP);
+				mv.visitVarInsn(Opcodes.ALOAD, 0);
+				mv.visitLabel(done);
+			}
+			mv.visitInsn(Type.getReturnType(method).getOpcode(Opcodes.IRETURN));
+
+			// Call through the interceptor chain otherwise
+			mv.visitLabel(advised);
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			pushInt(mv, i);
+			loadArgumentArray(mv, method);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPERCLASS, "invokeAdvised", INVOKE_ADVISED_DESCRIPTOR);
+			if (returnType == void.class) {
+				mv.visitInsn(Opcodes.POP);
+				mv.visitInsn(Opcodes.RETURN);
+			}
+			else {
+				unboxOrCast(mv, returnType);
+				mv.visitInsn(Type.getType(returnType).getOpcode(Opcodes.IRETURN));
+			}
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// Locals: 0 = this, 1 = method index, 2 = target, 3 = arguments
+		mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "invokeJoinpoint", INVOKE_JOINPOINT_DESCRIPTOR, null,
+				new String[] {"java/lang/Throwable"});
+		mv.visitCode();
+		Label[] labels = new Label[proxiedMethods.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		Label defaultLabel = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 1);
+		mv.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+		for (int i = 0; i < labels.length; i++) {
+			Method method = proxiedMethods.get(i);
+			mv.visitLabel(labels[i]);
+			loadTarget(mv, method, 2);
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int j = 0; j < parameterTypes.length; j++) {
+				mv.visitVarInsn(Opcodes.ALOAD, 3);
+				pushInt(mv, j);
+				mv.visitInsn(Opcodes.AALOAD);
+				unboxOrCast(mv, parameterTypes[j]);
+			}
+			invokeMethod(mv, method);
+			box(mv, method.getReturnType());
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+		mv.visitLabel(defaultLabel);
+		mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitLdcInsn("Unknown method index");
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V");
+		mv.visitInsn(Opcodes.ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static MethodVisitor visitProxyMethod(ClassWriter cw, Method method) {
+		Class<?>[] exceptionTypes = method.getExceptionTypes();
+		String[] exceptions = new String[exceptionTypes.length];
+		for (int i = 0; i < exceptionTypes.length; i++) {
+			exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+		}
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, method.getName(),
+				Type.getMethodDescriptor(method), null, exceptions);
+		mv.visitCode();
+		return mv;
+	}
+
+	/**
+	 * Load the target from the given local variable (or from the target field
+	 * if the given variable is {@code this}), cast to the method's declaring type.
+	 */
+	private static void loadTarget(MethodVisitor mv, Method method, int var) {
+		mv.visitVarInsn(Opcodes.ALOAD, var);
+		if (var == 0) {
+			mv.visitFieldInsn(Opcodes.GETFIELD, SUPERCLASS, "target", "Ljava/lang/Object;");
+		}
+		if (method.getDeclaringClass() != Object.class) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(method.getDeclaringClass()));
+		}
+	}
+
+	private static void loadArguments(MethodVisitor mv, Method method) {
+		int var = 1;
+		for (Type argumentType : Type.getArgumentTypes(method)) {
+			mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), var);
+			var += argumentType.getSize();
+		}
+	}
+
+	private static void loadArgumentArray(MethodVisitor mv, Method method) {
+		Type[] argumentTypes = Type.getArgumentTypes(method);
+		if (argumentTypes.length == 0) {
+			// Like JDK dynamic proxies, pass null for no-arg methods
+			mv.visitInsn(Opcodes.ACONST_NULL);
+			return;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		pushInt(mv, argumentTypes.length);
+		mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Object");
+		int var = 1;
+		for (int i = 0; i < argumentTypes.length; i++) {
+			mv.visitInsn(Opcodes.DUP);
+			pushInt(mv, i);
+			mv.visitVarInsn(argumentTypes[i].getOpcode(Opcodes.ILOAD), var);
+			box(mv, parameterTypes[i]);
+			mv.visitInsn(Opcodes.AASTORE);
+			var += argumentTypes[i].getSize();
+		}
+	}
+
+	private static void invokeMethod(MethodVisitor mv, Method method) {
+		Class<?> owner = method.getDeclaringClass();
+		mv.visitMethodInsn((owner.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL),
+				Type.getInternalName(owner), method.getName(), Type.getMethodDescriptor(method));
+	}
+
+	/**
+	 * Determine whether the given method may return the target where the proxy
+	 * should be returned instead, as far as can be decided from its signature.
+	 */
+	private static boolean mayReturnProxy(Method method, Class[] proxiedInterfaces) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType.isPrimitive() || RawTargetAccess.class.isAssignableFrom(method.getDeclaringClass())) {
+			return false;
+		}
+		if (returnType.isAssignableFrom(AbstractGeneratedProxy.class)) {
+			return true;
+		}
+		for (Class<?> proxiedInterface : proxiedInterfaces) {
+			if (returnType.isAssignableFrom(proxiedInterface)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value <= 5) {
+			mv.visitInsn(Opcodes.ICONST_0 + value);
+		}
+		else if (value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.BIPUSH, value);
+		}
+		else {
+			mv.visitIntInsn(Opcodes.SIPUSH, value);
+		}
+	}
+
+	private static void unboxOrCast(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type));
+		}
+		else if (!Object.class.equals(type)) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (void.class.equals(type)) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		}
+		else if (type.isPrimitive()) {
+			Class<?> wrapper = ClassUtils.resolvePrimitiveIfNecessary(type);
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+					"(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapper));
+		}
+	}
+
+
+	/**
+	 * Equality means the same proxy configuration, as far as the
+	 * proxy class is concerned.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof GeneratedAopProxy &&
+				AopProxyUtils.equalsInProxy(this.advised, ((GeneratedAopProxy) other).advised)));
+	}
+
+	@Override
+	public int hashCode() {
+		return GeneratedAopProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
+	}
+
+
+	/**
+	 * Cache key for generated proxy classes.
+	 */
+	private static final class ProxyClassKey {
+
+		private final ClassLoader classLoader;
+
+		private final List<Class> proxiedInterfaces;
+
+		private final boolean opaque;
+
+		public ProxyClassKey(ClassLoader classLoader, Class[] proxiedInterfaces, boolean opaque) {
+			this.classLoader = classLoader;
+			this.proxiedInterfaces = Arrays.asList(proxiedInterfaces);
+			this.opaque = opaque;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ProxyClassKey)) {
+				return false;
+			}
+			ProxyClassKey otherKey = (ProxyClassKey) other;
+			return (this.classLoader == otherKey.classLoader &&
+					this.proxiedInterfaces.equals(otherKey.proxiedInterfaces) && this.opaque == otherKey.opaque);
+		}
+
+		@Override
+		public int hashCode() {
+			return ObjectUtils.nullSafeHashCode(this.classLoader) * 29 + this.proxiedInterfaces.hashCode();
+		}
+	}
+
+
+	/**
+	 * A generated proxy class, along with the proxied methods in the order of their index.
+	 * Holds a {@code null} constructor if no proxy class could be generated.
+	 */
+	private static final class ProxyClass {
+
+		public final Constructor<?> constructor;
+
+		public final Method[] methods;
+
+		public ProxyClass(Constructor<?> constructor, Method[] methods) {
+			this.constructor = constructor;
+			this.methods = methods;
+		}
+	}
+
+
+	/**
+	 * ClassLoader for a generated proxy class, exposing our proxy base class
+	 * even if the given ClassLoader cannot see it.
+	 */
+	private static class ProxyClassLoader extends ClassLoader {
+
+		public ProxyClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (AbstractGeneratedProxy.class.getName().equals(name)) {
+				return AbstractGeneratedProxy.class;
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		public Class<?> defineProxyClass(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
@@ -20,7 +20,9 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
@@ -90,6 +92,17 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Interceptor chains linked on proxy creation, keyed by proxied method.
+	 * Only available for a frozen configuration with a static target.
+	 */
+	private transient Map<Method, List<Object>> linkedChains;
+
+	/**
+	 * The TargetSource that the linked chains have been determined for.
+	 */
+	private transient TargetSource linkedTargetSource;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -117,6 +130,7 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		//获取被代理的接口
 		Class[] proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(this.advised);
 		findDefinedEqualsAndHashCodeMethods(proxiedInterfaces);
+		linkInterceptorChains(proxiedInterfaces);
 		//创建代理对象
 		return Proxy.newProxyInstance(classLoader, proxiedInterfaces, this);
 	}
@@ -144,6 +158,55 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	}
 
 
+	/**
+	 * Determines the interceptor chain for every method on the supplied interfaces
+	 * upfront if the configuration is frozen and the target is static, sparing
+	 * invocations the lookup in the method cache of the {@link AdvisedSupport}.
+	 * @param proxiedInterfaces the interfaces to introspect
+	 * @see #getInterceptorChain
+	 */
+	private void linkInterceptorChains(Class[] proxiedInterfaces) {
+		TargetSource targetSource = this.advised.targetSource;
+		if (!this.advised.isFrozen() || !targetSource.isStatic()) {
+			return;
+		}
+		Class targetClass;
+		try {
+			Object target = targetSource.getTarget();
+			targetClass = (target != null ? target.getClass() : null);
+		}
+		catch (Exception ex) {
+			throw new AopConfigException("Unable to obtain target from static TargetSource [" + targetSource + "]", ex);
+		}
+		Map<Method, List<Object>> chains = new HashMap<Method, List<Object>>();
+		for (Class proxiedInterface : proxiedInterfaces) {
+			for (Method method : proxiedInterface.getMethods()) {
+				chains.put(method, this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass));
+			}
+		}
+		this.linkedChains = chains;
+		this.linkedTargetSource = targetSource;
+	}
+
+	/**
+	 * Return the interceptor chain for the given method, preferring the chain
+	 * linked on proxy creation as long as the configuration remains frozen.
+	 * @param method the proxied method
+	 * @param targetSource the TargetSource the current target has been obtained from
+	 * @param targetClass the class of the current target
+	 * @return the List of MethodInterceptors and InterceptorAndDynamicMethodMatchers
+	 */
+	private List<Object> getInterceptorChain(Method method, TargetSource targetSource, Class targetClass) {
+		if (this.linkedChains != null && targetSource == this.linkedTargetSource && this.advised.isFrozen()) {
+			List<Object> chain = this.linkedChains.get(method);
+			if (chain != null) {
+				return chain;
+			}
+		}
+		return this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+	}
+
+
 	/**
 	 * Implementation of {@code InvocationHandler.invoke}.
 	 * <p>Callers will see exactly the exception thrown by the target,
@@ -191,7 +254,7 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			}
 			//获取应用此方法上的Interceptor列表
 			// Get the interception chain for this method.
-			List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			List<Object> chain = getInterceptorChain(method, targetSource, targetClass);
 
 			// Check whether we have any advice. If we don't, we can fallback on direct
 			// reflective invocation of the target, and avoid creating a MethodInvocation.
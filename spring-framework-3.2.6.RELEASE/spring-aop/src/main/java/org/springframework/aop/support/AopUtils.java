@@ -26,6 +26,7 @@ import java.util.Set;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.AopInvocationException;
+import org.springframework.aop.GeneratedProxy;
 import org.springframework.aop.IntroductionAdvisor;
 import org.springframework.aop.IntroductionAwareMethodMatcher;
 import org.springframework.aop.MethodMatcher;
@@ -55,17 +56,20 @@ public abstract class AopUtils {
 
 	/**
 	 * Check whether the given object is a JDK dynamic proxy or a CGLIB proxy.
+	 * <p>Also returns {@code true} for generated interface-based proxies.
 	 * @param object the object to check
 	 * @see #isJdkDynamicProxy
 	 * @see #isCglibProxy
 	 */
 	public static boolean isAopProxy(Object object) {
-		return (object instanceof SpringProxy &&
-				(Proxy.isProxyClass(object.getClass()) || ClassUtils.isCglibProxyClass(object.getClass())));
+		return (object instanceof SpringProxy && (object instanceof GeneratedProxy ||
+				Proxy.isProxyClass(object.getClass()) || ClassUtils.isCglibProxyClass(object.getClass())));
 	}
 
 	/**
 	 * Check whether the given object is a JDK dynamic proxy.
+	 * <p>Does not apply to a {@link GeneratedProxy}: check {@link #isGeneratedProxy}
+	 * as well where any interface-based proxy is acceptable.
 	 * @param object the object to check
 	 * @see java.lang.reflect.Proxy#isProxyClass
 	 */
@@ -73,6 +77,19 @@ public abstract class AopUtils {
 		return (object instanceof SpringProxy && Proxy.isProxyClass(object.getClass()));
 	}
 
+	/**
+	 * Check whether the given object is an interface-based proxy with a
+	 * generated class rather than a {@link java.lang.reflect.Proxy} class.
+	 * <p>Such a proxy implements the proxied interfaces only, just like a
+	 * JDK dynamic proxy, but is not a {@link java.lang.reflect.Proxy} instance.
+	 * @param object the object to check
+	 * @since 3.2.7
+	 * @see GeneratedProxy
+	 */
+	public static boolean isGeneratedProxy(Object object) {
+		return (object instanceof GeneratedProxy);
+	}
+
 	/**
 	 * Check whether the given object is a CGLIB proxy. Goes beyond the implementation
 	 * in {@link ClassUtils#isCglibProxy(Object)} by checking also to see if the given
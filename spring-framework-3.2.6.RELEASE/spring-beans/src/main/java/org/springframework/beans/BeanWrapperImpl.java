@@ -736,7 +736,10 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 				}
 			}
 			else {
-				value = readMethod.invoke(object, (Object[]) null);
+				PropertyAccessorGenerator.MethodInvoker invoker =
+						getCachedIntrospectionResults().getMethodInvoker(readMethod);
+				value = (invoker != null ? invoker.invoke(this.object, null) :
+						readMethod.invoke(this.object, (Object[]) null));
 			}
 
 			if (tokens.keys != null) {
@@ -1170,7 +1173,14 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 					}
 				}
 				else {
-					writeMethod.invoke(this.object, value);
+					PropertyAccessorGenerator.MethodInvoker invoker =
+							getCachedIntrospectionResults().getMethodInvoker(writeMethod);
+					if (invoker != null && invoker.isApplicable(value)) {
+						invoker.invoke(this.object, value);
+					}
+					else {
+						writeMethod.invoke(this.object, value);
+					}
 				}
 			}
 			catch (TypeMismatchException ex) {
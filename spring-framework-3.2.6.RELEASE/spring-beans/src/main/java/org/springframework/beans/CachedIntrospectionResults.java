@@ -20,21 +20,25 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
-import java.util.HashSet;
+import java.lang.reflect.Method;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -59,8 +63,23 @@ import org.springframework.util.StringUtils;
  */
 public class CachedIntrospectionResults {
 
+	/**
+	 * System property that specifies the number of property accesses on a bean
+	 * class after which {@link BeanWrapperImpl} switches from reflective method
+	 * invocation to a bytecode-generated accessor for that class.
+	 * <p>The default is 200. A value of 0 generates accessors on first access;
+	 * a negative value disables accessor generation altogether.
+	 * @since 3.2.7
+	 */
+	public static final String ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME = "spring.beans.accessorGenerationThreshold";
+
+	private static final int DEFAULT_ACCESSOR_GENERATION_THRESHOLD = 200;
+
+
 	private static final Log logger = LogFactory.getLog(CachedIntrospectionResults.class);
 
+	private static final int accessorGenerationThreshold = determineAccessorGenerationThreshold();
+
 	/** Stores the BeanInfoFactory instances */
 	private static List<BeanInfoFactory> beanInfoFactories =
 			SpringFactoriesLoader.loadFactories(BeanInfoFactory.class, CachedIntrospectionResults.class.getClassLoader());
@@ -68,15 +87,34 @@ public class CachedIntrospectionResults {
 	/**
 	 * Set of ClassLoaders that this CachedIntrospectionResults class will always
 	 * accept classes from, even if the classes do not qualify as cache-safe.
+	 * Copy-on-write since it is read on every cache miss but hardly ever modified.
 	 */
-	static final Set<ClassLoader> acceptedClassLoaders = new HashSet<ClassLoader>();
+	static final Set<ClassLoader> acceptedClassLoaders = new CopyOnWriteArraySet<ClassLoader>();
+
+	/** Number of cache entries that have been garbage collected or explicitly cleared */
+	private static final AtomicLong evictionCount = new AtomicLong();
 
 	/**
-	 * Map keyed by class containing CachedIntrospectionResults.
-	 * Needs to be a WeakHashMap with WeakReferences as values to allow
+	 * Map keyed by class containing CachedIntrospectionResults, strongly held.
+	 * This variant is being used for cache-safe bean classes.
+	 */
+	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> strongClassCache =
+			new ConcurrentHashMap<Class<?>, CachedIntrospectionResults>(64);
+
+	/**
+	 * Map keyed by class containing CachedIntrospectionResults, softly held.
+	 * This variant is being used for non-cache-safe bean classes, allowing
 	 * for proper garbage collection in case of multiple class loaders.
 	 */
-	static final Map<Class<?>, Object> classCache = new WeakHashMap<Class<?>, Object>();
+	static final ConcurrentMap<Class<?>, CachedIntrospectionResults> softClassCache =
+			new EvictionCountingReferenceHashMap<Class<?>, CachedIntrospectionResults>(64);
+
+	/**
+	 * Locks for the classes currently being introspected, making sure that
+	 * concurrent callers wait for a single introspection per class.
+	 */
+	private static final ConcurrentMap<Class<?>, Object> introspectionLocks =
+			new ConcurrentHashMap<Class<?>, Object>(16);
 
 
 	/**
@@ -93,9 +131,7 @@ public class CachedIntrospectionResults {
 	 */
 	public static void acceptClassLoader(ClassLoader classLoader) {
 		if (classLoader != null) {
-			synchronized (acceptedClassLoaders) {
-				acceptedClassLoaders.add(classLoader);
-			}
+			acceptedClassLoaders.add(classLoader);
 		}
 	}
 
@@ -106,63 +142,88 @@ public class CachedIntrospectionResults {
 	 * @param classLoader the ClassLoader to clear the cache for
 	 */
 	public static void clearClassLoader(ClassLoader classLoader) {
-		synchronized (classCache) {
-			for (Iterator<Class<?>> it = classCache.keySet().iterator(); it.hasNext();) {
-				Class<?> beanClass = it.next();
-				if (isUnderneathClassLoader(beanClass.getClassLoader(), classLoader)) {
-					it.remove();
-				}
+		clearClassLoader(strongClassCache, classLoader);
+		clearClassLoader(softClassCache, classLoader);
+		for (ClassLoader registeredLoader : acceptedClassLoaders) {
+			if (isUnderneathClassLoader(registeredLoader, classLoader)) {
+				acceptedClassLoaders.remove(registeredLoader);
 			}
 		}
-		synchronized (acceptedClassLoaders) {
-			for (Iterator<ClassLoader> it = acceptedClassLoaders.iterator(); it.hasNext();) {
-				ClassLoader registeredLoader = it.next();
-				if (isUnderneathClassLoader(registeredLoader, classLoader)) {
-					it.remove();
-				}
+	}
+
+	private static void clearClassLoader(Map<Class<?>, CachedIntrospectionResults> cache, ClassLoader classLoader) {
+		for (Iterator<Class<?>> it = cache.keySet().iterator(); it.hasNext();) {
+			Class<?> beanClass = it.next();
+			if (isUnderneathClassLoader(beanClass.getClassLoader(), classLoader)) {
+				it.remove();
+				evictionCount.incrementAndGet();
 			}
 		}
 	}
 
+	/**
+	 * Return the number of bean classes currently held in the introspection cache.
+	 * @since 3.2.7
+	 */
+	public static int getClassCacheSize() {
+		return strongClassCache.size() + softClassCache.size();
+	}
+
+	/**
+	 * Return the number of introspection results that have been evicted from the
+	 * cache so far, either through garbage collection of softly held results or
+	 * through {@link #clearClassLoader}.
+	 * @since 3.2.7
+	 */
+	public static long getClassCacheEvictionCount() {
+		return evictionCount.get();
+	}
+
 	/**
 	 * Create CachedIntrospectionResults for the given bean class.
+	 * <p>Cache hits do not acquire any lock. On a cache miss, concurrent callers
+	 * for the same class wait for a single introspection to complete.
 	 * @param beanClass the bean class to analyze
 	 * @return the corresponding CachedIntrospectionResults
 	 * @throws BeansException in case of introspection failure
 	 */
-	@SuppressWarnings("unchecked")
 	static CachedIntrospectionResults forClass(Class<?> beanClass) throws BeansException {
-		CachedIntrospectionResults results;
-		Object value;
-		synchronized (classCache) {
-			value = classCache.get(beanClass);
-		}
-		if (value instanceof Reference) {
-			Reference<CachedIntrospectionResults> ref = (Reference<CachedIntrospectionResults>) value;
-			results = ref.get();
+		CachedIntrospectionResults results = getCachedResults(beanClass);
+		if (results != null) {
+			return results;
 		}
-		else {
-			results = (CachedIntrospectionResults) value;
+		Object lock = new Object();
+		Object existingLock = introspectionLocks.putIfAbsent(beanClass, lock);
+		if (existingLock != null) {
+			lock = existingLock;
 		}
-		if (results == null) {
-			if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
-					isClassLoaderAccepted(beanClass.getClassLoader())) {
-				results = new CachedIntrospectionResults(beanClass);
-				synchronized (classCache) {
-					classCache.put(beanClass, results);
-				}
-			}
-			else {
-				if (logger.isDebugEnabled()) {
-					logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
-				}
-				results = new CachedIntrospectionResults(beanClass);
-				synchronized (classCache) {
-					classCache.put(beanClass, new WeakReference<CachedIntrospectionResults>(results));
+		try {
+			synchronized (lock) {
+				results = getCachedResults(beanClass);
+				if (results == null) {
+					results = new CachedIntrospectionResults(beanClass);
+					if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
+							isClassLoaderAccepted(beanClass.getClassLoader())) {
+						strongClassCache.put(beanClass, results);
+					}
+					else {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
+						}
+						softClassCache.put(beanClass, results);
+					}
 				}
+				return results;
 			}
 		}
-		return results;
+		finally {
+			introspectionLocks.remove(beanClass, lock);
+		}
+	}
+
+	private static CachedIntrospectionResults getCachedResults(Class<?> beanClass) {
+		CachedIntrospectionResults results = strongClassCache.get(beanClass);
+		return (results != null ? results : softClassCache.get(beanClass));
 	}
 
 	/**
@@ -173,13 +234,7 @@ public class CachedIntrospectionResults {
 	 * @see #acceptClassLoader
 	 */
 	private static boolean isClassLoaderAccepted(ClassLoader classLoader) {
-		// Iterate over array copy in order to avoid synchronization for the entire
-		// ClassLoader check (avoiding a synchronized acceptedClassLoaders Iterator).
-		ClassLoader[] acceptedLoaderArray;
-		synchronized (acceptedClassLoaders) {
-			acceptedLoaderArray = acceptedClassLoaders.toArray(new ClassLoader[acceptedClassLoaders.size()]);
-		}
-		for (ClassLoader registeredLoader : acceptedLoaderArray) {
+		for (ClassLoader registeredLoader : acceptedClassLoaders) {
 			if (isUnderneathClassLoader(classLoader, registeredLoader)) {
 				return true;
 			}
@@ -210,6 +265,22 @@ public class CachedIntrospectionResults {
 		return false;
 	}
 
+	private static int determineAccessorGenerationThreshold() {
+		try {
+			String value = System.getProperty(ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME);
+			return (value != null ? Integer.parseInt(value.trim()) : DEFAULT_ACCESSOR_GENERATION_THRESHOLD);
+		}
+		catch (SecurityException ex) {
+			// Not allowed to access system properties - assume the default
+			return DEFAULT_ACCESSOR_GENERATION_THRESHOLD;
+		}
+		catch (NumberFormatException ex) {
+			logger.warn("Invalid value for system property '" + ACCESSOR_GENERATION_THRESHOLD_PROPERTY_NAME +
+					"' - using default threshold of " + DEFAULT_ACCESSOR_GENERATION_THRESHOLD);
+			return DEFAULT_ACCESSOR_GENERATION_THRESHOLD;
+		}
+	}
+
 
 	/** The BeanInfo object for the introspected bean class */
 	private final BeanInfo beanInfo;
@@ -217,6 +288,12 @@ public class CachedIntrospectionResults {
 	/** PropertyDescriptor objects keyed by property name String */
 	private final Map<String, PropertyDescriptor> propertyDescriptorCache;
 
+	/** Number of method invoker lookups before the accessor has been generated */
+	private final AtomicInteger accessCount = new AtomicInteger();
+
+	/** Generated method invokers keyed by read/write method, initialized after warm-up */
+	private volatile Map<Method, PropertyAccessorGenerator.MethodInvoker> methodInvokers;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -313,6 +390,39 @@ public class CachedIntrospectionResults {
 		return pds;
 	}
 
+	/**
+	 * Return a generated invoker for the given read or write method, once
+	 * the bean class has been accessed often enough to warrant generating one.
+	 * @param method the property read or write method
+	 * @return the invoker, or {@code null} if the method should be invoked via reflection
+	 */
+	PropertyAccessorGenerator.MethodInvoker getMethodInvoker(Method method) {
+		Map<Method, PropertyAccessorGenerator.MethodInvoker> invokers = this.methodInvokers;
+		if (invokers == null) {
+			if (accessorGenerationThreshold < 0 || this.accessCount.incrementAndGet() <= accessorGenerationThreshold) {
+				return null;
+			}
+			invokers = initMethodInvokers();
+		}
+		return invokers.get(method);
+	}
+
+	private synchronized Map<Method, PropertyAccessorGenerator.MethodInvoker> initMethodInvokers() {
+		if (this.methodInvokers == null) {
+			Set<Method> methods = new LinkedHashSet<Method>();
+			for (PropertyDescriptor pd : this.propertyDescriptorCache.values()) {
+				if (pd.getReadMethod() != null) {
+					methods.add(pd.getReadMethod());
+				}
+				if (pd.getWriteMethod() != null) {
+					methods.add(pd.getWriteMethod());
+				}
+			}
+			this.methodInvokers = PropertyAccessorGenerator.generateInvokers(getBeanClass(), methods);
+		}
+		return this.methodInvokers;
+	}
+
 	private PropertyDescriptor buildGenericTypeAwarePropertyDescriptor(Class<?> beanClass, PropertyDescriptor pd) {
 		try {
 			return new GenericTypeAwarePropertyDescriptor(beanClass, pd.getName(), pd.getReadMethod(),
@@ -323,4 +433,31 @@ public class CachedIntrospectionResults {
 		}
 	}
 
+
+
+	/**
+	 * ConcurrentReferenceHashMap that counts the entries purged after their
+	 * references have been cleared by the garbage collector.
+	 */
+	private static class EvictionCountingReferenceHashMap<K, V> extends ConcurrentReferenceHashMap<K, V> {
+
+		public EvictionCountingReferenceHashMap(int initialCapacity) {
+			super(initialCapacity);
+		}
+
+		@Override
+		protected ReferenceManager createReferenceManager() {
+			return new ReferenceManager() {
+				@Override
+				public Reference<K, V> pollForPurge() {
+					Reference<K, V> reference = super.pollForPurge();
+					if (reference != null) {
+						evictionCount.incrementAndGet();
+					}
+					return reference;
+				}
+			};
+		}
+	}
+
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+/**
+ * Interface implemented by the property accessor classes that {@link BeanWrapperImpl}
+ * generates at runtime for frequently accessed bean classes.
+ *
+ * <p>Only public since the generated classes live in a separate ClassLoader.
+ * Not intended to be implemented or called by application code.
+ *
+ * @since 3.2.7
+ * @see PropertyAccessorGenerator
+ */
+public interface GeneratedPropertyAccessor {
+
+	/**
+	 * Invoke the read or write method with the given index on the target bean.
+	 * @param target the bean instance to invoke the method on
+	 * @param methodIndex the index of the method, as assigned at generation time
+	 * @param arg the argument for a write method (ignored for read methods)
+	 * @return the value returned by the method (boxed if primitive),
+	 * or {@code null} for a {@code void} method
+	 */
+	Object invoke(Object target, int methodIndex, Object arg);
+
+}
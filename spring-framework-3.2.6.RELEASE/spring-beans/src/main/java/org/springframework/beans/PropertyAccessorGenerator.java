@@ -0,0 +1,279 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Internal helper that generates a {@link GeneratedPropertyAccessor} for a bean
+ * class, invoking its read and write methods through direct {@code invokevirtual}
+ * calls instead of {@link Method#invoke reflection}.
+ *
+ * <p>The generated {@code invoke} method switches on the method index and is
+ * defined in a child of the bean class's ClassLoader, so that it does not outlive
+ * the bean class. Only public methods on public bean classes with public parameter
+ * types are supported; all other methods are left to reflective invocation.
+ *
+ * @since 3.2.7
+ * @see CachedIntrospectionResults#getMethodInvoker
+ */
+abstract class PropertyAccessorGenerator {
+
+	private static final String CLASS_NAME_SUFFIX = "$$PropertyAccessorBySpring$$";
+
+	private static final String ACCESSOR_INTERFACE = Type.getInternalName(GeneratedPropertyAccessor.class);
+
+	private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;ILjava/lang/Object;)Ljava/lang/Object;";
+
+	private static final Log logger = LogFactory.getLog(PropertyAccessorGenerator.class);
+
+	private static final AtomicInteger classCounter = new AtomicInteger();
+
+
+	/**
+	 * Generate invokers for the given read and write methods of the given bean class.
+	 * @param beanClass the bean class to generate an accessor for
+	 * @param methods the property read and write methods to support
+	 * @return a Map from each supported method to its invoker (never {@code null};
+	 * empty if no accessor could be generated for the given class)
+	 */
+	static Map<Method, MethodInvoker> generateInvokers(Class<?> beanClass, Collection<Method> methods) {
+		ClassLoader classLoader = beanClass.getClassLoader();
+		if (classLoader == null || !Modifier.isPublic(beanClass.getModifiers())) {
+			return Collections.emptyMap();
+		}
+		List<Method> supportedMethods = new ArrayList<Method>();
+		for (Method method : methods) {
+			if (isSupported(beanClass, method) && !supportedMethods.contains(method)) {
+				supportedMethods.add(method);
+			}
+		}
+		if (supportedMethods.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		String className = beanClass.getName() + CLASS_NAME_SUFFIX + Integer.toHexString(classCounter.incrementAndGet());
+		try {
+			byte[] bytes = generateClass(className.replace('.', '/'), beanClass, supportedMethods);
+			Class<?> accessorClass = new AccessorClassLoader(classLoader).defineAccessorClass(className, bytes);
+			GeneratedPropertyAccessor accessor = (GeneratedPropertyAccessor) accessorClass.newInstance();
+			Map<Method, MethodInvoker> invokers = new HashMap<Method, MethodInvoker>(supportedMethods.size());
+			for (int i = 0; i < supportedMethods.size(); i++) {
+				Method method = supportedMethods.get(i);
+				invokers.put(method, new MethodInvoker(accessor, i, method));
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Generated property accessor for " + invokers.size() + " methods of class [" +
+						beanClass.getName() + "]");
+			}
+			return invokers;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate property accessor for class [" + beanClass.getName() +
+						"] - falling back to reflection", ex);
+			}
+			return Collections.emptyMap();
+		}
+	}
+
+	private static boolean isSupported(Class<?> beanClass, Method method) {
+		if (method == null || !Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) ||
+				!method.getDeclaringClass().isAssignableFrom(beanClass)) {
+			return false;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length > 1) {
+			return false;
+		}
+		if (parameterTypes.length == 1) {
+			Class<?> parameterType = parameterTypes[0];
+			while (parameterType.isArray()) {
+				parameterType = parameterType.getComponentType();
+			}
+			// The generated class needs to be able to cast the argument
+			return Modifier.isPublic(parameterType.getModifiers());
+		}
+		return true;
+	}
+
+	private static byte[] generateClass(String internalName, Class<?> beanClass, List<Method> methods) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null,
+				"java/lang/Object", new String[] {ACCESSOR_INTERFACE});
+
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// Locals: 0 = this, 1 = target, 2 = method index, 3 = argument
+		mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, null);
+		mv.visitCode();
+		Label[] labels = new Label[methods.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		Label defaultLabel = new Label();
+		mv.visitVarInsn(Opcodes.ILOAD, 2);
+		mv.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+
+		String owner = Type.getInternalName(beanClass);
+		boolean ownerIsInterface = beanClass.isInterface();
+		for (int i = 0; i < labels.length; i++) {
+			Method method = methods.get(i);
+			mv.visitLabel(labels[i]);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			if (parameterTypes.length == 1) {
+				mv.visitVarInsn(Opcodes.ALOAD, 3);
+				unbox(mv, parameterTypes[0]);
+			}
+			mv.visitMethodInsn((ownerIsInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL),
+					owner, method.getName(), Type.getMethodDescriptor(method));
+			box(mv, method.getReturnType());
+			mv.visitInsn(Opcodes.ARETURN);
+		}
+
+		mv.visitLabel(defaultLabel);
+		mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitLdcInsn("Unknown method index");
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V");
+		mv.visitInsn(Opcodes.ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			String wrapper = Type.getInternalName(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type));
+		}
+		else if (!Object.class.equals(type)) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+		}
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (void.class.equals(type)) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+		}
+		else if (type.isPrimitive()) {
+			Class<?> wrapper = ClassUtils.resolvePrimitiveIfNecessary(type);
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+					"(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapper));
+		}
+	}
+
+
+	/**
+	 * Invoker for a single read or write method, delegating to the generated accessor.
+	 * Mirrors the exception semantics of {@link Method#invoke}.
+	 */
+	static final class MethodInvoker {
+
+		private final GeneratedPropertyAccessor accessor;
+
+		private final int methodIndex;
+
+		private final Class<?> parameterType;
+
+		private MethodInvoker(GeneratedPropertyAccessor accessor, int methodIndex, Method method) {
+			this.accessor = accessor;
+			this.methodIndex = methodIndex;
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			this.parameterType = (parameterTypes.length == 1 ? parameterTypes[0] : null);
+		}
+
+		/**
+		 * Determine whether the given argument can be passed to the write method
+		 * without conversion. Reflection should be used for any other argument,
+		 * in order to retain its argument checks and widening conversions.
+		 */
+		public boolean isApplicable(Object arg) {
+			return (this.parameterType == null || ClassUtils.isAssignableValue(this.parameterType, arg));
+		}
+
+		/**
+		 * Invoke the method on the given target.
+		 * @param target the bean instance
+		 * @param arg the argument for a write method (ignored for read methods)
+		 * @return the return value of the method
+		 * @throws InvocationTargetException if the method threw an exception
+		 */
+		public Object invoke(Object target, Object arg) throws InvocationTargetException {
+			try {
+				return this.accessor.invoke(target, this.methodIndex, arg);
+			}
+			catch (Throwable ex) {
+				throw new InvocationTargetException(ex);
+			}
+		}
+	}
+
+
+	/**
+	 * ClassLoader for a generated accessor class, exposing our accessor interface
+	 * even if the bean class's ClassLoader cannot see it.
+	 */
+	private static class AccessorClassLoader extends ClassLoader {
+
+		public AccessorClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (GeneratedPropertyAccessor.class.getName().equals(name)) {
+				return GeneratedPropertyAccessor.class;
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		public Class<?> defineAccessorClass(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of bean definition names by the types that their beans may match,
+ * allowing {@link DefaultListableBeanFactory} to narrow down the bean
+ * definitions to check for a by-type lookup instead of checking every
+ * single bean definition.
+ *
+ * <p>Each bean definition gets indexed under all superclasses and interfaces
+ * of its determined type. Bean definitions whose type cannot be reliably
+ * determined upfront (e.g. FactoryBeans) are candidates for any type, as are
+ * bean definitions that have not been (re-)indexed yet.
+ *
+ * <p>Entries get indexed lazily by the bean factory, on the next lookup after
+ * registration or invalidation. An entry computed concurrently with an
+ * invalidation of the same bean name gets discarded.
+ *
+ * <p>Lookups do not lock. Modifications are serialized, and performed in an
+ * order that lets a concurrent lookup see a bean name either as indexed or
+ * as pending, but never as neither.
+ *
+ * @since 3.2.7
+ * @see DefaultListableBeanFactory#getBeanNamesForType(Class, boolean, boolean)
+ */
+final class BeanTypeIndex {
+
+	/** Marker for bean definitions that may match any type */
+	static final Set<Class<?>> ANY_TYPE = Collections.unmodifiableSet(new HashSet<Class<?>>());
+
+
+	/** Map from type to the names of the bean definitions indexed under it */
+	private final Map<Class<?>, Map<String, Boolean>> beanNamesByType =
+			new ConcurrentHashMap<Class<?>, Map<String, Boolean>>(256);
+
+	/** Map from bean name to the types that the bean definition is indexed under */
+	private final Map<String, Set<Class<?>>> typesByBeanName = new ConcurrentHashMap<String, Set<Class<?>>>(256);
+
+	/** Names of bean definitions that may match any type */
+	private final Map<String, Boolean> anyTypeBeanNames = new ConcurrentHashMap<String, Boolean>(16);
+
+	/** Names of bean definitions to (re-)index: bean name --> invalidation stamp */
+	private final Map<String, Long> pendingBeanNames = new ConcurrentHashMap<String, Long>(256);
+
+	/** Map from bean name to registration sequence, for ordering lookup results */
+	private final Map<String, Long> registrationOrder = new ConcurrentHashMap<String, Long>(256);
+
+	/** Comparator for sorting bean names in registration order */
+	private final Comparator<String> registrationOrderComparator = new Comparator<String>() {
+		public int compare(String name1, String name2) {
+			Long order1 = registrationOrder.get(name1);
+			Long order2 = registrationOrder.get(name2);
+			long value1 = (order1 != null ? order1 : Long.MAX_VALUE);
+			long value2 = (order2 != null ? order2 : Long.MAX_VALUE);
+			return (value1 < value2 ? -1 : (value1 == value2 ? 0 : 1));
+		}
+	};
+
+	/** Serializes all modifications of the index */
+	private final Object modificationMonitor = new Object();
+
+	private long registrationCounter = 0;
+
+	private long invalidationCounter = 0;
+
+
+	/**
+	 * Register the given bean definition name, to be indexed on the next lookup.
+	 * Keeps the original registration order in case of re-registration.
+	 * @param beanName the name of the bean definition
+	 */
+	public void register(String beanName) {
+		synchronized (this.modificationMonitor) {
+			if (!this.registrationOrder.containsKey(beanName)) {
+				this.registrationOrder.put(beanName, this.registrationCounter++);
+			}
+			invalidate(beanName);
+		}
+	}
+
+	/**
+	 * Remove the given bean definition name from the index.
+	 * @param beanName the name of the bean definition
+	 */
+	public void remove(String beanName) {
+		synchronized (this.modificationMonitor) {
+			unindex(beanName);
+			this.pendingBeanNames.remove(beanName);
+			this.registrationOrder.remove(beanName);
+		}
+	}
+
+	/**
+	 * Mark the given bean definition name for re-indexing on the next lookup,
+	 * e.g. after its singleton instance has been registered. Ignores names that
+	 * have not been registered as bean definitions.
+	 * @param beanName the name of the bean definition
+	 */
+	public void invalidate(String beanName) {
+		synchronized (this.modificationMonitor) {
+			if (this.registrationOrder.containsKey(beanName)) {
+				// Mark as pending before unindexing, for concurrent lookups.
+				this.pendingBeanNames.put(beanName, ++this.invalidationCounter);
+				unindex(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Mark all bean definition names for re-indexing on the next lookup.
+	 */
+	public void invalidateAll() {
+		synchronized (this.modificationMonitor) {
+			for (String beanName : this.registrationOrder.keySet()) {
+				this.pendingBeanNames.put(beanName, ++this.invalidationCounter);
+			}
+			this.beanNamesByType.clear();
+			this.typesByBeanName.clear();
+			this.anyTypeBeanNames.clear();
+		}
+	}
+
+	/**
+	 * Return whether there are bean definition names to be (re-)indexed.
+	 */
+	public boolean hasPendingBeanNames() {
+		return !this.pendingBeanNames.isEmpty();
+	}
+
+	/**
+	 * Return a snapshot of the bean definition names to be (re-)indexed,
+	 * along with their invalidation stamps to be passed into {@link #index}.
+	 */
+	public Map<String, Long> getPendingBeanNames() {
+		return new HashMap<String, Long>(this.pendingBeanNames);
+	}
+
+	/**
+	 * Index the given bean definition name under the given types, unless it has
+	 * been invalidated (or removed) since the given stamp was obtained.
+	 * @param beanName the name of the bean definition
+	 * @param stamp the invalidation stamp from {@link #getPendingBeanNames()}
+	 * @param types the types to index the bean definition under,
+	 * or {@link #ANY_TYPE} to consider it a candidate for any type
+	 */
+	public void index(String beanName, long stamp, Set<Class<?>> types) {
+		synchronized (this.modificationMonitor) {
+			Long currentStamp = this.pendingBeanNames.get(beanName);
+			if (currentStamp == null || currentStamp != stamp) {
+				return;
+			}
+			this.typesByBeanName.put(beanName, types);
+			if (types == ANY_TYPE) {
+				this.anyTypeBeanNames.put(beanName, Boolean.TRUE);
+			}
+			else {
+				for (Class<?> type : types) {
+					Map<String, Boolean> beanNames = this.beanNamesByType.get(type);
+					if (beanNames == null) {
+						beanNames = new ConcurrentHashMap<String, Boolean>(4);
+						this.beanNamesByType.put(type, beanNames);
+					}
+					beanNames.put(beanName, Boolean.TRUE);
+				}
+			}
+			// Remove from pending after indexing, for concurrent lookups.
+			this.pendingBeanNames.remove(beanName);
+		}
+	}
+
+	/**
+	 * Return the names of all bean definitions that may match the given type,
+	 * in registration order: indexed under the given type, candidates for any type,
+	 * or not indexed yet.
+	 * @param type the type to match
+	 * @return the list of candidate bean definition names
+	 */
+	public List<String> getCandidateBeanNames(Class<?> type) {
+		// Pending names are read both before and after the indexed names: a name
+		// being indexed meanwhile is still pending on the first read, and a name
+		// being invalidated meanwhile is pending on the second read at the latest.
+		Set<String> candidates = new HashSet<String>(this.pendingBeanNames.keySet());
+		Map<String, Boolean> indexed = this.beanNamesByType.get(type);
+		if (indexed != null) {
+			candidates.addAll(indexed.keySet());
+		}
+		candidates.addAll(this.anyTypeBeanNames.keySet());
+		candidates.addAll(this.pendingBeanNames.keySet());
+		List<String> result = new ArrayList<String>(candidates);
+		Collections.sort(result, this.registrationOrderComparator);
+		return result;
+	}
+
+	private void unindex(String beanName) {
+		Set<Class<?>> types = this.typesByBeanName.remove(beanName);
+		if (types == ANY_TYPE) {
+			this.anyTypeBeanNames.remove(beanName);
+		}
+		else if (types != null) {
+			for (Class<?> type : types) {
+				Map<String, Boolean> beanNames = this.beanNamesByType.get(type);
+				if (beanNames != null) {
+					beanNames.remove(beanName);
+					if (beanNames.isEmpty()) {
+						this.beanNamesByType.remove(type);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Determine the types to index a bean of the given type under:
+	 * the type itself, all of its superclasses and all of its interfaces.
+	 * @param beanType the (predicted or actual) type of the bean, or {@code null}
+	 * if it cannot be reliably determined
+	 * @return the types to index the bean under, or {@link #ANY_TYPE}
+	 */
+	public static Set<Class<?>> getIndexableTypes(Class<?> beanType) {
+		if (beanType == null || beanType.isArray() || beanType.isPrimitive()) {
+			return ANY_TYPE;
+		}
+		Set<Class<?>> types = new LinkedHashSet<Class<?>>();
+		Class<?> current = beanType;
+		while (current != null) {
+			addTypeHierarchy(current, types);
+			current = current.getSuperclass();
+		}
+		return types;
+	}
+
+	private static void addTypeHierarchy(Class<?> type, Set<Class<?>> types) {
+		if (types.add(type)) {
+			for (Class<?> ifc : type.getInterfaces()) {
+				addTypeHierarchy(ifc, types);
+			}
+		}
+	}
+
+}
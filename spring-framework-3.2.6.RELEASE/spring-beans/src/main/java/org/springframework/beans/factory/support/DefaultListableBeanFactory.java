@@ -29,16 +29,22 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import javax.inject.Provider;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.FatalBeanException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
@@ -54,9 +60,12 @@ import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.SmartFactoryBean;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -125,6 +134,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans */
 	private boolean allowEagerClassLoading = true;
 
+	/** Executor for pre-instantiating independent singletons in parallel, if any */
+	private Executor bootstrapExecutor;
+
 	/** Resolver to use for checking if a bean definition is an autowire candidate */
 	private AutowireCandidateResolver autowireCandidateResolver = new SimpleAutowireCandidateResolver();
 
@@ -144,6 +156,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** List of bean definition names, in registration order */
 	private final List<String> beanDefinitionNames = new ArrayList<String>();
 
+	/** Index of bean definition names by the types that their beans may match */
+	private final BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+
+	/** Names of prototype beans re-indexed after their first creation */
+	private final Map<String, Boolean> reindexedPrototypes = new ConcurrentHashMap<String, Boolean>(16);
+
 	/** Whether bean definition metadata may be cached for all beans */
 	private boolean configurationFrozen = false;
 
@@ -206,6 +224,35 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.allowEagerClassLoading = allowEagerClassLoading;
 	}
 
+	/**
+	 * Specify an Executor for pre-instantiating non-lazy singletons in parallel,
+	 * e.g. a {@code java.util.concurrent.ForkJoinPool} on Java 7 or a
+	 * {@link org.springframework.core.task.TaskExecutor}.
+	 * <p>Default is none, pre-instantiating all singletons one after the other
+	 * in the calling thread. If specified, the singletons are partitioned into
+	 * groups of beans that are related through "depends-on" declarations,
+	 * bean references or registered dependencies, with each group getting
+	 * pre-instantiated (in registration order) by a separate task.
+	 * <p>This implicitly switches on
+	 * {@link #setAllowConcurrentSingletonCreation "allowConcurrentSingletonCreation"},
+	 * since dependencies that only get discovered during creation (e.g. through
+	 * autowiring) may still be shared between groups.
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setBootstrapExecutor(Executor bootstrapExecutor) {
+		this.bootstrapExecutor = bootstrapExecutor;
+		if (bootstrapExecutor != null) {
+			setAllowConcurrentSingletonCreation(true);
+		}
+	}
+
+	/**
+	 * Return the Executor for pre-instantiating singletons in parallel, if any.
+	 */
+	public Executor getBootstrapExecutor() {
+		return this.bootstrapExecutor;
+	}
+
 	/**
 	 * Set a custom autowire candidate resolver for this BeanFactory to use
 	 * when deciding whether a bean definition should be considered as a
@@ -245,6 +292,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.bootstrapExecutor = otherListableFactory.bootstrapExecutor;
+			setAllowConcurrentSingletonCreation(otherListableFactory.isAllowConcurrentSingletonCreation());
 			this.autowireCandidateResolver = otherListableFactory.autowireCandidateResolver;
 			this.resolvableDependencies.putAll(otherListableFactory.resolvableDependencies);
 		}
@@ -340,8 +389,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(Class<?> type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<String>();
 
-		// Check all bean definitions.
-		String[] beanDefinitionNames = getBeanDefinitionNames();
+		// Check all bean definitions that may match the given type.
+		List<String> beanDefinitionNames = getCandidateBeanNamesForType(type);
 		for (String beanName : beanDefinitionNames) {
 			// Only consider bean as eligible if the bean name
 			// is not defined as alias for some other bean.
@@ -414,6 +463,75 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return StringUtils.toStringArray(result);
 	}
 
+	/**
+	 * Determine the names of all bean definitions that may match the given type,
+	 * narrowed down through the type index where possible.
+	 * @param type the type to match
+	 * @return the candidate bean definition names, in registration order
+	 */
+	private List<String> getCandidateBeanNamesForType(Class<?> type) {
+		if (type == null || Object.class.equals(type) || type.isPrimitive() || getTempClassLoader() != null) {
+			// Nothing to narrow down, or type matching against a temporary ClassLoader.
+			return Arrays.asList(getBeanDefinitionNames());
+		}
+		if (this.beanTypeIndex.hasPendingBeanNames()) {
+			for (Map.Entry<String, Long> entry : this.beanTypeIndex.getPendingBeanNames().entrySet()) {
+				Set<Class<?>> types = determineIndexableTypes(entry.getKey());
+				if (types != null) {
+					this.beanTypeIndex.index(entry.getKey(), entry.getValue(), types);
+				}
+			}
+		}
+		return this.beanTypeIndex.getCandidateBeanNames(type);
+	}
+
+	/**
+	 * Determine the types that the given bean definition may match,
+	 * based on its singleton instance (if any) or its predicted type.
+	 * @param beanName the name of the bean definition
+	 * @return the types to index the bean definition under, {@link BeanTypeIndex#ANY_TYPE}
+	 * for any type, or {@code null} if the types cannot be determined at this point
+	 */
+	private Set<Class<?>> determineIndexableTypes(String beanName) {
+		if (isSingletonCurrentlyInCreation(beanName)) {
+			// Might be exposed as early reference of a different type.
+			return null;
+		}
+		try {
+			Object beanInstance = getSingleton(beanName, false);
+			if (beanInstance != null) {
+				return (beanInstance instanceof FactoryBean ?
+						BeanTypeIndex.ANY_TYPE : BeanTypeIndex.getIndexableTypes(beanInstance.getClass()));
+			}
+			RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+			if (mbd.isAbstract()) {
+				return Collections.emptySet();
+			}
+			if (!(mbd.hasBeanClass() || !mbd.isLazyInit() || this.allowEagerClassLoading) ||
+					requiresEagerInitForType(mbd.getFactoryBeanName())) {
+				// Leave type determination to the actual lookup.
+				return null;
+			}
+			if (mbd.getDecoratedDefinition() != null) {
+				return BeanTypeIndex.ANY_TYPE;
+			}
+			Class<?> beanType = predictBeanType(beanName, mbd);
+			if (beanType == null) {
+				return null;
+			}
+			// The object type of a FactoryBean may change over time.
+			if (FactoryBean.class.isAssignableFrom(beanType) ||
+					FactoryBean.class.isAssignableFrom(predictBeanType(beanName, mbd, FactoryBean.class))) {
+				return BeanTypeIndex.ANY_TYPE;
+			}
+			return BeanTypeIndex.getIndexableTypes(beanType);
+		}
+		catch (BeansException ex) {
+			// Let the actual lookup deal with it.
+			return null;
+		}
+	}
+
 	/**
 	 * Check whether the specified bean would need to be eagerly initialized
 	 * in order to determine its type.
@@ -580,6 +698,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	/**
+	 * Remove any assumptions about the types of the registered bean definitions,
+	 * e.g. after bean definitions have been modified in place by
+	 * BeanFactoryPostProcessors.
+	 */
+	public void clearMetadataCache() {
+		this.beanTypeIndex.invalidateAll();
+		clearByTypeCache();
+	}
+
 	public boolean isConfigurationFrozen() {
 		return this.configurationFrozen;
 	}
@@ -606,44 +734,195 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			// While this may not be part of the regular factory bootstrap, it does otherwise work fine.
 			beanNames = new ArrayList<String>(this.beanDefinitionNames);
 		}
+		if (this.bootstrapExecutor != null) {
+			preInstantiateSingletonsInParallel(beanNames, this.bootstrapExecutor);
+		}
+		else {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Pre-instantiate the given singleton, if it is non-lazy
+	 * (and a SmartFactoryBean's object as well, if eager).
+	 * @param beanName the name of the bean
+	 * @throws BeansException if the bean could not be created
+	 */
+	private void preInstantiateSingleton(String beanName) throws BeansException {
+		//获取指定名称的Bean定义
+		RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+		//Bean不是抽象的，是单态模式的，且lazy-init属性配置为false
+		if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+			//如果指定名称的bean是创建容器的Bean
+			if (isFactoryBean(beanName)) {
+				//FACTORY_BEAN_PREFIX=”&”，当Bean名称前面加”&”符号  
+                //时，获取的是产生容器对象本身，而不是容器产生的Bean.  
+                //调用getBean方法，触发容器对Bean实例化和依赖注入过程  
+				final FactoryBean<?> factory = (FactoryBean<?>) getBean(FACTORY_BEAN_PREFIX + beanName);
+				//标识是否需要预实例化  
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					//一个匿名内部类
+					isEagerInit = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+						public Boolean run() {
+							return ((SmartFactoryBean<?>) factory).isEagerInit();
+						}
+					}, getAccessControlContext());
+				}
+				else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				if (isEagerInit) {
+					//调用getBean方法，触发容器对Bean实例化和依赖注入过程 
+					getBean(beanName);
+				}
+			}
+			else {
+				//调用getBean方法，触发容器对Bean实例化和依赖注入过程
+				getBean(beanName);
+			}
+		}
+	}
+
+	/**
+	 * Pre-instantiate the given singletons in parallel, partitioned into groups
+	 * of beans that are known to depend on each other: through "depends-on"
+	 * declarations, explicit bean references in constructor arguments and
+	 * property values, and dependencies registered for already created beans.
+	 * Each group gets pre-instantiated in registration order by a single task.
+	 * <p>Any remaining dependencies between groups are coordinated through
+	 * per-bean creation locks, with circular references across threads resolved
+	 * through early singleton references, just like within a single thread.
+	 * @param beanNames the names of all bean definitions, in registration order
+	 * @param executor the Executor to submit the tasks to
+	 * @throws BeansException if any of the singletons could not be created
+	 * @see #setBootstrapExecutor
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames, Executor executor) throws BeansException {
+		// Union-find over all known dependency relationships, including non-candidate beans in between.
+		Map<String, String> groupRoots = new HashMap<String, String>(beanNames.size() * 2);
 		for (String beanName : beanNames) {
-			//获取指定名称的Bean定义
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			//Bean不是抽象的，是单态模式的，且lazy-init属性配置为false
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				//如果指定名称的bean是创建容器的Bean
-				if (isFactoryBean(beanName)) {
-					//FACTORY_BEAN_PREFIX=”&”，当Bean名称前面加”&”符号  
-	                //时，获取的是产生容器对象本身，而不是容器产生的Bean.  
-	                //调用getBean方法，触发容器对Bean实例化和依赖注入过程  
-					final FactoryBean<?> factory = (FactoryBean<?>) getBean(FACTORY_BEAN_PREFIX + beanName);
-					//标识是否需要预实例化  
-					boolean isEagerInit;
-					if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-						//一个匿名内部类
-						isEagerInit = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
-							public Boolean run() {
-								return ((SmartFactoryBean<?>) factory).isEagerInit();
-							}
-						}, getAccessControlContext());
+			for (String dependency : getKnownDependencies(beanName)) {
+				String root = findGroupRoot(groupRoots, beanName);
+				String dependencyRoot = findGroupRoot(groupRoots, dependency);
+				if (!root.equals(dependencyRoot)) {
+					groupRoots.put(dependencyRoot, root);
+				}
+			}
+		}
+		Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
+		for (String beanName : beanNames) {
+			String root = findGroupRoot(groupRoots, beanName);
+			List<String> group = groups.get(root);
+			if (group == null) {
+				group = new ArrayList<String>();
+				groups.put(root, group);
+			}
+			group.add(beanName);
+		}
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Pre-instantiating " + beanNames.size() + " bean definitions in " +
+					groups.size() + " independent groups");
+		}
+
+		final CountDownLatch latch = new CountDownLatch(groups.size());
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		for (final List<String> group : groups.values()) {
+			Runnable task = new Runnable() {
+				public void run() {
+					try {
+						for (String beanName : group) {
+							preInstantiateSingleton(beanName);
+						}
 					}
-					else {
-						isEagerInit = (factory instanceof SmartFactoryBean &&
-								((SmartFactoryBean<?>) factory).isEagerInit());
+					catch (Throwable ex) {
+						failures.add(ex);
 					}
-					if (isEagerInit) {
-						//调用getBean方法，触发容器对Bean实例化和依赖注入过程 
-						getBean(beanName);
+					finally {
+						latch.countDown();
 					}
 				}
-				else {
-					//调用getBean方法，触发容器对Bean实例化和依赖注入过程
-					getBean(beanName);
-				}
+			};
+			try {
+				executor.execute(task);
 			}
+			catch (RejectedExecutionException ex) {
+				// Executor saturated or shut down: pre-instantiate this group in the calling thread.
+				task.run();
+			}
+		}
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FatalBeanException("Interrupted while waiting for parallel pre-instantiation of singletons", ex);
+		}
+		if (!failures.isEmpty()) {
+			Throwable ex = failures.get(0);
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			}
+			if (ex instanceof Error) {
+				throw (Error) ex;
+			}
+			throw new FatalBeanException("Parallel pre-instantiation of singletons failed", ex);
 		}
 	}
 
+	/**
+	 * Determine the names of all beans that the given bean is known to be related
+	 * to before creation: "depends-on" declarations, bean references in constructor
+	 * arguments and property values, and registered dependencies in either direction.
+	 * @param beanName the name of the bean
+	 * @return the set of related bean names (never {@code null})
+	 */
+	private Set<String> getKnownDependencies(String beanName) {
+		Set<String> dependencies = new LinkedHashSet<String>();
+		RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+		String[] dependsOn = mbd.getDependsOn();
+		if (dependsOn != null) {
+			for (String dependsOnBean : dependsOn) {
+				dependencies.add(transformedBeanName(dependsOnBean));
+			}
+		}
+		ConstructorArgumentValues cargs = mbd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getIndexedArgumentValues().values()) {
+			addReferencedBeanName(valueHolder.getValue(), dependencies);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getGenericArgumentValues()) {
+			addReferencedBeanName(valueHolder.getValue(), dependencies);
+		}
+		for (PropertyValue pv : mbd.getPropertyValues().getPropertyValues()) {
+			addReferencedBeanName(pv.getValue(), dependencies);
+		}
+		dependencies.addAll(Arrays.asList(getDependenciesForBean(beanName)));
+		dependencies.addAll(Arrays.asList(getDependentBeans(beanName)));
+		return dependencies;
+	}
+
+	private void addReferencedBeanName(Object value, Set<String> beanNames) {
+		if (value instanceof RuntimeBeanReference && !((RuntimeBeanReference) value).isToParent()) {
+			beanNames.add(transformedBeanName(((RuntimeBeanReference) value).getBeanName()));
+		}
+	}
+
+	private static String findGroupRoot(Map<String, String> groupRoots, String beanName) {
+		String root = beanName;
+		String parent = groupRoots.get(root);
+		while (parent != null) {
+			root = parent;
+			parent = groupRoots.get(root);
+		}
+		if (!root.equals(beanName)) {
+			groupRoots.put(beanName, root);
+		}
+		return root;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -690,6 +969,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				this.frozenBeanDefinitionNames = null;
 			}
 			this.beanDefinitionMap.put(beanName, beanDefinition);
+			if (oldBeanDefinition != null) {
+				// Types predicted through factory methods may depend on the old definition.
+				this.beanTypeIndex.invalidateAll();
+			}
+			this.beanTypeIndex.register(beanName);
 		}
 		//重置所有已经注册过的BeanDefinition的缓存
 		resetBeanDefinition(beanName);
@@ -708,6 +992,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			}
 			this.beanDefinitionNames.remove(beanName);
 			this.frozenBeanDefinitionNames = null;
+			this.beanTypeIndex.remove(beanName);
+			this.beanTypeIndex.invalidateAll();
 		}
 
 		resetBeanDefinition(beanName);
@@ -728,6 +1014,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		destroySingleton(beanName);
 
 		// Remove any assumptions about by-type mappings.
+		this.beanTypeIndex.invalidate(beanName);
+		this.reindexedPrototypes.remove(beanName);
 		clearByTypeCache();
 
 		// Reset all bean definitions that have the given bean as parent (recursively).
@@ -761,6 +1049,42 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		clearByTypeCache();
 	}
 
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		this.beanTypeIndex.invalidate(beanName);
+	}
+
+	@Override
+	protected void removeSingleton(String beanName) {
+		super.removeSingleton(beanName);
+		this.beanTypeIndex.invalidate(beanName);
+	}
+
+	/**
+	 * Overridden to re-determine the predicted type after the first creation
+	 * of a prototype, since post-processors may only predict the final type
+	 * (e.g. a proxy type) once they have created an instance. Further creations
+	 * leave the index untouched.
+	 */
+	@Override
+	protected void afterPrototypeCreation(String beanName) {
+		super.afterPrototypeCreation(beanName);
+		if (this.reindexedPrototypes.put(beanName, Boolean.TRUE) == null) {
+			this.beanTypeIndex.invalidate(beanName);
+		}
+	}
+
+	/**
+	 * Overridden to re-determine predicted types, which may be affected
+	 * by SmartInstantiationAwareBeanPostProcessors.
+	 */
+	@Override
+	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+		super.addBeanPostProcessor(beanPostProcessor);
+		this.beanTypeIndex.invalidateAll();
+	}
+
 	/**
 	 * Remove any assumptions about by-type mappings.
 	 */
@@ -17,12 +17,13 @@
 package org.springframework.beans.factory.support;
 
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +34,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -55,6 +57,15 @@ import org.springframework.util.StringUtils;
  * the {@link org.springframework.beans.factory.config.ConfigurableBeanFactory}
  * interface extends the {@link SingletonBeanRegistry} interface.
  *
+ * <p>By default, the creation of a singleton happens within the registry-wide
+ * singleton mutex, i.e. only one singleton gets created at any given time.
+ * With {@link #setAllowConcurrentSingletonCreation "allowConcurrentSingletonCreation"}
+ * switched on, singletons are guarded by per-bean creation locks instead,
+ * allowing for different singletons to be created in different threads.
+ * In either mode, fully created singletons are read without any locking,
+ * and dependency relationships between beans are tracked with per-bean
+ * locks rather than a registry-wide lock.
+ *
  * <p>Note that this class assumes neither a bean definition concept
  * nor a specific creation process for bean instances, in contrast to
  * {@link AbstractBeanFactory} and {@link DefaultListableBeanFactory}
@@ -84,22 +95,29 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Object> singletonObjects = new ConcurrentHashMap<String, Object>(64);
 
 	/** Cache of singleton factories: bean name --> ObjectFactory */
-	private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<String, ObjectFactory<?>>(16);
+	private final Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<String, ObjectFactory<?>>(16);
 
 	/** Cache of early singleton objects: bean name --> bean instance */
-	private final Map<String, Object> earlySingletonObjects = new HashMap<String, Object>(16);
+	private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<String, Object>(16);
 
-	/** Set of registered singletons, containing the bean names in registration order */
+	/** Set of registered singletons, containing the bean names in registration order (guarded by itself) */
 	private final Set<String> registeredSingletons = new LinkedHashSet<String>(64);
 
-	/** Names of beans that are currently in creation (using a ConcurrentHashMap as a Set) */
-	private final Map<String, Boolean> singletonsCurrentlyInCreation = new ConcurrentHashMap<String, Boolean>(16);
+	/** Names of beans that are currently in creation: bean name --> creating thread */
+	private final Map<String, Thread> singletonsCurrentlyInCreation = new ConcurrentHashMap<String, Thread>(16);
+
+	/** Threads waiting for a singleton created by another thread: thread --> bean name */
+	private final Map<Thread, String> singletonCreationWaits = new HashMap<Thread, String>(16);
 
 	/** Names of beans currently excluded from in creation checks (using a ConcurrentHashMap as a Set) */
 	private final Map<String, Boolean> inCreationCheckExclusions = new ConcurrentHashMap<String, Boolean>(16);
 
 	/** List of suppressed Exceptions, available for associating related causes */
-	private Set<Exception> suppressedExceptions;
+	private final ThreadLocal<Set<Exception>> suppressedExceptions =
+			new NamedThreadLocal<Set<Exception>>("Suppressed exceptions during singleton creation");
+
+	/** Whether to guard singleton creation with per-bean locks instead of the singleton mutex */
+	private volatile boolean allowConcurrentSingletonCreation = false;
 
 	/** Flag that indicates whether we're currently within destroySingletons */
 	private boolean singletonsCurrentlyInDestruction = false;
@@ -108,13 +126,36 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map<String, Object> disposableBeans = new LinkedHashMap<String, Object>();
 
 	/** Map between containing bean names: bean name --> Set of bean names that the bean contains */
-	private final Map<String, Set<String>> containedBeanMap = new ConcurrentHashMap<String, Set<String>>(16);
+	private final ConcurrentMap<String, Set<String>> containedBeanMap = new ConcurrentHashMap<String, Set<String>>(16);
 
 	/** Map between dependent bean names: bean name --> Set of dependent bean names */
-	private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
+	private final ConcurrentMap<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
 
 	/** Map between depending bean names: bean name --> Set of bean names for the bean's dependencies */
-	private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
+	private final ConcurrentMap<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<String, Set<String>>(64);
+
+
+	/**
+	 * Set whether to allow for concurrent creation of different singletons.
+	 * <p>Default is "false", creating singletons within the registry-wide
+	 * singleton mutex. Turn this on to guard each singleton with its own
+	 * creation lock instead: a thread requesting a singleton that is currently
+	 * being created by another thread waits for that creation to complete.
+	 * Circular references across threads are resolved through early singleton
+	 * references, just like within a single thread.
+	 * @see #getSingleton(String, ObjectFactory)
+	 * @see DefaultListableBeanFactory#setBootstrapExecutor
+	 */
+	public void setAllowConcurrentSingletonCreation(boolean allowConcurrentSingletonCreation) {
+		this.allowConcurrentSingletonCreation = allowConcurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether to allow for concurrent creation of different singletons.
+	 */
+	public boolean isAllowConcurrentSingletonCreation() {
+		return this.allowConcurrentSingletonCreation;
+	}
 
 
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
@@ -140,7 +181,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonObjects.put(beanName, (singletonObject != null ? singletonObject : NULL_OBJECT));
 			this.singletonFactories.remove(beanName);
 			this.earlySingletonObjects.remove(beanName);
-			this.registeredSingletons.add(beanName);
+			synchronized (this.registeredSingletons) {
+				this.registeredSingletons.add(beanName);
+			}
 		}
 	}
 
@@ -158,7 +201,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			if (!this.singletonObjects.containsKey(beanName)) {
 				this.singletonFactories.put(beanName, singletonFactory);
 				this.earlySingletonObjects.remove(beanName);
-				this.registeredSingletons.add(beanName);
+				synchronized (this.registeredSingletons) {
+					this.registeredSingletons.add(beanName);
+				}
 			}
 		}
 	}
@@ -178,13 +223,31 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	protected Object getSingleton(String beanName, boolean allowEarlyReference) {
 		Object singletonObject = this.singletonObjects.get(beanName);
 		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+			if (this.singletonsCurrentlyInCreation.get(beanName) == Thread.currentThread()) {
+				// Circular reference within the creating thread: no need to lock for an existing early reference.
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject != null || !allowEarlyReference) {
+					return singletonObject;
+				}
+			}
 			synchronized (this.singletonObjects) {
+				if (this.allowConcurrentSingletonCreation && !isSingletonCreationCycle(beanName)) {
+					// Still in creation by another thread: not to be exposed early.
+					return null;
+				}
 				singletonObject = this.earlySingletonObjects.get(beanName);
 				if (singletonObject == null && allowEarlyReference) {
 					ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
 					if (singletonFactory != null) {
 						singletonObject = singletonFactory.getObject();
-						this.earlySingletonObjects.put(beanName, singletonObject);
+						// The factory may have released the mutex while waiting for another singleton...
+						Object alreadyThere = this.earlySingletonObjects.get(beanName);
+						if (alreadyThere != null) {
+							singletonObject = alreadyThere;
+						}
+						else if (singletonObject != null) {
+							this.earlySingletonObjects.put(beanName, singletonObject);
+						}
 						this.singletonFactories.remove(beanName);
 					}
 				}
@@ -203,6 +266,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "'beanName' must not be null");
+		if (this.allowConcurrentSingletonCreation) {
+			return getSingletonWithCreationLock(beanName, singletonFactory);
+		}
 		synchronized (this.singletonObjects) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
@@ -215,16 +281,16 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
 				}
 				beforeSingletonCreation(beanName);
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
+				boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
 				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet<Exception>();
+					this.suppressedExceptions.set(new LinkedHashSet<Exception>());
 				}
 				try {
 					singletonObject = singletonFactory.getObject();
 				}
 				catch (BeanCreationException ex) {
 					if (recordSuppressedExceptions) {
-						for (Exception suppressedException : this.suppressedExceptions) {
+						for (Exception suppressedException : this.suppressedExceptions.get()) {
 							ex.addRelatedCause(suppressedException);
 						}
 					}
@@ -232,7 +298,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 				}
 				finally {
 					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
+						this.suppressedExceptions.remove();
 					}
 					afterSingletonCreation(beanName);
 				}
@@ -242,16 +308,87 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Variant of {@link #getSingleton(String, ObjectFactory)} for concurrent
+	 * singleton creation: holds the singleton mutex only for acquiring and
+	 * releasing the creation lock of the given bean, not for the actual creation.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton
+	 * with, if necessary
+	 * @return the registered singleton object
+	 * @see #setAllowConcurrentSingletonCreation
+	 */
+	private Object getSingletonWithCreationLock(String beanName, ObjectFactory<?> singletonFactory) {
+		Object singletonObject;
+		synchronized (this.singletonObjects) {
+			singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				if (this.singletonsCurrentlyInDestruction) {
+					throw new BeanCreationNotAllowedException(beanName,
+							"Singleton bean creation not allowed while the singletons of this factory are in destruction " +
+							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+				}
+				// Waits for a concurrent creation of the same singleton, if any.
+				beforeSingletonCreation(beanName);
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject != null) {
+					afterSingletonCreation(beanName);
+				}
+			}
+		}
+		if (singletonObject != null) {
+			return (singletonObject != NULL_OBJECT ? singletonObject : null);
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "' in thread [" +
+					Thread.currentThread().getName() + "]");
+		}
+		boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
+		if (recordSuppressedExceptions) {
+			this.suppressedExceptions.set(new LinkedHashSet<Exception>());
+		}
+		boolean added = false;
+		try {
+			singletonObject = singletonFactory.getObject();
+			synchronized (this.singletonObjects) {
+				// Register the singleton before releasing the creation lock,
+				// for waiting threads to find it right away.
+				addSingleton(beanName, singletonObject);
+				added = true;
+				afterSingletonCreation(beanName);
+			}
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Exception suppressedException : this.suppressedExceptions.get()) {
+					ex.addRelatedCause(suppressedException);
+				}
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				this.suppressedExceptions.remove();
+			}
+			if (!added) {
+				synchronized (this.singletonObjects) {
+					afterSingletonCreation(beanName);
+				}
+			}
+		}
+		return (singletonObject != NULL_OBJECT ? singletonObject : null);
+	}
+
 	/**
 	 * Register an Exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set<Exception> exceptions = this.suppressedExceptions.get();
+		if (exceptions != null) {
+			exceptions.add(ex);
 		}
 	}
 
@@ -266,7 +403,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonObjects.remove(beanName);
 			this.singletonFactories.remove(beanName);
 			this.earlySingletonObjects.remove(beanName);
-			this.registeredSingletons.remove(beanName);
+			synchronized (this.registeredSingletons) {
+				this.registeredSingletons.remove(beanName);
+			}
 		}
 	}
 
@@ -275,13 +414,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	}
 
 	public String[] getSingletonNames() {
-		synchronized (this.singletonObjects) {
+		synchronized (this.registeredSingletons) {
 			return StringUtils.toStringArray(this.registeredSingletons);
 		}
 	}
 
 	public int getSingletonCount() {
-		synchronized (this.singletonObjects) {
+		synchronized (this.registeredSingletons) {
 			return this.registeredSingletons.size();
 		}
 	}
@@ -318,12 +457,47 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/**
 	 * Callback before singleton creation.
 	 * <p>Default implementation register the singleton as currently in creation.
+	 * In case of concurrent singleton creation, this acquires the creation lock
+	 * for the given singleton, waiting for another thread to finish its creation
+	 * of the same singleton first (releasing the singleton mutex while waiting).
 	 * @param beanName the name of the singleton about to be created
 	 * @see #isSingletonCurrentlyInCreation
+	 * @see #setAllowConcurrentSingletonCreation
 	 */
 	protected void beforeSingletonCreation(String beanName) {
-		if (!this.inCreationCheckExclusions.containsKey(beanName) &&
-				this.singletonsCurrentlyInCreation.put(beanName, Boolean.TRUE) != null) {
+		if (this.inCreationCheckExclusions.containsKey(beanName)) {
+			return;
+		}
+		Thread currentThread = Thread.currentThread();
+		if (this.allowConcurrentSingletonCreation) {
+			synchronized (this.singletonObjects) {
+				Thread creatingThread = this.singletonsCurrentlyInCreation.get(beanName);
+				while (creatingThread != null && creatingThread != currentThread) {
+					if (isSingletonCreationCycle(beanName)) {
+						// Waiting would lead to a deadlock: an unresolvable circular reference across threads.
+						throw new BeanCurrentlyInCreationException(beanName);
+					}
+					this.singletonCreationWaits.put(currentThread, beanName);
+					try {
+						this.singletonObjects.wait();
+					}
+					catch (InterruptedException ex) {
+						currentThread.interrupt();
+						throw new BeanCreationException(beanName,
+								"Interrupted while waiting for creation of singleton bean in another thread", ex);
+					}
+					finally {
+						this.singletonCreationWaits.remove(currentThread);
+					}
+					creatingThread = this.singletonsCurrentlyInCreation.get(beanName);
+				}
+				if (creatingThread != null) {
+					throw new BeanCurrentlyInCreationException(beanName);
+				}
+				this.singletonsCurrentlyInCreation.put(beanName, currentThread);
+			}
+		}
+		else if (this.singletonsCurrentlyInCreation.put(beanName, currentThread) != null) {
 			throw new BeanCurrentlyInCreationException(beanName);
 		}
 	}
@@ -331,14 +505,46 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/**
 	 * Callback after singleton creation.
 	 * <p>The default implementation marks the singleton as not in creation anymore.
+	 * In case of concurrent singleton creation, this releases the creation lock
+	 * for the given singleton, notifying waiting threads.
 	 * @param beanName the name of the singleton that has been created
 	 * @see #isSingletonCurrentlyInCreation
+	 * @see #setAllowConcurrentSingletonCreation
 	 */
 	protected void afterSingletonCreation(String beanName) {
 		if (!this.inCreationCheckExclusions.containsKey(beanName) &&
-				!this.singletonsCurrentlyInCreation.remove(beanName)) {
+				this.singletonsCurrentlyInCreation.remove(beanName) == null) {
 			throw new IllegalStateException("Singleton '" + beanName + "' isn't currently in creation");
 		}
+		if (this.allowConcurrentSingletonCreation) {
+			synchronized (this.singletonObjects) {
+				this.singletonObjects.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given singleton is currently in creation by the
+	 * current thread or by a thread that is (directly or indirectly) waiting
+	 * for the current thread, i.e. whether it is part of the current thread's
+	 * creation chain. Needs to be called within the singleton mutex.
+	 * @param beanName the name of the singleton
+	 */
+	private boolean isSingletonCreationCycle(String beanName) {
+		Thread currentThread = Thread.currentThread();
+		Thread creatingThread = this.singletonsCurrentlyInCreation.get(beanName);
+		// Bounded traversal: each waiting thread can only be passed once.
+		for (int i = 0; creatingThread != null && i <= this.singletonCreationWaits.size(); i++) {
+			if (creatingThread == currentThread) {
+				return true;
+			}
+			String awaitedBeanName = this.singletonCreationWaits.get(creatingThread);
+			if (awaitedBeanName == null) {
+				return false;
+			}
+			creatingThread = this.singletonsCurrentlyInCreation.get(awaitedBeanName);
+		}
+		return false;
 	}
 
 
@@ -367,14 +573,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #registerDependentBean
 	 */
 	public void registerContainedBean(String containedBeanName, String containingBeanName) {
-		synchronized (this.containedBeanMap) {
-			Set<String> containedBeans = this.containedBeanMap.get(containingBeanName);
-			if (containedBeans == null) {
-				containedBeans = new LinkedHashSet<String>(8);
-				this.containedBeanMap.put(containingBeanName, containedBeans);
-			}
-			containedBeans.add(containedBeanName);
-		}
+		addToBeanNameSet(this.containedBeanMap, containingBeanName, containedBeanName);
 		registerDependentBean(containedBeanName, containingBeanName);
 	}
 
@@ -388,30 +587,51 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	public void registerDependentBean(String beanName, String dependentBeanName) {
 		//处理Bean名称，将别名转换为规范的Bean名称  
 		String canonicalName = canonicalName(beanName);
-		//多线程同步，保证容器内数据的一致性  
-	    //先从容器中：bean名称-->全部依赖Bean名称集合找查找给定名称Bean的依赖Bean
-		synchronized (this.dependentBeanMap) {
-			//获取给定名称Bean的所有依赖Bean名称  
-			Set<String> dependentBeans = this.dependentBeanMap.get(canonicalName);
-			if (dependentBeans == null) {
-				//为Bean设置依赖Bean信息
-				dependentBeans = new LinkedHashSet<String>(8);
-				this.dependentBeanMap.put(canonicalName, dependentBeans);
+		//向容器中：bean名称-->全部依赖Bean名称集合添加Bean的依赖信息  
+	    //即，将Bean所依赖的Bean添加到容器的集合中 
+		addToBeanNameSet(this.dependentBeanMap, canonicalName, dependentBeanName);
+		//向容器中：bean名称-->指定Bean的依赖Bean名称集合添加Bean的依赖信息  
+		addToBeanNameSet(this.dependenciesForBeanMap, dependentBeanName, canonicalName);
+	}
+
+	/**
+	 * Add the given bean name to the set of bean names registered under the
+	 * given key, locking just that set rather than the entire map.
+	 * @param map the map of bean name sets
+	 * @param key the bean name to register the set under
+	 * @param beanName the bean name to add to the set
+	 */
+	private static void addToBeanNameSet(ConcurrentMap<String, Set<String>> map, String key, String beanName) {
+		while (true) {
+			Set<String> beanNames = map.get(key);
+			if (beanNames == null) {
+				beanNames = new LinkedHashSet<String>(8);
+				Set<String> existing = map.putIfAbsent(key, beanNames);
+				if (existing != null) {
+					beanNames = existing;
+				}
 			}
-			//向容器中：bean名称-->全部依赖Bean名称集合添加Bean的依赖信息  
-	        //即，将Bean所依赖的Bean添加到容器的集合中 
-			dependentBeans.add(dependentBeanName);
-		}
-		//从容器中：bean名称-->指定名称Bean的依赖Bean集合找查找给定名称Bean的依赖Bean
-		synchronized (this.dependenciesForBeanMap) {
-			Set<String> dependenciesForBean = this.dependenciesForBeanMap.get(dependentBeanName);
-			if (dependenciesForBean == null) {
-				dependenciesForBean = new LinkedHashSet<String>(8);
-				this.dependenciesForBeanMap.put(dependentBeanName, dependenciesForBean);
+			synchronized (beanNames) {
+				// An emptied set may have been removed concurrently: retry with a fresh set then.
+				if (map.get(key) == beanNames) {
+					beanNames.add(beanName);
+					return;
+				}
 			}
-			//向容器中：bean名称-->指定Bean的依赖Bean名称集合添加Bean的依赖信息  
-	        //即，将Bean所依赖的Bean添加到容器的集合中  
-			dependenciesForBean.add(canonicalName);
+		}
+	}
+
+	/**
+	 * Return a snapshot of the set of bean names registered under the given key.
+	 * @param beanNames the set of bean names, or {@code null} if none
+	 * @return the bean names as array, or an empty array if none
+	 */
+	private static String[] toBeanNameArray(Set<String> beanNames) {
+		if (beanNames == null) {
+			return new String[0];
+		}
+		synchronized (beanNames) {
+			return StringUtils.toStringArray(beanNames);
 		}
 	}
 
@@ -429,11 +649,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @return the array of dependent bean names, or an empty array if none
 	 */
 	public String[] getDependentBeans(String beanName) {
-		Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
-		if (dependentBeans == null) {
-			return new String[0];
-		}
-		return StringUtils.toStringArray(dependentBeans);
+		return toBeanNameArray(this.dependentBeanMap.get(beanName));
 	}
 
 	/**
@@ -443,11 +659,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * or an empty array if none
 	 */
 	public String[] getDependenciesForBean(String beanName) {
-		Set<String> dependenciesForBean = this.dependenciesForBeanMap.get(beanName);
-		if (dependenciesForBean == null) {
-			return new String[0];
-		}
-		return dependenciesForBean.toArray(new String[dependenciesForBean.size()]);
+		return toBeanNameArray(this.dependenciesForBeanMap.get(beanName));
 	}
 
 	public void destroySingletons() {
@@ -474,7 +686,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.singletonObjects.clear();
 			this.singletonFactories.clear();
 			this.earlySingletonObjects.clear();
-			this.registeredSingletons.clear();
+			synchronized (this.registeredSingletons) {
+				this.registeredSingletons.clear();
+			}
 			this.singletonsCurrentlyInDestruction = false;
 		}
 	}
@@ -507,10 +721,11 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// Trigger destruction of dependent beans first...
 		Set<String> dependencies = this.dependentBeanMap.remove(beanName);
 		if (dependencies != null) {
+			String[] dependentBeanNames = toBeanNameArray(dependencies);
 			if (logger.isDebugEnabled()) {
-				logger.debug("Retrieved dependent beans for bean '" + beanName + "': " + dependencies);
+				logger.debug("Retrieved dependent beans for bean '" + beanName + "': " + Arrays.asList(dependentBeanNames));
 			}
-			for (String dependentBeanName : dependencies) {
+			for (String dependentBeanName : dependentBeanNames) {
 				destroySingleton(dependentBeanName);
 			}
 		}
@@ -528,19 +743,18 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// Trigger destruction of contained beans...
 		Set<String> containedBeans = this.containedBeanMap.remove(beanName);
 		if (containedBeans != null) {
-			for (String containedBeanName : containedBeans) {
+			for (String containedBeanName : toBeanNameArray(containedBeans)) {
 				destroySingleton(containedBeanName);
 			}
 		}
 
 		// Remove destroyed bean from other beans' dependencies.
-		synchronized (this.dependentBeanMap) {
-			for (Iterator<Map.Entry<String, Set<String>>> it = this.dependentBeanMap.entrySet().iterator(); it.hasNext();) {
-				Map.Entry<String, Set<String>> entry = it.next();
-				Set<String> dependenciesToClean = entry.getValue();
+		for (Map.Entry<String, Set<String>> entry : this.dependentBeanMap.entrySet()) {
+			Set<String> dependenciesToClean = entry.getValue();
+			synchronized (dependenciesToClean) {
 				dependenciesToClean.remove(beanName);
 				if (dependenciesToClean.isEmpty()) {
-					it.remove();
+					this.dependentBeanMap.remove(entry.getKey(), dependenciesToClean);
 				}
 			}
 		}
@@ -106,8 +106,16 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 				if (object == null) {
 					//调用Bean工厂的getObject方法生产指定Bean的实例对象
 					object = doGetObjectFromFactoryBean(factory, beanName, shouldPostProcess);
-					//将生产的实例对象添加到Bean工厂缓存中
-					this.factoryBeanObjectCache.put(beanName, (object != null ? object : NULL_OBJECT));
+					// Only store if not put there already during the getObject() call above
+					// (e.g. by another thread in case of concurrent singleton creation)
+					Object alreadyThere = this.factoryBeanObjectCache.get(beanName);
+					if (alreadyThere != null) {
+						object = alreadyThere;
+					}
+					else {
+						//将生产的实例对象添加到Bean工厂缓存中
+						this.factoryBeanObjectCache.put(beanName, (object != null ? object : NULL_OBJECT));
+					}
 				}
 				return (object != NULL_OBJECT ? object : null);
 			}
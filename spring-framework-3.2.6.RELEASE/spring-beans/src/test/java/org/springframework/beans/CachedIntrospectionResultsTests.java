@@ -19,6 +19,12 @@ package org.springframework.beans;
 import java.beans.BeanInfo;
 import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -40,28 +46,75 @@ public final class CachedIntrospectionResultsTests {
 		BeanWrapper bw = new BeanWrapperImpl(TestBean.class);
 		assertTrue(bw.isWritableProperty("name"));
 		assertTrue(bw.isWritableProperty("age"));
-		assertTrue(CachedIntrospectionResults.classCache.containsKey(TestBean.class));
+		assertTrue(isCached(TestBean.class));
 
 		ClassLoader child = new OverridingClassLoader(getClass().getClassLoader());
 		Class<?> tbClass = child.loadClass("org.springframework.tests.sample.beans.TestBean");
-		assertFalse(CachedIntrospectionResults.classCache.containsKey(tbClass));
+		assertFalse(isCached(tbClass));
 		CachedIntrospectionResults.acceptClassLoader(child);
 		bw = new BeanWrapperImpl(tbClass);
 		assertTrue(bw.isWritableProperty("name"));
 		assertTrue(bw.isWritableProperty("age"));
-		assertTrue(CachedIntrospectionResults.classCache.containsKey(tbClass));
+		assertTrue(isCached(tbClass));
 		CachedIntrospectionResults.clearClassLoader(child);
-		assertFalse(CachedIntrospectionResults.classCache.containsKey(tbClass));
+		assertFalse(isCached(tbClass));
 
-		assertTrue(CachedIntrospectionResults.classCache.containsKey(TestBean.class));
+		assertTrue(isCached(TestBean.class));
 	}
 
 	@Test
 	public void clearClassLoaderForSystemClassLoader() throws Exception {
 		BeanUtils.getPropertyDescriptors(ArrayList.class);
-		assertTrue(CachedIntrospectionResults.classCache.containsKey(ArrayList.class));
+		assertTrue(isCached(ArrayList.class));
 		CachedIntrospectionResults.clearClassLoader(ArrayList.class.getClassLoader());
-		assertFalse(CachedIntrospectionResults.classCache.containsKey(ArrayList.class));
+		assertFalse(isCached(ArrayList.class));
+	}
+
+	@Test
+	public void concurrentIntrospectionYieldsSingleResult() throws Exception {
+		ClassLoader child = new OverridingClassLoader(getClass().getClassLoader());
+		final Class<?> tbClass = child.loadClass("org.springframework.tests.sample.beans.TestBean");
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<CachedIntrospectionResults>> futures = new ArrayList<Future<CachedIntrospectionResults>>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<CachedIntrospectionResults>() {
+					public CachedIntrospectionResults call() throws Exception {
+						startLatch.await();
+						return CachedIntrospectionResults.forClass(tbClass);
+					}
+				}));
+			}
+			startLatch.countDown();
+			CachedIntrospectionResults results = futures.get(0).get();
+			for (Future<CachedIntrospectionResults> future : futures) {
+				assertSame(results, future.get());
+			}
+			assertSame(results, CachedIntrospectionResults.forClass(tbClass));
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void cacheSizeAndEvictionCount() throws Exception {
+		ClassLoader child = new OverridingClassLoader(getClass().getClassLoader());
+		Class<?> tbClass = child.loadClass("org.springframework.tests.sample.beans.TestBean");
+		CachedIntrospectionResults.acceptClassLoader(child);
+		int size = CachedIntrospectionResults.getClassCacheSize();
+		long evictions = CachedIntrospectionResults.getClassCacheEvictionCount();
+
+		CachedIntrospectionResults.forClass(tbClass);
+		assertEquals(size + 1, CachedIntrospectionResults.getClassCacheSize());
+		CachedIntrospectionResults.forClass(tbClass);
+		assertEquals(size + 1, CachedIntrospectionResults.getClassCacheSize());
+
+		CachedIntrospectionResults.clearClassLoader(child);
+		assertFalse(isCached(tbClass));
+		assertEquals(size, CachedIntrospectionResults.getClassCacheSize());
+		assertEquals(evictions + 1, CachedIntrospectionResults.getClassCacheEvictionCount());
 	}
 
 	@Test
@@ -93,4 +146,10 @@ public final class CachedIntrospectionResultsTests {
 				pd.getWriteMethod(), equalTo(C.class.getMethod("setFoo", String.class)));
 	}
 
+
+	private static boolean isCached(Class<?> beanClass) {
+		return (CachedIntrospectionResults.strongClassCache.containsKey(beanClass) ||
+				CachedIntrospectionResults.softClassCache.containsKey(beanClass));
+	}
+
 }
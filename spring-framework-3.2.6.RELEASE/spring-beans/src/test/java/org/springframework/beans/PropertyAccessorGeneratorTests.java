@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PropertyAccessorGenerator} and its use in {@link BeanWrapperImpl}.
+ */
+public class PropertyAccessorGeneratorTests {
+
+	@Test
+	public void readAndWriteMethods() throws Exception {
+		Method getName = TestBean.class.getMethod("getName");
+		Method setName = TestBean.class.getMethod("setName", String.class);
+		Method getAge = TestBean.class.getMethod("getAge");
+		Method setAge = TestBean.class.getMethod("setAge", int.class);
+		Method setStringArray = TestBean.class.getMethod("setStringArray", String[].class);
+		Map<Method, PropertyAccessorGenerator.MethodInvoker> invokers = PropertyAccessorGenerator.generateInvokers(
+				TestBean.class, Arrays.asList(getName, setName, getAge, setAge, setStringArray));
+		assertEquals(5, invokers.size());
+
+		TestBean tb = new TestBean();
+		assertNull(invokers.get(setName).invoke(tb, "Juergen"));
+		assertNull(invokers.get(setAge).invoke(tb, 42));
+		assertNull(invokers.get(setStringArray).invoke(tb, new String[] {"a", "b"}));
+		assertEquals("Juergen", invokers.get(getName).invoke(tb, null));
+		assertEquals(42, invokers.get(getAge).invoke(tb, null));
+		assertEquals(Arrays.asList("a", "b"), Arrays.asList(tb.getStringArray()));
+	}
+
+	@Test
+	public void interfaceMethods() throws Exception {
+		Method getName = ITestBean.class.getMethod("getName");
+		Method setName = ITestBean.class.getMethod("setName", String.class);
+		Map<Method, PropertyAccessorGenerator.MethodInvoker> invokers =
+				PropertyAccessorGenerator.generateInvokers(ITestBean.class, Arrays.asList(getName, setName));
+		assertEquals(2, invokers.size());
+
+		TestBean tb = new TestBean();
+		invokers.get(setName).invoke(tb, "Rod");
+		assertEquals("Rod", invokers.get(getName).invoke(tb, null));
+	}
+
+	@Test
+	public void applicableArguments() throws Exception {
+		Method setAge = TestBean.class.getMethod("setAge", int.class);
+		Method setName = TestBean.class.getMethod("setName", String.class);
+		Map<Method, PropertyAccessorGenerator.MethodInvoker> invokers =
+				PropertyAccessorGenerator.generateInvokers(TestBean.class, Arrays.asList(setAge, setName));
+		assertTrue(invokers.get(setAge).isApplicable(1));
+		assertFalse(invokers.get(setAge).isApplicable(null));
+		assertFalse(invokers.get(setAge).isApplicable(1L));
+		assertTrue(invokers.get(setName).isApplicable(null));
+		assertFalse(invokers.get(setName).isApplicable(1));
+	}
+
+	@Test
+	public void unsupportedClassesAndMethods() throws Exception {
+		assertTrue(PropertyAccessorGenerator.generateInvokers(NonPublicBean.class,
+				Arrays.asList(NonPublicBean.class.getMethod("getName"))).isEmpty());
+		assertTrue(PropertyAccessorGenerator.generateInvokers(String.class,
+				Arrays.asList(String.class.getMethod("length"))).isEmpty());
+		assertTrue(PropertyAccessorGenerator.generateInvokers(ThrowingBean.class,
+				Arrays.asList(ThrowingBean.class.getMethod("setHidden", NonPublicBean.class))).isEmpty());
+	}
+
+	@Test
+	public void exceptionsAreWrapped() throws Exception {
+		Method getValue = ThrowingBean.class.getMethod("getValue");
+		Map<Method, PropertyAccessorGenerator.MethodInvoker> invokers =
+				PropertyAccessorGenerator.generateInvokers(ThrowingBean.class, Arrays.asList(getValue));
+		try {
+			invokers.get(getValue).invoke(new ThrowingBean(), null);
+			fail("Should have thrown InvocationTargetException");
+		}
+		catch (InvocationTargetException ex) {
+			assertTrue(ex.getTargetException() instanceof UnsupportedOperationException);
+		}
+	}
+
+	@Test
+	public void beanWrapperUsesGeneratedAccessorAfterWarmUp() {
+		ThrowingBean bean = new ThrowingBean();
+		BeanWrapper bw = new BeanWrapperImpl(bean);
+		for (int i = 0; i < 500; i++) {
+			bw.setPropertyValue("count", i);
+			assertEquals(i, bw.getPropertyValue("count"));
+			bw.setPropertyValue("name", "name" + i);
+			assertEquals("name" + i, bw.getPropertyValue("name"));
+		}
+		bw.setPropertyValue("count", "7");
+		assertEquals(7, bean.getCount());
+		bw.setPropertyValue("name", null);
+		assertNull(bean.getName());
+
+		try {
+			bw.getPropertyValue("value");
+			fail("Should have thrown InvalidPropertyException");
+		}
+		catch (InvalidPropertyException ex) {
+			assertTrue(ex.getCause() instanceof InvocationTargetException);
+		}
+		try {
+			bw.setPropertyValue("value", "x");
+			fail("Should have thrown MethodInvocationException");
+		}
+		catch (MethodInvocationException ex) {
+			assertTrue(ex.getCause() instanceof UnsupportedOperationException);
+		}
+		try {
+			bw.setPropertyValue("type", "x");
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			assertTrue(ex.getCause() instanceof ClassCastException);
+		}
+	}
+
+	@Test
+	public void generatedAccessorPerformance() throws Exception {
+		Assume.group(TestGroup.PERFORMANCE);
+		Assume.notLogging(LogFactory.getLog(PropertyAccessorGeneratorTests.class));
+
+		Method getName = TestBean.class.getMethod("getName");
+		Method setName = TestBean.class.getMethod("setName", String.class);
+		PropertyAccessorGenerator.MethodInvoker getter = PropertyAccessorGenerator.generateInvokers(
+				TestBean.class, Arrays.asList(getName)).get(getName);
+		PropertyAccessorGenerator.MethodInvoker setter = PropertyAccessorGenerator.generateInvokers(
+				TestBean.class, Arrays.asList(setName)).get(setName);
+		TestBean tb = new TestBean();
+		int iterations = 10000000;
+
+		StopWatch sw = new StopWatch();
+		sw.start("reflection");
+		for (int i = 0; i < iterations; i++) {
+			setName.invoke(tb, "name");
+			getName.invoke(tb);
+		}
+		sw.stop();
+		long reflectionTime = sw.getLastTaskTimeMillis();
+
+		sw.start("generated");
+		for (int i = 0; i < iterations; i++) {
+			setter.invoke(tb, "name");
+			getter.invoke(tb, null);
+		}
+		sw.stop();
+		long generatedTime = sw.getLastTaskTimeMillis();
+		assertTrue("Generated accessor slower than reflection: " + sw.prettyPrint(), generatedTime <= reflectionTime);
+	}
+
+
+	static class NonPublicBean {
+
+		public String getName() {
+			return "name";
+		}
+	}
+
+
+	public static class ThrowingBean {
+
+		private int count;
+
+		private String name;
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getValue() {
+			throw new UnsupportedOperationException();
+		}
+
+		public void setValue(String value) {
+			throw new UnsupportedOperationException();
+		}
+
+		public String getType() {
+			return null;
+		}
+
+		public void setType(String type) {
+			throw new ClassCastException();
+		}
+
+		public void setHidden(NonPublicBean hidden) {
+		}
+	}
+
+}
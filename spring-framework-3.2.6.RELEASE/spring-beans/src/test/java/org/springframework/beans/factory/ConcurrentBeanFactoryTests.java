@@ -24,6 +24,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,12 +34,15 @@ import org.junit.Test;
 
 import org.springframework.beans.PropertyEditorRegistrar;
 import org.springframework.beans.PropertyEditorRegistry;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.beans.propertyeditors.CustomDateEditor;
 import org.springframework.core.io.Resource;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
+import org.springframework.tests.sample.beans.TestBean;
 
 import static org.junit.Assert.*;
 import static org.springframework.tests.TestResourceUtils.qualifiedResource;
@@ -123,6 +127,68 @@ public final class ConcurrentBeanFactoryTests {
 		}
 	}
 
+	@Test
+	public void testGetBeanThroughput() throws Exception {
+		for (boolean concurrentCreation : new boolean[] {false, true}) {
+			for (int threadCount = 1; threadCount <= 64; threadCount *= 2) {
+				DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+				lbf.setAllowConcurrentSingletonCreation(concurrentCreation);
+				lbf.registerBeanDefinition("singleton", new RootBeanDefinition(TestBean.class));
+				RootBeanDefinition prototype = new RootBeanDefinition(TestBean.class);
+				prototype.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+				prototype.getPropertyValues().add("spouse", new RuntimeBeanReference("singleton"));
+				lbf.registerBeanDefinition("prototype", prototype);
+				for (int i = 0; i < 1000; i++) {
+					RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+					lazy.setLazyInit(true);
+					lbf.registerBeanDefinition("lazy" + i, lazy);
+				}
+				long time = measureGetBean(lbf, threadCount, 20000);
+				logger.info("getBean throughput with " + threadCount + " threads" +
+						(concurrentCreation ? " and concurrent singleton creation" : "") + ": " +
+						(threadCount * 20000L * 3 * 1000 / Math.max(time, 1)) + " calls/sec");
+			}
+		}
+	}
+
+	private long measureGetBean(final BeanFactory beanFactory, int threadCount, final int iterations)
+			throws InterruptedException {
+
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch endLatch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+						Object singleton = beanFactory.getBean("singleton");
+						for (int j = 0; j < iterations; j++) {
+							assertSame(singleton, beanFactory.getBean("singleton"));
+							assertSame(singleton, ((TestBean) beanFactory.getBean("prototype")).getSpouse());
+							beanFactory.getBean("lazy" + (j % 1000));
+						}
+					}
+					catch (Throwable e) {
+						ex = e;
+					}
+					finally {
+						endLatch.countDown();
+					}
+				}
+			};
+			thread.setDaemon(true);
+			thread.start();
+		}
+		long start = System.currentTimeMillis();
+		startLatch.countDown();
+		endLatch.await();
+		if (ex != null) {
+			fail(ex.getMessage());
+		}
+		return System.currentTimeMillis() - start;
+	}
+
 	private void performTest() {
 		ConcurrentBean b1 = (ConcurrentBean) factory.getBean("bean1");
 		ConcurrentBean b2 = (ConcurrentBean) factory.getBean("bean2");
@@ -32,6 +32,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.security.auth.Subject;
 
@@ -49,11 +54,13 @@ import org.springframework.beans.PropertyEditorRegistry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.config.TypedStringValue;
@@ -1671,6 +1678,239 @@ public class DefaultListableBeanFactoryTests {
 		lbf.preInstantiateSingletons();
 	}
 
+	@Test
+	public void testGetBeanNamesForTypeBeforeConfigurationFrozen() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("ntb", new RootBeanDefinition(NestedTestBean.class));
+		lbf.registerBeanDefinition("fb", new RootBeanDefinition(DummyFactory.class));
+		lbf.registerBeanDefinition("dtb", new RootBeanDefinition(DerivedTestBean.class));
+
+		assertEquals(Arrays.asList("tb", "fb", "dtb"), Arrays.asList(lbf.getBeanNamesForType(ITestBean.class)));
+		assertEquals(Arrays.asList("tb", "fb", "dtb"), Arrays.asList(lbf.getBeanNamesForType(TestBean.class)));
+		assertEquals(Arrays.asList("tb", "fb", "dtb"), Arrays.asList(lbf.getBeanNamesForType(Comparable.class)));
+		assertEquals(Arrays.asList("dtb"), Arrays.asList(lbf.getBeanNamesForType(DerivedTestBean.class)));
+		assertEquals(Arrays.asList("ntb"), Arrays.asList(lbf.getBeanNamesForType(NestedTestBean.class)));
+		assertEquals(Arrays.asList("&fb"), Arrays.asList(lbf.getBeanNamesForType(DummyFactory.class)));
+		assertEquals(4, lbf.getBeanNamesForType(Object.class).length);
+
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(NestedTestBean.class));
+		assertEquals(Arrays.asList("fb", "dtb"), Arrays.asList(lbf.getBeanNamesForType(ITestBean.class)));
+		assertEquals(Arrays.asList("tb", "ntb"), Arrays.asList(lbf.getBeanNamesForType(NestedTestBean.class)));
+
+		lbf.removeBeanDefinition("dtb");
+		assertEquals(Arrays.asList("fb"), Arrays.asList(lbf.getBeanNamesForType(ITestBean.class)));
+		assertEquals(0, lbf.getBeanNamesForType(DerivedTestBean.class).length);
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeMatchingSuperInterface() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("bpp", new RootBeanDefinition(AutowiredAnnotationBeanPostProcessor.class));
+
+		assertEquals(Arrays.asList("bpp"), Arrays.asList(lbf.getBeanNamesForType(BeanPostProcessor.class, true, false)));
+		assertEquals(Arrays.asList("bpp"), Arrays.asList(lbf.getBeanNamesForType(InstantiationAwareBeanPostProcessor.class)));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeAfterSingletonCreation() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("factory", new RootBeanDefinition(BeanWithFactoryMethod.class));
+		RootBeanDefinition bd = new RootBeanDefinition();
+		bd.setFactoryBeanName("factory");
+		bd.setFactoryMethodName("createGeneric");
+		lbf.registerBeanDefinition("tb", bd);
+
+		assertEquals(0, lbf.getBeanNamesForType(ITestBean.class).length);
+		lbf.getBean("tb");
+		assertEquals(Arrays.asList("tb"), Arrays.asList(lbf.getBeanNamesForType(ITestBean.class)));
+
+		lbf.destroySingletons();
+		assertEquals(0, lbf.getBeanNamesForType(ITestBean.class).length);
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeAfterPrototypeCreation() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("tb", bd);
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				return bean;
+			}
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return new NestedTestBean(beanName);
+			}
+		});
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			private volatile boolean created;
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return (this.created ? NestedTestBean.class : null);
+			}
+			@Override
+			public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+				this.created = true;
+				return null;
+			}
+		});
+
+		assertEquals(0, lbf.getBeanNamesForType(NestedTestBean.class).length);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(lbf.getBean("tb") instanceof NestedTestBean);
+			assertEquals(Arrays.asList("tb"), Arrays.asList(lbf.getBeanNamesForType(NestedTestBean.class)));
+		}
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithConcurrentSingletonRegistration() throws Exception {
+		final DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("ntb", new RootBeanDefinition(NestedTestBean.class));
+		final TestBean tb = new TestBean();
+		final AtomicBoolean running = new AtomicBoolean(true);
+		Thread registrar = new Thread() {
+			@Override
+			public void run() {
+				while (running.get()) {
+					lbf.registerSingleton("tb", tb);
+					lbf.destroySingleton("tb");
+				}
+			}
+		};
+		registrar.start();
+		try {
+			for (int i = 0; i < 10000; i++) {
+				assertEquals(Arrays.asList("tb"), Arrays.asList(lbf.getBeanNamesForType(ITestBean.class)));
+			}
+		}
+		finally {
+			running.set(false);
+			registrar.join();
+		}
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithTypePredictingPostProcessor() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		assertEquals(0, lbf.getBeanNamesForType(NestedTestBean.class).length);
+
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			@Override
+			public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+				return NestedTestBean.class;
+			}
+		});
+		assertEquals(Arrays.asList("tb"), Arrays.asList(lbf.getBeanNamesForType(NestedTestBean.class)));
+	}
+
+	@Test
+	public void testExtensiveCircularReferenceWithBootstrapExecutor() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		lbf.setBootstrapExecutor(executor);
+		assertTrue(lbf.isAllowConcurrentSingletonCreation());
+		for (int i = 0; i < 1000; i++) {
+			MutablePropertyValues pvs = new MutablePropertyValues();
+			pvs.addPropertyValue(new PropertyValue("spouse", new RuntimeBeanReference("bean" + (i < 99 ? i + 1 : 0))));
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.setPropertyValues(pvs);
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		try {
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdown();
+		}
+		for (int i = 0; i < 1000; i++) {
+			TestBean bean = (TestBean) lbf.getBean("bean" + i);
+			TestBean otherBean = (TestBean) lbf.getBean("bean" + (i < 99 ? i + 1 : 0));
+			assertTrue(bean.getSpouse() == otherBean);
+		}
+	}
+
+	@Test
+	public void testCircularReferenceAcrossThreadsWithBootstrapExecutor() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		lbf.setBootstrapExecutor(executor);
+		// References within managed lists are not known upfront: each bean ends up in its own group.
+		for (int i = 0; i < 100; i++) {
+			ManagedList<RuntimeBeanReference> friends = new ManagedList<RuntimeBeanReference>();
+			friends.add(new RuntimeBeanReference("bean" + ((i + 1) % 100)));
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().add("friends", friends);
+			lbf.registerBeanDefinition("bean" + i, bd);
+		}
+		try {
+			lbf.preInstantiateSingletons();
+		}
+		finally {
+			executor.shutdown();
+		}
+		for (int i = 0; i < 100; i++) {
+			TestBean bean = (TestBean) lbf.getBean("bean" + i);
+			assertSame(lbf.getBean("bean" + ((i + 1) % 100)), bean.getFriends().iterator().next());
+		}
+	}
+
+	@Test
+	public void testFailureWithBootstrapExecutor() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		lbf.setBootstrapExecutor(executor);
+		lbf.registerBeanDefinition("test", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("failing", new RootBeanDefinition(ITestBean.class));
+		try {
+			lbf.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("failing", ex.getBeanName());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testConcurrentSingletonCreation() throws Exception {
+		final DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setAllowConcurrentSingletonCreation(true);
+		RootBeanDefinition bd = new RootBeanDefinition(SlowlyInstantiatedBean.class);
+		bd.setLazyInit(true);
+		lbf.registerBeanDefinition("slow", bd);
+		SlowlyInstantiatedBean.instances.set(0);
+		int threadCount = 8;
+		final Object[] results = new Object[threadCount];
+		final CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			final int index = i;
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						results[index] = lbf.getBean("slow");
+					}
+					finally {
+						latch.countDown();
+					}
+				}
+			}.start();
+		}
+		latch.await();
+		assertEquals(1, SlowlyInstantiatedBean.instances.get());
+		for (Object result : results) {
+			assertSame(lbf.getBean("slow"), result);
+		}
+	}
+
 	@Test
 	public void testBeanDefinitionWithInterface() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
@@ -2353,6 +2593,17 @@ public class DefaultListableBeanFactoryTests {
 	}
 
 
+	public static class SlowlyInstantiatedBean {
+
+		static final AtomicInteger instances = new AtomicInteger();
+
+		public SlowlyInstantiatedBean() throws InterruptedException {
+			Thread.sleep(50);
+			instances.incrementAndGet();
+		}
+	}
+
+
 	public static class ConstructorDependencyFactoryBean implements FactoryBean<Object> {
 
 		public ConstructorDependencyFactoryBean(String dependency) {
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation {@link javax.annotation.processing.Processor Processor} that writes
+ * a {@code META-INF/spring.components} index of the candidate components in
+ * the compiled sources, for consumption by Spring's classpath scanning.
+ *
+ * <p>Each class annotated with {@code @Component} or any annotation meta-annotated
+ * with it (such as {@code @Service}, {@code @Repository}, {@code @Controller} and
+ * {@code @Configuration}) gets listed under the {@code @Component} stereotype.
+ * Classes annotated with {@code javax.annotation.ManagedBean} or
+ * {@code javax.inject.Named} get listed under those annotation names.
+ *
+ * <p>On incremental compilation, entries from a previously written index are
+ * retained for all types that still exist but have not been recompiled.
+ *
+ * @since 3.2.7
+ */
+@SupportedAnnotationTypes("*")
+public class CandidateComponentsIndexer extends AbstractProcessor {
+
+	static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring.components";
+
+	static final String COMPONENT_ANNOTATION = "org.springframework.stereotype.Component";
+
+	private static final Set<String> STANDARD_STEREOTYPES = new HashSet<String>();
+
+	static {
+		STANDARD_STEREOTYPES.add("javax.annotation.ManagedBean");
+		STANDARD_STEREOTYPES.add("javax.inject.Named");
+	}
+
+
+	/** Map from type name to its stereotypes, sorted for a reproducible index file */
+	private final Map<String, Set<String>> entries = new TreeMap<String, Set<String>>();
+
+	/** Names of all types processed in this compilation, indexed or not */
+	private final Set<String> processedTypes = new HashSet<String>();
+
+	private Elements elements;
+
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		this.elements = processingEnv.getElementUtils();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			processElement(element);
+		}
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void processElement(Element element) {
+		if (element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.INTERFACE) {
+			TypeElement type = (TypeElement) element;
+			String typeName = this.elements.getBinaryName(type).toString();
+			this.processedTypes.add(typeName);
+			Set<String> stereotypes = getStereotypes(type);
+			if (!stereotypes.isEmpty()) {
+				this.entries.put(typeName, stereotypes);
+			}
+		}
+		for (Element enclosed : element.getEnclosedElements()) {
+			if (enclosed instanceof TypeElement) {
+				processElement(enclosed);
+			}
+		}
+	}
+
+	private Set<String> getStereotypes(TypeElement type) {
+		Set<String> stereotypes = new LinkedHashSet<String>();
+		for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String annotationName = annotationType.getQualifiedName().toString();
+			if (STANDARD_STEREOTYPES.contains(annotationName)) {
+				stereotypes.add(annotationName);
+			}
+			else if (isComponent(annotationType, new HashSet<String>())) {
+				stereotypes.add(COMPONENT_ANNOTATION);
+			}
+		}
+		return stereotypes;
+	}
+
+	private boolean isComponent(TypeElement annotationType, Set<String> visited) {
+		String annotationName = annotationType.getQualifiedName().toString();
+		if (COMPONENT_ANNOTATION.equals(annotationName)) {
+			return true;
+		}
+		if (annotationName.startsWith("java.lang.annotation.") || !visited.add(annotationName)) {
+			return false;
+		}
+		for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+			if (isComponent((TypeElement) metaAnnotation.getAnnotationType().asElement(), visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		try {
+			mergePreviousIndex();
+			if (this.entries.isEmpty()) {
+				return;
+			}
+			FileObject file = this.processingEnv.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+			OutputStream out = file.openOutputStream();
+			try {
+				Writer writer = new OutputStreamWriter(out, "ISO-8859-1");
+				for (Map.Entry<String, Set<String>> entry : this.entries.entrySet()) {
+					writer.write(entry.getKey());
+					writer.write('=');
+					writer.write(join(entry.getValue()));
+					writer.write('\n');
+				}
+				writer.flush();
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch (IOException ex) {
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Failed to write candidate components index: " + ex);
+		}
+	}
+
+	/**
+	 * Retain the entries of a previously written index for all types that have
+	 * not been processed in this compilation but are still present.
+	 */
+	private void mergePreviousIndex() throws IOException {
+		InputStream in;
+		try {
+			FileObject file = this.processingEnv.getFiler().getResource(
+					StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+			in = file.openInputStream();
+		}
+		catch (IOException ex) {
+			// No previous index
+			return;
+		}
+		catch (IllegalArgumentException ex) {
+			// Some compilers do not support reading from the class output
+			return;
+		}
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, "ISO-8859-1"));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int separator = line.indexOf('=');
+				if (separator == -1 || line.startsWith("#")) {
+					continue;
+				}
+				String typeName = line.substring(0, separator).trim();
+				if (!this.processedTypes.contains(typeName) && !this.entries.containsKey(typeName) &&
+						this.elements.getTypeElement(typeName.replace('$', '.')) != null) {
+					Set<String> stereotypes = new LinkedHashSet<String>();
+					for (String stereotype : line.substring(separator + 1).split(",")) {
+						if (stereotype.trim().length() > 0) {
+							stereotypes.add(stereotype.trim());
+						}
+					}
+					this.entries.put(typeName, stereotypes);
+				}
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private static String join(Set<String> values) {
+		StringBuilder sb = new StringBuilder();
+		for (String value : values) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(value);
+		}
+		return sb.toString();
+	}
+
+}
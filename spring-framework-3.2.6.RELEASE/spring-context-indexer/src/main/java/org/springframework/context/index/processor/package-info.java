@@ -0,0 +1,7 @@
+/**
+ *
+ * Annotation processor that generates the candidate components index
+ * consumed by classpath scanning.
+ *
+ */
+package org.springframework.context.index.processor;
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index.processor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.context.index.sample.MetaController;
+import org.springframework.context.index.sample.SampleComponent;
+import org.springframework.context.index.sample.SampleConfiguration;
+import org.springframework.context.index.sample.SampleEmbedded;
+import org.springframework.context.index.sample.SampleMetaController;
+import org.springframework.context.index.sample.SampleNamed;
+import org.springframework.context.index.sample.SampleNone;
+import org.springframework.context.index.sample.SampleService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CandidateComponentsIndexer}.
+ */
+public class CandidateComponentsIndexerTests {
+
+	private static final String COMPONENT = "org.springframework.stereotype.Component";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File outputLocation;
+
+
+	@Before
+	public void createOutputLocation() throws IOException {
+		this.outputLocation = this.temporaryFolder.newFolder();
+	}
+
+
+	@Test
+	public void stereotypeComponent() throws Exception {
+		Properties index = compile(SampleComponent.class);
+		assertEquals(COMPONENT, index.getProperty(SampleComponent.class.getName()));
+	}
+
+	@Test
+	public void stereotypeMetaAnnotated() throws Exception {
+		Properties index = compile(SampleService.class, SampleConfiguration.class,
+				MetaController.class, SampleMetaController.class);
+		assertEquals(COMPONENT, index.getProperty(SampleService.class.getName()));
+		assertEquals(COMPONENT, index.getProperty(SampleConfiguration.class.getName()));
+		assertEquals(COMPONENT, index.getProperty(SampleMetaController.class.getName()));
+		assertNull(index.getProperty(MetaController.class.getName()));
+	}
+
+	@Test
+	public void stereotypeNamed() throws Exception {
+		Properties index = compile(SampleNamed.class);
+		assertEquals("javax.inject.Named", index.getProperty(SampleNamed.class.getName()));
+	}
+
+	@Test
+	public void stereotypeOnNestedClass() throws Exception {
+		Properties index = compile(SampleEmbedded.class);
+		assertEquals(1, index.size());
+		assertEquals(COMPONENT, index.getProperty(SampleEmbedded.Inner.class.getName()));
+	}
+
+	@Test
+	public void noIndexWithoutCandidates() throws Exception {
+		compile(SampleNone.class);
+		assertFalse(getIndexFile().exists());
+	}
+
+	@Test
+	public void incrementalCompilationRetainsPreviousEntries() throws Exception {
+		compile(SampleComponent.class, SampleService.class);
+		Properties index = compile(SampleNamed.class);
+		assertEquals(3, index.size());
+		assertEquals(COMPONENT, index.getProperty(SampleComponent.class.getName()));
+		assertEquals(COMPONENT, index.getProperty(SampleService.class.getName()));
+		assertEquals("javax.inject.Named", index.getProperty(SampleNamed.class.getName()));
+	}
+
+
+	private Properties compile(Class<?>... types) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+		List<File> sources = new ArrayList<File>();
+		for (Class<?> type : types) {
+			sources.add(new File("src/test/java", type.getName().replace('.', '/') + ".java"));
+		}
+		Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sources);
+		String classPath = this.outputLocation.getAbsolutePath() + File.pathSeparator +
+				System.getProperty("java.class.path");
+		List<String> options = Arrays.asList("-d", this.outputLocation.getAbsolutePath(), "-classpath", classPath);
+		JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+		task.setProcessors(Arrays.asList(new CandidateComponentsIndexer()));
+		assertTrue("Compilation failed", task.call());
+		fileManager.close();
+
+		Properties index = new Properties();
+		File indexFile = getIndexFile();
+		if (indexFile.exists()) {
+			InputStream in = new FileInputStream(indexFile);
+			try {
+				index.load(in);
+			}
+			finally {
+				in.close();
+			}
+		}
+		return index;
+	}
+
+	private File getIndexFile() {
+		return new File(this.outputLocation, CandidateComponentsIndexer.COMPONENTS_RESOURCE_LOCATION);
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+import java.util.concurrent.Future;
+
+/**
+ * Extension of the {@link Cache} interface for caches that can perform lookups
+ * and updates asynchronously, typically remote caches that are able to pipeline
+ * several requests over the same connection.
+ *
+ * <p>The caching interceptor issues the lookups for all asynchronous caches
+ * involved in an invocation before waiting for the first result, and likewise
+ * for updates, instead of performing one blocking round trip after the other.
+ *
+ * @since 3.2.7
+ * @see org.springframework.cache.support.AsyncCacheDecorator
+ */
+public interface AsyncCache extends Cache {
+
+	/**
+	 * Asynchronously look up the value to which this cache maps the specified key.
+	 * @param key the key whose associated value is to be returned
+	 * @return a handle for the lookup, returning the same as {@link #get(Object)}:
+	 * a {@link ValueWrapper} for the cached value, or {@code null} if the cache
+	 * contains no mapping for this key
+	 */
+	Future<ValueWrapper> getAsync(Object key);
+
+	/**
+	 * Asynchronously associate the specified value with the specified key in this cache.
+	 * @param key the key with which the specified value is to be associated
+	 * @param value the value to be associated with the specified key
+	 * @return a handle for the update, completing once the value has been stored
+	 * @see #put(Object, Object)
+	 */
+	Future<?> putAsync(Object key, Object value);
+
+	/**
+	 * Asynchronously evict the mapping for this key from this cache if it is present.
+	 * @param key the key whose mapping is to be removed from the cache
+	 * @return a handle for the eviction, completing once the mapping has been removed
+	 * @see #evict(Object)
+	 */
+	Future<?> evictAsync(Object key);
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Extension of the {@link Cache} interface for caches that can look up and store
+ * several entries at once, typically remote caches offering multi-get and multi-put
+ * operations that need a single round trip for all entries.
+ *
+ * <p>Used by {@link org.springframework.cache.annotation.Cacheable#batch() batch}
+ * cacheable operations. Caches that do not implement this interface are accessed
+ * one entry at a time.
+ *
+ * @since 3.2.7
+ */
+public interface BatchCache extends Cache {
+
+	/**
+	 * Return the values to which this cache maps the specified keys.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a Map from key to {@link ValueWrapper} (which may hold a cached
+	 * {@code null} value), containing only the keys this cache has a mapping for
+	 * @see #get(Object)
+	 */
+	Map<Object, ValueWrapper> getAll(Collection<?> keys);
+
+	/**
+	 * Associate the specified values with their keys in this cache.
+	 * @param entries the keys and values to store
+	 * @see #put(Object, Object)
+	 */
+	void putAll(Map<?, ?> entries);
+
+}
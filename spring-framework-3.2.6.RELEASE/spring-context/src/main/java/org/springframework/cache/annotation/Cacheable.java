@@ -23,6 +23,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.springframework.cache.interceptor.SyncFailurePolicy;
+
 /**
  * Annotation indicating that a method (or all the methods on a class) can be cached.
  *
@@ -66,4 +68,62 @@ public @interface Cacheable {
 	 * @since 3.2
 	 */
 	String unless() default "";
+
+	/**
+	 * Whether to coalesce concurrent invocations missing the cache for the same key:
+	 * only one of them invokes the method, while the others wait for its result.
+	 * Protects the underlying resource from a stampede of identical requests when
+	 * a frequently used entry is missing. Default is {@code false}.
+	 * <p>Requires a single cache, and cannot be combined with other cache
+	 * operations on the same method.
+	 * @since 3.2.7
+	 */
+	boolean sync() default false;
+
+	/**
+	 * The maximum number of milliseconds an invocation waits for the result of
+	 * another invocation in {@link #sync()} mode, before invoking the method itself.
+	 * Default is 0, meaning to wait for as long as it takes.
+	 * @since 3.2.7
+	 */
+	long syncTimeout() default 0;
+
+	/**
+	 * What waiting invocations do in {@link #sync()} mode if the invocation
+	 * that they wait for fails. Default is to rethrow its exception.
+	 * @since 3.2.7
+	 */
+	SyncFailurePolicy syncFailurePolicy() default SyncFailurePolicy.PROPAGATE;
+
+	/**
+	 * The number of milliseconds before expiry from which a cache hit triggers a
+	 * refresh of the entry: the method is invoked in the background, while the
+	 * current value is returned immediately. Keeps frequently used entries from
+	 * ever expiring, without callers waiting for the recomputation. Default is 0,
+	 * meaning that entries are not refreshed ahead of expiry.
+	 * <p>Only effective for caches that expose the time to live of their entries
+	 * through an {@link org.springframework.cache.support.ExpiringValueWrapper}.
+	 * @since 3.2.7
+	 */
+	long refreshAhead() default 0;
+
+	/**
+	 * Whether to cache each element of the method's collection argument separately,
+	 * e.g. for a {@code findByIds(Collection<Long> ids)} method. The cache is looked
+	 * up for every element, and the method is invoked with the missing elements only;
+	 * the result is assembled from cached and freshly computed values. Default is
+	 * {@code false}.
+	 * <p>The first parameter of type {@link java.util.Collection} is used, and the
+	 * key for each element is computed by the key generator as if the element were
+	 * the only method argument, so that cache entries are shared with a method like
+	 * {@code findById(Long id)}. The method has to return either a {@link java.util.Map}
+	 * keyed by element, or a {@link java.util.List} holding one value per element it
+	 * has been invoked with, in iteration order. {@link #unless()} is evaluated for
+	 * each computed value, available as {@code #result}.
+	 * <p>Cannot be combined with a {@link #key()} or with other cache operations on
+	 * the same method. Caches implementing {@link org.springframework.cache.BatchCache}
+	 * are accessed with a single multi-get and multi-put per invocation.
+	 * @since 3.2.7
+	 */
+	boolean batch() default false;
 }
@@ -85,6 +85,11 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		cuo.setCondition(caching.condition());
 		cuo.setUnless(caching.unless());
 		cuo.setKey(caching.key());
+		cuo.setSync(caching.sync());
+		cuo.setSyncTimeout(caching.syncTimeout());
+		cuo.setSyncFailurePolicy(caching.syncFailurePolicy());
+		cuo.setRefreshAhead(caching.refreshAhead());
+		cuo.setBatch(caching.batch());
 		cuo.setName(ae.toString());
 		return cuo;
 	}
@@ -0,0 +1,521 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.ExpiringValueWrapper;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation based on a {@link ConcurrentHashMap}, with an optional
+ * maximum size, time-based expiration of entries and statistics.
+ *
+ * <p>The size of the cache is limited either by number of entries or by the total
+ * weight of its entries as determined by a {@link CacheWeigher}. Once the limit is
+ * exceeded, entries are evicted according to a segmented LRU policy: new entries
+ * start out in a probationary segment and are promoted to a protected segment
+ * (80% of the maximum weight) when accessed again. Entries are evicted from the
+ * probationary segment first, so that a burst of entries being accessed only once
+ * does not flush the frequently used ones.
+ *
+ * <p>Entries may expire a given time after they have been stored ("expire after
+ * write", a.k.a. time to live) and/or after they have been accessed last ("expire
+ * after access", a.k.a. time to idle). Expired entries are never returned, and are
+ * removed on access or when further entries are stored. With "expire after write",
+ * lookups return an {@link ExpiringValueWrapper} exposing the entry's remaining
+ * time to live, allowing for refresh-ahead of entries about to expire.
+ *
+ * <p>Lookups never block: they read the underlying map and record the access in the
+ * eviction order only if no other thread is maintaining it at the same time, so the
+ * LRU order is approximate under contention. Writes are serialized per cache.
+ *
+ * <p>Like {@link ConcurrentMapCache}, this class replaces {@code null} values with
+ * a predefined internal object unless configured to reject them.
+ *
+ * @since 3.2.7
+ * @see ConcurrentMapCacheManager#setMaximumSize
+ * @see ConcurrentMapCacheManager#setExpireAfterWrite
+ * @see ConcurrentMapCacheManager#setExpireAfterAccess
+ */
+public class BoundedConcurrentMapCache implements Cache {
+
+	private static final Object NULL_HOLDER = new NullHolder();
+
+	private static final int PROTECTED_PERCENTAGE = 80;
+
+
+	private final String name;
+
+	private final long maximumWeight;
+
+	private final long maximumProtectedWeight;
+
+	private final CacheWeigher weigher;
+
+	private final long expireAfterWriteNanos;
+
+	private final long expireAfterAccessNanos;
+
+	private final boolean allowNullValues;
+
+	private final CacheStatistics statistics;
+
+	private final boolean evicting;
+
+	private final ConcurrentMap<Object, Node> store = new ConcurrentHashMap<Object, Node>(256);
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	// The following fields are guarded by the eviction lock
+
+	private final Node probationSegment = new Node();
+
+	private final Node protectedSegment = new Node();
+
+	private final Node writeOrder = new Node();
+
+	private long weight;
+
+	private long protectedWeight;
+
+
+	/**
+	 * Create a new BoundedConcurrentMapCache with the given maximum number of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries (0 for no limit)
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumSize) {
+		this(name, maximumSize, null, 0, 0, true, false);
+	}
+
+	/**
+	 * Create a new BoundedConcurrentMapCache.
+	 * @param name the name of the cache
+	 * @param maximumWeight the maximum total weight of all entries (0 for no limit);
+	 * the maximum number of entries if no weigher is specified
+	 * @param weigher the weigher to determine the weight of an entry with
+	 * (may be {@code null} for a weight of 1 per entry)
+	 * @param expireAfterWrite the number of milliseconds after which an entry
+	 * expires once stored (0 for no expiration)
+	 * @param expireAfterAccess the number of milliseconds after which an entry
+	 * expires once stored or accessed last (0 for no expiration)
+	 * @param allowNullValues whether to allow {@code null} values
+	 * (adapting them to an internal null holder value)
+	 * @param statisticsEnabled whether to record statistics for this cache
+	 */
+	public BoundedConcurrentMapCache(String name, long maximumWeight, CacheWeigher weigher,
+			long expireAfterWrite, long expireAfterAccess, boolean allowNullValues, boolean statisticsEnabled) {
+
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(maximumWeight >= 0, "'maximumWeight' must not be negative");
+		Assert.isTrue(expireAfterWrite >= 0, "'expireAfterWrite' must not be negative");
+		Assert.isTrue(expireAfterAccess >= 0, "'expireAfterAccess' must not be negative");
+		this.name = name;
+		this.maximumWeight = maximumWeight;
+		this.maximumProtectedWeight = maximumWeight * PROTECTED_PERCENTAGE / 100;
+		this.weigher = weigher;
+		this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+		this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccess);
+		this.allowNullValues = allowNullValues;
+		this.statistics = (statisticsEnabled ? new CacheStatistics(this) : null);
+		this.evicting = (maximumWeight > 0 || expireAfterWrite > 0 || expireAfterAccess > 0);
+		this.probationSegment.prev = this.probationSegment.next = this.probationSegment;
+		this.protectedSegment.prev = this.protectedSegment.next = this.protectedSegment;
+		this.writeOrder.writePrev = this.writeOrder.writeNext = this.writeOrder;
+	}
+
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * This implementation returns the cache itself, since its internal store
+	 * is not meant to be accessed directly.
+	 */
+	public Object getNativeCache() {
+		return this;
+	}
+
+	public boolean isAllowNullValues() {
+		return this.allowNullValues;
+	}
+
+	/**
+	 * Return the statistics of this cache.
+	 * @return the statistics, or {@code null} if not enabled
+	 */
+	public CacheStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Return the current number of entries in this cache,
+	 * possibly including expired entries that have not been removed yet.
+	 */
+	public int size() {
+		return this.store.size();
+	}
+
+	public ValueWrapper get(Object key) {
+		Node node = this.store.get(key);
+		if (node == null) {
+			if (this.statistics != null) {
+				this.statistics.recordMiss();
+			}
+			return null;
+		}
+		long now = 0;
+		if (this.evicting) {
+			now = currentTimeNanos();
+			if (isExpired(node, now)) {
+				this.evictionLock.lock();
+				try {
+					removeExpired(node);
+				}
+				finally {
+					this.evictionLock.unlock();
+				}
+				if (this.statistics != null) {
+					this.statistics.recordMiss();
+				}
+				return null;
+			}
+			if (this.expireAfterAccessNanos > 0) {
+				node.accessTime = now;
+			}
+			if (this.evictionLock.tryLock()) {
+				try {
+					if (!node.removed) {
+						onAccess(node);
+					}
+				}
+				finally {
+					this.evictionLock.unlock();
+				}
+			}
+		}
+		if (this.statistics != null) {
+			this.statistics.recordHit();
+		}
+		if (this.expireAfterWriteNanos > 0) {
+			long timeToLive = TimeUnit.NANOSECONDS.toMillis(this.expireAfterWriteNanos - (now - node.writeTime));
+			return new ExpiringValue(fromStoreValue(node.value), timeToLive);
+		}
+		return new SimpleValueWrapper(fromStoreValue(node.value));
+	}
+
+	public void put(Object key, Object value) {
+		int nodeWeight = 1;
+		if (this.weigher != null) {
+			nodeWeight = this.weigher.weigh(key, value);
+			Assert.isTrue(nodeWeight >= 0, "CacheWeigher must not return a negative weight");
+		}
+		long now = (this.evicting ? currentTimeNanos() : 0);
+		Node node = new Node(key, toStoreValue(value), nodeWeight, now);
+		if (this.evicting) {
+			this.evictionLock.lock();
+			try {
+				Node oldNode = this.store.put(key, node);
+				if (oldNode != null) {
+					unlink(oldNode);
+				}
+				linkFirst(this.probationSegment, node);
+				linkLast(this.writeOrder, node);
+				this.weight += node.weight;
+				expireEntries(now);
+				evictEntries();
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		else {
+			this.store.put(key, node);
+		}
+		if (this.statistics != null) {
+			this.statistics.recordPut();
+		}
+	}
+
+	public void evict(Object key) {
+		if (this.evicting) {
+			this.evictionLock.lock();
+			try {
+				Node node = this.store.remove(key);
+				if (node != null) {
+					unlink(node);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+		else {
+			this.store.remove(key);
+		}
+	}
+
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			this.store.clear();
+			for (Node node = this.writeOrder.writeNext; node != this.writeOrder; node = node.writeNext) {
+				node.removed = true;
+			}
+			this.probationSegment.prev = this.probationSegment.next = this.probationSegment;
+			this.protectedSegment.prev = this.protectedSegment.next = this.protectedSegment;
+			this.writeOrder.writePrev = this.writeOrder.writeNext = this.writeOrder;
+			this.weight = 0;
+			this.protectedWeight = 0;
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the current time in nanoseconds, as the basis for expiration.
+	 * <p>The default implementation delegates to {@link System#nanoTime()}.
+	 */
+	protected long currentTimeNanos() {
+		return System.nanoTime();
+	}
+
+
+	/**
+	 * Convert the given value from the internal store to a user value
+	 * returned from the get method (adapting {@code null}).
+	 * @param storeValue the store value
+	 * @return the value to return to the user
+	 */
+	protected Object fromStoreValue(Object storeValue) {
+		if (this.allowNullValues && storeValue == NULL_HOLDER) {
+			return null;
+		}
+		return storeValue;
+	}
+
+	/**
+	 * Convert the given user value, as passed into the put method,
+	 * to a value in the internal store (adapting {@code null}).
+	 * @param userValue the given user value
+	 * @return the value to store
+	 */
+	protected Object toStoreValue(Object userValue) {
+		if (this.allowNullValues && userValue == null) {
+			return NULL_HOLDER;
+		}
+		return userValue;
+	}
+
+
+	private boolean isExpired(Node node, long now) {
+		return ((this.expireAfterWriteNanos > 0 && now - node.writeTime >= this.expireAfterWriteNanos) ||
+				(this.expireAfterAccessNanos > 0 && now - node.accessTime >= this.expireAfterAccessNanos));
+	}
+
+	/**
+	 * Move the given node within the eviction order after it has been accessed.
+	 */
+	private void onAccess(Node node) {
+		if (this.maximumWeight == 0) {
+			// Only used for expiration: plain LRU order
+			moveToFront(this.probationSegment, node);
+		}
+		else if (node.protectedEntry) {
+			moveToFront(this.protectedSegment, node);
+		}
+		else {
+			// Promote to the protected segment, demoting its least recently used entries
+			unlinkAccessOrder(node);
+			node.protectedEntry = true;
+			linkFirst(this.protectedSegment, node);
+			this.protectedWeight += node.weight;
+			while (this.protectedWeight > this.maximumProtectedWeight &&
+					this.protectedSegment.prev != this.protectedSegment) {
+				Node demoted = this.protectedSegment.prev;
+				unlinkAccessOrder(demoted);
+				demoted.protectedEntry = false;
+				linkFirst(this.probationSegment, demoted);
+			}
+		}
+	}
+
+	private void expireEntries(long now) {
+		if (this.expireAfterWriteNanos > 0) {
+			Node node = this.writeOrder.writeNext;
+			while (node != this.writeOrder && now - node.writeTime >= this.expireAfterWriteNanos) {
+				Node next = node.writeNext;
+				removeExpired(node);
+				node = next;
+			}
+		}
+		if (this.expireAfterAccessNanos > 0) {
+			expireIdleEntries(this.probationSegment, now);
+			expireIdleEntries(this.protectedSegment, now);
+		}
+	}
+
+	private void expireIdleEntries(Node segment, long now) {
+		Node node = segment.prev;
+		while (node != segment && now - node.accessTime >= this.expireAfterAccessNanos) {
+			Node prev = node.prev;
+			removeExpired(node);
+			node = prev;
+		}
+	}
+
+	private void removeExpired(Node node) {
+		if (!node.removed && this.store.remove(node.key, node)) {
+			unlink(node);
+			if (this.statistics != null) {
+				this.statistics.recordExpiration();
+			}
+		}
+	}
+
+	private void evictEntries() {
+		while (this.maximumWeight > 0 && this.weight > this.maximumWeight) {
+			Node victim = this.probationSegment.prev;
+			if (victim == this.probationSegment) {
+				victim = this.protectedSegment.prev;
+				if (victim == this.protectedSegment) {
+					break;
+				}
+			}
+			this.store.remove(victim.key, victim);
+			unlink(victim);
+			if (this.statistics != null) {
+				this.statistics.recordEviction();
+			}
+		}
+	}
+
+	private void linkFirst(Node segment, Node node) {
+		node.prev = segment;
+		node.next = segment.next;
+		segment.next.prev = node;
+		segment.next = node;
+	}
+
+	private void linkLast(Node sentinel, Node node) {
+		node.writeNext = sentinel;
+		node.writePrev = sentinel.writePrev;
+		sentinel.writePrev.writeNext = node;
+		sentinel.writePrev = node;
+	}
+
+	private void moveToFront(Node segment, Node node) {
+		if (segment.next != node) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			linkFirst(segment, node);
+		}
+	}
+
+	private void unlinkAccessOrder(Node node) {
+		node.prev.next = node.next;
+		node.next.prev = node.prev;
+		node.prev = node.next = null;
+		if (node.protectedEntry) {
+			this.protectedWeight -= node.weight;
+		}
+	}
+
+	private void unlink(Node node) {
+		unlinkAccessOrder(node);
+		node.writePrev.writeNext = node.writeNext;
+		node.writeNext.writePrev = node.writePrev;
+		node.writePrev = node.writeNext = null;
+		this.weight -= node.weight;
+		node.removed = true;
+	}
+
+
+	/**
+	 * A cache entry, linked into the eviction order and the write order.
+	 * Links and flags are guarded by the eviction lock.
+	 */
+	private static final class Node {
+
+		final Object key;
+
+		final Object value;
+
+		final int weight;
+
+		final long writeTime;
+
+		volatile long accessTime;
+
+		volatile boolean removed;
+
+		boolean protectedEntry;
+
+		Node prev;
+
+		Node next;
+
+		Node writePrev;
+
+		Node writeNext;
+
+		Node() {
+			this(null, null, 0, 0);
+		}
+
+		Node(Object key, Object value, int weight, long now) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+
+	/**
+	 * Value wrapper exposing the remaining time to live of an entry.
+	 */
+	private static final class ExpiringValue extends SimpleValueWrapper implements ExpiringValueWrapper {
+
+		private final long timeToLive;
+
+		public ExpiringValue(Object value, long timeToLive) {
+			super(value);
+			this.timeToLive = timeToLive;
+		}
+
+		public long getTimeToLive() {
+			return this.timeToLive;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class NullHolder implements Serializable {
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a {@link BoundedConcurrentMapCache}: counters for hits, misses,
+ * puts, evictions and expirations.
+ *
+ * <p>Implements the {@link CacheStatisticsMBean} interface, so that an instance
+ * can be registered with an MBeanServer as is.
+ *
+ * @since 3.2.7
+ * @see BoundedConcurrentMapCache#getStatistics()
+ * @see ConcurrentMapCacheManager#setMBeanServer
+ */
+public class CacheStatistics implements CacheStatisticsMBean {
+
+	private final BoundedConcurrentMapCache cache;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong putCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong expirationCount = new AtomicLong();
+
+
+	CacheStatistics(BoundedConcurrentMapCache cache) {
+		this.cache = cache;
+	}
+
+
+	public String getCacheName() {
+		return this.cache.getName();
+	}
+
+	public int getSize() {
+		return this.cache.size();
+	}
+
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	public double getHitRatio() {
+		long hits = getHitCount();
+		long requests = hits + getMissCount();
+		return (requests > 0 ? (double) hits / requests : 1.0d);
+	}
+
+	public long getPutCount() {
+		return this.putCount.get();
+	}
+
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	public long getExpirationCount() {
+		return this.expirationCount.get();
+	}
+
+	public void reset() {
+		this.hitCount.set(0);
+		this.missCount.set(0);
+		this.putCount.set(0);
+		this.evictionCount.set(0);
+		this.expirationCount.set(0);
+	}
+
+
+	void recordHit() {
+		this.hitCount.incrementAndGet();
+	}
+
+	void recordMiss() {
+		this.missCount.incrementAndGet();
+	}
+
+	void recordPut() {
+		this.putCount.incrementAndGet();
+	}
+
+	void recordEviction() {
+		this.evictionCount.incrementAndGet();
+	}
+
+	void recordExpiration() {
+		this.expirationCount.incrementAndGet();
+	}
+
+
+	@Override
+	public String toString() {
+		return "CacheStatistics for '" + getCacheName() + "': size=" + getSize() + ", hits=" + getHitCount() +
+				", misses=" + getMissCount() + ", puts=" + getPutCount() + ", evictions=" + getEvictionCount() +
+				", expirations=" + getExpirationCount();
+	}
+
+}
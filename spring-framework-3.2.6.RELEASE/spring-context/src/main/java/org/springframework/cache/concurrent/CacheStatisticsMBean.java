@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+/**
+ * Management interface for the statistics of a {@link BoundedConcurrentMapCache},
+ * following the JMX standard MBean conventions.
+ *
+ * @since 3.2.7
+ * @see CacheStatistics
+ */
+public interface CacheStatisticsMBean {
+
+	/**
+	 * Return the name of the cache.
+	 */
+	String getCacheName();
+
+	/**
+	 * Return the current number of entries in the cache.
+	 */
+	int getSize();
+
+	/**
+	 * Return the number of lookups that found a value.
+	 */
+	long getHitCount();
+
+	/**
+	 * Return the number of lookups that did not find a value.
+	 */
+	long getMissCount();
+
+	/**
+	 * Return the ratio of hits to lookups, or 1 if there were no lookups yet.
+	 */
+	double getHitRatio();
+
+	/**
+	 * Return the number of values stored in the cache.
+	 */
+	long getPutCount();
+
+	/**
+	 * Return the number of entries evicted because of the size limit of the cache.
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Return the number of entries removed because they expired.
+	 */
+	long getExpirationCount();
+
+	/**
+	 * Reset all counters to zero.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+/**
+ * Strategy interface for determining the weight of a cache entry,
+ * used by {@link BoundedConcurrentMapCache} to enforce a maximum weight
+ * instead of a maximum number of entries.
+ *
+ * @since 3.2.7
+ * @see BoundedConcurrentMapCache
+ * @see ConcurrentMapCacheManager#setWeigher
+ */
+public interface CacheWeigher {
+
+	/**
+	 * Return the weight of the given cache entry, in units of the configured
+	 * maximum weight. The weight of an entry is determined once, when it is stored.
+	 * @param key the key of the entry
+	 * @param value the value of the entry (may be {@code null})
+	 * @return the weight of the entry (must not be negative)
+	 */
+	int weigh(Object key, Object value);
+
+}
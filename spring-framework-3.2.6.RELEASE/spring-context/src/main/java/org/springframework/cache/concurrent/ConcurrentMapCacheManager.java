@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,26 @@ package org.springframework.cache.concurrent;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Hashtable;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.MBeanExportException;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * {@link CacheManager} implementation that lazily builds {@link ConcurrentMapCache}
@@ -31,15 +46,53 @@ import org.springframework.cache.CacheManager;
  * the set of cache names is pre-defined through {@link #setCacheNames}, with no
  * dynamic creation of further cache regions at runtime.
  *
+ * <p>By default, caches are unbounded {@link ConcurrentMapCache} instances. Setting a
+ * {@link #setMaximumSize maximum size}, {@link #setMaximumWeight maximum weight},
+ * {@link #setExpireAfterWrite expiration} or {@link #setStatisticsEnabled statistics}
+ * switches to {@link BoundedConcurrentMapCache} instances instead, whose statistics
+ * can be exposed through JMX by specifying an {@link #setMBeanServer MBeanServer}.
+ * Statistics are registered once the manager has been fully configured, i.e. on
+ * {@link #afterPropertiesSet()}, which needs to be called explicitly if the manager
+ * is not defined as a bean.
+ *
  * @author Juergen Hoeller
  * @since 3.1
  */
-public class ConcurrentMapCacheManager implements CacheManager {
+public class ConcurrentMapCacheManager implements CacheManager, BeanNameAware, InitializingBean, DisposableBean {
+
+	/**
+	 * The JMX domain that cache statistics are registered under.
+	 * @see #setMBeanServer
+	 */
+	public static final String STATISTICS_OBJECT_NAME_DOMAIN = "org.springframework.cache";
+
+
+	private final Log logger = LogFactory.getLog(getClass());
 
 	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<String, Cache>(16);
 
 	private boolean dynamic = true;
 
+	private long maximumSize = 0;
+
+	private long maximumWeight = 0;
+
+	private CacheWeigher weigher;
+
+	private long expireAfterWrite = 0;
+
+	private long expireAfterAccess = 0;
+
+	private boolean statisticsEnabled = false;
+
+	private MBeanServer mbeanServer;
+
+	private String beanName;
+
+	private volatile boolean initialized = false;
+
+	private final Map<String, ObjectName> registeredObjectNames = new ConcurrentHashMap<String, ObjectName>(16);
+
 
 	/**
 	 * Construct a dynamic ConcurrentMapCacheManager,
@@ -65,12 +118,114 @@ public class ConcurrentMapCacheManager implements CacheManager {
 	public void setCacheNames(Collection<String> cacheNames) {
 		if (cacheNames != null) {
 			for (String name : cacheNames) {
-				this.cacheMap.put(name, createConcurrentMapCache(name));
+				this.cacheMap.put(name, createCache(name));
 			}
 			this.dynamic = false;
 		}
 	}
 
+	/**
+	 * Set the maximum number of entries per cache, evicting entries beyond that
+	 * size in segmented LRU order. Default is 0, for unbounded caches.
+	 * <p>Cannot be combined with a {@link #setMaximumWeight maximum weight}
+	 * or a {@link #setWeigher weigher}.
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setMaximumSize(long maximumSize) {
+		Assert.isTrue(maximumSize >= 0, "'maximumSize' must not be negative");
+		Assert.state(maximumSize == 0 || (this.maximumWeight == 0 && this.weigher == null),
+				"'maximumSize' cannot be combined with 'maximumWeight' or 'weigher'");
+		this.maximumSize = maximumSize;
+		recreateCaches();
+	}
+
+	/**
+	 * Set the maximum total weight of the entries per cache, as determined by the
+	 * {@link #setWeigher weigher}. Default is 0, for unbounded caches.
+	 * <p>Cannot be combined with a {@link #setMaximumSize maximum size}.
+	 * @see BoundedConcurrentMapCache
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+		Assert.isTrue(maximumWeight >= 0, "'maximumWeight' must not be negative");
+		Assert.state(maximumWeight == 0 || this.maximumSize == 0,
+				"'maximumWeight' cannot be combined with 'maximumSize'");
+		this.maximumWeight = maximumWeight;
+		recreateCaches();
+	}
+
+	/**
+	 * Set the weigher to determine the weight of each cache entry with,
+	 * to be used in combination with {@link #setMaximumWeight}.
+	 * Default is a weight of 1 per entry.
+	 * <p>Cannot be combined with a {@link #setMaximumSize maximum size}.
+	 */
+	public void setWeigher(CacheWeigher weigher) {
+		Assert.state(weigher == null || this.maximumSize == 0,
+				"'weigher' cannot be combined with 'maximumSize'");
+		this.weigher = weigher;
+		recreateCaches();
+	}
+
+	/**
+	 * Set the number of milliseconds after which a cache entry expires once it
+	 * has been stored ("time to live"). Default is 0, for no expiration.
+	 */
+	public void setExpireAfterWrite(long expireAfterWrite) {
+		Assert.isTrue(expireAfterWrite >= 0, "'expireAfterWrite' must not be negative");
+		this.expireAfterWrite = expireAfterWrite;
+		recreateCaches();
+	}
+
+	/**
+	 * Set the number of milliseconds after which a cache entry expires once it
+	 * has been stored or accessed last ("time to idle"). Default is 0, for no expiration.
+	 */
+	public void setExpireAfterAccess(long expireAfterAccess) {
+		Assert.isTrue(expireAfterAccess >= 0, "'expireAfterAccess' must not be negative");
+		this.expireAfterAccess = expireAfterAccess;
+		recreateCaches();
+	}
+
+	/**
+	 * Set whether to record hit, miss, put, eviction and expiration counts for each cache.
+	 * Default is "false", or "true" if an {@link #setMBeanServer MBeanServer} is specified.
+	 * @see BoundedConcurrentMapCache#getStatistics()
+	 */
+	public void setStatisticsEnabled(boolean statisticsEnabled) {
+		this.statisticsEnabled = statisticsEnabled;
+		recreateCaches();
+	}
+
+	/**
+	 * Specify an MBeanServer to register the {@link CacheStatistics} of each cache with.
+	 * <p>Statistics are registered under the {@link #STATISTICS_OBJECT_NAME_DOMAIN} domain,
+	 * with a "cacheManager" key holding the bean name of this CacheManager and a "name"
+	 * key holding the quoted cache name. They are registered on {@link #afterPropertiesSet()},
+	 * or on creation for caches created afterwards, and unregistered on {@link #destroy()}.
+	 */
+	public void setMBeanServer(MBeanServer mbeanServer) {
+		unregisterAllStatistics();
+		this.mbeanServer = mbeanServer;
+		recreateCaches();
+	}
+
+	public void setBeanName(String name) {
+		this.beanName = name;
+	}
+
+	/**
+	 * Register the statistics of all caches created so far with the MBeanServer,
+	 * if any. Statistics of caches created later on are registered on creation.
+	 */
+	public void afterPropertiesSet() {
+		synchronized (this.cacheMap) {
+			this.initialized = true;
+			for (Map.Entry<String, Cache> entry : this.cacheMap.entrySet()) {
+				registerStatisticsIfNecessary(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
 	public Collection<String> getCacheNames() {
 		return Collections.unmodifiableSet(this.cacheMap.keySet());
 	}
@@ -81,7 +236,7 @@ public class ConcurrentMapCacheManager implements CacheManager {
 			synchronized (this.cacheMap) {
 				cache = this.cacheMap.get(name);
 				if (cache == null) {
-					cache = createConcurrentMapCache(name);
+					cache = createCache(name);
 					this.cacheMap.put(name, cache);
 				}
 			}
@@ -89,13 +244,91 @@ public class ConcurrentMapCacheManager implements CacheManager {
 		return cache;
 	}
 
+	/**
+	 * Unregister the statistics of all caches from the MBeanServer, if any.
+	 */
+	public void destroy() {
+		this.initialized = false;
+		unregisterAllStatistics();
+	}
+
+	private void recreateCaches() {
+		for (Map.Entry<String, Cache> entry : this.cacheMap.entrySet()) {
+			unregisterStatistics(entry.getKey());
+			entry.setValue(createCache(entry.getKey()));
+		}
+	}
+
+	private Cache createCache(String name) {
+		Cache cache = createConcurrentMapCache(name);
+		if (this.initialized) {
+			registerStatisticsIfNecessary(name, cache);
+		}
+		return cache;
+	}
+
 	/**
 	 * Create a new ConcurrentMapCache instance for the specified cache name.
+	 * <p>Returns a {@link BoundedConcurrentMapCache} if a maximum size, an
+	 * expiration or statistics have been configured.
 	 * @param name the name of the cache
 	 * @return the ConcurrentMapCache (or a decorator thereof)
 	 */
 	protected Cache createConcurrentMapCache(String name) {
+		boolean statistics = (this.statisticsEnabled || this.mbeanServer != null);
+		long maximum = (this.maximumSize > 0 ? this.maximumSize : this.maximumWeight);
+		if (maximum > 0 || this.expireAfterWrite > 0 || this.expireAfterAccess > 0 || statistics) {
+			return new BoundedConcurrentMapCache(name, maximum, this.weigher,
+					this.expireAfterWrite, this.expireAfterAccess, true, statistics);
+		}
 		return new ConcurrentMapCache(name);
 	}
 
+	private void registerStatisticsIfNecessary(String name, Cache cache) {
+		if (this.mbeanServer != null && cache instanceof BoundedConcurrentMapCache &&
+				!this.registeredObjectNames.containsKey(name)) {
+			CacheStatistics statistics = ((BoundedConcurrentMapCache) cache).getStatistics();
+			if (statistics != null) {
+				registerStatistics(name, statistics);
+			}
+		}
+	}
+
+	private void registerStatistics(String name, CacheStatistics statistics) {
+		try {
+			Hashtable<String, String> properties = new Hashtable<String, String>();
+			properties.put("type", "CacheStatistics");
+			properties.put("cacheManager", (this.beanName != null ? ObjectName.quote(this.beanName) :
+					ObjectUtils.getIdentityHexString(this)));
+			properties.put("name", ObjectName.quote(name));
+			ObjectName objectName = ObjectName.getInstance(STATISTICS_OBJECT_NAME_DOMAIN, properties);
+			this.mbeanServer.registerMBean(statistics, objectName);
+			this.registeredObjectNames.put(name, objectName);
+		}
+		catch (JMException ex) {
+			throw new MBeanExportException("Unable to register statistics of cache '" + name + "'", ex);
+		}
+	}
+
+	private void unregisterAllStatistics() {
+		for (String name : this.registeredObjectNames.keySet()) {
+			unregisterStatistics(name);
+		}
+	}
+
+	private void unregisterStatistics(String name) {
+		ObjectName objectName = this.registeredObjectNames.remove(name);
+		if (objectName != null) {
+			try {
+				this.mbeanServer.unregisterMBean(objectName);
+			}
+			catch (InstanceNotFoundException ex) {
+				// Unregistered by someone else in the meantime - fine
+			}
+			catch (JMException ex) {
+				logger.warn("Unable to unregister statistics of cache '" + name + "'", ex);
+			}
+		}
+	}
+
 }
@@ -19,6 +19,7 @@ package org.springframework.cache.config;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.parsing.ReaderContext;
@@ -35,6 +36,7 @@ import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
 import org.springframework.cache.interceptor.CacheableOperation;
 import org.springframework.cache.interceptor.NameMatchCacheOperationSource;
+import org.springframework.cache.interceptor.SyncFailurePolicy;
 import org.springframework.util.StringUtils;
 import org.springframework.util.xml.DomUtils;
 import org.w3c.dom.Element;
@@ -160,6 +162,27 @@ class CacheAdviceParser extends AbstractSingleBeanDefinitionParser {
 			CacheableOperation op = prop.merge(opElement, parserContext.getReaderContext(), new CacheableOperation());
 			op.setUnless(getAttributeValue(opElement, "unless", ""));
 
+			String sync = opElement.getAttribute("sync");
+			if (StringUtils.hasText(sync)) {
+				op.setSync(Boolean.valueOf(sync.trim()));
+			}
+			String syncTimeout = opElement.getAttribute("sync-timeout");
+			if (StringUtils.hasText(syncTimeout)) {
+				op.setSyncTimeout(Long.valueOf(syncTimeout.trim()));
+			}
+			String syncFailurePolicy = opElement.getAttribute("sync-failure-policy");
+			if (StringUtils.hasText(syncFailurePolicy)) {
+				op.setSyncFailurePolicy(SyncFailurePolicy.valueOf(syncFailurePolicy.trim().toUpperCase(Locale.ENGLISH)));
+			}
+			String refreshAhead = opElement.getAttribute("refresh-ahead");
+			if (StringUtils.hasText(refreshAhead)) {
+				op.setRefreshAhead(Long.valueOf(refreshAhead.trim()));
+			}
+			String batch = opElement.getAttribute("batch");
+			if (StringUtils.hasText(batch)) {
+				op.setBatch(Boolean.valueOf(batch.trim()));
+			}
+
 			Collection<CacheOperation> col = cacheOpMap.get(nameHolder);
 			if (col == null) {
 				col = new ArrayList<CacheOperation>(2);
@@ -19,17 +19,33 @@ package org.springframework.cache.interceptor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.AsyncCache;
+import org.springframework.cache.BatchCache;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.ExpiringValueWrapper;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -79,6 +95,13 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 	private KeyGenerator keyGenerator = new DefaultKeyGenerator();
 
+	private final ConcurrentMap<SyncKey, SyncComputation> syncComputations =
+			new ConcurrentHashMap<SyncKey, SyncComputation>(64);
+
+	private TaskExecutor refreshExecutor = new SimpleAsyncTaskExecutor("cache-refresh-");
+
+	private final ConcurrentMap<SyncKey, Boolean> refreshesInProgress = new ConcurrentHashMap<SyncKey, Boolean>(16);
+
 	private boolean initialized = false;
 
 
@@ -130,6 +153,29 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		return this.keyGenerator;
 	}
 
+	/**
+	 * Set the executor to refresh cache entries on, for cacheable operations
+	 * that refresh their entries ahead of expiry. Default is a
+	 * {@link SimpleAsyncTaskExecutor}, using a new thread for each refresh.
+	 * <p>A refresh invokes the advised method on an executor thread, after the
+	 * invocation that triggered it has returned the cached value. Thread-bound
+	 * state of the caller, such as a transaction, is not available to it.
+	 * @since 3.2.7
+	 * @see CacheableOperation#setRefreshAhead
+	 */
+	public void setRefreshExecutor(TaskExecutor refreshExecutor) {
+		Assert.notNull(refreshExecutor, "TaskExecutor must not be null");
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * Return the executor to refresh cache entries on.
+	 * @since 3.2.7
+	 */
+	public TaskExecutor getRefreshExecutor() {
+		return this.refreshExecutor;
+	}
+
 	public void afterPropertiesSet() {
 		if (this.cacheManager == null) {
 			throw new IllegalStateException("'cacheManager' is required");
@@ -195,12 +241,17 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		// analyze caching information
 		//如果没有拦截的注解，直接调用方法
 		if (!CollectionUtils.isEmpty(cacheOp)) {
+			CacheableOperation exclusiveOp = determineExclusiveOperation(cacheOp);
+			if (exclusiveOp != null) {
+				CacheOperationContext context = getOperationContext(exclusiveOp, method, args, target, targetClass);
+				return (exclusiveOp.isBatch() ? executeBatch(invoker, context) : executeSynchronized(invoker, context));
+			}
 		    //CacheOperationContext 包装所有的CacheManager里面的所有操作
 			Map<String, Collection<CacheOperationContext>> ops = createOperationContext(cacheOp, method, args, target, targetClass);
 			// start with evictions
 			inspectBeforeCacheEvicts(ops.get(EVICT));
 			// follow up with cacheable
-			CacheStatus status = inspectCacheables(ops.get(CACHEABLE));
+			CacheStatus status = inspectCacheables(ops.get(CACHEABLE), invoker);
 			Object retVal;
 			Map<CacheOperationContext, Object> updates = inspectCacheUpdates(ops.get(UPDATE));
 			if (status != null) {
@@ -223,6 +274,312 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		return invoker.invoke();
 	}
 
+	/**
+	 * Return the synchronized or batch cacheable operation among the given operations,
+	 * if any, checking that it is the only operation. A synchronized operation also has
+	 * to use a single cache, and a batch operation must not specify a key.
+	 */
+	private CacheableOperation determineExclusiveOperation(Collection<CacheOperation> cacheOperations) {
+		for (CacheOperation cacheOperation : cacheOperations) {
+			if (!(cacheOperation instanceof CacheableOperation)) {
+				continue;
+			}
+			CacheableOperation cacheableOperation = (CacheableOperation) cacheOperation;
+			if (cacheableOperation.isSync() || cacheableOperation.isBatch()) {
+				String mode = (cacheableOperation.isSync() ? "synchronized" : "batch");
+				if (cacheOperations.size() > 1) {
+					throw new IllegalStateException("A " + mode + " cacheable operation cannot be combined " +
+							"with other cache operations on the same method: " + cacheOperations);
+				}
+				if (cacheableOperation.isSync() && cacheableOperation.isBatch()) {
+					throw new IllegalStateException("A cacheable operation cannot be " +
+							"synchronized and batch at the same time: " + cacheOperation);
+				}
+				if (cacheableOperation.isSync() && cacheOperation.getCacheNames().size() != 1) {
+					throw new IllegalStateException("A synchronized cacheable operation " +
+							"has to specify exactly one cache: " + cacheOperation);
+				}
+				if (cacheableOperation.isBatch() && StringUtils.hasText(cacheOperation.getKey())) {
+					throw new IllegalStateException("A batch cacheable operation uses the elements of " +
+							"its collection argument as keys and cannot specify a key: " + cacheOperation);
+				}
+				return cacheableOperation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Execute a synchronized cacheable operation: on a cache miss, only one caller
+	 * per cache and key invokes the method, with concurrent callers for the same key
+	 * waiting for its outcome.
+	 */
+	private Object executeSynchronized(Invoker invoker, CacheOperationContext context) {
+		if (!context.isConditionPassing()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cache condition failed on method " + context.method + " for operation " + context.operation);
+			}
+			return invoker.invoke();
+		}
+		Object key = context.generateKey();
+		if (key == null) {
+			throw new IllegalArgumentException("Null key returned for cache operation (maybe you " +
+					"are using named params on classes without debug info?) " + context.operation);
+		}
+		CacheableOperation operation = (CacheableOperation) context.operation;
+		Cache cache = context.getCaches().iterator().next();
+		SyncKey syncKey = new SyncKey(cache, key);
+		while (true) {
+			Cache.ValueWrapper wrapper = cache.get(key);
+			if (wrapper != null) {
+				refreshIfExpiring(wrapper, context, cache, key, invoker,
+						Collections.<CacheOperationContext, Object>singletonMap(context, key));
+				return wrapper.get();
+			}
+			SyncComputation computation = new SyncComputation();
+			SyncComputation inFlight = this.syncComputations.putIfAbsent(syncKey, computation);
+			if (inFlight == null) {
+				return computeSynchronized(invoker, context, cache, key, syncKey, computation);
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Waiting for concurrent computation of cache key " + key + " for operation " + operation);
+			}
+			if (!inFlight.await(operation.getSyncTimeout())) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Timed out waiting for concurrent computation of cache key " + key +
+							" for operation " + operation + " - invoking method instead");
+				}
+				return invoker.invoke();
+			}
+			if (inFlight.failure == null) {
+				return inFlight.result;
+			}
+			if (operation.getSyncFailurePolicy() == SyncFailurePolicy.PROPAGATE) {
+				throw inFlight.failure;
+			}
+			// SyncFailurePolicy.RETRY: check the cache again, and possibly compute the value ourselves
+		}
+	}
+
+	private Object computeSynchronized(Invoker invoker, CacheOperationContext context, Cache cache, Object key,
+			SyncKey syncKey, SyncComputation computation) {
+
+		// The computation gets unregistered before waiting callers are released:
+		// otherwise, a retrying caller could find the failed computation again.
+		Object retVal;
+		try {
+			// Another caller may have completed its computation right before we registered ours
+			Cache.ValueWrapper wrapper = cache.get(key);
+			retVal = (wrapper != null ? wrapper.get() : invoker.invoke());
+			if (wrapper == null && context.canPutToCache(retVal)) {
+				cache.put(key, retVal);
+			}
+		}
+		catch (RuntimeException ex) {
+			this.syncComputations.remove(syncKey, computation);
+			computation.fail(ex);
+			throw ex;
+		}
+		catch (Error err) {
+			this.syncComputations.remove(syncKey, computation);
+			computation.fail(err);
+			throw err;
+		}
+		this.syncComputations.remove(syncKey, computation);
+		computation.succeed(retVal);
+		return retVal;
+	}
+
+	/**
+	 * Execute a batch cacheable operation: look up each element of the collection
+	 * argument in the caches, invoke the method for the missing elements only, and
+	 * assemble the result from the cached and the computed values.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object executeBatch(Invoker invoker, CacheOperationContext context) {
+		if (!context.isConditionPassing()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cache condition failed on method " + context.method + " for operation " + context.operation);
+			}
+			return invoker.invoke();
+		}
+		int index = getCollectionArgumentIndex(context.method);
+		Collection<?> elements = (Collection<?>) context.args[index];
+		if (CollectionUtils.isEmpty(elements)) {
+			return invoker.invoke();
+		}
+		Class<?> returnType = context.method.getReturnType();
+		boolean mapResult = returnType.isAssignableFrom(LinkedHashMap.class) && !Object.class.equals(returnType);
+		if (!mapResult && !(returnType.isAssignableFrom(ArrayList.class) && !Object.class.equals(returnType))) {
+			throw new IllegalStateException("A method with a batch cacheable operation has to " +
+					"return a Map or a List: " + context.method);
+		}
+
+		// element -> key, in iteration order and without duplicates
+		Map<Object, Object> keys = new LinkedHashMap<Object, Object>(elements.size());
+		for (Object element : elements) {
+			if (!keys.containsKey(element)) {
+				Object key = this.keyGenerator.generate(context.target, context.method, element);
+				if (key == null) {
+					throw new IllegalArgumentException("Null key returned for cache operation " + context.operation);
+				}
+				keys.put(element, key);
+			}
+		}
+		Map<Object, Object> values = new LinkedHashMap<Object, Object>(keys.size());
+		for (Cache cache : context.getCaches()) {
+			if (values.size() == keys.size()) {
+				break;
+			}
+			lookUpAll(cache, keys, values);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Found " + values.size() + " of " + keys.size() + " elements in cache for operation " +
+					context.operation);
+		}
+
+		Map<Object, Object> computedValues = Collections.emptyMap();
+		if (values.size() < keys.size()) {
+			Collection<Object> missing = CollectionFactory.createApproximateCollection(elements, keys.size() - values.size());
+			for (Object element : keys.keySet()) {
+				if (!values.containsKey(element)) {
+					missing.add(element);
+				}
+			}
+			Object retVal;
+			context.args[index] = missing;
+			try {
+				retVal = invoker.invoke();
+			}
+			finally {
+				context.args[index] = elements;
+			}
+			computedValues = getComputedValues(retVal, mapResult, missing, elements, context.method);
+			storeAll(context, keys, computedValues);
+		}
+
+		if (mapResult) {
+			Map<Object, Object> result = new LinkedHashMap<Object, Object>(keys.size());
+			for (Object element : keys.keySet()) {
+				if (values.containsKey(element)) {
+					result.put(element, values.get(element));
+				}
+				else if (computedValues.containsKey(element)) {
+					result.put(element, computedValues.get(element));
+				}
+			}
+			return result;
+		}
+		List<Object> result = new ArrayList<Object>(elements.size());
+		for (Object element : elements) {
+			result.add(values.containsKey(element) ? values.get(element) : computedValues.get(element));
+		}
+		return result;
+	}
+
+	private int getCollectionArgumentIndex(Method method) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("A method with a batch cacheable operation has to " +
+				"declare a Collection parameter: " + method);
+	}
+
+	/**
+	 * Look up the keys of the elements not found yet in the given cache.
+	 * @param keys the elements and their keys
+	 * @param values the cached values found so far, by element
+	 */
+	private void lookUpAll(Cache cache, Map<Object, Object> keys, Map<Object, Object> values) {
+		if (cache instanceof BatchCache) {
+			List<Object> missingKeys = new ArrayList<Object>(keys.size() - values.size());
+			for (Map.Entry<Object, Object> entry : keys.entrySet()) {
+				if (!values.containsKey(entry.getKey())) {
+					missingKeys.add(entry.getValue());
+				}
+			}
+			Map<Object, Cache.ValueWrapper> found = ((BatchCache) cache).getAll(missingKeys);
+			if (!found.isEmpty()) {
+				for (Map.Entry<Object, Object> entry : keys.entrySet()) {
+					Cache.ValueWrapper wrapper = found.get(entry.getValue());
+					if (wrapper != null && !values.containsKey(entry.getKey())) {
+						values.put(entry.getKey(), wrapper.get());
+					}
+				}
+			}
+		}
+		else {
+			for (Map.Entry<Object, Object> entry : keys.entrySet()) {
+				if (!values.containsKey(entry.getKey())) {
+					Cache.ValueWrapper wrapper = cache.get(entry.getValue());
+					if (wrapper != null) {
+						values.put(entry.getKey(), wrapper.get());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Map the result of the method invocation for the given missing elements to
+	 * those elements. A List result is also accepted if it holds a value for every
+	 * element of the original argument, in case the invoker could not pass on the
+	 * reduced collection to the method.
+	 */
+	private Map<Object, Object> getComputedValues(Object retVal, boolean mapResult,
+			Collection<?> missing, Collection<?> elements, Method method) {
+
+		Map<Object, Object> computedValues = new LinkedHashMap<Object, Object>(missing.size());
+		if (retVal == null) {
+			return computedValues;
+		}
+		if (mapResult) {
+			computedValues.putAll((Map<?, ?>) retVal);
+			return computedValues;
+		}
+		List<?> list = (List<?>) retVal;
+		Collection<?> invokedElements = (list.size() == missing.size() ? missing :
+				(list.size() == elements.size() ? elements : null));
+		if (invokedElements == null) {
+			throw new IllegalStateException("A method with a batch cacheable operation has to return " +
+					"one List element per element of its Collection parameter: " + method);
+		}
+		Iterator<?> it = list.iterator();
+		for (Object element : invokedElements) {
+			computedValues.put(element, it.next());
+		}
+		return computedValues;
+	}
+
+	/**
+	 * Store the computed values in all caches of the operation, unless vetoed.
+	 */
+	private void storeAll(CacheOperationContext context, Map<Object, Object> keys, Map<Object, Object> computedValues) {
+		Map<Object, Object> entries = new LinkedHashMap<Object, Object>(computedValues.size());
+		for (Map.Entry<Object, Object> entry : computedValues.entrySet()) {
+			Object key = keys.get(entry.getKey());
+			if (key != null && context.canPutToCache(entry.getValue())) {
+				entries.put(key, entry.getValue());
+			}
+		}
+		if (entries.isEmpty()) {
+			return;
+		}
+		for (Cache cache : context.getCaches()) {
+			if (cache instanceof BatchCache) {
+				((BatchCache) cache).putAll(entries);
+			}
+			else {
+				for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+					cache.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
 	private void inspectBeforeCacheEvicts(Collection<CacheOperationContext> evictions) {
 		inspectCacheEvicts(evictions, true, ExpressionEvaluator.NO_RESULT);
 	}
@@ -241,6 +598,7 @@ public abstract class CacheAspectSupport implements InitializingBean {
 						// for each cache
 						// lazy key initialization
 						Object key = null;
+						List<Future<?>> pendingEvictions = null;
 						for (Cache cache : context.getCaches()) {
 							// cache-wide flush
 							if (evictOp.isCacheWide()) {
@@ -257,9 +615,18 @@ public abstract class CacheAspectSupport implements InitializingBean {
 								if (log) {
 									logger.trace("Invalidating cache key " + key + " for operation " + evictOp + " on method " + context.method);
 								}
-								cache.evict(key);
+								if (cache instanceof AsyncCache) {
+									if (pendingEvictions == null) {
+										pendingEvictions = new ArrayList<Future<?>>();
+									}
+									pendingEvictions.add(((AsyncCache) cache).evictAsync(key));
+								}
+								else {
+									cache.evict(key);
+								}
 							}
 						}
+						awaitAll(pendingEvictions);
 					}
 					else {
 						if (log) {
@@ -271,10 +638,8 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		}
 	}
 
-	private CacheStatus inspectCacheables(Collection<CacheOperationContext> cacheables) {
+	private CacheStatus inspectCacheables(Collection<CacheOperationContext> cacheables, Invoker invoker) {
 		Map<CacheOperationContext, Object> cacheUpdates = new LinkedHashMap<CacheOperationContext, Object>(cacheables.size());
-		boolean cacheHit = false;
-		Object retVal = null;
 
 		if (!cacheables.isEmpty()) {
 			boolean log = logger.isTraceEnabled();
@@ -292,17 +657,6 @@ public abstract class CacheAspectSupport implements InitializingBean {
 					}
 					// add op/key (in case an update is discovered later on)
 					cacheUpdates.put(context, key);
-					// check whether the cache needs to be inspected or not (the method will be invoked anyway)
-					if (!cacheHit) {
-						for (Cache cache : context.getCaches()) {
-							Cache.ValueWrapper wrapper = cache.get(key);
-							if (wrapper != null) {
-								retVal = wrapper.get();
-								cacheHit = true;
-								break;
-							}
-						}
-					}
 				}
 				else {
 					if (log) {
@@ -313,13 +667,114 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 			// return a status only if at least one cacheable matched
 			if (atLeastOnePassed) {
-				return new CacheStatus(cacheUpdates, !cacheHit, retVal);
+				Cache.ValueWrapper wrapper = findCachedValue(cacheUpdates, invoker);
+				return new CacheStatus(cacheUpdates, wrapper == null, (wrapper != null ? wrapper.get() : null));
 			}
 		}
 
 		return null;
 	}
 
+	/**
+	 * Look up the given keys in the caches of their operations, returning the first
+	 * value found. Lookups against {@link AsyncCache}s are all issued upfront, so that
+	 * they overlap rather than being performed one after the other.
+	 */
+	private Cache.ValueWrapper findCachedValue(Map<CacheOperationContext, Object> keys, Invoker invoker) {
+		List<Future<Cache.ValueWrapper>> asyncLookups = startAsyncLookups(keys);
+		int index = 0;
+		for (Map.Entry<CacheOperationContext, Object> entry : keys.entrySet()) {
+			for (Cache cache : entry.getKey().getCaches()) {
+				Future<Cache.ValueWrapper> asyncLookup = (asyncLookups != null ? asyncLookups.get(index++) : null);
+				Cache.ValueWrapper wrapper = (asyncLookup != null ? getResult(asyncLookup) : cache.get(entry.getValue()));
+				if (wrapper != null) {
+					refreshIfExpiring(wrapper, entry.getKey(), cache, entry.getValue(), invoker, keys);
+					return wrapper;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Start the lookups against asynchronous caches, if there are any among
+	 * several lookups to perform.
+	 * @return the lookups in order, with {@code null} elements for caches that are
+	 * not asynchronous, or {@code null} if all lookups are to be done synchronously
+	 */
+	private List<Future<Cache.ValueWrapper>> startAsyncLookups(Map<CacheOperationContext, Object> keys) {
+		int lookupCount = 0;
+		boolean async = false;
+		for (CacheOperationContext context : keys.keySet()) {
+			for (Cache cache : context.getCaches()) {
+				lookupCount++;
+				async |= (cache instanceof AsyncCache);
+			}
+		}
+		if (!async || lookupCount < 2) {
+			return null;
+		}
+		List<Future<Cache.ValueWrapper>> lookups = new ArrayList<Future<Cache.ValueWrapper>>(lookupCount);
+		for (Map.Entry<CacheOperationContext, Object> entry : keys.entrySet()) {
+			for (Cache cache : entry.getKey().getCaches()) {
+				lookups.add(cache instanceof AsyncCache ? ((AsyncCache) cache).getAsync(entry.getValue()) : null);
+			}
+		}
+		return lookups;
+	}
+
+	/**
+	 * Refresh the given cache hit in the background if its operation asks for
+	 * refresh-ahead and the entry is about to expire.
+	 */
+	private void refreshIfExpiring(Cache.ValueWrapper wrapper, CacheOperationContext context, Cache cache,
+			Object key, Invoker invoker, Map<CacheOperationContext, Object> updates) {
+
+		if (wrapper instanceof ExpiringValueWrapper && context.operation instanceof CacheableOperation) {
+			long refreshAhead = ((CacheableOperation) context.operation).getRefreshAhead();
+			long timeToLive = ((ExpiringValueWrapper) wrapper).getTimeToLive();
+			if (refreshAhead > 0 && timeToLive >= 0 && timeToLive <= refreshAhead) {
+				refreshInBackground(invoker, new SyncKey(cache, key), updates);
+			}
+		}
+	}
+
+	/**
+	 * Invoke the method on the refresh executor and store its result, unless
+	 * a refresh of the same entry is in progress already.
+	 */
+	private void refreshInBackground(final Invoker invoker, final SyncKey refreshKey,
+			final Map<CacheOperationContext, Object> updates) {
+
+		if (this.refreshesInProgress.putIfAbsent(refreshKey, Boolean.TRUE) != null) {
+			return;
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Refreshing cache key " + refreshKey.key + " ahead of expiry");
+		}
+		try {
+			this.refreshExecutor.execute(new Runnable() {
+				public void run() {
+					try {
+						update(updates, invoker.invoke());
+					}
+					catch (RuntimeException ex) {
+						logger.warn("Failed to refresh cache key " + refreshKey.key + " ahead of expiry", ex);
+					}
+					finally {
+						refreshesInProgress.remove(refreshKey);
+					}
+				}
+			});
+		}
+		catch (TaskRejectedException ex) {
+			this.refreshesInProgress.remove(refreshKey);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of cache key " + refreshKey.key + " rejected by executor", ex);
+			}
+		}
+	}
+
 	private Map<CacheOperationContext, Object> inspectCacheUpdates(Collection<CacheOperationContext> updates) {
 		Map<CacheOperationContext, Object> cacheUpdates = new LinkedHashMap<CacheOperationContext, Object>(updates.size());
 		if (!updates.isEmpty()) {
@@ -348,14 +803,55 @@ public abstract class CacheAspectSupport implements InitializingBean {
 	}
 
 	private void update(Map<CacheOperationContext, Object> updates, Object retVal) {
+		List<Future<?>> pendingPuts = null;
 		for (Map.Entry<CacheOperationContext, Object> entry : updates.entrySet()) {
 			CacheOperationContext operationContext = entry.getKey();
 			if (operationContext.canPutToCache(retVal)) {
 				for (Cache cache : operationContext.getCaches()) {
-					cache.put(entry.getValue(), retVal);
+					if (cache instanceof AsyncCache) {
+						if (pendingPuts == null) {
+							pendingPuts = new ArrayList<Future<?>>();
+						}
+						pendingPuts.add(((AsyncCache) cache).putAsync(entry.getValue(), retVal));
+					}
+					else {
+						cache.put(entry.getValue(), retVal);
+					}
 				}
 			}
 		}
+		awaitAll(pendingPuts);
+	}
+
+	private static void awaitAll(List<Future<?>> futures) {
+		if (futures != null) {
+			for (Future<?> future : futures) {
+				getResult(future);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the given asynchronous cache operation, rethrowing its exception if any.
+	 */
+	private static <T> T getResult(Future<T> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for asynchronous cache operation", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Asynchronous cache operation failed", cause);
+		}
 	}
 
 	private Map<String, Collection<CacheOperationContext>> createOperationContext(
@@ -406,6 +902,8 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 		private final Collection<Cache> caches;
 
+		private EvaluationContext evaluationContext;
+
 		public CacheOperationContext(CacheOperation operation, Method method, Object[] args, Object target, Class<?> targetClass) {
 			this.operation = operation;
 			this.method = method;
@@ -444,18 +942,40 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 		/**
 		 * Computes the key for the given caching operation.
+		 * <p>Key expressions that simply reference an argument (or a property
+		 * of it) are resolved directly against the arguments, without creating
+		 * an evaluation context.
 		 * @return generated key (null if none can be generated)
 		 */
 		protected Object generateKey() {
-			if (StringUtils.hasText(this.operation.getKey())) {
+			String key = this.operation.getKey();
+			if (StringUtils.hasText(key)) {
+				ExpressionEvaluator.ArgumentAccessor accessor =
+						evaluator.getArgumentAccessor(key, this.method, this.targetClass);
+				if (accessor != null) {
+					return accessor.getValue(this.args);
+				}
 				EvaluationContext evaluationContext = createEvaluationContext(ExpressionEvaluator.NO_RESULT);
-				return evaluator.key(this.operation.getKey(), this.method, evaluationContext);
+				return evaluator.key(key, this.method, evaluationContext);
 			}
 			return keyGenerator.generate(this.target, this.method, this.args);
 		}
 
+		/**
+		 * Create an evaluation context for the given result. The context
+		 * without a result is created once and shared by the condition and
+		 * key evaluation of this operation.
+		 */
 		private EvaluationContext createEvaluationContext(Object result) {
-			return evaluator.createEvaluationContext(this.caches, this.method, this.args, this.target, this.targetClass, result);
+			if (result != ExpressionEvaluator.NO_RESULT) {
+				return evaluator.createEvaluationContext(
+						this.caches, this.method, this.args, this.target, this.targetClass, result);
+			}
+			if (this.evaluationContext == null) {
+				this.evaluationContext = evaluator.createEvaluationContext(
+						this.caches, this.method, this.args, this.target, this.targetClass);
+			}
+			return this.evaluationContext;
 		}
 
 		protected Collection<Cache> getCaches() {
@@ -464,6 +984,82 @@ public abstract class CacheAspectSupport implements InitializingBean {
 	}
 
 
+	/**
+	 * Key for an in-flight computation: the target cache and the cache key.
+	 */
+	private static final class SyncKey {
+
+		private final Cache cache;
+
+		private final Object key;
+
+		public SyncKey(Cache cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof SyncKey)) {
+				return false;
+			}
+			SyncKey otherKey = (SyncKey) other;
+			return (this.cache == otherKey.cache && this.key.equals(otherKey.key));
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.cache) * 29 + this.key.hashCode();
+		}
+	}
+
+
+	/**
+	 * The outcome of an in-flight computation, for concurrent callers to wait for.
+	 */
+	private static final class SyncComputation {
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		private volatile Object result;
+
+		private volatile RuntimeException failure;
+
+		public void succeed(Object result) {
+			this.result = result;
+			this.latch.countDown();
+		}
+
+		public void fail(Throwable failure) {
+			this.failure = (failure instanceof RuntimeException ? (RuntimeException) failure :
+					new IllegalStateException("Computation of cached value failed", failure));
+			this.latch.countDown();
+		}
+
+		/**
+		 * Wait for the computation to complete.
+		 * @param timeout the maximum number of milliseconds to wait (0 for no limit)
+		 * @return whether the computation completed in time
+		 */
+		public boolean await(long timeout) {
+			try {
+				if (timeout > 0) {
+					return this.latch.await(timeout, TimeUnit.MILLISECONDS);
+				}
+				this.latch.await();
+				return true;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+	}
+
+
 	private static class CacheStatus {
 
 		// caches/key
@@ -27,6 +27,16 @@ public class CacheableOperation extends CacheOperation {
 
 	private String unless;
 
+	private boolean sync = false;
+
+	private long syncTimeout = 0;
+
+	private SyncFailurePolicy syncFailurePolicy = SyncFailurePolicy.PROPAGATE;
+
+	private long refreshAhead = 0;
+
+	private boolean batch = false;
+
 
 	public String getUnless() {
 		return unless;
@@ -36,12 +46,125 @@ public class CacheableOperation extends CacheOperation {
 		this.unless = unless;
 	}
 
+	/**
+	 * Set whether concurrent callers missing the cache for the same key should be
+	 * coalesced, with only one of them computing the value while the others wait
+	 * for its result. Default is "false".
+	 * <p>A synchronized operation is restricted to a single cache, and cannot be
+	 * combined with further cache operations on the same method.
+	 * @since 3.2.7
+	 */
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
+	/**
+	 * Return whether concurrent cache misses for the same key are coalesced.
+	 * @since 3.2.7
+	 */
+	public boolean isSync() {
+		return this.sync;
+	}
+
+	/**
+	 * Set the maximum number of milliseconds a caller waits for a value computed
+	 * by another caller, before computing the value itself. Default is 0, for no limit.
+	 * @since 3.2.7
+	 * @see #setSync
+	 */
+	public void setSyncTimeout(long syncTimeout) {
+		this.syncTimeout = syncTimeout;
+	}
+
+	/**
+	 * Return the maximum number of milliseconds to wait for a value computed by another caller.
+	 * @since 3.2.7
+	 */
+	public long getSyncTimeout() {
+		return this.syncTimeout;
+	}
+
+	/**
+	 * Set what waiting callers do when the computation of the value fails.
+	 * Default is {@link SyncFailurePolicy#PROPAGATE}.
+	 * @since 3.2.7
+	 * @see #setSync
+	 */
+	public void setSyncFailurePolicy(SyncFailurePolicy syncFailurePolicy) {
+		this.syncFailurePolicy = syncFailurePolicy;
+	}
+
+	/**
+	 * Return what waiting callers do when the computation of the value fails.
+	 * @since 3.2.7
+	 */
+	public SyncFailurePolicy getSyncFailurePolicy() {
+		return this.syncFailurePolicy;
+	}
+
+	/**
+	 * Set the number of milliseconds before expiry from which a cached entry is
+	 * refreshed in the background, while callers keep receiving the current value.
+	 * Default is 0, for no refresh-ahead.
+	 * <p>Only effective for caches that expose the time to live of their entries
+	 * through an {@link org.springframework.cache.support.ExpiringValueWrapper}.
+	 * @since 3.2.7
+	 * @see CacheAspectSupport#setRefreshExecutor
+	 */
+	public void setRefreshAhead(long refreshAhead) {
+		this.refreshAhead = refreshAhead;
+	}
+
+	/**
+	 * Return the number of milliseconds before expiry from which a cached entry is refreshed.
+	 * @since 3.2.7
+	 */
+	public long getRefreshAhead() {
+		return this.refreshAhead;
+	}
+
+	/**
+	 * Set whether each element of the method's collection argument is to be
+	 * cached separately, with the method only being invoked for the elements
+	 * missing from the cache. Default is "false".
+	 * <p>A batch operation must not specify a key, and cannot be combined with
+	 * further cache operations on the same method. The method has to return
+	 * either a {@link java.util.Map} keyed by element, or a {@link java.util.List}
+	 * holding one value per element of its argument, in iteration order.
+	 * @since 3.2.7
+	 */
+	public void setBatch(boolean batch) {
+		this.batch = batch;
+	}
+
+	/**
+	 * Return whether the elements of the method's collection argument are cached separately.
+	 * @since 3.2.7
+	 */
+	public boolean isBatch() {
+		return this.batch;
+	}
+
 	@Override
 	protected StringBuilder getOperationDescription() {
 		StringBuilder sb = super.getOperationDescription();
 		sb.append(" | unless='");
 		sb.append(this.unless);
 		sb.append("'");
+		if (this.sync) {
+			sb.append(" | sync (timeout=");
+			sb.append(this.syncTimeout);
+			sb.append(", onFailure=");
+			sb.append(this.syncFailurePolicy);
+			sb.append(")");
+		}
+		if (this.batch) {
+			sb.append(" | batch");
+		}
+		if (this.refreshAhead > 0) {
+			sb.append(" | refreshAhead=");
+			sb.append(this.refreshAhead);
+		}
 		return sb;
 	}
 }
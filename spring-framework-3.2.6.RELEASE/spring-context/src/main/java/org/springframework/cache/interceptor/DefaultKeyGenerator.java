@@ -23,9 +23,14 @@ import org.springframework.cache.interceptor.KeyGenerator;
 /**
  * Default key generator. Returns {@value #NO_PARAM_KEY} if no
  * parameters are provided, the parameter itself if only one is given or
- * a hash code computed from all given parameters' hash code values.
- * Uses the constant value {@value #NULL_PARAM_KEY} for any
- * {@code null} parameters given.
+ * a {@link SimpleKey} holding all given parameters otherwise.
+ * Uses the constant value {@value #NULL_PARAM_KEY} for a single
+ * {@code null} parameter.
+ *
+ * <p>As of 3.2.7, keys for several parameters are no longer plain hash codes
+ * of the parameters: such hash codes could collide for different arguments,
+ * returning the cached value of another invocation. A {@link SimpleKey}
+ * compares all parameters while still using a precomputed hash code.
  *
  * @author Costin Leau
  * @author Chris Beams
@@ -43,11 +48,7 @@ public class DefaultKeyGenerator implements KeyGenerator {
 		if (params.length == 0) {
 			return NO_PARAM_KEY;
 		}
-		int hashCode = 17;
-		for (Object object : params) {
-			hashCode = 31 * hashCode + (object == null ? NULL_PARAM_KEY : object.hashCode());
-		}
-		return Integer.valueOf(hashCode);
+		return new SimpleKey(params);
 	}
 
 }
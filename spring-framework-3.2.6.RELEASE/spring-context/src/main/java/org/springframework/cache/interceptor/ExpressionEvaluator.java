@@ -17,22 +17,37 @@
 package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.springframework.aop.support.AopUtils;
 import org.springframework.cache.Cache;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Utility class handling the SpEL expression parsing.
  * Meant to be used as a reusable, thread-safe component.
  *
- * <p>Performs internal caching for performance reasons.
+ * <p>Performs internal caching for performance reasons. Simple expressions
+ * that merely reference a method argument, optionally followed by a chain
+ * of property names (e.g. {@code #id}, {@code #p0} or {@code #p0.name}),
+ * can be turned into an {@link ArgumentAccessor} that is evaluated
+ * directly against the arguments, without any evaluation context.
  *
  * @author Costin Leau
  * @author Phillip Webb
@@ -42,18 +57,33 @@ class ExpressionEvaluator {
 
 	public static final Object NO_RESULT = new Object();
 
+	private static final Pattern ARGUMENT_EXPRESSION_PATTERN =
+			Pattern.compile("#([A-Za-z_$][\\w$]*)((?:\\.[A-Za-z_$][\\w$]*)*)");
+
+	private static final Pattern INDEXED_ARGUMENT_PATTERN = Pattern.compile("[ap](\\d{1,9})");
+
+	// identifiers that SpEL treats as literals or operators rather than as names
+	private static final Set<String> RESERVED_WORDS = new HashSet<String>(Arrays.asList(
+			"ROOT", "THIS", "TRUE", "FALSE", "NULL", "NEW", "T", "AND", "OR", "NOT", "INSTANCEOF",
+			"MATCHES", "BETWEEN", "LT", "LE", "GT", "GE", "EQ", "NE", "DIV", "MOD"));
+
+	private static final ArgumentAccessor NO_ACCESSOR = new ArgumentAccessor(-1, null);
+
 	private final SpelExpressionParser parser = new SpelExpressionParser();
 
 	// shared param discoverer since it caches data internally
 	private final ParameterNameDiscoverer paramNameDiscoverer = new LocalVariableTableParameterNameDiscoverer();
 
-	private final Map<String, Expression> keyCache = new ConcurrentHashMap<String, Expression>(64);
+	private final Map<ExpressionKey, Expression> keyCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
+
+	private final Map<ExpressionKey, Expression> conditionCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
 
-	private final Map<String, Expression> conditionCache = new ConcurrentHashMap<String, Expression>(64);
+	private final Map<ExpressionKey, Expression> unlessCache = new ConcurrentHashMap<ExpressionKey, Expression>(64);
 
-	private final Map<String, Expression> unlessCache = new ConcurrentHashMap<String, Expression>(64);
+	private final Map<ExpressionKey, ArgumentAccessor> accessorCache =
+			new ConcurrentHashMap<ExpressionKey, ArgumentAccessor>(64);
 
-	private final Map<String, Method> targetMethodCache = new ConcurrentHashMap<String, Method>(64);
+	private final Map<MethodCacheKey, Method> targetMethodCache = new ConcurrentHashMap<MethodCacheKey, Method>(64);
 
 
 	/**
@@ -84,7 +114,7 @@ class ExpressionEvaluator {
 		CacheExpressionRootObject rootObject = new CacheExpressionRootObject(caches,
 				method, args, target, targetClass);
 		LazyParamAwareEvaluationContext evaluationContext = new LazyParamAwareEvaluationContext(rootObject,
-				this.paramNameDiscoverer, method, args, targetClass, this.targetMethodCache);
+				this.paramNameDiscoverer, getTargetMethod(method, targetClass), args);
 		if(result != NO_RESULT) {
 			evaluationContext.setVariable("result", result);
 		}
@@ -105,8 +135,102 @@ class ExpressionEvaluator {
 				evalContext, boolean.class);
 	}
 
-	private Expression getExpression(Map<String, Expression> cache, String expression, Method method) {
-		String key = toString(method, expression);
+	/**
+	 * Return an {@link ArgumentAccessor} equivalent to the given expression
+	 * when evaluated without a return value, or {@code null} if the expression
+	 * is not a simple argument reference and needs a full evaluation context.
+	 * @param expression the expression
+	 * @param method the method
+	 * @param targetClass the target class
+	 */
+	public ArgumentAccessor getArgumentAccessor(String expression, Method method, Class<?> targetClass) {
+		Method targetMethod = getTargetMethod(method, targetClass);
+		ExpressionKey key = new ExpressionKey(targetMethod, expression);
+		ArgumentAccessor accessor = this.accessorCache.get(key);
+		if (accessor == null) {
+			accessor = createArgumentAccessor(expression, targetMethod);
+			this.accessorCache.put(key, (accessor != null ? accessor : NO_ACCESSOR));
+		}
+		return (accessor != NO_ACCESSOR ? accessor : null);
+	}
+
+	private ArgumentAccessor createArgumentAccessor(String expression, Method targetMethod) {
+		Matcher matcher = ARGUMENT_EXPRESSION_PATTERN.matcher(expression.trim());
+		if (!matcher.matches()) {
+			return null;
+		}
+		String[] propertyNames = matcher.group(2).split("\\.");
+		for (String propertyName : propertyNames) {
+			if (RESERVED_WORDS.contains(propertyName.toUpperCase(Locale.ENGLISH))) {
+				return null;
+			}
+		}
+		int index = getArgumentIndex(matcher.group(1), targetMethod);
+		if (index < 0) {
+			return null;
+		}
+		Expression propertyPath = null;
+		if (matcher.group(2).length() > 0) {
+			SpelExpressionParser pathParser = new SpelExpressionParser(new SpelParserConfiguration(
+					SpelCompilerMode.MIXED, targetMethod.getDeclaringClass().getClassLoader()));
+			try {
+				propertyPath = pathParser.parseExpression(matcher.group(2).substring(1));
+			}
+			catch (ParseException ex) {
+				return null;
+			}
+		}
+		return new ArgumentAccessor(index, propertyPath);
+	}
+
+	/**
+	 * Resolve the argument index for the given variable name the same way
+	 * {@link LazyParamAwareEvaluationContext} exposes arguments: discovered
+	 * parameter names take precedence over the {@code a<#>}/{@code p<#>} aliases.
+	 * @return the index, or {@code -1} if the variable does not denote an argument
+	 */
+	private int getArgumentIndex(String variableName, Method targetMethod) {
+		if (RESERVED_WORDS.contains(variableName.toUpperCase(Locale.ENGLISH)) || variableName.equals("result")) {
+			return -1;
+		}
+		int parameterCount = targetMethod.getParameterTypes().length;
+		String[] parameterNames = this.paramNameDiscoverer.getParameterNames(targetMethod);
+		if (parameterNames != null) {
+			for (int i = parameterNames.length - 1; i >= 0; i--) {
+				if (variableName.equals(parameterNames[i])) {
+					return i;
+				}
+			}
+		}
+		Matcher matcher = INDEXED_ARGUMENT_PATTERN.matcher(variableName);
+		if (matcher.matches()) {
+			int index = Integer.parseInt(matcher.group(1));
+			if (index < parameterCount) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return the most specific variant of the given method on the target class,
+	 * i.e. the method whose parameter names are exposed to expressions.
+	 */
+	public Method getTargetMethod(Method method, Class<?> targetClass) {
+		MethodCacheKey key = new MethodCacheKey(method, targetClass);
+		Method targetMethod = this.targetMethodCache.get(key);
+		if (targetMethod == null) {
+			targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+			if (targetMethod == null) {
+				targetMethod = method;
+			}
+			this.targetMethodCache.put(key, targetMethod);
+		}
+		return targetMethod;
+	}
+
+	private Expression getExpression(Map<ExpressionKey, Expression> cache, String expression, Method method) {
+		ExpressionKey key = new ExpressionKey(method, expression);
 		Expression rtn = cache.get(key);
 		if (rtn == null) {
 			rtn = this.parser.parseExpression(expression);
@@ -115,13 +239,102 @@ class ExpressionEvaluator {
 		return rtn;
 	}
 
-	private String toString(Method method, String expression) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(method.getDeclaringClass().getName());
-		sb.append("#");
-		sb.append(method.toString());
-		sb.append("#");
-		sb.append(expression);
-		return sb.toString();
+
+	/**
+	 * Precompiled form of an expression that references a single method
+	 * argument, optionally navigating a chain of properties on it.
+	 * Thread-safe; property paths are evaluated with the SpEL compiler
+	 * in mixed mode.
+	 */
+	static final class ArgumentAccessor {
+
+		private final int index;
+
+		private final Expression propertyPath;
+
+		ArgumentAccessor(int index, Expression propertyPath) {
+			this.index = index;
+			this.propertyPath = propertyPath;
+		}
+
+		public Object getValue(Object[] args) {
+			Object argument = args[this.index];
+			return (this.propertyPath != null ? this.propertyPath.getValue(argument) : argument);
+		}
+
+		@Override
+		public String toString() {
+			return "#p" + this.index + (this.propertyPath != null ? "." + this.propertyPath.getExpressionString() : "");
+		}
+	}
+
+
+	/**
+	 * Cache key for a method and an expression, cheaper to build and to hash
+	 * than a concatenated String.
+	 */
+	private static final class ExpressionKey {
+
+		private final Method method;
+
+		private final String expression;
+
+		private final int hashCode;
+
+		public ExpressionKey(Method method, String expression) {
+			this.method = method;
+			this.expression = expression;
+			this.hashCode = method.hashCode() * 31 + expression.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey otherKey = (ExpressionKey) other;
+			return (this.method.equals(otherKey.method) && this.expression.equals(otherKey.expression));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Cache key for a method invoked on a specific target class.
+	 */
+	private static final class MethodCacheKey {
+
+		private final Method method;
+
+		private final Class<?> targetClass;
+
+		public MethodCacheKey(Method method, Class<?> targetClass) {
+			this.method = method;
+			this.targetClass = targetClass;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MethodCacheKey)) {
+				return false;
+			}
+			MethodCacheKey otherKey = (MethodCacheKey) other;
+			return (this.method.equals(otherKey.method) && this.targetClass == otherKey.targetClass);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.method.hashCode() * 31 + ObjectUtils.nullSafeHashCode(this.targetClass);
+		}
 	}
 }
@@ -17,9 +17,7 @@
 package org.springframework.cache.interceptor;
 
 import java.lang.reflect.Method;
-import java.util.Map;
 
-import org.springframework.aop.support.AopUtils;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.ObjectUtils;
@@ -39,26 +37,28 @@ class LazyParamAwareEvaluationContext extends StandardEvaluationContext {
 
 	private final ParameterNameDiscoverer paramDiscoverer;
 
-	private final Method method;
+	private final Method targetMethod;
 
 	private final Object[] args;
 
-	private final Class<?> targetClass;
-
-	private final Map<String, Method> methodCache;
-
 	private boolean paramLoaded = false;
 
 
-	LazyParamAwareEvaluationContext(Object rootObject, ParameterNameDiscoverer paramDiscoverer, Method method,
-			Object[] args, Class<?> targetClass, Map<String, Method> methodCache) {
+	/**
+	 * Create a new context for the given arguments.
+	 * @param rootObject the root object
+	 * @param paramDiscoverer the discoverer to use for parameter names
+	 * @param targetMethod the most specific method on the target class,
+	 * i.e. the method whose parameter names are exposed
+	 * @param args the method arguments
+	 */
+	LazyParamAwareEvaluationContext(Object rootObject, ParameterNameDiscoverer paramDiscoverer,
+			Method targetMethod, Object[] args) {
 		super(rootObject);
 
 		this.paramDiscoverer = paramDiscoverer;
-		this.method = method;
+		this.targetMethod = targetMethod;
 		this.args = args;
-		this.targetClass = targetClass;
-		this.methodCache = methodCache;
 	}
 
 
@@ -85,23 +85,13 @@ class LazyParamAwareEvaluationContext extends StandardEvaluationContext {
 			return;
 		}
 
-		String mKey = toString(this.method);
-		Method targetMethod = this.methodCache.get(mKey);
-		if (targetMethod == null) {
-			targetMethod = AopUtils.getMostSpecificMethod(this.method, this.targetClass);
-			if (targetMethod == null) {
-				targetMethod = this.method;
-			}
-			this.methodCache.put(mKey, targetMethod);
-		}
-
 		// save arguments as indexed variables
 		for (int i = 0; i < this.args.length; i++) {
 			setVariable("a" + i, this.args[i]);
 			setVariable("p" + i, this.args[i]);
 		}
 
-		String[] parameterNames = this.paramDiscoverer.getParameterNames(targetMethod);
+		String[] parameterNames = this.paramDiscoverer.getParameterNames(this.targetMethod);
 		// save parameter names (if discovered)
 		if (parameterNames != null) {
 			for (int i = 0; i < parameterNames.length; i++) {
@@ -109,12 +99,4 @@ class LazyParamAwareEvaluationContext extends StandardEvaluationContext {
 			}
 		}
 	}
-
-	private String toString(Method m) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(m.getDeclaringClass().getName());
-		sb.append("#");
-		sb.append(m.toString());
-		return sb.toString();
-	}
 }
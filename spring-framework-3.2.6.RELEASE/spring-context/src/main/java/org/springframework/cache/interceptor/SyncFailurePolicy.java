@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+/**
+ * Enumeration of the policies for callers waiting on a value that another
+ * caller is computing for a {@link CacheableOperation#isSync() synchronized}
+ * cacheable operation, in case that computation fails.
+ *
+ * @since 3.2.7
+ * @see CacheableOperation#setSyncFailurePolicy
+ * @see org.springframework.cache.annotation.Cacheable#syncFailurePolicy()
+ */
+public enum SyncFailurePolicy {
+
+	/**
+	 * Rethrow the exception of the failed computation to every waiting caller.
+	 */
+	PROPAGATE,
+
+	/**
+	 * Let one of the waiting callers retry the computation,
+	 * with the others waiting for its outcome in turn.
+	 */
+	RETRY
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.springframework.cache.AsyncCache;
+import org.springframework.cache.Cache;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AsyncCache} decorator that turns any {@link Cache} into an asynchronous
+ * one, performing the target cache's blocking operations on an {@link AsyncTaskExecutor}.
+ * Useful to let lookups against several remote caches overlap, if the cache
+ * provider does not offer an asynchronous API itself.
+ *
+ * <p>The synchronous {@link Cache} methods are simply delegated to the target cache.
+ *
+ * @since 3.2.7
+ */
+public class AsyncCacheDecorator implements AsyncCache {
+
+	private final Cache targetCache;
+
+	private final AsyncTaskExecutor taskExecutor;
+
+
+	/**
+	 * Create a new AsyncCacheDecorator for the given target Cache.
+	 * @param targetCache the target Cache to decorate
+	 * @param taskExecutor the executor to perform the target cache's operations on
+	 */
+	public AsyncCacheDecorator(Cache targetCache, AsyncTaskExecutor taskExecutor) {
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.notNull(taskExecutor, "AsyncTaskExecutor must not be null");
+		this.targetCache = targetCache;
+		this.taskExecutor = taskExecutor;
+	}
+
+
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	public ValueWrapper get(Object key) {
+		return this.targetCache.get(key);
+	}
+
+	public void put(Object key, Object value) {
+		this.targetCache.put(key, value);
+	}
+
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+	}
+
+	public void clear() {
+		this.targetCache.clear();
+	}
+
+	public Future<ValueWrapper> getAsync(final Object key) {
+		return this.taskExecutor.submit(new Callable<ValueWrapper>() {
+			public ValueWrapper call() {
+				return targetCache.get(key);
+			}
+		});
+	}
+
+	public Future<?> putAsync(final Object key, final Object value) {
+		return this.taskExecutor.submit(new Runnable() {
+			public void run() {
+				targetCache.put(key, value);
+			}
+		});
+	}
+
+	public Future<?> evictAsync(final Object key) {
+		return this.taskExecutor.submit(new Runnable() {
+			public void run() {
+				targetCache.evict(key);
+			}
+		});
+	}
+
+}
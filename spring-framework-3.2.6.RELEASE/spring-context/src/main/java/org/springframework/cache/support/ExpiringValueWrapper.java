@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+/**
+ * Extension of {@link ValueWrapper} for cache entries that expire after a
+ * certain time, exposing the time left before expiry. Used by the caching
+ * interceptor to refresh entries ahead of their expiration.
+ *
+ * @since 3.2.7
+ * @see org.springframework.cache.annotation.Cacheable#refreshAhead()
+ */
+public interface ExpiringValueWrapper extends ValueWrapper {
+
+	/**
+	 * Return the number of milliseconds left before the entry expires,
+	 * or {@code -1} if the entry does not expire.
+	 */
+	long getTimeToLive();
+
+}
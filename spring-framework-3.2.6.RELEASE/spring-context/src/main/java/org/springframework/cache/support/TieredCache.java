@@ -0,0 +1,329 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.cache.BatchCache;
+import org.springframework.cache.Cache;
+import org.springframework.util.Assert;
+
+/**
+ * Two-tier {@link Cache} combining a local cache, typically a small in-heap cache,
+ * with a remote or otherwise slower cache such as an Ehcache or JCache instance.
+ *
+ * <p>Lookups are served by the local tier if possible, and read through to the
+ * remote tier otherwise, copying remote hits into the local tier. Writes go to the
+ * remote tier and evict the key from the local tier, so that concurrent writes to
+ * the same key cannot leave the local tier with a value other than the remote one;
+ * the next lookup copies the written value into the local tier. Evictions and
+ * clearing are applied to both tiers, remote tier first.
+ *
+ * <p>The local tier is not notified of changes that other processes make to the
+ * remote tier: it should either expire its entries after a short time (see
+ * {@link org.springframework.cache.concurrent.ConcurrentMapCacheManager#setExpireAfterWrite}),
+ * or be invalidated through {@link #evictLocal} and {@link #clearLocal} from a
+ * listener for the remote cache's change notifications.
+ *
+ * <p>Remote hits are not copied into the local tier if a write or eviction for
+ * the same key went through this cache while the remote tier was being read,
+ * so that a stale value cannot outlive the invalidation in the local tier.
+ *
+ * <p>Multi-key lookups only ask the remote tier for the keys missing locally,
+ * using a single multi-get if the remote cache is a {@link BatchCache}.
+ *
+ * <p>Keeps hit counts per tier, e.g. for monitoring the local tier's efficiency.
+ *
+ * @since 3.2.7
+ * @see TieredCacheManager
+ */
+public class TieredCache implements BatchCache {
+
+	/** Number of key stripes for tracking invalidations: must be a power of 2 */
+	private static final int INVALIDATION_STRIPES = 64;
+
+
+	private final Cache localCache;
+
+	private final Cache remoteCache;
+
+	private final AtomicLong localHitCount = new AtomicLong();
+
+	private final AtomicLong remoteHitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/** Invalidation counts per key stripe, guarding the local copy of remote hits */
+	private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+
+	/**
+	 * Create a new TieredCache for the given local and remote caches.
+	 * The name of the remote cache is used as name of this cache.
+	 * @param localCache the cache to serve lookups from first
+	 * @param remoteCache the cache backing the local cache
+	 */
+	public TieredCache(Cache localCache, Cache remoteCache) {
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.notNull(remoteCache, "Remote Cache must not be null");
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+	}
+
+
+	public String getName() {
+		return this.remoteCache.getName();
+	}
+
+	/**
+	 * This implementation returns the native cache of the remote tier.
+	 */
+	public Object getNativeCache() {
+		return this.remoteCache.getNativeCache();
+	}
+
+	/**
+	 * Return the local tier of this cache.
+	 */
+	public final Cache getLocalCache() {
+		return this.localCache;
+	}
+
+	/**
+	 * Return the remote tier of this cache.
+	 */
+	public final Cache getRemoteCache() {
+		return this.remoteCache;
+	}
+
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			this.localHitCount.incrementAndGet();
+			return wrapper;
+		}
+		long invalidation = getInvalidation(key);
+		wrapper = this.remoteCache.get(key);
+		if (wrapper != null) {
+			this.remoteHitCount.incrementAndGet();
+			putLocal(key, wrapper.get(), invalidation);
+			return wrapper;
+		}
+		this.missCount.incrementAndGet();
+		return null;
+	}
+
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = getAll(this.localCache, keys);
+		this.localHitCount.addAndGet(result.size());
+		if (result.size() < keys.size()) {
+			List<Object> remoteKeys = new ArrayList<Object>(keys.size() - result.size());
+			for (Object key : keys) {
+				if (!result.containsKey(key)) {
+					remoteKeys.add(key);
+				}
+			}
+			long[] invalidations = new long[remoteKeys.size()];
+			for (int i = 0; i < invalidations.length; i++) {
+				invalidations[i] = getInvalidation(remoteKeys.get(i));
+			}
+			Map<Object, ValueWrapper> remoteResult = getAll(this.remoteCache, remoteKeys);
+			this.remoteHitCount.addAndGet(remoteResult.size());
+			this.missCount.addAndGet(remoteKeys.size() - remoteResult.size());
+			Map<Object, Object> remoteValues = new LinkedHashMap<Object, Object>(remoteResult.size());
+			List<Long> remoteInvalidations = new ArrayList<Long>(remoteResult.size());
+			for (int i = 0; i < invalidations.length; i++) {
+				Object key = remoteKeys.get(i);
+				ValueWrapper wrapper = remoteResult.get(key);
+				if (wrapper != null && getInvalidation(key) == invalidations[i]) {
+					remoteValues.put(key, wrapper.get());
+					remoteInvalidations.add(invalidations[i]);
+				}
+			}
+			putAll(this.localCache, remoteValues);
+			int i = 0;
+			for (Object key : remoteValues.keySet()) {
+				if (getInvalidation(key) != remoteInvalidations.get(i++)) {
+					this.localCache.evict(key);
+				}
+			}
+			result.putAll(remoteResult);
+		}
+		return result;
+	}
+
+	public void put(Object key, Object value) {
+		this.remoteCache.put(key, value);
+		invalidate(key);
+		this.localCache.evict(key);
+	}
+
+	public void putAll(Map<?, ?> entries) {
+		putAll(this.remoteCache, entries);
+		for (Object key : entries.keySet()) {
+			invalidate(key);
+			this.localCache.evict(key);
+		}
+	}
+
+	public void evict(Object key) {
+		this.remoteCache.evict(key);
+		invalidate(key);
+		this.localCache.evict(key);
+	}
+
+	public void clear() {
+		this.remoteCache.clear();
+		invalidateAll();
+		this.localCache.clear();
+	}
+
+	/**
+	 * Evict the mapping for the given key from the local tier only, e.g. after
+	 * the remote tier has reported a change of the corresponding entry.
+	 * @param key the key whose mapping is to be removed from the local tier
+	 */
+	public void evictLocal(Object key) {
+		invalidate(key);
+		this.localCache.evict(key);
+	}
+
+	/**
+	 * Remove all mappings from the local tier only.
+	 */
+	public void clearLocal() {
+		invalidateAll();
+		this.localCache.clear();
+	}
+
+
+	/**
+	 * Copy the given remote hit into the local tier, unless the key has been
+	 * invalidated since the remote tier was read. The invalidation count is
+	 * checked again after the local write: an invalidation that raced with the
+	 * write may have been applied to the local tier before it, in which case
+	 * the just written value is evicted again.
+	 */
+	private void putLocal(Object key, Object value, long invalidation) {
+		if (getInvalidation(key) == invalidation) {
+			this.localCache.put(key, value);
+			if (getInvalidation(key) != invalidation) {
+				this.localCache.evict(key);
+			}
+		}
+	}
+
+	private long getInvalidation(Object key) {
+		return this.invalidations.get(getStripe(key));
+	}
+
+	private void invalidate(Object key) {
+		this.invalidations.incrementAndGet(getStripe(key));
+	}
+
+	private void invalidateAll() {
+		for (int i = 0; i < INVALIDATION_STRIPES; i++) {
+			this.invalidations.incrementAndGet(i);
+		}
+	}
+
+	private static int getStripe(Object key) {
+		int hash = (key != null ? key.hashCode() : 0);
+		hash ^= (hash >>> 16);
+		return hash & (INVALIDATION_STRIPES - 1);
+	}
+
+
+	private static Map<Object, ValueWrapper> getAll(Cache cache, Collection<?> keys) {
+		if (cache instanceof BatchCache) {
+			return new LinkedHashMap<Object, ValueWrapper>(((BatchCache) cache).getAll(keys));
+		}
+		Map<Object, ValueWrapper> result = new LinkedHashMap<Object, ValueWrapper>(keys.size());
+		for (Object key : keys) {
+			ValueWrapper wrapper = cache.get(key);
+			if (wrapper != null) {
+				result.put(key, wrapper);
+			}
+		}
+		return result;
+	}
+
+	private static void putAll(Cache cache, Map<?, ?> entries) {
+		if (cache instanceof BatchCache) {
+			((BatchCache) cache).putAll(entries);
+		}
+		else {
+			for (Map.Entry<?, ?> entry : entries.entrySet()) {
+				cache.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of lookups served by the local tier.
+	 */
+	public long getLocalHitCount() {
+		return this.localHitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups served by the remote tier.
+	 */
+	public long getRemoteHitCount() {
+		return this.remoteHitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that found no value in either tier.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the ratio of lookups served by the local tier, or 1.0 if no
+	 * lookups have been performed yet.
+	 */
+	public double getLocalHitRatio() {
+		long localHits = this.localHitCount.get();
+		long lookups = localHits + this.remoteHitCount.get() + this.missCount.get();
+		return (lookups > 0 ? (double) localHits / lookups : 1.0d);
+	}
+
+	/**
+	 * Reset the hit and miss counts.
+	 */
+	public void resetStatistics() {
+		this.localHitCount.set(0);
+		this.remoteHitCount.set(0);
+		this.missCount.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "TieredCache '" + getName() + "': local hits=" + this.localHitCount +
+				", remote hits=" + this.remoteHitCount + ", misses=" + this.missCount;
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} layering the caches of a local cache manager in front of
+ * the caches of a remote cache manager, exposing each pair as a {@link TieredCache}.
+ * For example, a {@link org.springframework.cache.concurrent.ConcurrentMapCacheManager}
+ * with a maximum size and a short expiration in front of a JCache or Ehcache manager
+ * lets hot keys be served from the heap, without a round trip to the remote cache.
+ *
+ * <p>The remote cache manager determines which caches exist. If the local cache
+ * manager does not provide a cache of the same name, the remote cache is
+ * exposed as-is.
+ *
+ * @since 3.2.7
+ * @see TieredCache
+ */
+public class TieredCacheManager implements InitializingBean, CacheManager {
+
+	private CacheManager localCacheManager;
+
+	private CacheManager remoteCacheManager;
+
+	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<String, Cache>(16);
+
+
+	/**
+	 * Create a new TieredCacheManager, to be configured through its bean properties.
+	 * @see #setLocalCacheManager
+	 * @see #setRemoteCacheManager
+	 */
+	public TieredCacheManager() {
+	}
+
+	/**
+	 * Create a new TieredCacheManager for the given local and remote cache managers.
+	 * @param localCacheManager the cache manager for the local tier
+	 * @param remoteCacheManager the cache manager for the remote tier
+	 */
+	public TieredCacheManager(CacheManager localCacheManager, CacheManager remoteCacheManager) {
+		this.localCacheManager = localCacheManager;
+		this.remoteCacheManager = remoteCacheManager;
+	}
+
+
+	/**
+	 * Set the cache manager providing the local tier of each cache.
+	 */
+	public void setLocalCacheManager(CacheManager localCacheManager) {
+		this.localCacheManager = localCacheManager;
+	}
+
+	/**
+	 * Set the cache manager providing the remote tier of each cache.
+	 */
+	public void setRemoteCacheManager(CacheManager remoteCacheManager) {
+		this.remoteCacheManager = remoteCacheManager;
+	}
+
+	public void afterPropertiesSet() {
+		Assert.notNull(this.localCacheManager, "Property 'localCacheManager' is required");
+		Assert.notNull(this.remoteCacheManager, "Property 'remoteCacheManager' is required");
+	}
+
+
+	public Cache getCache(String name) {
+		Cache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Cache remoteCache = this.remoteCacheManager.getCache(name);
+			if (remoteCache == null) {
+				return null;
+			}
+			Cache localCache = this.localCacheManager.getCache(name);
+			cache = (localCache != null ? new TieredCache(localCache, remoteCache) : remoteCache);
+			Cache existing = this.cacheMap.putIfAbsent(name, cache);
+			if (existing != null) {
+				cache = existing;
+			}
+		}
+		return cache;
+	}
+
+	public Collection<String> getCacheNames() {
+		return this.remoteCacheManager.getCacheNames();
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.context.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -30,6 +31,9 @@ import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
@@ -60,6 +64,10 @@ import org.springframework.util.ClassUtils;
  * {@link org.springframework.core.type.classreading.MetadataReader MetadataReader}
  * facility, backed by an ASM {@link org.springframework.asm.ClassReader ClassReader}.
  *
+ * <p>If a {@code META-INF/spring.components} index is present on the classpath,
+ * it is used instead of scanning the classpath, provided that all include filters
+ * can be answered from the index; only the indexed candidate classes get read then.
+ *
  * @author Mark Fisher
  * @author Juergen Hoeller
  * @author Ramnivas Laddad
@@ -83,6 +91,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			new CachingMetadataReaderFactory(this.resourcePatternResolver);
 
 	private String resourcePattern = DEFAULT_RESOURCE_PATTERN;
+
+	private CandidateComponentsIndex componentsIndex =
+			CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	//保存过滤规则要包含的注解，即Spring默认的@Component、@Repository、@Service、//@Controller注解的Bean，以及JavaEE6的@ManagedBean和JSR-330的@Named注解
 	private final List<TypeFilter> includeFilters = new LinkedList<TypeFilter>();
 	//保存过滤规则要排除的注解
@@ -130,6 +141,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
 		this.metadataReaderFactory = new CachingMetadataReaderFactory(resourceLoader);
+		this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(this.resourcePatternResolver.getClassLoader());
 	}
 
 	/**
@@ -253,11 +265,106 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	/**
 	 * Scan the class path for candidate components.
+	 * <p>Uses the components index instead, if present and applicable
+	 * to the configured resource pattern and include filters.
 	 * @param basePackage the package to check for annotated classes
 	 * @return a corresponding Set of autodetected bean definitions
 	 */
-	//扫描给定类路径的包
 	public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+		if (this.componentsIndex != null && DEFAULT_RESOURCE_PATTERN.equals(this.resourcePattern) &&
+				indexSupportsIncludeFilters()) {
+			return addCandidateComponentsFromIndex(this.componentsIndex, basePackage);
+		}
+		return scanCandidateComponents(basePackage);
+	}
+
+	/**
+	 * Determine if the index can be used by this instance: that is, whether each
+	 * include filter matches on an annotation that the index keeps track of.
+	 * @return {@code true} if the index is available and the configuration of
+	 * this instance is supported by it, {@code false} otherwise
+	 */
+	private boolean indexSupportsIncludeFilters() {
+		for (TypeFilter includeFilter : this.includeFilters) {
+			if (extractStereotype(includeFilter) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Extract the stereotype to use for the specified compatible filter.
+	 * <p>{@link Component @Component} and any annotation meta-annotated with it
+	 * map to the {@code @Component} stereotype, since the index lists all classes
+	 * carrying such an annotation under it. The Java EE {@code javax.annotation.ManagedBean}
+	 * and {@code javax.inject.Named} annotations get indexed as their own stereotypes.
+	 * @param filter the filter to handle
+	 * @return the stereotype in the index matching this filter,
+	 * or {@code null} if the filter cannot be answered from the index
+	 */
+	private String extractStereotype(TypeFilter filter) {
+		if (filter instanceof AnnotationTypeFilter) {
+			Class<? extends Annotation> annotationType = ((AnnotationTypeFilter) filter).getAnnotationType();
+			if (annotationType.isAnnotationPresent(Inherited.class)) {
+				// Subclasses of annotated classes match as well but are not indexed
+				return null;
+			}
+			if (annotationType.equals(Component.class) ||
+					AnnotationUtils.findAnnotation(annotationType, Component.class) != null) {
+				return Component.class.getName();
+			}
+			String annotationName = annotationType.getName();
+			if ("javax.annotation.ManagedBean".equals(annotationName) || "javax.inject.Named".equals(annotationName)) {
+				return annotationName;
+			}
+		}
+		return null;
+	}
+
+	private Set<BeanDefinition> addCandidateComponentsFromIndex(CandidateComponentsIndex index, String basePackage) {
+		Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
+		try {
+			String resolvedBasePackage = this.environment.resolveRequiredPlaceholders(basePackage);
+			Set<String> types = new LinkedHashSet<String>();
+			for (TypeFilter filter : this.includeFilters) {
+				types.addAll(index.getCandidateTypes(resolvedBasePackage, extractStereotype(filter)));
+			}
+			boolean traceEnabled = logger.isTraceEnabled();
+			boolean debugEnabled = logger.isDebugEnabled();
+			for (String type : types) {
+				MetadataReader metadataReader = this.metadataReaderFactory.getMetadataReader(type);
+				if (isCandidateComponent(metadataReader)) {
+					ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
+					sbd.setResource(metadataReader.getResource());
+					sbd.setSource(metadataReader.getResource());
+					if (isCandidateComponent(sbd)) {
+						if (debugEnabled) {
+							logger.debug("Using candidate component class from index: " + type);
+						}
+						candidates.add(sbd);
+					}
+					else {
+						if (debugEnabled) {
+							logger.debug("Ignored because not a concrete top-level class: " + type);
+						}
+					}
+				}
+				else {
+					if (traceEnabled) {
+						logger.trace("Ignored because not matching any filter: " + type);
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new BeanDefinitionStoreException("I/O failure during classpath scanning", ex);
+		}
+		return candidates;
+	}
+
+	//扫描给定类路径的包
+	private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
 		//创建存储扫描到的类的集合
 		Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
 		try {
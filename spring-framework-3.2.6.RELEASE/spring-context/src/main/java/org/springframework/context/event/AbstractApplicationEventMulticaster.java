@@ -16,19 +16,20 @@
 
 package org.springframework.context.event;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.OrderComparator;
-import org.springframework.util.ObjectUtils;
 
 /**
  * Abstract implementation of the {@link ApplicationEventMulticaster} interface,
@@ -44,6 +45,11 @@ import org.springframework.util.ObjectUtils;
  * all events to all registered listeners, invoking them in the calling thread.
  * Alternative implementations could be more sophisticated in those respects.
  *
+ * <p>The listeners matching a given event type and source type are cached in a
+ * copy-on-write table, which is discarded whenever the registered listeners change.
+ * Listener beans are resolved once when they are singletons, so that publishing
+ * an event of a known type neither locks nor looks up beans.
+ *
  * @author Juergen Hoeller
  * @since 1.2.3
  * @see #getApplicationListeners(ApplicationEvent)
@@ -53,8 +59,11 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 
 	private final ListenerRetriever defaultRetriever = new ListenerRetriever(false);
 
-	private final Map<ListenerCacheKey, ListenerRetriever> retrieverCache =
-			new ConcurrentHashMap<ListenerCacheKey, ListenerRetriever>(64);
+	/** Copy-on-write cache of pre-filtered retrievers, keyed by event type and source type */
+	private volatile Map<Class<?>, Map<Class<?>, ListenerRetriever>> retrieverCache = Collections.emptyMap();
+
+	/** Incremented whenever the listeners change, guarded by the default retriever */
+	private int retrieverCacheVersion;
 
 	private BeanFactory beanFactory;
 
@@ -62,28 +71,28 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	public void addApplicationListener(ApplicationListener listener) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
 	public void addApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
 	public void removeApplicationListener(ApplicationListener listener) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
 	public void removeApplicationListenerBean(String listenerBeanName) {
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
@@ -91,15 +100,28 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 		synchronized (this.defaultRetriever) {
 			this.defaultRetriever.applicationListeners.clear();
 			this.defaultRetriever.applicationListenerBeans.clear();
-			this.retrieverCache.clear();
+			clearRetrieverCache();
 		}
 	}
 
+	/**
+	 * Discard all cached retrievers. To be called with the lock on the
+	 * default retriever held, after any change to the registered listeners.
+	 */
+	private void clearRetrieverCache() {
+		this.retrieverCacheVersion++;
+		this.retrieverCache = Collections.emptyMap();
+	}
+
 	public final void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
 	}
 
-	private BeanFactory getBeanFactory() {
+	/**
+	 * Return the BeanFactory to retrieve listener beans from.
+	 * @throws IllegalStateException if no BeanFactory has been set
+	 */
+	protected BeanFactory getBeanFactory() {
 		if (this.beanFactory == null) {
 			throw new IllegalStateException("ApplicationEventMulticaster cannot retrieve listener beans " +
 					"because it is not associated with a BeanFactory");
@@ -124,47 +146,79 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	 * event type. Non-matching listeners get excluded early.
 	 * @param event the event to be propagated. Allows for excluding
 	 * non-matching listeners early, based on cached matching information.
-	 * @return a Collection of ApplicationListeners
+	 * @return a Collection of ApplicationListeners, not to be modified by the caller
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener> getApplicationListeners(ApplicationEvent event) {
 		Class<? extends ApplicationEvent> eventType = event.getClass();
 		Object source = event.getSource();
 		Class<?> sourceType = (source != null ? source.getClass() : null);
-		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
-		ListenerRetriever retriever = this.retrieverCache.get(cacheKey);
-		if (retriever != null) {
-			return retriever.getApplicationListeners();
+		Map<Class<?>, ListenerRetriever> retrievers = this.retrieverCache.get(eventType);
+		if (retrievers != null) {
+			ListenerRetriever retriever = retrievers.get(sourceType);
+			if (retriever != null) {
+				return retriever.getApplicationListeners();
+			}
 		}
-		else {
-			retriever = new ListenerRetriever(true);
-			LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>();
-			Set<ApplicationListener> listeners;
-			Set<String> listenerBeans;
-			synchronized (this.defaultRetriever) {
-				listeners = new LinkedHashSet<ApplicationListener>(this.defaultRetriever.applicationListeners);
-				listenerBeans = new LinkedHashSet<String>(this.defaultRetriever.applicationListenerBeans);
+		return retrieveApplicationListeners(eventType, sourceType);
+	}
+
+	/**
+	 * Determine the listeners for the given event type and source type,
+	 * caching them unless the registered listeners changed in the meantime.
+	 */
+	private Collection<ApplicationListener> retrieveApplicationListeners(
+			Class<? extends ApplicationEvent> eventType, Class<?> sourceType) {
+
+		ListenerRetriever retriever = new ListenerRetriever(true);
+		LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>();
+		Set<ApplicationListener> listeners;
+		Set<String> listenerBeans;
+		int cacheVersion;
+		synchronized (this.defaultRetriever) {
+			listeners = new LinkedHashSet<ApplicationListener>(this.defaultRetriever.applicationListeners);
+			listenerBeans = new LinkedHashSet<String>(this.defaultRetriever.applicationListenerBeans);
+			cacheVersion = this.retrieverCacheVersion;
+		}
+		for (ApplicationListener listener : listeners) {
+			if (supportsEvent(listener, eventType, sourceType)) {
+				retriever.applicationListeners.add(listener);
+				allListeners.add(listener);
 			}
-			for (ApplicationListener listener : listeners) {
-				if (supportsEvent(listener, eventType, sourceType)) {
-					retriever.applicationListeners.add(listener);
+		}
+		boolean singletonsOnly = true;
+		if (!listenerBeans.isEmpty()) {
+			BeanFactory beanFactory = getBeanFactory();
+			for (String listenerBeanName : listenerBeans) {
+				ApplicationListener listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
+				if (!allListeners.contains(listener) && supportsEvent(listener, eventType, sourceType)) {
+					retriever.applicationListenerBeans.add(listenerBeanName);
 					allListeners.add(listener);
-				}
-			}
-			if (!listenerBeans.isEmpty()) {
-				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : listenerBeans) {
-					ApplicationListener listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
-					if (!allListeners.contains(listener) && supportsEvent(listener, eventType, sourceType)) {
-						retriever.applicationListenerBeans.add(listenerBeanName);
-						allListeners.add(listener);
+					if (!beanFactory.isSingleton(listenerBeanName)) {
+						singletonsOnly = false;
 					}
 				}
 			}
-			OrderComparator.sort(allListeners);
-			this.retrieverCache.put(cacheKey, retriever);
-			return allListeners;
 		}
+		OrderComparator.sort(allListeners);
+		if (singletonsOnly) {
+			// No need to look up the listener beans again for the next event
+			retriever.resolvedListeners =
+					Collections.unmodifiableList(new ArrayList<ApplicationListener>(allListeners));
+		}
+		synchronized (this.defaultRetriever) {
+			if (cacheVersion == this.retrieverCacheVersion) {
+				Map<Class<?>, Map<Class<?>, ListenerRetriever>> newCache =
+						new HashMap<Class<?>, Map<Class<?>, ListenerRetriever>>(this.retrieverCache);
+				Map<Class<?>, ListenerRetriever> retrievers = newCache.get(eventType);
+				Map<Class<?>, ListenerRetriever> newRetrievers = (retrievers != null ?
+						new HashMap<Class<?>, ListenerRetriever>(retrievers) : new HashMap<Class<?>, ListenerRetriever>(4));
+				newRetrievers.put(sourceType, retriever);
+				newCache.put(eventType, newRetrievers);
+				this.retrieverCache = newCache;
+			}
+		}
+		return (retriever.resolvedListeners != null ? retriever.resolvedListeners : allListeners);
 	}
 
 	/**
@@ -188,37 +242,6 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	}
 
 
-	/**
-	 * Cache key for ListenerRetrievers, based on event type and source type.
-	 */
-	private static class ListenerCacheKey {
-
-		private final Class<?> eventType;
-
-		private final Class<?> sourceType;
-
-		public ListenerCacheKey(Class<?> eventType, Class<?> sourceType) {
-			this.eventType = eventType;
-			this.sourceType = sourceType;
-		}
-
-		@Override
-		public boolean equals(Object other) {
-			if (this == other) {
-				return true;
-			}
-			ListenerCacheKey otherKey = (ListenerCacheKey) other;
-			return ObjectUtils.nullSafeEquals(this.eventType, otherKey.eventType) &&
-					ObjectUtils.nullSafeEquals(this.sourceType, otherKey.sourceType);
-		}
-
-		@Override
-		public int hashCode() {
-			return ObjectUtils.nullSafeHashCode(this.eventType) * 29 + ObjectUtils.nullSafeHashCode(this.sourceType);
-		}
-	}
-
-
 	/**
 	 * Helper class that encapsulates a specific set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
@@ -232,6 +255,9 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 
 		private final boolean preFiltered;
 
+		/** The sorted listeners, if they do not need to be resolved on each call */
+		private Collection<ApplicationListener> resolvedListeners;
+
 		public ListenerRetriever(boolean preFiltered) {
 			this.applicationListeners = new LinkedHashSet<ApplicationListener>();
 			this.applicationListenerBeans = new LinkedHashSet<String>();
@@ -239,6 +265,9 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 		}
 
 		public Collection<ApplicationListener> getApplicationListeners() {
+			if (this.resolvedListeners != null) {
+				return this.resolvedListeners;
+			}
 			LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>();
 			for (ApplicationListener listener : this.applicationListeners) {
 				allListeners.add(listener);
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Extended variant of the standard {@link ApplicationListener} interface,
+ * able to process several events in one call.
+ *
+ * <p>A {@link PartitionedApplicationEventMulticaster} coalesces the events
+ * that it drains from a partition in one go and hands them to
+ * {@link #onApplicationEvents} instead of calling
+ * {@link #onApplicationEvent} for each of them. Other multicasters
+ * treat a batch listener like any other listener.
+ *
+ * @since 3.2.7
+ * @param <E> the specific ApplicationEvent subclass to listen to
+ * @see PartitionedApplicationEventMulticaster#setMaxBatchSize
+ */
+public interface BatchApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+	/**
+	 * Handle the given application events, in the order of their publication.
+	 * @param events the events to respond to (never empty)
+	 */
+	void onApplicationEvents(List<E> events);
+
+}
@@ -0,0 +1,630 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ErrorHandler;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Asynchronous implementation of the {@link ApplicationEventMulticaster} interface,
+ * partitioning events by a key in order to preserve their order per key.
+ *
+ * <p>Each event is assigned to one of a fixed number of partitions, based on the
+ * {@link #determinePartitionKey partition key} of the event (its source by default).
+ * Every partition keeps a bounded, array-backed queue of pending events, drained by
+ * at most one task at a time on the configured {@link #setTaskExecutor Executor}:
+ * events with the same key are therefore delivered in publication order, while
+ * different partitions are processed concurrently. What happens if a queue is full
+ * is determined by the {@link #setOverflowPolicy OverflowPolicy}.
+ *
+ * <p>A drain task takes up to {@link #setMaxBatchSize maxBatchSize} events off its
+ * queue at a time. Each {@link BatchApplicationListener} receives all events of such
+ * a batch that it supports in a single call, after the regular listeners have been
+ * notified of each event.
+ *
+ * <p>The time spent in every listener is recorded per listener class and exposed
+ * through {@link #getListenerStatistics()}. Exceptions thrown by listeners are passed to the
+ * configured {@link #setErrorHandler ErrorHandler}, since there is no caller to
+ * propagate them to.
+ *
+ * <p>Note that listeners will not participate in the publisher's thread context
+ * (class loader, transaction association). On {@link #destroy()}, pending events are
+ * delivered before returning, within the {@link #setShutdownTimeout shutdown timeout};
+ * events published afterwards are delivered in the calling thread.
+ *
+ * @since 3.2.7
+ * @see BatchApplicationListener
+ * @see SimpleApplicationEventMulticaster
+ */
+public class PartitionedApplicationEventMulticaster extends AbstractApplicationEventMulticaster
+		implements DisposableBean {
+
+	/**
+	 * Policy applied when an event is published to a partition whose queue is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Block the publishing thread until the queue has room for the event.
+		 * If the event is published from within a listener running on the very
+		 * partition, it is delivered right away in order to avoid a deadlock.
+		 */
+		BLOCK,
+
+		/**
+		 * Silently discard the new event.
+		 */
+		DISCARD,
+
+		/**
+		 * Discard the oldest event in the queue in favor of the new one.
+		 */
+		DISCARD_OLDEST,
+
+		/**
+		 * Reject the new event with a {@link TaskRejectedException}.
+		 */
+		ABORT
+	}
+
+
+	private static final String DEFAULT_THREAD_NAME_PREFIX = "event-partition-";
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private int partitionCount = Runtime.getRuntime().availableProcessors();
+
+	private int queueCapacity = 1024;
+
+	private int maxBatchSize = 64;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private Executor taskExecutor;
+
+	private ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+	private long shutdownTimeout = 10000;
+
+	private volatile Partition[] partitions;
+
+	private volatile boolean active = true;
+
+	private final AtomicLong discardedEventCount = new AtomicLong();
+
+	/** Statistics per listener class name, stable across prototype listener instances */
+	private final ConcurrentMap<String, ListenerStatistics> listenerStatistics =
+			new ConcurrentHashMap<String, ListenerStatistics>(64);
+
+
+	/**
+	 * Create a new PartitionedApplicationEventMulticaster.
+	 */
+	public PartitionedApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new PartitionedApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public PartitionedApplicationEventMulticaster(BeanFactory beanFactory) {
+		setBeanFactory(beanFactory);
+	}
+
+
+	/**
+	 * Set the number of partitions to distribute events across, i.e. the
+	 * maximum number of events being delivered concurrently.
+	 * <p>Default is the number of available processors.
+	 * Needs to be set before the first event is published.
+	 */
+	public void setPartitionCount(int partitionCount) {
+		Assert.isTrue(partitionCount > 0, "'partitionCount' must be greater than 0");
+		this.partitionCount = partitionCount;
+	}
+
+	/**
+	 * Set the maximum number of pending events per partition. Default is 1024.
+	 * Needs to be set before the first event is published.
+	 * @see #setOverflowPolicy
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "'queueCapacity' must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the maximum number of events that are drained from a partition in one
+	 * go, and therefore handed to a {@link BatchApplicationListener} at once.
+	 * Default is 64.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the policy to apply when the queue of a partition is full.
+	 * Default is {@link OverflowPolicy#BLOCK}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Set the Executor to run the drain tasks of the partitions with.
+	 * <p>Default is a {@link SimpleAsyncTaskExecutor}. A drain task runs for as long
+	 * as its partition has pending events, so a thread pool should provide as many
+	 * threads as there are partitions in order to process all partitions concurrently.
+	 * Needs to be set before the first event is published.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the ErrorHandler to invoke in case of an exception thrown by a listener.
+	 * <p>Default is an ErrorHandler that logs the exception and suppresses it.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "ErrorHandler must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Set the maximum number of milliseconds to wait for pending events
+	 * to be delivered on {@link #destroy()}. Default is 10000.
+	 */
+	public void setShutdownTimeout(long shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+
+	/**
+	 * Overridden to discard the statistics recorded for the listener's class.
+	 */
+	@Override
+	public void removeApplicationListener(ApplicationListener listener) {
+		super.removeApplicationListener(listener);
+		this.listenerStatistics.remove(getStatisticsKey(listener.getClass()));
+	}
+
+	/**
+	 * Overridden to discard the statistics recorded for the listener bean's class.
+	 */
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		super.removeApplicationListenerBean(listenerBeanName);
+		Class<?> listenerType;
+		try {
+			listenerType = getBeanFactory().getType(listenerBeanName);
+		}
+		catch (IllegalStateException ex) {
+			// No BeanFactory: the listener bean has never been invoked.
+			return;
+		}
+		catch (NoSuchBeanDefinitionException ex) {
+			// Bean gone already: nothing to match the statistics against.
+			return;
+		}
+		if (listenerType != null) {
+			this.listenerStatistics.remove(getStatisticsKey(listenerType));
+		}
+	}
+
+	/**
+	 * Overridden to discard all listener statistics.
+	 */
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		this.listenerStatistics.clear();
+	}
+
+	public void multicastEvent(ApplicationEvent event) {
+		if (!this.active) {
+			deliver(Collections.singletonList(event));
+			return;
+		}
+		Partition[] partitions = getPartitions();
+		int hash = ObjectUtils.nullSafeHashCode(determinePartitionKey(event));
+		hash ^= (hash >>> 16);
+		partitions[(hash & Integer.MAX_VALUE) % partitions.length].publish(event);
+	}
+
+	/**
+	 * Determine the key that decides upon the partition of the given event.
+	 * Events with equal keys are delivered in the order of their publication.
+	 * <p>The default implementation returns the source of the event.
+	 * @param event the event to be multicast
+	 * @return the partition key (may be {@code null})
+	 */
+	protected Object determinePartitionKey(ApplicationEvent event) {
+		return event.getSource();
+	}
+
+	private Partition[] getPartitions() {
+		Partition[] partitions = this.partitions;
+		if (partitions == null) {
+			synchronized (this) {
+				partitions = this.partitions;
+				if (partitions == null) {
+					if (this.taskExecutor == null) {
+						this.taskExecutor = new SimpleAsyncTaskExecutor(DEFAULT_THREAD_NAME_PREFIX);
+					}
+					partitions = new Partition[this.partitionCount];
+					for (int i = 0; i < partitions.length; i++) {
+						partitions[i] = new Partition(this.queueCapacity);
+					}
+					this.partitions = partitions;
+				}
+			}
+		}
+		return partitions;
+	}
+
+	/**
+	 * Deliver the given events to all matching listeners.
+	 */
+	@SuppressWarnings("unchecked")
+	private void deliver(List<ApplicationEvent> events) {
+		Map<BatchApplicationListener, List<ApplicationEvent>> batches = null;
+		for (ApplicationEvent event : events) {
+			for (ApplicationListener listener : getApplicationListeners(event)) {
+				if (listener instanceof BatchApplicationListener) {
+					if (batches == null) {
+						batches = new LinkedHashMap<BatchApplicationListener, List<ApplicationEvent>>();
+					}
+					List<ApplicationEvent> batch = batches.get(listener);
+					if (batch == null) {
+						batch = new ArrayList<ApplicationEvent>(events.size());
+						batches.put((BatchApplicationListener) listener, batch);
+					}
+					batch.add(event);
+				}
+				else {
+					long start = System.nanoTime();
+					try {
+						listener.onApplicationEvent(event);
+						getStatistics(listener).record(1, System.nanoTime() - start, false);
+					}
+					catch (Throwable ex) {
+						getStatistics(listener).record(1, System.nanoTime() - start, true);
+						this.errorHandler.handleError(ex);
+					}
+				}
+			}
+		}
+		if (batches != null) {
+			for (Map.Entry<BatchApplicationListener, List<ApplicationEvent>> entry : batches.entrySet()) {
+				BatchApplicationListener listener = entry.getKey();
+				List<ApplicationEvent> batch = entry.getValue();
+				long start = System.nanoTime();
+				try {
+					listener.onApplicationEvents(batch);
+					getStatistics(listener).record(batch.size(), System.nanoTime() - start, false);
+				}
+				catch (Throwable ex) {
+					getStatistics(listener).record(batch.size(), System.nanoTime() - start, true);
+					this.errorHandler.handleError(ex);
+				}
+			}
+		}
+	}
+
+	private ListenerStatistics getStatistics(ApplicationListener listener) {
+		String key = getStatisticsKey(listener.getClass());
+		ListenerStatistics statistics = this.listenerStatistics.get(key);
+		if (statistics == null) {
+			statistics = new ListenerStatistics();
+			ListenerStatistics existing = this.listenerStatistics.putIfAbsent(key, statistics);
+			if (existing != null) {
+				statistics = existing;
+			}
+		}
+		return statistics;
+	}
+
+
+	private static String getStatisticsKey(Class<?> listenerType) {
+		return ClassUtils.getUserClass(listenerType).getName();
+	}
+
+
+	/**
+	 * Return the statistics recorded for each listener class that has been invoked
+	 * so far. Listeners of the same class share their statistics, so that prototype
+	 * listener beans accumulate statistics across instances. The statistics of a
+	 * listener class are discarded when a listener of that class is removed.
+	 * @return an unmodifiable Map from listener class name to its statistics
+	 */
+	public Map<String, ListenerStatistics> getListenerStatistics() {
+		return Collections.unmodifiableMap(this.listenerStatistics);
+	}
+
+	/**
+	 * Return the number of events currently waiting for delivery, across all partitions.
+	 */
+	public int getQueuedEventCount() {
+		Partition[] partitions = this.partitions;
+		int count = 0;
+		if (partitions != null) {
+			for (Partition partition : partitions) {
+				count += partition.queue.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of events discarded so far because of a full queue.
+	 * @see OverflowPolicy#DISCARD
+	 * @see OverflowPolicy#DISCARD_OLDEST
+	 */
+	public long getDiscardedEventCount() {
+		return this.discardedEventCount.get();
+	}
+
+
+	/**
+	 * Stop queuing events and wait for pending events to be delivered,
+	 * for at most the configured shutdown timeout.
+	 * @see #setShutdownTimeout
+	 */
+	public void destroy() {
+		this.active = false;
+		Partition[] partitions = this.partitions;
+		if (partitions == null) {
+			return;
+		}
+		long deadline = System.currentTimeMillis() + this.shutdownTimeout;
+		for (Partition partition : partitions) {
+			while (partition.isBusy() && !partition.isDrainingThread()) {
+				if (System.currentTimeMillis() >= deadline) {
+					logger.warn("Timed out waiting for " + getQueuedEventCount() +
+							" pending application events to be delivered");
+					return;
+				}
+				try {
+					Thread.sleep(10);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * A partition of events, keeping its pending events in a bounded ring buffer
+	 * and draining them with at most one task at a time.
+	 */
+	private class Partition implements Runnable {
+
+		public final BlockingQueue<ApplicationEvent> queue;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private volatile Thread drainingThread;
+
+		public Partition(int capacity) {
+			this.queue = new ArrayBlockingQueue<ApplicationEvent>(capacity);
+		}
+
+		public void publish(ApplicationEvent event) {
+			if (enqueue(event)) {
+				schedule();
+			}
+		}
+
+		private boolean enqueue(ApplicationEvent event) {
+			if (this.queue.offer(event)) {
+				return true;
+			}
+			switch (overflowPolicy) {
+				case BLOCK:
+					if (isDrainingThread()) {
+						deliver(Collections.singletonList(event));
+						return false;
+					}
+					try {
+						this.queue.put(event);
+						return true;
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new TaskRejectedException("Interrupted while publishing event " + event, ex);
+					}
+				case DISCARD:
+					discard(event);
+					return false;
+				case DISCARD_OLDEST:
+					while (!this.queue.offer(event)) {
+						ApplicationEvent oldest = this.queue.poll();
+						if (oldest != null) {
+							discard(oldest);
+						}
+					}
+					return true;
+				default:
+					throw new TaskRejectedException("Event queue full - rejecting event " + event);
+			}
+		}
+
+		private void discard(ApplicationEvent event) {
+			discardedEventCount.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Event queue full - discarding event " + event);
+			}
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					taskExecutor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		public boolean isBusy() {
+			return (this.scheduled.get() || !this.queue.isEmpty());
+		}
+
+		public boolean isDrainingThread() {
+			return (this.drainingThread == Thread.currentThread());
+		}
+
+		public void run() {
+			this.drainingThread = Thread.currentThread();
+			List<ApplicationEvent> batch = new ArrayList<ApplicationEvent>(maxBatchSize);
+			try {
+				while (this.queue.drainTo(batch, maxBatchSize) > 0) {
+					deliver(batch);
+					batch.clear();
+				}
+			}
+			finally {
+				this.drainingThread = null;
+				this.scheduled.set(false);
+				// An event may have been queued after our last drain but before the reset above
+				if (!this.queue.isEmpty()) {
+					try {
+						schedule();
+					}
+					catch (RuntimeException ex) {
+						logger.error("Failed to reschedule delivery of pending application events", ex);
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Statistics on the invocations of a single listener.
+	 */
+	public static class ListenerStatistics {
+
+		private final AtomicLong invocationCount = new AtomicLong();
+
+		private final AtomicLong eventCount = new AtomicLong();
+
+		private final AtomicLong errorCount = new AtomicLong();
+
+		private final AtomicLong totalNanos = new AtomicLong();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void record(int events, long nanos, boolean error) {
+			this.invocationCount.incrementAndGet();
+			this.eventCount.addAndGet(events);
+			if (error) {
+				this.errorCount.incrementAndGet();
+			}
+			this.totalNanos.addAndGet(nanos);
+			long max = this.maxNanos.get();
+			while (nanos > max && !this.maxNanos.compareAndSet(max, nanos)) {
+				max = this.maxNanos.get();
+			}
+		}
+
+		/**
+		 * Return the number of times the listener has been invoked.
+		 */
+		public long getInvocationCount() {
+			return this.invocationCount.get();
+		}
+
+		/**
+		 * Return the number of events handed to the listener,
+		 * which exceeds the invocation count for batch listeners.
+		 */
+		public long getEventCount() {
+			return this.eventCount.get();
+		}
+
+		/**
+		 * Return the number of invocations that ended with an exception.
+		 */
+		public long getErrorCount() {
+			return this.errorCount.get();
+		}
+
+		/**
+		 * Return the total time spent in the listener, in nanoseconds.
+		 */
+		public long getTotalNanos() {
+			return this.totalNanos.get();
+		}
+
+		/**
+		 * Return the longest time spent in a single invocation, in nanoseconds.
+		 */
+		public long getMaxNanos() {
+			return this.maxNanos.get();
+		}
+
+		/**
+		 * Return the average time spent in a single invocation, in nanoseconds.
+		 */
+		public long getAverageNanos() {
+			long invocations = getInvocationCount();
+			return (invocations > 0 ? getTotalNanos() / invocations : 0);
+		}
+
+		@Override
+		public String toString() {
+			return "invocations=" + getInvocationCount() + ", events=" + getEventCount() +
+					", errors=" + getErrorCount() + ", averageNanos=" + getAverageNanos() +
+					", maxNanos=" + getMaxNanos();
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Provide access to the candidates that are defined in {@code META-INF/spring.components}.
+ *
+ * <p>An arbitrary number of stereotypes can be registered (and queried) on the index: a
+ * typical example is the fully qualified name of an annotation that flags the class for
+ * a certain use case. The following call returns all the {@code @Component}
+ * <b>candidate</b> types for the {@code com.example} package (and its sub-packages):
+ *
+ * <pre class="code">
+ * Set&lt;String&gt; candidates = index.getCandidateTypes(
+ *         "com.example", "org.springframework.stereotype.Component");
+ * </pre>
+ *
+ * <p>The {@code type} is usually the fully qualified name of a class, though this is
+ * not a rule. Similarly, the {@code stereotype} is usually the fully qualified name of
+ * a target type but it can be any marker really.
+ *
+ * @since 3.2.7
+ * @see CandidateComponentsIndexLoader
+ */
+public class CandidateComponentsIndex {
+
+	private static final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	static {
+		pathMatcher.setPathSeparator(".");
+	}
+
+
+	/** Map from stereotype to the types that have been registered for it */
+	private final Map<String, List<Entry>> index;
+
+
+	/**
+	 * Create a new index from the given {@code META-INF/spring.components} contents.
+	 * @param content the properties loaded from each index file, in which each key
+	 * is a type and each value is a comma-separated list of stereotypes
+	 */
+	public CandidateComponentsIndex(List<Properties> content) {
+		this.index = parseIndex(content);
+	}
+
+
+	/**
+	 * Return the candidate types that are associated with the specified stereotype.
+	 * @param basePackage the package to check for candidates, including its
+	 * sub-packages (may be an ant-style pattern such as {@code com.*.web})
+	 * @param stereotype the stereotype to use
+	 * @return the candidate types associated with the specified {@code stereotype}
+	 * or an empty set if none has been found for the specified {@code basePackage}
+	 */
+	public Set<String> getCandidateTypes(String basePackage, String stereotype) {
+		List<Entry> candidates = this.index.get(stereotype);
+		if (candidates == null) {
+			return Collections.emptySet();
+		}
+		String packagePattern = basePackage + ".**";
+		Set<String> result = new LinkedHashSet<String>();
+		for (Entry entry : candidates) {
+			if (pathMatcher.match(packagePattern, entry.packageName)) {
+				result.add(entry.type);
+			}
+		}
+		return result;
+	}
+
+
+	private static Map<String, List<Entry>> parseIndex(List<Properties> content) {
+		Map<String, List<Entry>> index = new HashMap<String, List<Entry>>();
+		for (Properties entry : content) {
+			for (Map.Entry<Object, Object> property : entry.entrySet()) {
+				String type = (String) property.getKey();
+				Entry candidate = new Entry(type);
+				for (String stereotype : StringUtils.commaDelimitedListToStringArray((String) property.getValue())) {
+					String key = stereotype.trim();
+					List<Entry> candidates = index.get(key);
+					if (candidates == null) {
+						candidates = new ArrayList<Entry>();
+						index.put(key, candidates);
+					}
+					candidates.add(candidate);
+				}
+			}
+		}
+		return index;
+	}
+
+
+	/**
+	 * An indexed type along with its package name.
+	 */
+	private static class Entry {
+
+		private final String type;
+
+		private final String packageName;
+
+		public Entry(String type) {
+			this.type = type;
+			this.packageName = ClassUtils.getPackageName(type);
+		}
+	}
+
+}
@@ -17,6 +17,8 @@
 package org.springframework.context.support;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.QualifierAnnotationAutowireCandidateResolver;
@@ -24,6 +26,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextException;
+import org.springframework.core.io.Resource;
 
 /**
  * Base class for {@link org.springframework.context.ApplicationContext}
@@ -68,6 +71,11 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 
 	private Boolean allowCircularReferences;
 
+	private Resource beanDefinitionSnapshot;
+
+	/** Records loaded resources while writing a bean definition snapshot */
+	private BeanDefinitionSnapshot.SourceTracker beanDefinitionSourceTracker;
+
 	/** Bean factory for this context */
 	private DefaultListableBeanFactory beanFactory;
 
@@ -111,6 +119,19 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 		this.allowCircularReferences = allowCircularReferences;
 	}
 
+	/**
+	 * Specify a bean definition snapshot to register bean definitions from,
+	 * instead of loading them from this context's bean definition sources.
+	 * <p>The snapshot is only used if it exists and is still up to date;
+	 * otherwise, bean definitions get loaded through
+	 * {@link #loadBeanDefinitions(DefaultListableBeanFactory)} as usual.
+	 * @see #writeBeanDefinitionSnapshot
+	 * @see BeanDefinitionSnapshot
+	 */
+	public void setBeanDefinitionSnapshot(Resource beanDefinitionSnapshot) {
+		this.beanDefinitionSnapshot = beanDefinitionSnapshot;
+	}
+
 
 	/**
 	 * This implementation performs an actual refresh of this context's underlying
@@ -130,7 +151,9 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 			//IOCжƻעԶװ
 			customizeBeanFactory(beanFactory);
 			//BeanķҪʹһίģʽڵǰֻ˳loadBeanDefinitionsʵֵ
-			loadBeanDefinitions(beanFactory);
+			if (!loadBeanDefinitionSnapshot(beanFactory)) {
+				loadBeanDefinitions(beanFactory);
+			}
 			synchronized (this.beanFactoryMonitor) {
 				this.beanFactory = beanFactory;
 			}
@@ -233,4 +256,90 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 	protected abstract void loadBeanDefinitions(DefaultListableBeanFactory beanFactory)
 			throws BeansException, IOException;
 
+	/**
+	 * Register bean definitions from the specified bean definition snapshot,
+	 * if available and still up to date.
+	 * @param beanFactory the bean factory to register bean definitions with
+	 * @return whether bean definitions have been registered from the snapshot
+	 * @throws IOException if the snapshot could not be read
+	 * @see #setBeanDefinitionSnapshot
+	 */
+	protected boolean loadBeanDefinitionSnapshot(DefaultListableBeanFactory beanFactory) throws IOException {
+		if (this.beanDefinitionSnapshot == null || !this.beanDefinitionSnapshot.exists()) {
+			return false;
+		}
+		BeanDefinitionSnapshot snapshot;
+		InputStream is = this.beanDefinitionSnapshot.getInputStream();
+		try {
+			snapshot = BeanDefinitionSnapshot.readFrom(is);
+		}
+		catch (IOException ex) {
+			logger.warn("Ignoring unreadable bean definition snapshot " + this.beanDefinitionSnapshot, ex);
+			return false;
+		}
+		finally {
+			is.close();
+		}
+		if (!snapshot.isUpToDate(getBeanDefinitionSnapshotKey(), getEnvironment(), this)) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Ignoring stale bean definition snapshot " + this.beanDefinitionSnapshot);
+			}
+			return false;
+		}
+		snapshot.registerBeanDefinitions(beanFactory);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Registered " + snapshot.getBeanDefinitionCount() +
+					" bean definitions from snapshot " + this.beanDefinitionSnapshot);
+		}
+		return true;
+	}
+
+	/**
+	 * Load this context's bean definitions into a fresh bean factory and write
+	 * a snapshot of them to the given stream, typically at build time.
+	 * Does not require this context to be refreshed, and does not affect
+	 * its current bean factory.
+	 * @param out the stream to write to (left open)
+	 * @throws BeansException if loading the bean definitions failed, or if
+	 * they contain metadata that cannot be represented in a snapshot
+	 * @throws IOException in case of I/O errors
+	 * @see #setBeanDefinitionSnapshot
+	 */
+	public void writeBeanDefinitionSnapshot(OutputStream out) throws BeansException, IOException {
+		DefaultListableBeanFactory beanFactory = createBeanFactory();
+		customizeBeanFactory(beanFactory);
+		BeanDefinitionSnapshot.SourceTracker sourceTracker = new BeanDefinitionSnapshot.SourceTracker();
+		this.beanDefinitionSourceTracker = sourceTracker;
+		try {
+			loadBeanDefinitions(beanFactory);
+		}
+		finally {
+			this.beanDefinitionSourceTracker = null;
+		}
+		BeanDefinitionSnapshot.capture(
+				beanFactory, getBeanDefinitionSnapshotKey(), getEnvironment(), sourceTracker).writeTo(out);
+	}
+
+	/**
+	 * Return the tracker to record loaded resources with while a bean definition
+	 * snapshot is being written, or {@code null} if no snapshot is being written.
+	 * <p>Subclasses that load bean definitions from resources should record each
+	 * resource that they load, including those that do not define any beans
+	 * themselves, so that modifications to them mark the snapshot as stale.
+	 * @see #writeBeanDefinitionSnapshot
+	 */
+	protected final BeanDefinitionSnapshot.SourceTracker getBeanDefinitionSourceTracker() {
+		return this.beanDefinitionSourceTracker;
+	}
+
+	/**
+	 * Return a key identifying the bean definition sources of this context,
+	 * to be matched against the key of a bean definition snapshot.
+	 * <p>The default implementation returns the name of the context class.
+	 * Subclasses may add further details, such as config locations.
+	 */
+	protected String getBeanDefinitionSnapshotKey() {
+		return getClass().getName();
+	}
+
 }
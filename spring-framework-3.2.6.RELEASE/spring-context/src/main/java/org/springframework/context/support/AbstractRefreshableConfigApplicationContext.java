@@ -128,6 +128,14 @@ public abstract class AbstractRefreshableConfigApplicationContext extends Abstra
 	}
 
 
+	/**
+	 * This implementation adds this context's config locations to the key.
+	 */
+	@Override
+	protected String getBeanDefinitionSnapshotKey() {
+		return super.getBeanDefinitionSnapshotKey() + ":" + StringUtils.arrayToCommaDelimitedString(getConfigLocations());
+	}
+
 	@Override
 	public void setId(String id) {
 		super.setId(id);
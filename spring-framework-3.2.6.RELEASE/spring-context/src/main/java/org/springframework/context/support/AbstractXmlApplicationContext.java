@@ -17,6 +17,8 @@
 package org.springframework.context.support;
 
 import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
@@ -96,6 +98,9 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableC
 		// then proceed with actually loading the bean definitions.
 		//BeanȡȡBeanXmlԴļʱXmlУ
 		initBeanDefinitionReader(beanDefinitionReader);
+		if (getBeanDefinitionSourceTracker() != null) {
+			beanDefinitionReader.setEventListener(getBeanDefinitionSourceTracker());
+		}
 		//Beanȡʵּصķ
 		loadBeanDefinitions(beanDefinitionReader);
 	}
@@ -130,16 +135,26 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableC
 		//ʹһίģʽĻȡBeanԴλķ  
 	    //÷ClassPathXmlApplicationContextнʵ֣  
 	    //ԴFileSystemXmlApplicationContextûʹø÷
+		BeanDefinitionSnapshot.SourceTracker sourceTracker = getBeanDefinitionSourceTracker();
 		Resource[] configResources = getConfigResources();
 		if (configResources != null) {
 			//Xml Beanȡ丸AbstractBeanDefinitionReaderȡλBeanԴ
 			reader.loadBeanDefinitions(configResources);
+			if (sourceTracker != null) {
+				sourceTracker.addResources(configResources);
+			}
 		}
 		//лȡBeanԴλΪգȡFileSystemXmlApplicationContext췽setConfigLocationsõԴ
 		String[] configLocations = getConfigLocations();
 		if (configLocations != null) {
 			//Xml Beanȡ丸AbstractBeanDefinitionReaderȡλBeanԴ
-			reader.loadBeanDefinitions(configLocations);
+			for (String configLocation : configLocations) {
+				Set<Resource> actualResources = (sourceTracker != null ? new LinkedHashSet<Resource>() : null);
+				reader.loadBeanDefinitions(configLocation, actualResources);
+				if (sourceTracker != null) {
+					sourceTracker.addLocation(configLocation, actualResources.toArray(new Resource[actualResources.size()]));
+				}
+			}
 		}
 	}
 
@@ -0,0 +1,926 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.EmptyReaderEventListener;
+import org.springframework.beans.factory.parsing.ImportDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.ChildBeanDefinition;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.LookupOverride;
+import org.springframework.beans.factory.support.ManagedArray;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.beans.factory.support.ManagedMap;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.beans.factory.support.ManagedSet;
+import org.springframework.beans.factory.support.MethodOverride;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.AttributeAccessor;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PathMatcher;
+
+/**
+ * Compact binary snapshot of the bean definitions loaded by an application
+ * context, allowing a context to register previously loaded bean definitions
+ * directly instead of parsing and scanning their sources again on every refresh.
+ *
+ * <p>A snapshot is typically written at build time through
+ * {@link AbstractRefreshableApplicationContext#writeBeanDefinitionSnapshot}
+ * and picked up at runtime through
+ * {@link AbstractRefreshableApplicationContext#setBeanDefinitionSnapshot}.
+ * It records the last-modified timestamps of all resources that have been loaded
+ * (including XML files that merely import other files) and that the bean
+ * definitions originate from (e.g. scanned class files), the resources that
+ * location patterns (e.g. {@code classpath*:} config locations) resolved to, as
+ * well as the active and default profiles: Any mismatch at runtime marks the
+ * snapshot as stale, as does a source without a known modification timestamp.
+ * Note that newly added classes in a scanned package cannot be detected:
+ * The snapshot is meant to be regenerated with each build.
+ *
+ * <p>The snapshot captures bean definitions <i>before</i> any
+ * BeanFactoryPostProcessors get applied, since those typically resolve
+ * environment-specific values (e.g. placeholders) or generate classes at runtime
+ * (e.g. enhanced {@code @Configuration} classes). Bean definition metadata is
+ * restricted to what the standard bean definition readers produce: class names,
+ * bean references, typed string values, managed collections, inner beans,
+ * lookup methods, qualifiers and simple attributes. Writing a snapshot for
+ * bean definitions with any other kind of metadata fails with a
+ * {@link BeanDefinitionStoreException}.
+ *
+ * @since 3.2.7
+ * @see AbstractRefreshableApplicationContext#setBeanDefinitionSnapshot
+ */
+public final class BeanDefinitionSnapshot {
+
+	private static final int MAGIC = 0x53424453;
+
+	private static final short VERSION = 2;
+
+	private static final byte GENERIC_BEAN_DEFINITION = 0;
+
+	private static final byte ROOT_BEAN_DEFINITION = 1;
+
+	private static final byte CHILD_BEAN_DEFINITION = 2;
+
+	private static final byte NULL_VALUE = 0;
+
+	private static final byte STRING_VALUE = 1;
+
+	private static final byte BOOLEAN_VALUE = 2;
+
+	private static final byte INTEGER_VALUE = 3;
+
+	private static final byte LONG_VALUE = 4;
+
+	private static final byte TYPED_STRING_VALUE = 5;
+
+	private static final byte BEAN_REFERENCE = 6;
+
+	private static final byte BEAN_NAME_REFERENCE = 7;
+
+	private static final byte BEAN_DEFINITION_HOLDER = 8;
+
+	private static final byte BEAN_DEFINITION = 9;
+
+	private static final byte MANAGED_ARRAY = 10;
+
+	private static final byte MANAGED_LIST = 11;
+
+	private static final byte MANAGED_SET = 12;
+
+	private static final byte MANAGED_MAP = 13;
+
+	private static final byte MANAGED_PROPERTIES = 14;
+
+
+	private final String key;
+
+	private final String[] activeProfiles;
+
+	private final String[] defaultProfiles;
+
+	/** Map from source URL to last-modified timestamp */
+	private final Map<String, Long> sources;
+
+	/** Map from location pattern to the sorted URLs it resolved to */
+	private final Map<String, String[]> locations;
+
+	/** Map from bean name to bean definition, in registration order */
+	private final Map<String, BeanDefinition> beanDefinitions;
+
+	/** Map from alias to bean name */
+	private final Map<String, String> aliases;
+
+
+	private BeanDefinitionSnapshot(String key, String[] activeProfiles, String[] defaultProfiles,
+			Map<String, Long> sources, Map<String, String[]> locations,
+			Map<String, BeanDefinition> beanDefinitions, Map<String, String> aliases) {
+
+		this.key = key;
+		this.activeProfiles = activeProfiles;
+		this.defaultProfiles = defaultProfiles;
+		this.sources = sources;
+		this.locations = locations;
+		this.beanDefinitions = beanDefinitions;
+		this.aliases = aliases;
+	}
+
+
+	/**
+	 * Return the number of bean definitions contained in this snapshot.
+	 */
+	public int getBeanDefinitionCount() {
+		return this.beanDefinitions.size();
+	}
+
+	/**
+	 * Check whether this snapshot is still up to date for the given context,
+	 * i.e. has been captured with the same key and profiles, none of the
+	 * bean definition sources has been modified since, and all location
+	 * patterns still resolve to the same resources.
+	 * @param key the key identifying the bean definition sources of the context
+	 * @param environment the environment of the context
+	 * @param resourcePatternResolver the resolver to resolve location patterns with
+	 * (typically the context itself)
+	 * @return {@code true} if the snapshot may be used, {@code false} if it is stale
+	 */
+	public boolean isUpToDate(String key, Environment environment, ResourcePatternResolver resourcePatternResolver) {
+		if (!ObjectUtils.nullSafeEquals(this.key, key) ||
+				!Arrays.equals(this.activeProfiles, environment.getActiveProfiles()) ||
+				!Arrays.equals(this.defaultProfiles, environment.getDefaultProfiles())) {
+			return false;
+		}
+		for (Map.Entry<String, Long> entry : this.sources.entrySet()) {
+			try {
+				long lastModified = new UrlResource(entry.getKey()).lastModified();
+				// A timestamp of 0 means that modifications cannot be detected.
+				if (lastModified == 0 || lastModified != entry.getValue()) {
+					return false;
+				}
+			}
+			catch (IOException ex) {
+				// Source not accessible anymore.
+				return false;
+			}
+		}
+		for (Map.Entry<String, String[]> entry : this.locations.entrySet()) {
+			try {
+				if (!Arrays.equals(getUrls(resourcePatternResolver.getResources(entry.getKey())), entry.getValue())) {
+					return false;
+				}
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Register the bean definitions and aliases contained in this snapshot
+	 * with the given registry.
+	 * @param registry the registry to register the bean definitions with
+	 */
+	public void registerBeanDefinitions(BeanDefinitionRegistry registry) {
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			registry.registerBeanDefinition(entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<String, String> entry : this.aliases.entrySet()) {
+			registry.registerAlias(entry.getValue(), entry.getKey());
+		}
+	}
+
+	/**
+	 * Write this snapshot to the given stream, leaving the stream open.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 * @throws BeanDefinitionStoreException if a bean definition contains metadata
+	 * that cannot be represented in a snapshot
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+		dos.writeInt(MAGIC);
+		dos.writeShort(VERSION);
+		writeString(dos, this.key);
+		writeStrings(dos, this.activeProfiles);
+		writeStrings(dos, this.defaultProfiles);
+		dos.writeInt(this.sources.size());
+		for (Map.Entry<String, Long> entry : this.sources.entrySet()) {
+			writeString(dos, entry.getKey());
+			dos.writeLong(entry.getValue());
+		}
+		dos.writeInt(this.locations.size());
+		for (Map.Entry<String, String[]> entry : this.locations.entrySet()) {
+			writeString(dos, entry.getKey());
+			writeStrings(dos, entry.getValue());
+		}
+		dos.writeInt(this.beanDefinitions.size());
+		for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitions.entrySet()) {
+			BeanDefinition bd = entry.getValue();
+			writeString(dos, entry.getKey());
+			try {
+				writeBeanDefinition(dos, bd);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new BeanDefinitionStoreException(bd.getResourceDescription(), entry.getKey(),
+						"Cannot include bean definition in snapshot: " + ex.getMessage());
+			}
+		}
+		dos.writeInt(this.aliases.size());
+		for (Map.Entry<String, String> entry : this.aliases.entrySet()) {
+			writeString(dos, entry.getKey());
+			writeString(dos, entry.getValue());
+		}
+		dos.flush();
+	}
+
+
+	/**
+	 * Capture the bean definitions and aliases currently registered
+	 * with the given bean factory.
+	 * @param beanFactory the bean factory to capture the bean definitions from
+	 * @param key the key identifying the bean definition sources
+	 * (e.g. the context type and its config locations)
+	 * @param environment the environment that the bean definitions have been loaded with
+	 * @return the snapshot
+	 * @throws BeanDefinitionStoreException if the source of a bean definition
+	 * cannot be checked for modifications
+	 * @see #capture(ConfigurableListableBeanFactory, String, Environment, SourceTracker)
+	 */
+	public static BeanDefinitionSnapshot capture(
+			ConfigurableListableBeanFactory beanFactory, String key, Environment environment) {
+
+		return capture(beanFactory, key, environment, null);
+	}
+
+	/**
+	 * Capture the bean definitions and aliases currently registered
+	 * with the given bean factory, along with the resources that they
+	 * have been loaded from.
+	 * @param beanFactory the bean factory to capture the bean definitions from
+	 * @param key the key identifying the bean definition sources
+	 * (e.g. the context type and its config locations)
+	 * @param environment the environment that the bean definitions have been loaded with
+	 * @param sourceTracker the tracker that recorded the loaded resources
+	 * (may be {@code null} to only consider the sources of the bean definitions)
+	 * @return the snapshot
+	 * @throws BeanDefinitionStoreException if a loaded resource or the source of
+	 * a bean definition cannot be checked for modifications
+	 */
+	public static BeanDefinitionSnapshot capture(ConfigurableListableBeanFactory beanFactory,
+			String key, Environment environment, SourceTracker sourceTracker) {
+
+		Assert.notNull(beanFactory, "BeanFactory must not be null");
+		Assert.notNull(environment, "Environment must not be null");
+		Map<String, Long> sources = new LinkedHashMap<String, Long>();
+		Map<String, String[]> locations = new LinkedHashMap<String, String[]>();
+		if (sourceTracker != null) {
+			for (Resource resource : sourceTracker.resources) {
+				try {
+					addSource(sources, resource);
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException(resource.getDescription(),
+							"Cannot determine modification timestamp of bean definition source", ex);
+				}
+			}
+			for (Map.Entry<String, Resource[]> entry : sourceTracker.locations.entrySet()) {
+				try {
+					locations.put(entry.getKey(), getUrls(entry.getValue()));
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException(
+							"Cannot determine resources for location pattern [" + entry.getKey() + "]", ex);
+				}
+			}
+		}
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<String, BeanDefinition>();
+		Map<String, String> aliases = new LinkedHashMap<String, String>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			beanDefinitions.put(beanName, bd);
+			for (String alias : beanFactory.getAliases(beanName)) {
+				aliases.put(alias, beanName);
+			}
+			Resource resource = (bd instanceof AbstractBeanDefinition ?
+					((AbstractBeanDefinition) bd).getResource() : null);
+			// Restored or programmatically registered definitions only carry a description
+			if (resource != null) {
+				try {
+					addSource(sources, resource);
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException(bd.getResourceDescription(), beanName,
+							"Cannot determine modification timestamp of bean definition source", ex);
+				}
+			}
+		}
+		return new BeanDefinitionSnapshot(key, environment.getActiveProfiles(), environment.getDefaultProfiles(),
+				sources, locations, beanDefinitions, aliases);
+	}
+
+	/**
+	 * Read a snapshot from the given stream, leaving the stream open.
+	 * @param in the stream to read from
+	 * @return the snapshot
+	 * @throws IOException in case of I/O errors, or if the stream does not
+	 * contain a snapshot in a supported format
+	 */
+	public static BeanDefinitionSnapshot readFrom(InputStream in) throws IOException {
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("Not a bean definition snapshot");
+		}
+		short version = dis.readShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported bean definition snapshot version: " + version);
+		}
+		String key = readString(dis);
+		String[] activeProfiles = readStrings(dis);
+		String[] defaultProfiles = readStrings(dis);
+		int sourceCount = dis.readInt();
+		Map<String, Long> sources = new LinkedHashMap<String, Long>(sourceCount);
+		for (int i = 0; i < sourceCount; i++) {
+			sources.put(readString(dis), dis.readLong());
+		}
+		int locationCount = dis.readInt();
+		Map<String, String[]> locations = new LinkedHashMap<String, String[]>(locationCount);
+		for (int i = 0; i < locationCount; i++) {
+			locations.put(readString(dis), readStrings(dis));
+		}
+		int beanDefinitionCount = dis.readInt();
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<String, BeanDefinition>(beanDefinitionCount);
+		for (int i = 0; i < beanDefinitionCount; i++) {
+			beanDefinitions.put(readString(dis), readBeanDefinition(dis));
+		}
+		int aliasCount = dis.readInt();
+		Map<String, String> aliases = new LinkedHashMap<String, String>(aliasCount);
+		for (int i = 0; i < aliasCount; i++) {
+			aliases.put(readString(dis), readString(dis));
+		}
+		return new BeanDefinitionSnapshot(
+				key, activeProfiles, defaultProfiles, sources, locations, beanDefinitions, aliases);
+	}
+
+
+	private static void addSource(Map<String, Long> sources, Resource resource) throws IOException {
+		if (resource.exists()) {
+			String url = resource.getURL().toExternalForm();
+			if (!sources.containsKey(url)) {
+				sources.put(url, resource.lastModified());
+			}
+		}
+	}
+
+	private static String[] getUrls(Resource[] resources) throws IOException {
+		Set<String> urls = new TreeSet<String>();
+		for (Resource resource : resources) {
+			if (resource.exists()) {
+				urls.add(resource.getURL().toExternalForm());
+			}
+		}
+		return urls.toArray(new String[urls.size()]);
+	}
+
+
+	private static void writeBeanDefinition(DataOutputStream dos, BeanDefinition bd) throws IOException {
+		if (!(bd instanceof AbstractBeanDefinition)) {
+			throw new IllegalArgumentException("unsupported bean definition type [" + bd.getClass().getName() + "]");
+		}
+		AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+		if (abd instanceof RootBeanDefinition) {
+			dos.writeByte(ROOT_BEAN_DEFINITION);
+		}
+		else if (abd instanceof ChildBeanDefinition) {
+			dos.writeByte(CHILD_BEAN_DEFINITION);
+			writeString(dos, abd.getParentName());
+		}
+		else {
+			dos.writeByte(GENERIC_BEAN_DEFINITION);
+			writeString(dos, abd.getParentName());
+		}
+		writeString(dos, abd.getBeanClassName());
+		writeString(dos, abd.getScope());
+		dos.writeBoolean(abd.isAbstract());
+		dos.writeBoolean(abd.isLazyInit());
+		dos.writeInt(abd.getAutowireMode());
+		dos.writeInt(abd.getDependencyCheck());
+		writeStrings(dos, abd.getDependsOn());
+		dos.writeBoolean(abd.isAutowireCandidate());
+		dos.writeBoolean(abd.isPrimary());
+		Set<AutowireCandidateQualifier> qualifiers = abd.getQualifiers();
+		dos.writeInt(qualifiers.size());
+		for (AutowireCandidateQualifier qualifier : qualifiers) {
+			writeString(dos, qualifier.getTypeName());
+			writeAttributes(dos, qualifier);
+		}
+		dos.writeBoolean(abd.isNonPublicAccessAllowed());
+		dos.writeBoolean(abd.isLenientConstructorResolution());
+		ConstructorArgumentValues cargs = abd.getConstructorArgumentValues();
+		dos.writeInt(cargs.getIndexedArgumentValues().size());
+		for (Map.Entry<Integer, ConstructorArgumentValues.ValueHolder> entry :
+				cargs.getIndexedArgumentValues().entrySet()) {
+			dos.writeInt(entry.getKey());
+			writeValueHolder(dos, entry.getValue());
+		}
+		dos.writeInt(cargs.getGenericArgumentValues().size());
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getGenericArgumentValues()) {
+			writeValueHolder(dos, valueHolder);
+		}
+		PropertyValue[] pvs = abd.getPropertyValues().getPropertyValues();
+		dos.writeInt(pvs.length);
+		for (PropertyValue pv : pvs) {
+			writeString(dos, pv.getName());
+			writeValue(dos, pv.getValue());
+			dos.writeBoolean(pv.isOptional());
+		}
+		Set<MethodOverride> overrides = abd.getMethodOverrides().getOverrides();
+		dos.writeInt(overrides.size());
+		for (MethodOverride override : overrides) {
+			if (!(override instanceof LookupOverride)) {
+				throw new IllegalArgumentException(
+						"unsupported method override type [" + override.getClass().getName() + "]");
+			}
+			writeString(dos, override.getMethodName());
+			writeString(dos, ((LookupOverride) override).getBeanName());
+		}
+		writeString(dos, abd.getFactoryBeanName());
+		writeString(dos, abd.getFactoryMethodName());
+		writeString(dos, abd.getInitMethodName());
+		writeString(dos, abd.getDestroyMethodName());
+		dos.writeBoolean(abd.isEnforceInitMethod());
+		dos.writeBoolean(abd.isEnforceDestroyMethod());
+		dos.writeBoolean(abd.isSynthetic());
+		dos.writeInt(abd.getRole());
+		writeString(dos, abd.getDescription());
+		writeString(dos, abd.getResourceDescription());
+		writeAttributes(dos, abd);
+		if (abd instanceof RootBeanDefinition) {
+			BeanDefinitionHolder decoratedDefinition = ((RootBeanDefinition) abd).getDecoratedDefinition();
+			dos.writeBoolean(decoratedDefinition != null);
+			if (decoratedDefinition != null) {
+				writeBeanDefinitionHolder(dos, decoratedDefinition);
+			}
+		}
+	}
+
+	private static AbstractBeanDefinition readBeanDefinition(DataInputStream dis) throws IOException {
+		byte type = dis.readByte();
+		AbstractBeanDefinition abd;
+		if (type == ROOT_BEAN_DEFINITION) {
+			abd = new RootBeanDefinition();
+		}
+		else if (type == CHILD_BEAN_DEFINITION) {
+			abd = new ChildBeanDefinition(readString(dis));
+		}
+		else if (type == GENERIC_BEAN_DEFINITION) {
+			abd = new GenericBeanDefinition();
+			abd.setParentName(readString(dis));
+		}
+		else {
+			throw new IOException("Unknown bean definition type: " + type);
+		}
+		abd.setBeanClassName(readString(dis));
+		abd.setScope(readString(dis));
+		abd.setAbstract(dis.readBoolean());
+		abd.setLazyInit(dis.readBoolean());
+		abd.setAutowireMode(dis.readInt());
+		abd.setDependencyCheck(dis.readInt());
+		abd.setDependsOn(readStrings(dis));
+		abd.setAutowireCandidate(dis.readBoolean());
+		abd.setPrimary(dis.readBoolean());
+		int qualifierCount = dis.readInt();
+		for (int i = 0; i < qualifierCount; i++) {
+			AutowireCandidateQualifier qualifier = new AutowireCandidateQualifier(readString(dis));
+			readAttributes(dis, qualifier);
+			abd.addQualifier(qualifier);
+		}
+		abd.setNonPublicAccessAllowed(dis.readBoolean());
+		abd.setLenientConstructorResolution(dis.readBoolean());
+		ConstructorArgumentValues cargs = new ConstructorArgumentValues();
+		int indexedArgumentCount = dis.readInt();
+		for (int i = 0; i < indexedArgumentCount; i++) {
+			int index = dis.readInt();
+			cargs.addIndexedArgumentValue(index, readValueHolder(dis));
+		}
+		int genericArgumentCount = dis.readInt();
+		for (int i = 0; i < genericArgumentCount; i++) {
+			cargs.addGenericArgumentValue(readValueHolder(dis));
+		}
+		abd.setConstructorArgumentValues(cargs);
+		int propertyValueCount = dis.readInt();
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		for (int i = 0; i < propertyValueCount; i++) {
+			PropertyValue pv = new PropertyValue(readString(dis), readValue(dis));
+			pv.setOptional(dis.readBoolean());
+			pvs.addPropertyValue(pv);
+		}
+		abd.setPropertyValues(pvs);
+		int overrideCount = dis.readInt();
+		for (int i = 0; i < overrideCount; i++) {
+			abd.getMethodOverrides().addOverride(new LookupOverride(readString(dis), readString(dis)));
+		}
+		abd.setFactoryBeanName(readString(dis));
+		abd.setFactoryMethodName(readString(dis));
+		abd.setInitMethodName(readString(dis));
+		abd.setDestroyMethodName(readString(dis));
+		abd.setEnforceInitMethod(dis.readBoolean());
+		abd.setEnforceDestroyMethod(dis.readBoolean());
+		abd.setSynthetic(dis.readBoolean());
+		abd.setRole(dis.readInt());
+		abd.setDescription(readString(dis));
+		abd.setResourceDescription(readString(dis));
+		readAttributes(dis, abd);
+		if (abd instanceof RootBeanDefinition && dis.readBoolean()) {
+			((RootBeanDefinition) abd).setDecoratedDefinition(readBeanDefinitionHolder(dis));
+		}
+		return abd;
+	}
+
+	private static void writeBeanDefinitionHolder(DataOutputStream dos, BeanDefinitionHolder holder)
+			throws IOException {
+
+		writeString(dos, holder.getBeanName());
+		writeStrings(dos, holder.getAliases());
+		writeBeanDefinition(dos, holder.getBeanDefinition());
+	}
+
+	private static BeanDefinitionHolder readBeanDefinitionHolder(DataInputStream dis) throws IOException {
+		String beanName = readString(dis);
+		String[] aliases = readStrings(dis);
+		return new BeanDefinitionHolder(readBeanDefinition(dis), beanName, aliases);
+	}
+
+	private static void writeValueHolder(DataOutputStream dos, ConstructorArgumentValues.ValueHolder valueHolder)
+			throws IOException {
+
+		writeValue(dos, valueHolder.getValue());
+		writeString(dos, valueHolder.getType());
+		writeString(dos, valueHolder.getName());
+	}
+
+	private static ConstructorArgumentValues.ValueHolder readValueHolder(DataInputStream dis) throws IOException {
+		Object value = readValue(dis);
+		return new ConstructorArgumentValues.ValueHolder(value, readString(dis), readString(dis));
+	}
+
+	private static void writeAttributes(DataOutputStream dos, AttributeAccessor accessor) throws IOException {
+		String[] attributeNames = accessor.attributeNames();
+		dos.writeInt(attributeNames.length);
+		for (String attributeName : attributeNames) {
+			Object value = accessor.getAttribute(attributeName);
+			if (value != null && !(value instanceof String || value instanceof Boolean ||
+					value instanceof Integer || value instanceof Long)) {
+				throw new IllegalArgumentException("unsupported value type [" + value.getClass().getName() +
+						"] for attribute '" + attributeName + "'");
+			}
+			writeString(dos, attributeName);
+			writeValue(dos, value);
+		}
+	}
+
+	private static void readAttributes(DataInputStream dis, AttributeAccessor accessor) throws IOException {
+		int attributeCount = dis.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			accessor.setAttribute(readString(dis), readValue(dis));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void writeValue(DataOutputStream dos, Object value) throws IOException {
+		if (value == null) {
+			dos.writeByte(NULL_VALUE);
+		}
+		else if (value instanceof String) {
+			dos.writeByte(STRING_VALUE);
+			writeString(dos, (String) value);
+		}
+		else if (value instanceof Boolean) {
+			dos.writeByte(BOOLEAN_VALUE);
+			dos.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			dos.writeByte(INTEGER_VALUE);
+			dos.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			dos.writeByte(LONG_VALUE);
+			dos.writeLong((Long) value);
+		}
+		else if (value instanceof TypedStringValue) {
+			TypedStringValue typedValue = (TypedStringValue) value;
+			dos.writeByte(TYPED_STRING_VALUE);
+			writeString(dos, typedValue.getValue());
+			writeString(dos, typedValue.getTargetTypeName());
+			writeString(dos, typedValue.getSpecifiedTypeName());
+			dos.writeBoolean(typedValue.isDynamic());
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference ref = (RuntimeBeanReference) value;
+			dos.writeByte(BEAN_REFERENCE);
+			writeString(dos, ref.getBeanName());
+			dos.writeBoolean(ref.isToParent());
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			dos.writeByte(BEAN_NAME_REFERENCE);
+			writeString(dos, ((RuntimeBeanNameReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			dos.writeByte(BEAN_DEFINITION_HOLDER);
+			writeBeanDefinitionHolder(dos, (BeanDefinitionHolder) value);
+		}
+		else if (value instanceof BeanDefinition) {
+			dos.writeByte(BEAN_DEFINITION);
+			writeBeanDefinition(dos, (BeanDefinition) value);
+		}
+		else if (value instanceof ManagedArray) {
+			ManagedArray array = (ManagedArray) value;
+			dos.writeByte(MANAGED_ARRAY);
+			writeString(dos, array.getElementTypeName());
+			dos.writeBoolean(array.isMergeEnabled());
+			writeElements(dos, array);
+		}
+		else if (value instanceof ManagedList) {
+			ManagedList<Object> list = (ManagedList<Object>) value;
+			dos.writeByte(MANAGED_LIST);
+			writeString(dos, list.getElementTypeName());
+			dos.writeBoolean(list.isMergeEnabled());
+			writeElements(dos, list);
+		}
+		else if (value instanceof ManagedSet) {
+			ManagedSet<Object> set = (ManagedSet<Object>) value;
+			dos.writeByte(MANAGED_SET);
+			writeString(dos, set.getElementTypeName());
+			dos.writeBoolean(set.isMergeEnabled());
+			writeElements(dos, set);
+		}
+		else if (value instanceof ManagedMap) {
+			ManagedMap<Object, Object> map = (ManagedMap<Object, Object>) value;
+			dos.writeByte(MANAGED_MAP);
+			writeString(dos, map.getKeyTypeName());
+			writeString(dos, map.getValueTypeName());
+			dos.writeBoolean(map.isMergeEnabled());
+			writeEntries(dos, map);
+		}
+		else if (value instanceof ManagedProperties) {
+			ManagedProperties props = (ManagedProperties) value;
+			dos.writeByte(MANAGED_PROPERTIES);
+			dos.writeBoolean(props.isMergeEnabled());
+			writeEntries(dos, props);
+		}
+		else {
+			throw new IllegalArgumentException("unsupported value type [" + value.getClass().getName() + "]");
+		}
+	}
+
+	private static Object readValue(DataInputStream dis) throws IOException {
+		byte type = dis.readByte();
+		switch (type) {
+			case NULL_VALUE:
+				return null;
+			case STRING_VALUE:
+				return readString(dis);
+			case BOOLEAN_VALUE:
+				return dis.readBoolean();
+			case INTEGER_VALUE:
+				return dis.readInt();
+			case LONG_VALUE:
+				return dis.readLong();
+			case TYPED_STRING_VALUE:
+				TypedStringValue typedValue = new TypedStringValue(readString(dis));
+				String targetTypeName = readString(dis);
+				if (targetTypeName != null) {
+					typedValue.setTargetTypeName(targetTypeName);
+				}
+				typedValue.setSpecifiedTypeName(readString(dis));
+				if (dis.readBoolean()) {
+					typedValue.setDynamic();
+				}
+				return typedValue;
+			case BEAN_REFERENCE:
+				return new RuntimeBeanReference(readString(dis), dis.readBoolean());
+			case BEAN_NAME_REFERENCE:
+				return new RuntimeBeanNameReference(readString(dis));
+			case BEAN_DEFINITION_HOLDER:
+				return readBeanDefinitionHolder(dis);
+			case BEAN_DEFINITION:
+				return readBeanDefinition(dis);
+			case MANAGED_ARRAY:
+				String arrayElementTypeName = readString(dis);
+				boolean arrayMergeEnabled = dis.readBoolean();
+				int size = dis.readInt();
+				ManagedArray array = new ManagedArray(arrayElementTypeName, size);
+				array.setMergeEnabled(arrayMergeEnabled);
+				readElements(dis, array, size);
+				return array;
+			case MANAGED_LIST:
+				ManagedList<Object> list = new ManagedList<Object>();
+				list.setElementTypeName(readString(dis));
+				list.setMergeEnabled(dis.readBoolean());
+				readElements(dis, list, dis.readInt());
+				return list;
+			case MANAGED_SET:
+				ManagedSet<Object> set = new ManagedSet<Object>();
+				set.setElementTypeName(readString(dis));
+				set.setMergeEnabled(dis.readBoolean());
+				readElements(dis, set, dis.readInt());
+				return set;
+			case MANAGED_MAP:
+				ManagedMap<Object, Object> map = new ManagedMap<Object, Object>();
+				map.setKeyTypeName(readString(dis));
+				map.setValueTypeName(readString(dis));
+				map.setMergeEnabled(dis.readBoolean());
+				readEntries(dis, map);
+				return map;
+			case MANAGED_PROPERTIES:
+				ManagedProperties props = new ManagedProperties();
+				props.setMergeEnabled(dis.readBoolean());
+				readEntries(dis, props);
+				return props;
+			default:
+				throw new IOException("Unknown value type: " + type);
+		}
+	}
+
+	private static void writeElements(DataOutputStream dos, Iterable<?> elements) throws IOException {
+		List<Object> elementList = new ArrayList<Object>();
+		for (Object element : elements) {
+			elementList.add(element);
+		}
+		dos.writeInt(elementList.size());
+		for (Object element : elementList) {
+			writeValue(dos, element);
+		}
+	}
+
+	private static void readElements(DataInputStream dis, Collection<Object> elements, int size)
+			throws IOException {
+
+		for (int i = 0; i < size; i++) {
+			elements.add(readValue(dis));
+		}
+	}
+
+	private static void writeEntries(DataOutputStream dos, Map<?, ?> map) throws IOException {
+		dos.writeInt(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writeValue(dos, entry.getKey());
+			writeValue(dos, entry.getValue());
+		}
+	}
+
+	private static void readEntries(DataInputStream dis, Map<Object, Object> map) throws IOException {
+		int size = dis.readInt();
+		for (int i = 0; i < size; i++) {
+			map.put(readValue(dis), readValue(dis));
+		}
+	}
+
+	private static void writeStrings(DataOutputStream dos, String[] values) throws IOException {
+		if (values == null) {
+			dos.writeInt(-1);
+			return;
+		}
+		dos.writeInt(values.length);
+		for (String value : values) {
+			writeString(dos, value);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream dis) throws IOException {
+		int length = dis.readInt();
+		if (length < 0) {
+			return null;
+		}
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = readString(dis);
+		}
+		return values;
+	}
+
+	private static void writeString(DataOutputStream dos, String value) throws IOException {
+		if (value == null) {
+			dos.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes("UTF-8");
+		dos.writeInt(bytes.length);
+		dos.write(bytes);
+	}
+
+	private static String readString(DataInputStream dis) throws IOException {
+		int length = dis.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		dis.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+
+	/**
+	 * Records the resources that bean definitions get loaded from while a
+	 * snapshot is being written, including resources that do not define any
+	 * beans themselves (e.g. files that merely import other files).
+	 * <p>Serves as {@link org.springframework.beans.factory.parsing.ReaderEventListener}
+	 * for an XML bean definition reader, recording the resources of each
+	 * processed import. Note that relative imports cannot be checked for newly
+	 * matching resources, since they get resolved against the importing file.
+	 * @see AbstractRefreshableApplicationContext#getBeanDefinitionSourceTracker()
+	 */
+	public static class SourceTracker extends EmptyReaderEventListener {
+
+		private static final PathMatcher pathMatcher = new AntPathMatcher();
+
+		private final Set<Resource> resources = new LinkedHashSet<Resource>();
+
+		private final Map<String, Resource[]> locations = new LinkedHashMap<String, Resource[]>();
+
+		/**
+		 * Record the given resources as bean definition sources.
+		 * @param resources the resources that have been loaded
+		 */
+		public void addResources(Resource... resources) {
+			this.resources.addAll(Arrays.asList(resources));
+		}
+
+		/**
+		 * Record the resources that the given location resolved to. If the location
+		 * is a pattern, the snapshot also checks it for newly matching resources.
+		 * @param location the location that has been loaded (as resolvable by
+		 * the context's {@link ResourcePatternResolver})
+		 * @param resources the resources that the location resolved to
+		 */
+		public void addLocation(String location, Resource... resources) {
+			addResources(resources);
+			if (location.startsWith(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX) ||
+					pathMatcher.isPattern(location)) {
+				this.locations.put(location, resources);
+			}
+		}
+
+		@Override
+		public void importProcessed(ImportDefinition importDefinition) {
+			String location = importDefinition.getImportedResource();
+			if (ResourcePatternUtils.isUrl(location)) {
+				addLocation(location, importDefinition.getActualResources());
+			}
+			else {
+				addResources(importDefinition.getActualResources());
+			}
+		}
+	}
+
+}
@@ -435,7 +435,7 @@ public abstract class AbstractReflectiveMBeanInfoAssembler extends AbstractMBean
 	 * @see org.springframework.aop.framework.AopProxyUtils#proxiedUserInterfaces(Object)
 	 */
 	protected Class getClassForDescriptor(Object managedBean) {
-		if (AopUtils.isJdkDynamicProxy(managedBean)) {
+		if (AopUtils.isJdkDynamicProxy(managedBean) || AopUtils.isGeneratedProxy(managedBean)) {
 			return AopProxyUtils.proxiedUserInterfaces(managedBean)[0];
 		}
 		return getClassToExpose(managedBean);
@@ -97,12 +97,13 @@ public class MetadataMBeanInfoAssembler extends AbstractReflectiveMBeanInfoAssem
 
 
 	/**
-	 * Throws an IllegalArgumentException if it encounters a JDK dynamic proxy.
+	 * Throws an IllegalArgumentException if it encounters a JDK dynamic proxy
+	 * or another interface-based proxy.
 	 * Metadata can only be read from target classes and CGLIB proxies!
 	 */
 	@Override
 	protected void checkManagedBean(Object managedBean) throws IllegalArgumentException {
-		if (AopUtils.isJdkDynamicProxy(managedBean)) {
+		if (AopUtils.isJdkDynamicProxy(managedBean) || AopUtils.isGeneratedProxy(managedBean)) {
 			throw new IllegalArgumentException(
 					"MetadataMBeanInfoAssembler does not support JDK dynamic proxies - " +
 					"export the target beans directly or use CGLIB proxies instead");
@@ -115,7 +115,7 @@ public class ScheduledAnnotationBeanPostProcessor
 								"Only void-returning methods may be annotated with @Scheduled");
 						Assert.isTrue(method.getParameterTypes().length == 0,
 								"Only no-arg methods may be annotated with @Scheduled");
-						if (AopUtils.isJdkDynamicProxy(bean)) {
+						if (AopUtils.isJdkDynamicProxy(bean) || AopUtils.isGeneratedProxy(bean)) {
 							try {
 								// found a @Scheduled method on the target class for this JDK proxy -> is it
 								// also present on the proxy itself?
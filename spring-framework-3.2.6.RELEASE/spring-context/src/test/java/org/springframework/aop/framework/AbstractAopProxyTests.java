@@ -386,6 +386,77 @@ public abstract class AbstractAopProxyTests {
 		assertEquals("3 more invocations via AOP as the first call was reentrant through the proxy", 4, di.getCount());
 	}
 
+	@Test
+	public void testTargetCanGetProxyWhenFrozen() {
+		NopInterceptor di = new NopInterceptor();
+		INeedsToSeeProxy target = new TargetChecker();
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setExposeProxy(true);
+		proxyFactory.addAdvice(0, di);
+		proxyFactory.setFrozen(true);
+		INeedsToSeeProxy proxied = (INeedsToSeeProxy) createProxy(proxyFactory);
+		proxied.incrementViaThis();
+		assertEquals("Increment happened", 1, target.getCount());
+		assertEquals(1, di.getCount());
+		proxied.incrementViaProxy();
+		assertEquals("Increment happened", 2, target.getCount());
+		assertEquals(3, di.getCount());
+	}
+
+	@Test
+	public void testFrozenProxyAppliesStaticAndDynamicAdvice() {
+		TestBean target = new TestBean();
+		target.setAge(27);
+		NopInterceptor nop = new NopInterceptor();
+		CountingBeforeAdvice cba = new CountingBeforeAdvice();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(nop);
+		pf.addAdvisor(new DefaultPointcutAdvisor(new DynamicMethodMatcherPointcut() {
+			@Override
+			public boolean matches(Method m, Class<?> targetClass, Object[] args) {
+				return m.getName().startsWith("set") && "dynamic".equals(args[0]);
+			}
+		}, cba));
+		pf.setFrozen(true);
+		ITestBean proxied = (ITestBean) createProxy(pf);
+		assertEquals(27, proxied.getAge());
+		proxied.setName("static");
+		proxied.setName("dynamic");
+		assertEquals("dynamic", proxied.getName());
+		assertEquals(4, nop.getCount());
+		assertEquals(1, cba.getCalls("setName"));
+	}
+
+	@Test
+	public void testFrozenProxyInvocationPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+		TestBean target = new TestBean();
+		ProxyFactory pf = new ProxyFactory(target);
+		for (int i = 0; i < 5; i++) {
+			pf.addAdvice(new NopInterceptor());
+		}
+		ITestBean unfrozen = (ITestBean) createProxy(pf);
+		pf.setFrozen(true);
+		ITestBean frozen = (ITestBean) createProxy(pf);
+		int howMany = 1000000;
+
+		StopWatch sw = new StopWatch();
+		for (int run = 0; run < 2; run++) {
+			sw.start("unfrozen");
+			for (int i = 0; i < howMany; i++) {
+				unfrozen.setAge(i);
+			}
+			sw.stop();
+			sw.start("frozen");
+			for (int i = 0; i < howMany; i++) {
+				frozen.setAge(i);
+			}
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertEquals(howMany - 1, target.getAge());
+	}
+
 
 	@Test
 	public void testTargetCantGetProxyByDefault() {
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.jmx.export.annotation.AnnotationJmxAttributeSource;
+import org.springframework.jmx.export.assembler.MetadataMBeanInfoAssembler;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.tests.aop.interceptor.NopInterceptor;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for proxies created by {@link GeneratedAopProxy}.
+ */
+public class GeneratedAopProxyTests {
+
+	@Test
+	public void generatedProxyForFrozenConfigurationOnly() {
+		ProxyFactory pf = createProxyFactory(new TestBean());
+		assertTrue(Proxy.isProxyClass(pf.getProxy().getClass()));
+		pf.setFrozen(true);
+		Object proxy = pf.getProxy();
+		assertTrue(proxy instanceof AbstractGeneratedProxy);
+		assertTrue(proxy instanceof ITestBean);
+		assertFalse(proxy instanceof TestBean);
+		assertSame(proxy.getClass(), pf.getProxy().getClass());
+	}
+
+	@Test
+	public void generatedProxyRecognizedAsInterfaceBasedProxy() {
+		ProxyFactory pf = createProxyFactory(new TestBean());
+		pf.setFrozen(true);
+		Object proxy = pf.getProxy();
+		assertTrue(AopUtils.isAopProxy(proxy));
+		assertFalse(AopUtils.isJdkDynamicProxy(proxy));
+		assertTrue(AopUtils.isGeneratedProxy(proxy));
+		assertFalse(AopUtils.isCglibProxy(proxy));
+		assertSame(TestBean.class, AopUtils.getTargetClass(proxy));
+		assertTrue(Arrays.asList(AopProxyUtils.proxiedUserInterfaces(proxy)).contains(ITestBean.class));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void generatedProxyRejectedByMetadataMBeanInfoAssembler() throws Exception {
+		ProxyFactory pf = createProxyFactory(new TestBean());
+		pf.setFrozen(true);
+		new MetadataMBeanInfoAssembler(new AnnotationJmxAttributeSource()).getMBeanInfo(pf.getProxy(), "bean");
+	}
+
+	@Test
+	public void directCallsAndAdvisedCalls() {
+		TestBean target = new TestBean("Juergen", 42);
+		NopInterceptor nop = new NopInterceptor();
+		ProxyFactory pf = createProxyFactory(target);
+		pf.addAdvisor(new NameMatchMethodPointcutAdvisor(nop));
+		((NameMatchMethodPointcutAdvisor) pf.getAdvisors()[0]).setMappedName("set*");
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		assertEquals(42, proxy.getAge());
+		assertEquals("Juergen", proxy.getName());
+		assertEquals(0, nop.getCount());
+		proxy.setAge(43);
+		proxy.setName("Rod");
+		assertEquals(2, nop.getCount());
+		assertEquals(43, target.getAge());
+		assertEquals("Rod", proxy.getName());
+		assertEquals(target.toString(), proxy.toString());
+	}
+
+	@Test
+	public void argumentsAndReturnValues() {
+		ProxyFactory pf = createProxyFactory(new CalculatorImpl());
+		pf.addAdvice(new NopInterceptor());
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertEquals(7L, proxy.add(3, 4L));
+		assertEquals(2.5d, proxy.divide(5.0d, 2.0f), 0.0d);
+		assertArrayEquals(new String[] {"a", "b"}, proxy.split("a,b"));
+		assertSame(proxy, proxy.self());
+		assertSame(proxy, proxy.selfAsObject());
+	}
+
+	@Test
+	public void targetReturnedFromDirectCallIsReplacedWithProxy() {
+		ProxyFactory pf = createProxyFactory(new CalculatorImpl());
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertSame(proxy, proxy.self());
+		assertSame(proxy, proxy.selfAsObject());
+	}
+
+	@Test
+	public void nullReturnValueForPrimitive() {
+		ProxyFactory pf = createProxyFactory(new CalculatorImpl());
+		pf.addAdvice(new MethodInterceptor() {
+			@Override
+			public Object invoke(MethodInvocation invocation) {
+				return null;
+			}
+		});
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		try {
+			proxy.add(1, 2L);
+			fail("Should have thrown AopInvocationException");
+		}
+		catch (org.springframework.aop.AopInvocationException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void exceptions() throws Exception {
+		final Exception[] toThrow = new Exception[1];
+		ProxyFactory pf = createProxyFactory(new CalculatorImpl());
+		pf.addAdvice(new MethodInterceptor() {
+			@Override
+			public Object invoke(MethodInvocation invocation) throws Throwable {
+				if (toThrow[0] != null) {
+					throw toThrow[0];
+				}
+				return invocation.proceed();
+			}
+		});
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+
+		try {
+			proxy.check(-1);
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			assertEquals("-1", ex.getMessage());
+		}
+		toThrow[0] = new IOException("declared");
+		try {
+			proxy.check(1);
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			assertSame(toThrow[0], ex);
+		}
+		toThrow[0] = new Exception("undeclared");
+		try {
+			proxy.check(1);
+			fail("Should have thrown UndeclaredThrowableException");
+		}
+		catch (UndeclaredThrowableException ex) {
+			assertSame(toThrow[0], ex.getUndeclaredThrowable());
+		}
+		toThrow[0] = new IllegalStateException("unchecked");
+		try {
+			proxy.check(1);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertSame(toThrow[0], ex);
+		}
+	}
+
+	@Test
+	public void advisedInterface() {
+		ProxyFactory pf = createProxyFactory(new TestBean());
+		pf.addAdvice(new NopInterceptor());
+		pf.setFrozen(true);
+		Advised advised = (Advised) pf.getProxy();
+		assertTrue(advised.isFrozen());
+		assertEquals(1, advised.getAdvisors().length);
+		assertEquals(TestBean.class, advised.getTargetClass());
+
+		pf.setOpaque(true);
+		Object proxy = pf.getProxy();
+		assertTrue(proxy instanceof AbstractGeneratedProxy);
+		assertFalse(proxy instanceof Advised);
+	}
+
+	@Test
+	public void exposeProxy() {
+		ProxyFactory pf = createProxyFactory(new ProxyExposingCalculator());
+		pf.setExposeProxy(true);
+		pf.setFrozen(true);
+		Calculator proxy = (Calculator) pf.getProxy();
+		assertSame(proxy, proxy.self());
+	}
+
+	@Test
+	public void equalsAndHashCode() {
+		TestBean target = new TestBean();
+		ProxyFactory pf = createProxyFactory(target);
+		pf.setFrozen(true);
+		Object proxy1 = pf.getProxy();
+		Object proxy2 = pf.getProxy();
+		assertNotSame(proxy1, proxy2);
+		assertEquals(proxy1, proxy2);
+		assertEquals(proxy1.hashCode(), proxy2.hashCode());
+		assertFalse(proxy1.equals(target));
+	}
+
+	@Test
+	public void fallbackToJdkProxyForNonPublicInterface() {
+		ProxyFactory pf = createProxyFactory(new NonPublicImpl());
+		pf.setFrozen(true);
+		Object proxy = pf.getProxy();
+		assertTrue(Proxy.isProxyClass(proxy.getClass()));
+		assertEquals("value", ((NonPublic) proxy).getValue());
+	}
+
+	@Test
+	public void generatedProxyPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+		TestBean target = new TestBean();
+		ProxyFactory pf = createProxyFactory(target);
+		for (int i = 0; i < 5; i++) {
+			pf.addAdvice(new NopInterceptor());
+		}
+		pf.setFrozen(true);
+		ITestBean jdkProxy = (ITestBean) new JdkDynamicAopProxy(pf).getProxy();
+		ITestBean generatedProxy = (ITestBean) pf.getProxy();
+		assertTrue(generatedProxy instanceof AbstractGeneratedProxy);
+		int howMany = 1000000;
+
+		StopWatch sw = new StopWatch();
+		for (int run = 0; run < 2; run++) {
+			sw.start("JDK dynamic proxy");
+			for (int i = 0; i < howMany; i++) {
+				jdkProxy.setAge(i);
+			}
+			sw.stop();
+			sw.start("generated proxy");
+			for (int i = 0; i < howMany; i++) {
+				generatedProxy.setAge(i);
+			}
+			sw.stop();
+		}
+		System.out.println(sw.prettyPrint());
+		assertEquals(howMany - 1, target.getAge());
+	}
+
+
+	private ProxyFactory createProxyFactory(Object target) {
+		DefaultAopProxyFactory aopProxyFactory = new DefaultAopProxyFactory();
+		aopProxyFactory.setGeneratedProxies(true);
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setAopProxyFactory(aopProxyFactory);
+		return pf;
+	}
+
+
+	public interface Calculator {
+
+		long add(int a, long b);
+
+		double divide(double a, float b);
+
+		String[] split(String value);
+
+		Calculator self();
+
+		Object selfAsObject();
+
+		void check(int value) throws IOException;
+	}
+
+
+	public static class CalculatorImpl implements Calculator {
+
+		@Override
+		public long add(int a, long b) {
+			return a + b;
+		}
+
+		@Override
+		public double divide(double a, float b) {
+			return a / b;
+		}
+
+		@Override
+		public String[] split(String value) {
+			return value.split(",");
+		}
+
+		@Override
+		public Calculator self() {
+			return this;
+		}
+
+		@Override
+		public Object selfAsObject() {
+			return this;
+		}
+
+		@Override
+		public void check(int value) throws IOException {
+			if (value < 0) {
+				throw new IOException(String.valueOf(value));
+			}
+		}
+	}
+
+
+	public static class ProxyExposingCalculator extends CalculatorImpl {
+
+		@Override
+		public Calculator self() {
+			return (Calculator) AopContext.currentProxy();
+		}
+	}
+
+
+	interface NonPublic {
+
+		String getValue();
+	}
+
+
+	static class NonPublicImpl implements NonPublic {
+
+		@Override
+		public String getValue() {
+			return "value";
+		}
+	}
+
+}
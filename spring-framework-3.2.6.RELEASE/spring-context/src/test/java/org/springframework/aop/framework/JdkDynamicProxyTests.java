@@ -20,10 +20,12 @@ import java.io.Serializable;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
 import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.tests.sample.beans.IOther;
 import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.aop.interceptor.NopInterceptor;
 import org.springframework.tests.sample.beans.TestBean;
 
 import static org.junit.Assert.*;
@@ -147,6 +149,26 @@ public final class JdkDynamicProxyTests extends AbstractAopProxyTests implements
 		assertEquals("hashCode() not equal", proxy.hashCode(), named.hashCode());
 	}
 
+	@Test
+	public void testAdviceAddedAfterUnfreezingIsApplied() {
+		TestBean target = new TestBean();
+		target.setAge(27);
+		NopInterceptor first = new NopInterceptor();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(first);
+		pf.setFrozen(true);
+		ITestBean proxied = (ITestBean) createProxy(pf);
+		assertEquals(27, proxied.getAge());
+		assertEquals(1, first.getCount());
+
+		pf.setFrozen(false);
+		NopInterceptor second = new NopInterceptor();
+		pf.addAdvice(second);
+		assertEquals(27, proxied.getAge());
+		assertEquals(2, first.getCount());
+		assertEquals(1, second.getCount());
+	}
+
 
 	public static interface Foo {
 
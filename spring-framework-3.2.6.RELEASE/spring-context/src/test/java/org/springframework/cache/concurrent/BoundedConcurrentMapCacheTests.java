@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.ExpiringValueWrapper;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BoundedConcurrentMapCache}.
+ */
+public class BoundedConcurrentMapCacheTests {
+
+	@Test
+	public void putGetEvictClear() {
+		BoundedConcurrentMapCache cache = new BoundedConcurrentMapCache("test", 10);
+		assertEquals("test", cache.getName());
+		assertNull(cache.get("enescu"));
+		cache.put("enescu", "george");
+		cache.put("vlaicu", null);
+		assertEquals("george", cache.get("enescu").get());
+		assertNotNull(cache.get("vlaicu"));
+		assertNull(cache.get("vlaicu").get());
+		cache.evict("enescu");
+		assertNull(cache.get("enescu"));
+		cache.clear();
+		assertNull(cache.get("vlaicu"));
+		assertEquals(0, cache.size());
+		cache.put("enescu", "george");
+		assertEquals("george", cache.get("enescu").get());
+	}
+
+	@Test
+	public void maximumSize() {
+		BoundedConcurrentMapCache cache = createCache(5, null, 0, 0);
+		for (int i = 0; i < 20; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertEquals(5, cache.size());
+		assertEquals(15, cache.getStatistics().getEvictionCount());
+		assertNotNull(cache.get(19));
+		assertNull(cache.get(0));
+	}
+
+	@Test
+	public void frequentlyUsedEntriesSurviveScan() {
+		BoundedConcurrentMapCache cache = createCache(10, null, 0, 0);
+		for (int i = 0; i < 5; i++) {
+			cache.put("hot" + i, "value");
+			cache.get("hot" + i);
+		}
+		for (int i = 0; i < 100; i++) {
+			cache.put("cold" + i, "value");
+		}
+		for (int i = 0; i < 5; i++) {
+			assertNotNull("hot" + i + " evicted", cache.get("hot" + i));
+		}
+		assertEquals(10, cache.size());
+	}
+
+	@Test
+	public void replacedEntryCountsOnce() {
+		BoundedConcurrentMapCache cache = createCache(2, null, 0, 0);
+		cache.put("a", "1");
+		cache.put("a", "2");
+		cache.put("b", "3");
+		assertEquals("2", cache.get("a").get());
+		assertEquals("3", cache.get("b").get());
+		assertEquals(0, cache.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void maximumWeight() {
+		CacheWeigher weigher = new CacheWeigher() {
+			@Override
+			public int weigh(Object key, Object value) {
+				return ((String) value).length();
+			}
+		};
+		BoundedConcurrentMapCache cache = createCache(10, weigher, 0, 0);
+		cache.put("a", "12345");
+		cache.put("b", "1234");
+		assertEquals(2, cache.size());
+		cache.put("c", "12");
+		assertNull(cache.get("a"));
+		assertNotNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		cache.put("d", "12345678901");
+		assertNull(cache.get("d"));
+	}
+
+	@Test
+	public void expireAfterWrite() {
+		TestCache cache = createCache(0, null, 100, 0);
+		cache.put("a", "1");
+		cache.time += ms(60);
+		cache.put("b", "2");
+		assertNotNull(cache.get("a"));
+		cache.time += ms(50);
+		assertNull(cache.get("a"));
+		assertNotNull(cache.get("b"));
+		cache.time += ms(60);
+		cache.put("c", "3");
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.getStatistics().getExpirationCount());
+	}
+
+	@Test
+	public void timeToLiveExposed() {
+		TestCache cache = createCache(0, null, 100, 0);
+		cache.put("a", "1");
+		cache.time += ms(60);
+		Cache.ValueWrapper wrapper = cache.get("a");
+		assertTrue(wrapper instanceof ExpiringValueWrapper);
+		assertEquals(40, ((ExpiringValueWrapper) wrapper).getTimeToLive());
+		assertEquals("1", wrapper.get());
+		cache = createCache(0, null, 0, 100);
+		cache.put("a", "1");
+		assertFalse(cache.get("a") instanceof ExpiringValueWrapper);
+	}
+
+	@Test
+	public void expireAfterAccess() {
+		TestCache cache = createCache(0, null, 0, 100);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		for (int i = 0; i < 5; i++) {
+			cache.time += ms(60);
+			assertNotNull(cache.get("a"));
+		}
+		assertNull(cache.get("b"));
+		cache.time += ms(100);
+		cache.put("c", "3");
+		assertEquals(1, cache.size());
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void statistics() {
+		BoundedConcurrentMapCache cache = createCache(0, null, 0, 0);
+		CacheStatistics statistics = cache.getStatistics();
+		assertEquals(1.0d, statistics.getHitRatio(), 0.0d);
+		cache.put("a", "1");
+		cache.get("a");
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+		assertEquals("test", statistics.getCacheName());
+		assertEquals(1, statistics.getSize());
+		assertEquals(1, statistics.getPutCount());
+		assertEquals(3, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(0.75d, statistics.getHitRatio(), 0.0d);
+		statistics.reset();
+		assertEquals(0, statistics.getHitCount());
+		assertNull(new BoundedConcurrentMapCache("test", 10).getStatistics());
+	}
+
+
+	private static long ms(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	private static TestCache createCache(long maximumWeight, CacheWeigher weigher,
+			long expireAfterWrite, long expireAfterAccess) {
+
+		return new TestCache(maximumWeight, weigher, expireAfterWrite, expireAfterAccess);
+	}
+
+
+	private static class TestCache extends BoundedConcurrentMapCache {
+
+		public long time = 0;
+
+		public TestCache(long maximumWeight, CacheWeigher weigher, long expireAfterWrite, long expireAfterAccess) {
+			super("test", maximumWeight, weigher, expireAfterWrite, expireAfterAccess, true, true);
+		}
+
+		@Override
+		protected long currentTimeNanos() {
+			return this.time;
+		}
+	}
+
+}
@@ -16,6 +16,11 @@
 
 package org.springframework.cache.concurrent;
 
+import java.util.Arrays;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
 import org.junit.Test;
 
 import org.springframework.cache.Cache;
@@ -60,4 +65,105 @@ public class ConcurrentMapCacheManagerTests {
 		assertNull(cache3);
 	}
 
+	@Test
+	public void testBoundedCaches() {
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager("c1");
+		cm.setMaximumSize(2);
+		Cache cache1 = cm.getCache("c1");
+		assertTrue(cache1 instanceof BoundedConcurrentMapCache);
+		cache1.put("a", "1");
+		cache1.put("b", "2");
+		cache1.put("c", "3");
+		assertEquals(2, ((BoundedConcurrentMapCache) cache1).size());
+		assertNull(((BoundedConcurrentMapCache) cache1).getStatistics());
+
+		cm = new ConcurrentMapCacheManager();
+		cm.setExpireAfterWrite(1000);
+		cm.setStatisticsEnabled(true);
+		Cache cache2 = cm.getCache("c2");
+		assertTrue(cache2 instanceof BoundedConcurrentMapCache);
+		assertNotNull(((BoundedConcurrentMapCache) cache2).getStatistics());
+	}
+
+	@Test
+	public void testStatisticsExposedThroughJmx() throws Exception {
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager();
+		cm.setMBeanServer(server);
+		cm.setBeanName("cacheManager");
+		Cache cache1 = cm.getCache("c1");
+		assertEquals(0, server.queryNames(ObjectName.getInstance("org.springframework.cache:*"), null).size());
+		cm.afterPropertiesSet();
+		cache1.put("a", "1");
+		cache1.get("a");
+		cache1.get("b");
+		cm.getCache("c2");
+
+		ObjectName name1 = ObjectName.getInstance(
+				"org.springframework.cache:type=CacheStatistics,cacheManager=\"cacheManager\",name=\"c1\"");
+		ObjectName name2 = ObjectName.getInstance(
+				"org.springframework.cache:type=CacheStatistics,cacheManager=\"cacheManager\",name=\"c2\"");
+		assertEquals(1L, server.getAttribute(name1, "HitCount"));
+		assertEquals(1L, server.getAttribute(name1, "MissCount"));
+		assertEquals(1, server.getAttribute(name1, "Size"));
+		assertTrue(server.isRegistered(name2));
+		cm.destroy();
+		assertFalse(server.isRegistered(name1));
+		assertFalse(server.isRegistered(name2));
+	}
+
+	@Test
+	public void testStatisticsRegisteredOnInitialization() throws Exception {
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager();
+		cm.setMBeanServer(server);
+		cm.setCacheNames(Arrays.asList("c1"));
+		cm.setBeanName("cacheManager");
+		ObjectName name1 = ObjectName.getInstance(
+				"org.springframework.cache:type=CacheStatistics,cacheManager=\"cacheManager\",name=\"c1\"");
+		assertFalse(server.isRegistered(name1));
+		cm.afterPropertiesSet();
+		assertTrue(server.isRegistered(name1));
+		cm.setExpireAfterWrite(1000);
+		assertTrue(server.isRegistered(name1));
+		cm.destroy();
+		assertFalse(server.isRegistered(name1));
+	}
+
+	@Test
+	public void testMaximumSizeAndWeigherRejected() {
+		CacheWeigher weigher = new CacheWeigher() {
+			@Override
+			public int weigh(Object key, Object value) {
+				return 1;
+			}
+		};
+		ConcurrentMapCacheManager cm = new ConcurrentMapCacheManager();
+		cm.setMaximumSize(10);
+		try {
+			cm.setWeigher(weigher);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		try {
+			cm.setMaximumWeight(100);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		cm = new ConcurrentMapCacheManager();
+		cm.setWeigher(weigher);
+		try {
+			cm.setMaximumSize(10);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
 }
@@ -16,11 +16,16 @@
 
 package org.springframework.cache.config;
 
+import java.lang.reflect.Method;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.cache.interceptor.CacheableOperation;
+import org.springframework.cache.interceptor.SyncFailurePolicy;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
 
 /**
  * @author Costin Leau
@@ -39,4 +44,26 @@ public class CacheAdviceNamespaceTests extends AbstractAnnotationTests {
 		CacheInterceptor bean = ctx.getBean("cacheAdviceClass", CacheInterceptor.class);
 		Assert.assertSame(ctx.getBean("keyGenerator"), bean.getKeyGenerator());
 	}
+
+	@Test
+	public void testSyncAttributes() throws Exception {
+		String xml = "<beans xmlns=\"http://www.springframework.org/schema/beans\" " +
+				"xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" " +
+				"xmlns:cache=\"http://www.springframework.org/schema/cache\" xsi:schemaLocation=\"" +
+				"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans-3.2.xsd " +
+				"http://www.springframework.org/schema/cache http://www.springframework.org/schema/cache/spring-cache-3.2.7.xsd\">" +
+				"<bean id=\"cacheManager\" class=\"org.springframework.cache.concurrent.ConcurrentMapCacheManager\"/>" +
+				"<cache:advice id=\"syncAdvice\"><cache:caching cache=\"default\">" +
+				"<cache:cacheable method=\"cache\" sync=\"true\" sync-timeout=\"100\" sync-failure-policy=\"retry\"/>" +
+				"</cache:caching></cache:advice></beans>";
+		GenericXmlApplicationContext context = new GenericXmlApplicationContext(new ByteArrayResource(xml.getBytes("UTF-8")));
+		CacheInterceptor interceptor = context.getBean("syncAdvice", CacheInterceptor.class);
+		Method method = CacheableService.class.getMethod("cache", Object.class);
+		CacheableOperation operation = (CacheableOperation)
+				interceptor.getCacheOperationSource().getCacheOperations(method, DefaultCacheableService.class).iterator().next();
+		Assert.assertTrue(operation.isSync());
+		Assert.assertEquals(100, operation.getSyncTimeout());
+		Assert.assertEquals(SyncFailurePolicy.RETRY, operation.getSyncFailurePolicy());
+		context.close();
+	}
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.BatchCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for batch {@link Cacheable} operations.
+ */
+public class CacheBatchTests {
+
+	private final ConcurrentMapCache cache = new ConcurrentMapCache("test");
+
+	private final RecordingBatchCache batchCache = new RecordingBatchCache("batch");
+
+	private TestService target;
+
+	private Service service;
+
+
+	@Before
+	public void setUp() {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Arrays.<Cache>asList(this.cache, this.batchCache));
+		cacheManager.afterPropertiesSet();
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		this.target = new TestService();
+		ProxyFactory pf = new ProxyFactory(this.target);
+		pf.addAdvice(interceptor);
+		this.service = (Service) pf.getProxy();
+	}
+
+
+	@Test
+	public void listResult() {
+		assertEquals(Arrays.asList("v1", "v2", "v3"), this.service.findByIds(Arrays.asList(1L, 2L, 3L)));
+		assertEquals(Arrays.asList(Arrays.asList(1L, 2L, 3L)), this.target.invocations);
+		assertEquals(Arrays.asList("v2", "v3", "v4"), this.service.findByIds(Arrays.asList(2L, 3L, 4L)));
+		assertEquals(Arrays.asList(4L), this.target.invocations.get(1));
+		assertEquals(Arrays.asList("v3", "v1"), this.service.findByIds(Arrays.asList(3L, 1L)));
+		assertEquals(2, this.target.invocations.size());
+	}
+
+	@Test
+	public void entriesSharedWithSingleElementMethod() {
+		this.service.findByIds(Arrays.asList(1L, 2L));
+		assertEquals("v2", this.service.findById(2L));
+		assertEquals("v5", this.service.findById(5L));
+		assertEquals(Arrays.asList("v2", "v5"), this.service.findByIds(Arrays.asList(2L, 5L)));
+		assertEquals(2, this.target.invocations.size());
+	}
+
+	@Test
+	public void duplicateElements() {
+		assertEquals(Arrays.asList("v1", "v1", "v2"), this.service.findByIds(Arrays.asList(1L, 1L, 2L)));
+		assertEquals(Arrays.asList(Arrays.asList(1L, 2L)), this.target.invocations);
+	}
+
+	@Test
+	public void mapResult() {
+		Map<Long, String> result = this.service.findMap(new LinkedHashSet<Long>(Arrays.asList(1L, 99L, 2L)));
+		assertEquals(Arrays.asList(1L, 2L), new ArrayList<Long>(result.keySet()));
+		assertEquals("v2", result.get(2L));
+		result = this.service.findMap(new LinkedHashSet<Long>(Arrays.asList(2L, 99L, 3L)));
+		assertEquals(Arrays.asList(2L, 3L), new ArrayList<Long>(result.keySet()));
+		assertEquals(new LinkedHashSet<Long>(Arrays.asList(99L, 3L)), this.target.invocations.get(1));
+		assertTrue(this.target.invocations.get(1) instanceof Set);
+	}
+
+	@Test
+	public void unlessEvaluatedPerValue() {
+		assertEquals(Arrays.asList("v1", null), this.service.findUnlessNull(Arrays.asList(1L, 99L)));
+		this.service.findUnlessNull(Arrays.asList(1L, 99L));
+		assertEquals(Arrays.asList(99L), this.target.invocations.get(1));
+	}
+
+	@Test
+	public void batchCacheAccessedOnce() {
+		this.service.findFromBatchCache(Arrays.asList(1L, 2L));
+		assertEquals(Arrays.asList("getAll", "putAll"), this.batchCache.calls);
+		this.batchCache.calls.clear();
+		assertEquals(Arrays.asList("v1", "v2", "v3"), this.service.findFromBatchCache(Arrays.asList(1L, 2L, 3L)));
+		assertEquals(Arrays.asList("getAll", "putAll"), this.batchCache.calls);
+		assertEquals(Arrays.asList(3L), this.target.invocations.get(1));
+	}
+
+	@Test
+	public void emptyCollection() {
+		assertEquals(0, this.service.findByIds(new ArrayList<Long>()).size());
+		assertEquals(1, this.target.invocations.size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void batchWithKey() {
+		this.service.findWithKey(Arrays.asList(1L));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void batchWithoutCollectionParameter() {
+		this.service.findWithoutCollection(1L);
+	}
+
+
+	public interface Service {
+
+		List<String> findByIds(List<Long> ids);
+
+		String findById(Long id);
+
+		Map<Long, String> findMap(Set<Long> ids);
+
+		List<String> findUnlessNull(List<Long> ids);
+
+		List<String> findFromBatchCache(Collection<Long> ids);
+
+		List<String> findWithKey(List<Long> ids);
+
+		List<String> findWithoutCollection(Long id);
+	}
+
+
+	public static class TestService implements Service {
+
+		public final List<Collection<Long>> invocations = new ArrayList<Collection<Long>>();
+
+		@Override
+		@Cacheable(value = "test", batch = true)
+		public List<String> findByIds(List<Long> ids) {
+			return compute(ids);
+		}
+
+		@Override
+		@Cacheable("test")
+		public String findById(Long id) {
+			return compute(Arrays.asList(id)).get(0);
+		}
+
+		@Override
+		@Cacheable(value = "test", batch = true)
+		public Map<Long, String> findMap(Set<Long> ids) {
+			this.invocations.add(ids);
+			Map<Long, String> result = new LinkedHashMap<Long, String>();
+			for (Long id : ids) {
+				if (id != 99L) {
+					result.put(id, "v" + id);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		@Cacheable(value = "test", batch = true, unless = "#result == null")
+		public List<String> findUnlessNull(List<Long> ids) {
+			return compute(ids);
+		}
+
+		@Override
+		@Cacheable(value = "batch", batch = true)
+		public List<String> findFromBatchCache(Collection<Long> ids) {
+			return compute(ids);
+		}
+
+		@Override
+		@Cacheable(value = "test", batch = true, key = "#ids")
+		public List<String> findWithKey(List<Long> ids) {
+			return compute(ids);
+		}
+
+		@Override
+		@Cacheable(value = "test", batch = true)
+		public List<String> findWithoutCollection(Long id) {
+			return compute(Arrays.asList(id));
+		}
+
+		private List<String> compute(Collection<Long> ids) {
+			this.invocations.add(ids);
+			List<String> result = new ArrayList<String>();
+			for (Long id : ids) {
+				result.add(id != 99L ? "v" + id : null);
+			}
+			return result;
+		}
+	}
+
+
+	private static class RecordingBatchCache extends ConcurrentMapCache implements BatchCache {
+
+		public final List<String> calls = new ArrayList<String>();
+
+		public RecordingBatchCache(String name) {
+			super(name);
+		}
+
+		@Override
+		public ValueWrapper get(Object key) {
+			this.calls.add("get");
+			return super.get(key);
+		}
+
+		@Override
+		public void put(Object key, Object value) {
+			this.calls.add("put");
+			super.put(key, value);
+		}
+
+		@Override
+		public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+			this.calls.add("getAll");
+			Map<Object, ValueWrapper> result = new LinkedHashMap<Object, ValueWrapper>();
+			for (Object key : keys) {
+				ValueWrapper wrapper = super.get(key);
+				if (wrapper != null) {
+					result.put(key, wrapper);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public void putAll(Map<?, ?> entries) {
+			this.calls.add("putAll");
+			for (Map.Entry<?, ?> entry : entries.entrySet()) {
+				super.put(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.AsyncCacheDecorator;
+import org.springframework.cache.support.ExpiringValueWrapper;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for refresh-ahead of cacheable operations and for asynchronous caches.
+ */
+public class CacheRefreshAheadTests {
+
+	private final ExpiringCache cache = new ExpiringCache("test");
+
+	private final RecordingAsyncCache async1 = new RecordingAsyncCache("async1");
+
+	private final RecordingAsyncCache async2 = new RecordingAsyncCache("async2");
+
+	private final QueueingExecutor executor = new QueueingExecutor();
+
+	private TestService target;
+
+	private Service service;
+
+
+	@Before
+	public void setUp() {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Arrays.<Cache>asList(this.cache, this.async1, this.async2));
+		cacheManager.afterPropertiesSet();
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.setRefreshExecutor(this.executor);
+		interceptor.afterPropertiesSet();
+		this.target = new TestService();
+		ProxyFactory pf = new ProxyFactory(this.target);
+		pf.addAdvice(interceptor);
+		this.service = (Service) pf.getProxy();
+	}
+
+
+	@Test
+	public void entryRefreshedInBackgroundWhenAboutToExpire() {
+		assertEquals("value1", this.service.get("key"));
+		this.cache.timeToLive = 5000;
+		assertEquals("value1", this.service.get("key"));
+		assertTrue(this.executor.tasks.isEmpty());
+
+		this.cache.timeToLive = 500;
+		assertEquals("value1", this.service.get("key"));
+		assertEquals("value1", this.service.get("key"));
+		assertEquals(1, this.executor.tasks.size());
+		assertEquals(1, this.target.invocations.get());
+
+		this.executor.runAll();
+		assertEquals(2, this.target.invocations.get());
+		assertEquals("value2", this.cache.get("key").get());
+		assertEquals("value2", this.service.get("key"));
+	}
+
+	@Test
+	public void entryNotRefreshedWithoutRefreshAhead() {
+		assertEquals("value1", this.service.getWithoutRefresh("key"));
+		this.cache.timeToLive = 0;
+		assertEquals("value1", this.service.getWithoutRefresh("key"));
+		assertTrue(this.executor.tasks.isEmpty());
+	}
+
+	@Test
+	public void failedRefreshKeepsCurrentValue() {
+		assertEquals("value1", this.service.get("key"));
+		this.cache.timeToLive = 500;
+		this.target.failing = true;
+		this.service.get("key");
+		this.executor.runAll();
+		assertEquals("value1", this.cache.get("key").get());
+
+		this.target.failing = false;
+		this.service.get("key");
+		this.executor.runAll();
+		assertEquals("value3", this.cache.get("key").get());
+	}
+
+	@Test
+	public void synchronizedOperationRefreshedInBackground() {
+		assertEquals("value1", this.service.getSynchronized("key"));
+		this.cache.timeToLive = 500;
+		assertEquals("value1", this.service.getSynchronized("key"));
+		this.executor.runAll();
+		assertEquals("value2", this.service.getSynchronized("key"));
+	}
+
+	@Test
+	public void asyncCacheLookupsIssuedUpfront() {
+		this.async1.put("key", "cached");
+		assertEquals("cached", this.service.getFromAsyncCaches("key"));
+		// the second cache is queried as well, before the hit in the first one is known
+		assertEquals(Arrays.asList("put", "getAsync"), this.async1.calls);
+		assertEquals(Arrays.asList("getAsync"), this.async2.calls);
+		assertEquals(0, this.target.invocations.get());
+	}
+
+	@Test
+	public void asyncCacheUpdatesPipelined() {
+		assertEquals("value1", this.service.getFromAsyncCaches("key"));
+		assertEquals(Arrays.asList("getAsync", "putAsync"), this.async2.calls);
+		assertEquals("value1", this.async1.get("key").get());
+		assertEquals("value1", this.async2.get("key").get());
+
+		assertEquals("value2", this.service.putToAsyncCaches("key"));
+		assertEquals("value2", this.async1.get("key").get());
+		assertEquals("value2", this.async2.get("key").get());
+	}
+
+
+	public interface Service {
+
+		Object get(String key);
+
+		Object getWithoutRefresh(String key);
+
+		Object getSynchronized(String key);
+
+		Object getFromAsyncCaches(String key);
+
+		Object putToAsyncCaches(String key);
+	}
+
+
+	public static class TestService implements Service {
+
+		public final AtomicInteger invocations = new AtomicInteger();
+
+		public volatile boolean failing;
+
+		@Override
+		@Cacheable(value = "test", refreshAhead = 1000)
+		public Object get(String key) {
+			return compute();
+		}
+
+		@Override
+		@Cacheable("test")
+		public Object getWithoutRefresh(String key) {
+			return compute();
+		}
+
+		@Override
+		@Cacheable(value = "test", sync = true, refreshAhead = 1000)
+		public Object getSynchronized(String key) {
+			return compute();
+		}
+
+		@Override
+		@Cacheable({"async1", "async2"})
+		public Object getFromAsyncCaches(String key) {
+			return compute();
+		}
+
+		@Override
+		@CachePut({"async1", "async2"})
+		public Object putToAsyncCaches(String key) {
+			return compute();
+		}
+
+		private Object compute() {
+			int invocation = this.invocations.incrementAndGet();
+			if (this.failing) {
+				throw new IllegalStateException("failure " + invocation);
+			}
+			return "value" + invocation;
+		}
+	}
+
+
+	/**
+	 * Cache returning entries with a configurable time to live.
+	 */
+	private static class ExpiringCache extends ConcurrentMapCache {
+
+		public volatile long timeToLive = 60000;
+
+		public ExpiringCache(String name) {
+			super(name);
+		}
+
+		@Override
+		public ValueWrapper get(Object key) {
+			final ValueWrapper wrapper = super.get(key);
+			if (wrapper == null) {
+				return null;
+			}
+			return new ExpiringValueWrapper() {
+				@Override
+				public Object get() {
+					return wrapper.get();
+				}
+				@Override
+				public long getTimeToLive() {
+					return timeToLive;
+				}
+			};
+		}
+	}
+
+
+	/**
+	 * Asynchronous cache recording the operations performed on it.
+	 */
+	private static class RecordingAsyncCache extends AsyncCacheDecorator {
+
+		public final List<String> calls = new ArrayList<String>();
+
+		public RecordingAsyncCache(String name) {
+			super(new ConcurrentMapCache(name), new SimpleAsyncTaskExecutor());
+		}
+
+		@Override
+		public ValueWrapper get(Object key) {
+			this.calls.add("get");
+			return super.get(key);
+		}
+
+		@Override
+		public void put(Object key, Object value) {
+			this.calls.add("put");
+			super.put(key, value);
+		}
+
+		@Override
+		public Future<ValueWrapper> getAsync(Object key) {
+			this.calls.add("getAsync");
+			return super.getAsync(key);
+		}
+
+		@Override
+		public Future<?> putAsync(Object key, Object value) {
+			this.calls.add("putAsync");
+			return super.putAsync(key, value);
+		}
+	}
+
+
+	private static class QueueingExecutor implements TaskExecutor {
+
+		public final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		public void runAll() {
+			while (!this.tasks.isEmpty()) {
+				this.tasks.removeFirst().run();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for synchronized {@link Cacheable} operations.
+ */
+public class CacheSyncTests {
+
+	private final AtomicInteger cacheLookups = new AtomicInteger();
+
+	private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager() {
+		@Override
+		protected Cache createConcurrentMapCache(String name) {
+			return new ConcurrentMapCache(name) {
+				@Override
+				public ValueWrapper get(Object key) {
+					cacheLookups.incrementAndGet();
+					return super.get(key);
+				}
+			};
+		}
+	};
+
+	private SlowService target;
+
+	private Service service;
+
+
+	@Before
+	public void setUp() {
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(this.cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		this.target = new SlowService();
+		ProxyFactory pf = new ProxyFactory(this.target);
+		pf.addAdvice(interceptor);
+		this.service = (Service) pf.getProxy();
+	}
+
+
+	@Test
+	public void concurrentMissesInvokeMethodOnce() throws Exception {
+		List<Object> results = invokeConcurrently(new Call() {
+			@Override
+			public Object call() throws Exception {
+				return service.get("key");
+			}
+		});
+		assertEquals(1, this.target.invocations.get());
+		assertEquals(Collections.nCopies(10, "value1"), results);
+		assertEquals("value1", this.cacheManager.getCache("test").get("key").get());
+	}
+
+	@Test
+	public void differentKeysNotCoalesced() throws Exception {
+		this.target.release.countDown();
+		assertEquals("value1", this.service.get("key1"));
+		assertEquals("value2", this.service.get("key2"));
+		assertEquals("value1", this.service.get("key1"));
+		assertEquals(2, this.target.invocations.get());
+	}
+
+	@Test
+	public void failurePropagatedToWaitingCallers() throws Exception {
+		this.target.failures.set(1);
+		List<Object> results = invokeConcurrently(new Call() {
+			@Override
+			public Object call() throws Exception {
+				return service.get("key");
+			}
+		});
+		assertEquals(1, this.target.invocations.get());
+		for (Object result : results) {
+			assertTrue(result instanceof IOException);
+		}
+		assertNull(this.cacheManager.getCache("test").get("key"));
+	}
+
+	@Test
+	public void failureRetriedByWaitingCaller() throws Exception {
+		this.target.failures.set(1);
+		List<Object> results = invokeConcurrently(new Call() {
+			@Override
+			public Object call() throws Exception {
+				return service.getWithRetry("key");
+			}
+		});
+		assertEquals(2, this.target.invocations.get());
+		int failures = 0;
+		for (Object result : results) {
+			if (result instanceof IOException) {
+				failures++;
+			}
+			else {
+				assertEquals("value2", result);
+			}
+		}
+		assertEquals(1, failures);
+		// One lookup per caller, one more per retrying caller, one per computation:
+		// waiting callers never find the failed computation again
+		assertTrue(this.cacheLookups.get() <= 10 + 9 + 2);
+	}
+
+	@Test
+	public void waitingCallerInvokesMethodAfterTimeout() throws Exception {
+		final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+		Thread first = new Thread() {
+			@Override
+			public void run() {
+				results.add(service.getWithTimeout("key"));
+			}
+		};
+		first.start();
+		assertTrue(this.target.entered.await(5, TimeUnit.SECONDS));
+		Thread second = new Thread() {
+			@Override
+			public void run() {
+				results.add(service.getWithTimeout("key"));
+			}
+		};
+		second.start();
+		while (this.target.invocations.get() < 2) {
+			Thread.sleep(5);
+		}
+		this.target.release.countDown();
+		first.join();
+		second.join();
+		assertEquals(2, this.target.invocations.get());
+		assertEquals(2, results.size());
+	}
+
+	@Test
+	public void conditionNotPassing() throws Exception {
+		this.target.release.countDown();
+		this.service.getUnlessEmpty("");
+		this.service.getUnlessEmpty("");
+		assertEquals(2, this.target.invocations.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void syncCannotBeCombinedWithOtherOperations() throws Exception {
+		this.service.getAndEvict("key");
+	}
+
+
+	private List<Object> invokeConcurrently(final Call call) throws Exception {
+		final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+		Collection<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 10; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						results.add(call.call());
+					}
+					catch (Exception ex) {
+						results.add(ex);
+					}
+				}
+			};
+			threads.add(thread);
+			thread.start();
+			if (i == 0) {
+				// Let the first caller start computing, then the others pile up behind it
+				assertTrue(this.target.entered.await(5, TimeUnit.SECONDS));
+			}
+		}
+		Thread.sleep(200);
+		this.target.release.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return results;
+	}
+
+
+	private interface Call {
+
+		Object call() throws Exception;
+	}
+
+
+	public interface Service {
+
+		Object get(String key) throws IOException;
+
+		Object getWithRetry(String key) throws IOException;
+
+		Object getWithTimeout(String key);
+
+		Object getUnlessEmpty(String key);
+
+		Object getAndEvict(String key);
+	}
+
+
+	public static class SlowService implements Service {
+
+		public final AtomicInteger invocations = new AtomicInteger();
+
+		public final AtomicInteger failures = new AtomicInteger();
+
+		public final CountDownLatch entered = new CountDownLatch(1);
+
+		public final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		@Cacheable(value = "test", sync = true)
+		public Object get(String key) throws IOException {
+			return compute();
+		}
+
+		@Override
+		@Cacheable(value = "test", sync = true, syncFailurePolicy = SyncFailurePolicy.RETRY)
+		public Object getWithRetry(String key) throws IOException {
+			return compute();
+		}
+
+		@Override
+		@Cacheable(value = "test", sync = true, syncTimeout = 50)
+		public Object getWithTimeout(String key) {
+			try {
+				return compute();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		@Override
+		@Cacheable(value = "test", sync = true, condition = "#p0.length() > 0")
+		public Object getUnlessEmpty(String key) {
+			return "value" + this.invocations.incrementAndGet();
+		}
+
+		@Override
+		@Cacheable(value = "test", sync = true)
+		@CacheEvict("other")
+		public Object getAndEvict(String key) {
+			return null;
+		}
+
+		private Object compute() throws IOException {
+			int invocation = this.invocations.incrementAndGet();
+			this.entered.countDown();
+			try {
+				this.release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (this.failures.getAndDecrement() > 0) {
+				throw new IOException("failure " + invocation);
+			}
+			return "value" + invocation;
+		}
+	}
+
+}
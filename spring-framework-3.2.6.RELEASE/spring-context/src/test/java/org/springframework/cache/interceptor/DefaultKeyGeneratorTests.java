@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DefaultKeyGenerator} and {@link SimpleKey}.
+ */
+public class DefaultKeyGeneratorTests {
+
+	private final DefaultKeyGenerator generator = new DefaultKeyGenerator();
+
+
+	@Test
+	public void noOrSingleParameter() {
+		assertEquals(DefaultKeyGenerator.NO_PARAM_KEY, generateKey());
+		assertEquals("a", generateKey("a"));
+		assertEquals(DefaultKeyGenerator.NULL_PARAM_KEY, generateKey((Object) null));
+	}
+
+	@Test
+	public void multipleParameters() {
+		Object key1 = generateKey("a", 1, null);
+		Object key2 = generateKey("a", 1, null);
+		Object key3 = generateKey("a", 2, null);
+		assertTrue(key1 instanceof SimpleKey);
+		assertEquals(key1, key2);
+		assertEquals(key1.hashCode(), key2.hashCode());
+		assertFalse(key1.equals(key3));
+	}
+
+	@Test
+	public void collidingHashCodesAreDistinctKeys() {
+		// "Aa" and "BB" share the same hash code
+		Object key1 = generateKey("Aa", "BB");
+		Object key2 = generateKey("BB", "Aa");
+		assertEquals(key1.hashCode(), key2.hashCode());
+		assertFalse(key1.equals(key2));
+	}
+
+	@Test
+	public void arrayParametersComparedByContent() {
+		Object key1 = generateKey(new int[] {1, 2}, "a");
+		Object key2 = generateKey(new int[] {1, 2}, "a");
+		assertEquals(key1, key2);
+		assertEquals(key1.hashCode(), key2.hashCode());
+	}
+
+	@Test
+	public void keyUnaffectedByLaterArgumentChanges() {
+		Object[] args = new Object[] {"a", "b"};
+		Object key = this.generator.generate(null, null, args);
+		args[0] = "c";
+		assertEquals(generateKey("a", "b"), key);
+	}
+
+
+	private Object generateKey(Object... params) {
+		return this.generator.generate(null, null, params);
+	}
+
+}
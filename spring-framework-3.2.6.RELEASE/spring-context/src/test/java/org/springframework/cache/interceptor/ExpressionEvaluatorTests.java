@@ -19,6 +19,7 @@ package org.springframework.cache.interceptor;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -115,6 +116,45 @@ public class ExpressionEvaluatorTests {
 		assertThat(value, nullValue());
 	}
 
+	@Test
+	public void argumentAccessorForSimpleExpressions() throws Exception {
+		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "multipleCaching", Object.class,
+				Object.class);
+		Object[] args = new Object[] { new Object(), new Object() };
+		assertEquals(args[0], eval.getArgumentAccessor("#a", method, AnnotatedClass.class).getValue(args));
+		assertEquals(args[1], eval.getArgumentAccessor(" #b ", method, AnnotatedClass.class).getValue(args));
+		assertEquals(args[0], eval.getArgumentAccessor("#p0", method, AnnotatedClass.class).getValue(args));
+		assertEquals(args[1], eval.getArgumentAccessor("#a1", method, AnnotatedClass.class).getValue(args));
+		assertEquals(args[0].getClass(),
+				eval.getArgumentAccessor("#a.class", method, AnnotatedClass.class).getValue(args));
+	}
+
+	@Test
+	public void noArgumentAccessorForComplexExpressions() throws Exception {
+		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "multipleCaching", Object.class,
+				Object.class);
+		assertNull(eval.getArgumentAccessor("#a + #b", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#root.methodName", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#result", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#p2", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#unknown", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#a?.name", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#a.name()", method, AnnotatedClass.class));
+		assertNull(eval.getArgumentAccessor("#a.and", method, AnnotatedClass.class));
+	}
+
+	@Test
+	public void argumentAccessorWithPropertyPathOnChangingTypes() throws Exception {
+		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "multipleCaching", Object.class,
+				Object.class);
+		ExpressionEvaluator.ArgumentAccessor accessor = eval.getArgumentAccessor("#b.name", method,
+				AnnotatedClass.class);
+		for (int i = 0; i < 200; i++) {
+			assertEquals("name" + i, accessor.getValue(new Object[] { null, new Named("name" + i) }));
+		}
+		assertEquals("other", accessor.getValue(new Object[] { null, new OtherNamed() }));
+	}
+
 	private EvaluationContext createEvaluationContext(Object result) {
 		AnnotatedClass target = new AnnotatedClass();
 		Method method = ReflectionUtils.findMethod(AnnotatedClass.class, "multipleCaching", Object.class,
@@ -126,6 +166,26 @@ public class ExpressionEvaluatorTests {
 		return context;
 	}
 
+	public static class Named {
+
+		private final String name;
+
+		public Named(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+	public static class OtherNamed {
+
+		public String getName() {
+			return "other";
+		}
+	}
+
 	private static class AnnotatedClass {
 		@Caching(cacheable = { @Cacheable(value = "test", key = "#a"), @Cacheable(value = "test", key = "#b") })
 		public void multipleCaching(Object a, Object b) {
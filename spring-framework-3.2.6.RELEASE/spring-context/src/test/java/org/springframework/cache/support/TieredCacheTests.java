@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link TieredCache} and {@link TieredCacheManager}.
+ */
+public class TieredCacheTests {
+
+	private final ConcurrentMapCache local = new ConcurrentMapCache("test");
+
+	private final ConcurrentMapCache remote = new ConcurrentMapCache("test");
+
+	private final TieredCache cache = new TieredCache(this.local, this.remote);
+
+
+	@Test
+	public void readThrough() {
+		this.remote.put("key", "value");
+		assertEquals("value", this.cache.get("key").get());
+		assertEquals("value", this.local.get("key").get());
+		assertEquals("value", this.cache.get("key").get());
+		assertNull(this.cache.get("other"));
+
+		assertEquals(1, this.cache.getLocalHitCount());
+		assertEquals(1, this.cache.getRemoteHitCount());
+		assertEquals(1, this.cache.getMissCount());
+		assertEquals(1.0d / 3, this.cache.getLocalHitRatio(), 0.0001d);
+		this.cache.resetStatistics();
+		assertEquals(0, this.cache.getLocalHitCount());
+		assertEquals(1.0d, this.cache.getLocalHitRatio(), 0.0d);
+	}
+
+	@Test
+	public void cachedNullValueReadThrough() {
+		this.remote.put("key", null);
+		assertNull(this.cache.get("key").get());
+		assertNotNull(this.local.get("key"));
+	}
+
+	@Test
+	public void writeThrough() {
+		this.local.put("key", "oldValue");
+		this.cache.put("key", "value");
+		assertNull(this.local.get("key"));
+		assertEquals("value", this.remote.get("key").get());
+		assertEquals("value", this.cache.get("key").get());
+		assertEquals("value", this.local.get("key").get());
+	}
+
+	@Test
+	public void evictAndClearPropagated() {
+		this.cache.put("key1", "value1");
+		this.cache.put("key2", "value2");
+		this.cache.evict("key1");
+		assertNull(this.local.get("key1"));
+		assertNull(this.remote.get("key1"));
+		this.cache.clear();
+		assertNull(this.local.get("key2"));
+		assertNull(this.remote.get("key2"));
+	}
+
+	@Test
+	public void localInvalidation() {
+		this.cache.put("key", "value1");
+		assertEquals("value1", this.cache.get("key").get());
+		this.remote.put("key", "value2");
+		assertEquals("value1", this.cache.get("key").get());
+		this.cache.evictLocal("key");
+		assertEquals("value2", this.cache.get("key").get());
+		this.remote.put("key", "value3");
+		this.cache.clearLocal();
+		assertEquals("value3", this.cache.get("key").get());
+	}
+
+	@Test
+	public void multiKeyLookup() {
+		this.local.put("key1", "value1");
+		this.remote.put("key2", "value2");
+		Map<Object, Cache.ValueWrapper> result = this.cache.getAll(Arrays.asList("key1", "key2", "key3"));
+		assertEquals(2, result.size());
+		assertEquals("value1", result.get("key1").get());
+		assertEquals("value2", result.get("key2").get());
+		assertEquals("value2", this.local.get("key2").get());
+		assertEquals(1, this.cache.getLocalHitCount());
+		assertEquals(1, this.cache.getRemoteHitCount());
+		assertEquals(1, this.cache.getMissCount());
+
+		Map<String, String> entries = new HashMap<String, String>();
+		entries.put("key3", "value3");
+		this.cache.putAll(entries);
+		assertNull(this.local.get("key3"));
+		assertEquals("value3", this.remote.get("key3").get());
+	}
+
+	@Test
+	public void evictDuringRemoteRead() {
+		final InterceptingCache remote = new InterceptingCache();
+		final TieredCache cache = new TieredCache(this.local, remote);
+		remote.put("key", "value");
+		remote.onRead = new Runnable() {
+			@Override
+			public void run() {
+				cache.evict("key");
+			}
+		};
+		assertEquals("value", cache.get("key").get());
+		assertNull(this.local.get("key"));
+		assertNull(remote.get("key"));
+	}
+
+	@Test
+	public void putDuringRemoteRead() {
+		final InterceptingCache remote = new InterceptingCache();
+		final TieredCache cache = new TieredCache(this.local, remote);
+		remote.put("key", "value");
+		remote.onRead = new Runnable() {
+			@Override
+			public void run() {
+				cache.put("key", "newValue");
+			}
+		};
+		cache.get("key");
+		assertNull(this.local.get("key"));
+		assertEquals("newValue", cache.get("key").get());
+		assertEquals("newValue", this.local.get("key").get());
+	}
+
+	@Test
+	public void concurrentWritesToSameKey() {
+		final InterceptingCache remote = new InterceptingCache();
+		final TieredCache cache = new TieredCache(this.local, remote);
+		remote.onWrite = new Runnable() {
+			@Override
+			public void run() {
+				cache.put("key", "value2");
+			}
+		};
+		cache.put("key", "value1");
+		assertEquals("value2", remote.get("key").get());
+		assertEquals("value2", cache.get("key").get());
+		assertEquals("value2", this.local.get("key").get());
+	}
+
+	@Test
+	public void evictDuringRemoteMultiKeyRead() {
+		final InterceptingCache remote = new InterceptingCache();
+		final TieredCache cache = new TieredCache(this.local, remote);
+		remote.put("key1", "value1");
+		remote.put("key2", "value2");
+		remote.onRead = new Runnable() {
+			@Override
+			public void run() {
+				cache.evict("key1");
+			}
+		};
+		assertEquals(2, cache.getAll(Arrays.asList("key1", "key2")).size());
+		assertNull(this.local.get("key1"));
+		assertEquals("value2", this.local.get("key2").get());
+	}
+
+	@Test
+	public void cacheManager() {
+		ConcurrentMapCacheManager remoteCacheManager = new ConcurrentMapCacheManager();
+		remoteCacheManager.setCacheNames(Arrays.asList("c1", "c2"));
+		ConcurrentMapCacheManager localCacheManager = new ConcurrentMapCacheManager();
+		localCacheManager.setCacheNames(Arrays.asList("c1"));
+		TieredCacheManager cacheManager = new TieredCacheManager(localCacheManager, remoteCacheManager);
+		cacheManager.afterPropertiesSet();
+
+		Cache c1 = cacheManager.getCache("c1");
+		assertTrue(c1 instanceof TieredCache);
+		assertSame(c1, cacheManager.getCache("c1"));
+		assertSame(localCacheManager.getCache("c1"), ((TieredCache) c1).getLocalCache());
+		assertSame(remoteCacheManager.getCache("c1"), ((TieredCache) c1).getRemoteCache());
+		assertSame(remoteCacheManager.getCache("c2"), cacheManager.getCache("c2"));
+		assertNull(cacheManager.getCache("c3"));
+		assertEquals(remoteCacheManager.getCacheNames(), cacheManager.getCacheNames());
+	}
+
+
+	/**
+	 * Remote cache running a callback once after reading "key" or "key1",
+	 * simulating a write or eviction racing with a read-through, or once
+	 * after writing, simulating a concurrent write.
+	 */
+	private static class InterceptingCache extends ConcurrentMapCache {
+
+		private Runnable onRead;
+
+		private Runnable onWrite;
+
+		public InterceptingCache() {
+			super("test");
+		}
+
+		@Override
+		public ValueWrapper get(Object key) {
+			ValueWrapper wrapper = super.get(key);
+			if (this.onRead != null && ("key".equals(key) || "key1".equals(key))) {
+				Runnable callback = this.onRead;
+				this.onRead = null;
+				callback.run();
+			}
+			return wrapper;
+		}
+
+		@Override
+		public void put(Object key, Object value) {
+			super.put(key, value);
+			if (this.onWrite != null) {
+				Runnable callback = this.onWrite;
+				this.onWrite = null;
+				callback.run();
+			}
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation6.ComponentForScanning;
 import org.springframework.context.annotation6.ConfigForScanning;
 import org.springframework.context.annotation6.Jsr330NamedForScanning;
+import org.springframework.core.type.classreading.MetadataReader;
 
 import static java.lang.String.format;
 import static org.hamcrest.Matchers.*;
@@ -59,6 +60,15 @@ public class AnnotationConfigApplicationContextTests {
 		assertEquals(1, beans.size());
 	}
 
+	@Test
+	public void scanSharesMetadataCacheUntilRefresh() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.scan("org.springframework.context.annotation6");
+		assertFalse(context.getResourceCache(MetadataReader.class).isEmpty());
+		context.refresh();
+		assertTrue(context.getResourceCache(MetadataReader.class).isEmpty());
+	}
+
 	@Test
 	public void registerAndRefresh() {
 		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -22,6 +22,7 @@ import java.util.Set;
 import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Test;
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.RuntimeBeanReference;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.ApplicationContext;
@@ -70,6 +71,62 @@ public class ApplicationContextEventTests {
 		smc.multicastEvent(new MyOtherEvent(this));
 	}
 
+	@Test
+	public void listenersChangedAfterFirstEvent() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		MyOrderedListener1 listener2 = new MyOrderedListener1();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+
+		MyEvent event1 = new MyEvent(this);
+		smc.multicastEvent(event1);
+		smc.addApplicationListener(listener2);
+		MyEvent event2 = new MyEvent(this);
+		smc.multicastEvent(event2);
+		smc.removeApplicationListener(listener1);
+		MyEvent event3 = new MyEvent(this);
+		smc.multicastEvent(event3);
+
+		assertTrue(listener1.seenEvents.contains(event1));
+		assertTrue(listener1.seenEvents.contains(event2));
+		assertFalse(listener1.seenEvents.contains(event3));
+		assertFalse(listener2.seenEvents.contains(event1));
+		assertTrue(listener2.seenEvents.contains(event2));
+		assertTrue(listener2.seenEvents.contains(event3));
+	}
+
+	@Test
+	public void singletonListenerBeanResolvedOnce() {
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		given(beanFactory.getBean("listener", ApplicationListener.class)).willReturn(listener);
+		given(beanFactory.isSingleton("listener")).willReturn(true);
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster(beanFactory);
+		smc.addApplicationListenerBean("listener");
+
+		for (int i = 0; i < 3; i++) {
+			smc.multicastEvent(new MyEvent(this));
+		}
+		assertEquals(3, listener.seenEvents.size());
+		verify(beanFactory, times(1)).getBean("listener", ApplicationListener.class);
+	}
+
+	@Test
+	public void nonSingletonListenerBeanResolvedForEachEvent() {
+		MyOrderedListener1 listener = new MyOrderedListener1();
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		given(beanFactory.getBean("listener", ApplicationListener.class)).willReturn(listener);
+		given(beanFactory.isSingleton("listener")).willReturn(false);
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster(beanFactory);
+		smc.addApplicationListenerBean("listener");
+
+		for (int i = 0; i < 3; i++) {
+			smc.multicastEvent(new MyEvent(this));
+		}
+		assertEquals(3, listener.seenEvents.size());
+		verify(beanFactory, times(3)).getBean("listener", ApplicationListener.class);
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void proxiedListeners() {
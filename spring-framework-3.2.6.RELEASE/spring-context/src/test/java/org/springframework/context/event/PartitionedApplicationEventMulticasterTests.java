@@ -0,0 +1,303 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.ErrorHandler;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PartitionedApplicationEventMulticaster}.
+ */
+public class PartitionedApplicationEventMulticasterTests {
+
+	private final PartitionedApplicationEventMulticaster multicaster = new PartitionedApplicationEventMulticaster();
+
+	private final QueueingExecutor executor = new QueueingExecutor();
+
+
+	@Test
+	public void eventsDeliveredInOrderPerKey() {
+		RecordingListener listener = new RecordingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setPartitionCount(4);
+		this.multicaster.setQueueCapacity(16);
+		for (int i = 0; i < 1000; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key" + (i % 10), i));
+		}
+		this.multicaster.destroy();
+
+		assertEquals(0, this.multicaster.getQueuedEventCount());
+		assertEquals(1000, listener.events.size());
+		Map<Object, Integer> lastSequences = new HashMap<Object, Integer>();
+		for (KeyedEvent event : listener.events) {
+			Integer last = lastSequences.put(event.getSource(), event.sequence);
+			assertTrue("Out of order: " + event, last == null || last < event.sequence);
+		}
+		assertEquals(10, lastSequences.size());
+	}
+
+	@Test
+	public void batchListenerReceivesCoalescedEvents() {
+		RecordingListener listener = new RecordingListener();
+		RecordingBatchListener batchListener = new RecordingBatchListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.addApplicationListener(batchListener);
+		this.multicaster.setPartitionCount(1);
+		this.multicaster.setMaxBatchSize(3);
+		this.multicaster.setTaskExecutor(this.executor);
+		for (int i = 0; i < 5; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key", i));
+		}
+		this.multicaster.multicastEvent(new OtherEvent());
+		assertEquals(1, this.executor.tasks.size());
+		assertEquals(6, this.multicaster.getQueuedEventCount());
+		this.executor.runAll();
+
+		assertEquals(5, listener.events.size());
+		assertEquals(2, batchListener.batches.size());
+		assertEquals(3, batchListener.batches.get(0).size());
+		assertEquals(2, batchListener.batches.get(1).size());
+		assertEquals(4, batchListener.batches.get(1).get(1).sequence);
+
+		PartitionedApplicationEventMulticaster.ListenerStatistics statistics =
+				this.multicaster.getListenerStatistics().get(RecordingBatchListener.class.getName());
+		assertEquals(2, statistics.getInvocationCount());
+		assertEquals(5, statistics.getEventCount());
+		assertEquals(0, statistics.getErrorCount());
+		assertEquals(5, this.multicaster.getListenerStatistics().get(RecordingListener.class.getName()).getInvocationCount());
+	}
+
+	@Test
+	public void statisticsKeptPerListenerClass() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(RecordingListener.class);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("listener", bd);
+		this.multicaster.setBeanFactory(beanFactory);
+		this.multicaster.addApplicationListenerBean("listener");
+		this.multicaster.setTaskExecutor(this.executor);
+		for (int i = 0; i < 3; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key", i));
+			this.executor.runAll();
+		}
+		assertEquals(1, this.multicaster.getListenerStatistics().size());
+		assertEquals(3, this.multicaster.getListenerStatistics().get(
+				RecordingListener.class.getName()).getInvocationCount());
+
+		this.multicaster.removeApplicationListenerBean("listener");
+		assertTrue(this.multicaster.getListenerStatistics().isEmpty());
+
+		RecordingListener listener = new RecordingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.multicastEvent(new KeyedEvent("key", 0));
+		this.executor.runAll();
+		assertEquals(1, this.multicaster.getListenerStatistics().size());
+		this.multicaster.removeApplicationListener(listener);
+		assertTrue(this.multicaster.getListenerStatistics().isEmpty());
+
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.multicastEvent(new KeyedEvent("key", 0));
+		this.executor.runAll();
+		this.multicaster.removeAllListeners();
+		assertTrue(this.multicaster.getListenerStatistics().isEmpty());
+	}
+
+	@Test
+	public void discardPolicy() {
+		RecordingListener listener = new RecordingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setPartitionCount(1);
+		this.multicaster.setQueueCapacity(2);
+		this.multicaster.setOverflowPolicy(PartitionedApplicationEventMulticaster.OverflowPolicy.DISCARD);
+		this.multicaster.setTaskExecutor(this.executor);
+		for (int i = 0; i < 4; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key", i));
+		}
+		assertEquals(2, this.multicaster.getDiscardedEventCount());
+		this.executor.runAll();
+		assertEquals(2, listener.events.size());
+		assertEquals(0, listener.events.get(0).sequence);
+		assertEquals(1, listener.events.get(1).sequence);
+	}
+
+	@Test
+	public void discardOldestPolicy() {
+		RecordingListener listener = new RecordingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setPartitionCount(1);
+		this.multicaster.setQueueCapacity(2);
+		this.multicaster.setOverflowPolicy(PartitionedApplicationEventMulticaster.OverflowPolicy.DISCARD_OLDEST);
+		this.multicaster.setTaskExecutor(this.executor);
+		for (int i = 0; i < 4; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key", i));
+		}
+		assertEquals(2, this.multicaster.getDiscardedEventCount());
+		this.executor.runAll();
+		assertEquals(2, listener.events.size());
+		assertEquals(2, listener.events.get(0).sequence);
+		assertEquals(3, listener.events.get(1).sequence);
+	}
+
+	@Test
+	public void abortPolicy() {
+		this.multicaster.addApplicationListener(new RecordingListener());
+		this.multicaster.setPartitionCount(1);
+		this.multicaster.setQueueCapacity(1);
+		this.multicaster.setOverflowPolicy(PartitionedApplicationEventMulticaster.OverflowPolicy.ABORT);
+		this.multicaster.setTaskExecutor(this.executor);
+		this.multicaster.multicastEvent(new KeyedEvent("key", 0));
+		try {
+			this.multicaster.multicastEvent(new KeyedEvent("key", 1));
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+		assertEquals(1, this.multicaster.getQueuedEventCount());
+	}
+
+	@Test
+	public void listenerExceptionPassedToErrorHandler() {
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		final RuntimeException failure = new IllegalStateException("failure");
+		ApplicationListener<KeyedEvent> failingListener = new ApplicationListener<KeyedEvent>() {
+			@Override
+			public void onApplicationEvent(KeyedEvent event) {
+				if (event.sequence == 1) {
+					throw failure;
+				}
+			}
+		};
+		this.multicaster.addApplicationListener(failingListener);
+		this.multicaster.setTaskExecutor(this.executor);
+		this.multicaster.setErrorHandler(new ErrorHandler() {
+			@Override
+			public void handleError(Throwable t) {
+				errors.add(t);
+			}
+		});
+		for (int i = 0; i < 3; i++) {
+			this.multicaster.multicastEvent(new KeyedEvent("key", i));
+		}
+		this.executor.runAll();
+
+		assertEquals(1, errors.size());
+		assertSame(failure, errors.get(0));
+		PartitionedApplicationEventMulticaster.ListenerStatistics statistics =
+				this.multicaster.getListenerStatistics().get(failingListener.getClass().getName());
+		assertEquals(3, statistics.getInvocationCount());
+		assertEquals(1, statistics.getErrorCount());
+		assertTrue(statistics.getMaxNanos() <= statistics.getTotalNanos());
+	}
+
+	@Test
+	public void eventsDeliveredSynchronouslyAfterDestroy() {
+		RecordingListener listener = new RecordingListener();
+		this.multicaster.addApplicationListener(listener);
+		this.multicaster.setTaskExecutor(this.executor);
+		this.multicaster.destroy();
+		this.multicaster.multicastEvent(new KeyedEvent("key", 0));
+		assertTrue(this.executor.tasks.isEmpty());
+		assertEquals(1, listener.events.size());
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class KeyedEvent extends ApplicationEvent {
+
+		private final int sequence;
+
+		public KeyedEvent(Object key, int sequence) {
+			super(key);
+			this.sequence = sequence;
+		}
+
+		@Override
+		public String toString() {
+			return getSource() + "#" + this.sequence;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class OtherEvent extends ApplicationEvent {
+
+		public OtherEvent() {
+			super("key");
+		}
+	}
+
+
+	private static class RecordingListener implements ApplicationListener<KeyedEvent> {
+
+		public final List<KeyedEvent> events = new ArrayList<KeyedEvent>();
+
+		@Override
+		public synchronized void onApplicationEvent(KeyedEvent event) {
+			this.events.add(event);
+		}
+	}
+
+
+	private static class RecordingBatchListener implements BatchApplicationListener<KeyedEvent> {
+
+		public final List<List<KeyedEvent>> batches = new ArrayList<List<KeyedEvent>>();
+
+		@Override
+		public void onApplicationEvent(KeyedEvent event) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void onApplicationEvents(List<KeyedEvent> events) {
+			this.batches.add(new ArrayList<KeyedEvent>(events));
+		}
+	}
+
+
+	private static class QueueingExecutor implements Executor {
+
+		public final LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		public void runAll() {
+			while (!this.tasks.isEmpty()) {
+				this.tasks.removeFirst().run();
+			}
+		}
+	}
+
+}
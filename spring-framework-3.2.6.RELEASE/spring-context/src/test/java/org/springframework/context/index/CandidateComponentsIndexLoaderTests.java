@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CandidateComponentsIndexLoader}.
+ */
+public class CandidateComponentsIndexLoaderTests {
+
+	@Test
+	public void loadIndex() throws Exception {
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(
+				CandidateComponentsTestClassLoader.index(getClass().getClassLoader(),
+						new ClassPathResource("spring.components", getClass())));
+		Set<String> components = index.getCandidateTypes("example.scannable", "org.springframework.stereotype.Component");
+		assertEquals(2, components.size());
+		assertTrue(components.contains("example.scannable.NamedComponent"));
+		assertTrue(components.contains("example.scannable.FooServiceImpl"));
+		Set<String> named = index.getCandidateTypes("example", "javax.inject.Named");
+		assertEquals(1, named.size());
+		assertTrue(named.contains("example.scannable.NamedStubDao"));
+	}
+
+	@Test
+	public void loadIndexIsCachedPerClassLoader() throws Exception {
+		ClassLoader classLoader = CandidateComponentsTestClassLoader.index(getClass().getClassLoader(),
+				new ClassPathResource("spring.components", getClass()));
+		assertSame(CandidateComponentsIndexLoader.loadIndex(classLoader),
+				CandidateComponentsIndexLoader.loadIndex(classLoader));
+	}
+
+	@Test
+	public void loadIndexNoEntry() throws Exception {
+		CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader()));
+		assertNull(index);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CandidateComponentsIndex}.
+ */
+public class CandidateComponentsIndexTests {
+
+	@Test
+	public void getCandidateTypes() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()));
+		Set<String> actual = index.getCandidateTypes("com.example.service", "service");
+		assertEquals(set("com.example.service.One", "com.example.service.sub.Two",
+				"com.example.service.Three"), actual);
+	}
+
+	@Test
+	public void getCandidateTypesDoesNotMatchPackagePrefix() {
+		Properties properties = new Properties();
+		properties.put("com.example.services.One", "service");
+		CandidateComponentsIndex index = new CandidateComponentsIndex(Collections.singletonList(properties));
+		assertEquals(0, index.getCandidateTypes("com.example.service", "service").size());
+		assertEquals(set("com.example.services.One"), index.getCandidateTypes("com.example", "service"));
+	}
+
+	@Test
+	public void getCandidateTypesWithPackagePattern() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()));
+		assertEquals(set("com.example.service.sub.Two"), index.getCandidateTypes("com.*.service.sub", "service"));
+		assertEquals(set("com.example.service.One", "com.example.service.sub.Two",
+				"com.example.service.Three"), index.getCandidateTypes("com.**.service", "service"));
+	}
+
+	@Test
+	public void getCandidateTypesNoMatch() {
+		CandidateComponentsIndex index = new CandidateComponentsIndex(
+				Collections.singletonList(createSampleProperties()));
+		assertEquals(0, index.getCandidateTypes("com.example.service", "entity").size());
+		assertEquals(0, index.getCandidateTypes("com.example.foo", "service").size());
+	}
+
+	@Test
+	public void mergeCandidateStereotypes() {
+		Properties first = new Properties();
+		first.put("com.example.Foo", "service");
+		first.put("com.example.Bar", "entity");
+		Properties second = new Properties();
+		second.put("com.example.Baz", " service , entity ");
+		CandidateComponentsIndex index = new CandidateComponentsIndex(Arrays.asList(first, second));
+		assertEquals(set("com.example.Foo", "com.example.Baz"), index.getCandidateTypes("com.example", "service"));
+		assertEquals(set("com.example.Bar", "com.example.Baz"), index.getCandidateTypes("com.example", "entity"));
+	}
+
+
+	private static Properties createSampleProperties() {
+		Properties properties = new Properties();
+		properties.put("com.example.service.One", "service");
+		properties.put("com.example.service.sub.Two", "service");
+		properties.put("com.example.service.Three", "service");
+		properties.put("com.example.domain.Four", "entity");
+		return properties;
+	}
+
+	private static Set<String> set(String... values) {
+		return new HashSet<String>(Arrays.asList(values));
+	}
+
+}
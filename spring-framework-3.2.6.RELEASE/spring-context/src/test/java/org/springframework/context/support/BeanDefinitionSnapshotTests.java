@@ -0,0 +1,292 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.FileCopyUtils;
+
+import static org.junit.Assert.*;
+
+public class BeanDefinitionSnapshotTests {
+
+	private static final String CONTEXT =
+			"org/springframework/context/support/BeanDefinitionSnapshotTests-context.xml";
+
+
+	@Test
+	public void snapshotRestoresBeanDefinitions() throws Exception {
+		CountingXmlApplicationContext original = new CountingXmlApplicationContext(CONTEXT);
+		original.refresh();
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(CONTEXT));
+
+		CountingXmlApplicationContext restored = new CountingXmlApplicationContext(CONTEXT);
+		restored.setBeanDefinitionSnapshot(snapshot);
+		restored.refresh();
+		assertEquals(0, restored.loadCount);
+
+		ConfigurableListableBeanFactory originalFactory = original.getBeanFactory();
+		ConfigurableListableBeanFactory restoredFactory = restored.getBeanFactory();
+		assertEquals(Arrays.asList(originalFactory.getBeanDefinitionNames()),
+				Arrays.asList(restoredFactory.getBeanDefinitionNames()));
+		for (String beanName : originalFactory.getBeanDefinitionNames()) {
+			assertEquals(originalFactory.getBeanDefinition(beanName).toString(),
+					restoredFactory.getBeanDefinition(beanName).toString());
+			assertEquals(Arrays.asList(originalFactory.getAliases(beanName)),
+					Arrays.asList(restoredFactory.getAliases(beanName)));
+		}
+
+		TestBean rod = restored.getBean("rod", TestBean.class);
+		assertEquals("Rod", rod.getName());
+		assertEquals(42, rod.getAge());
+		assertEquals("Kerry", rod.getSpouse().getName());
+		assertEquals(2, rod.getFriends().size());
+		assertEquals("value", rod.getSomeMap().get("key"));
+		assertEquals("value", rod.getSomeProperties().getProperty("name"));
+		assertEquals(Arrays.asList("x", "kerry"), Arrays.asList(rod.getStringArray()));
+		assertEquals(7, rod.getSomeNumber());
+		assertNotSame(restored.getBean("kerryAlias"), restored.getBean("wife"));
+		original.close();
+		restored.close();
+	}
+
+	@Test
+	public void snapshotRoundTripIsStable() throws Exception {
+		CountingXmlApplicationContext ctx = new CountingXmlApplicationContext(CONTEXT);
+		ctx.refresh();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BeanDefinitionSnapshot.capture(ctx.getBeanFactory(), "key", ctx.getEnvironment()).writeTo(out);
+		ctx.close();
+
+		BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(3, snapshot.getBeanDefinitionCount());
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		snapshot.registerBeanDefinitions(beanFactory);
+		BeanDefinition rod = beanFactory.getBeanDefinition("rod");
+		assertEquals("parent", rod.getParentName());
+		assertEquals(1, rod.getConstructorArgumentValues().getArgumentCount());
+		assertEquals("snapshot", rod.getAttribute("origin"));
+		assertEquals(new HashSet<String>(Arrays.asList("kerryAlias", "wife")),
+				new HashSet<String>(Arrays.asList(beanFactory.getAliases("kerry"))));
+
+		ByteArrayOutputStream copy = new ByteArrayOutputStream();
+		BeanDefinitionSnapshot.capture(beanFactory, "key", ctx.getEnvironment()).writeTo(copy);
+		DefaultListableBeanFactory copyFactory = new DefaultListableBeanFactory();
+		BeanDefinitionSnapshot.readFrom(new ByteArrayInputStream(copy.toByteArray())).registerBeanDefinitions(copyFactory);
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			assertEquals(beanFactory.getBeanDefinition(beanName), copyFactory.getBeanDefinition(beanName));
+		}
+	}
+
+	@Test
+	public void staleSnapshotFallsBackToBeanDefinitionSources() throws Exception {
+		File file = File.createTempFile("snapshot", ".xml");
+		file.deleteOnExit();
+		FileCopyUtils.copy(new ClassPathResource(CONTEXT).getInputStream(), new FileOutputStream(file));
+		String location = file.toURI().toString();
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(location));
+
+		CountingXmlApplicationContext upToDate = new CountingXmlApplicationContext(location);
+		upToDate.setBeanDefinitionSnapshot(snapshot);
+		upToDate.refresh();
+		assertEquals(0, upToDate.loadCount);
+		upToDate.close();
+
+		assertTrue(file.setLastModified(file.lastModified() + 10000));
+		CountingXmlApplicationContext stale = new CountingXmlApplicationContext(location);
+		stale.setBeanDefinitionSnapshot(snapshot);
+		stale.refresh();
+		assertEquals(1, stale.loadCount);
+		assertEquals("Rod", stale.getBean("rod", TestBean.class).getName());
+		stale.close();
+	}
+
+	@Test
+	public void modifiedImportOnlyFileMarksSnapshotAsStale() throws Exception {
+		File dir = createTempDirectory();
+		File root = writeBeansFile(dir, "root.xml", "<import resource=\"beans.xml\"/><import resource=\"aliases.xml\"/>");
+		writeBeansFile(dir, "beans.xml", "<bean id=\"rod\" class=\"" + TestBean.class.getName() + "\"/>");
+		File aliases = writeBeansFile(dir, "aliases.xml", "<alias name=\"rod\" alias=\"roderick\"/>");
+		String location = root.toURI().toString();
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(location));
+
+		assertTrue(aliases.setLastModified(aliases.lastModified() + 10000));
+		CountingXmlApplicationContext ctx = new CountingXmlApplicationContext(location);
+		ctx.setBeanDefinitionSnapshot(snapshot);
+		ctx.refresh();
+		assertEquals(1, ctx.loadCount);
+		ctx.close();
+
+		snapshot = writeSnapshot(new CountingXmlApplicationContext(location));
+		writeBeansFile(dir, "extra.xml", "<bean id=\"kerry\" class=\"" + TestBean.class.getName() + "\"/>");
+		writeBeansFile(dir, "root.xml", "<import resource=\"beans.xml\"/><import resource=\"extra.xml\"/>");
+		assertTrue(root.setLastModified(root.lastModified() + 10000));
+		ctx = new CountingXmlApplicationContext(location);
+		ctx.setBeanDefinitionSnapshot(snapshot);
+		ctx.refresh();
+		assertEquals(1, ctx.loadCount);
+		assertTrue(ctx.containsBean("kerry"));
+		ctx.close();
+	}
+
+	@Test
+	public void newlyMatchingConfigLocationMarksSnapshotAsStale() throws Exception {
+		File dir = createTempDirectory();
+		writeBeansFile(dir, "a-beans.xml", "<bean id=\"rod\" class=\"" + TestBean.class.getName() + "\"/>");
+		String location = dir.toURI().toString() + "*-beans.xml";
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(location));
+
+		CountingXmlApplicationContext upToDate = new CountingXmlApplicationContext(location);
+		upToDate.setBeanDefinitionSnapshot(snapshot);
+		upToDate.refresh();
+		assertEquals(0, upToDate.loadCount);
+		upToDate.close();
+
+		writeBeansFile(dir, "b-beans.xml", "<bean id=\"kerry\" class=\"" + TestBean.class.getName() + "\"/>");
+		CountingXmlApplicationContext stale = new CountingXmlApplicationContext(location);
+		stale.setBeanDefinitionSnapshot(snapshot);
+		stale.refresh();
+		assertEquals(1, stale.loadCount);
+		assertTrue(stale.containsBean("kerry"));
+		stale.close();
+	}
+
+	@Test
+	public void sourceWithoutModificationTimestampIsStale() throws Exception {
+		File file = writeBeansFile(createTempDirectory(), "beans.xml", "");
+		BeanDefinitionSnapshot.SourceTracker sourceTracker = new BeanDefinitionSnapshot.SourceTracker();
+		sourceTracker.addResources(new UrlResource(file.toURI()) {
+			@Override
+			public long lastModified() {
+				return 0;
+			}
+		});
+		StandardEnvironment environment = new StandardEnvironment();
+		BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.capture(
+				new DefaultListableBeanFactory(), "key", environment, sourceTracker);
+		assertFalse(snapshot.isUpToDate("key", environment, new GenericApplicationContext()));
+		assertTrue(BeanDefinitionSnapshot.capture(new DefaultListableBeanFactory(), "key", environment)
+				.isUpToDate("key", environment, new GenericApplicationContext()));
+	}
+
+	@Test
+	public void snapshotForDifferentProfilesIsStale() throws Exception {
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(CONTEXT));
+
+		CountingXmlApplicationContext ctx = new CountingXmlApplicationContext(CONTEXT);
+		ctx.getEnvironment().setActiveProfiles("other");
+		ctx.setBeanDefinitionSnapshot(snapshot);
+		ctx.refresh();
+		assertEquals(1, ctx.loadCount);
+		ctx.close();
+	}
+
+	@Test
+	public void snapshotForDifferentConfigLocationsIsStale() throws Exception {
+		ByteArrayResource snapshot = writeSnapshot(new CountingXmlApplicationContext(CONTEXT));
+
+		CountingXmlApplicationContext ctx = new CountingXmlApplicationContext(
+				"org/springframework/context/support/simpleContext.xml");
+		ctx.setBeanDefinitionSnapshot(snapshot);
+		ctx.refresh();
+		assertEquals(1, ctx.loadCount);
+		assertFalse(ctx.containsBean("rod"));
+		ctx.close();
+	}
+
+	@Test
+	public void unreadableSnapshotIsIgnored() {
+		CountingXmlApplicationContext ctx = new CountingXmlApplicationContext(CONTEXT);
+		ctx.setBeanDefinitionSnapshot(new ByteArrayResource(new byte[] {1, 2, 3, 4, 5, 6}));
+		ctx.refresh();
+		assertEquals(1, ctx.loadCount);
+		assertTrue(ctx.containsBean("rod"));
+		ctx.close();
+	}
+
+	@Test(expected = BeanDefinitionStoreException.class)
+	public void unsupportedMetadataIsRejected() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("spouse", new TestBean());
+		beanFactory.registerBeanDefinition("tb", bd);
+		BeanDefinitionSnapshot.capture(beanFactory, "key", new StandardEnvironment())
+				.writeTo(new ByteArrayOutputStream());
+	}
+
+
+	private static File createTempDirectory() throws IOException {
+		File dir = File.createTempFile("snapshot", "");
+		assertTrue(dir.delete());
+		assertTrue(dir.mkdir());
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	private static File writeBeansFile(File dir, String name, String content) throws IOException {
+		File file = new File(dir, name);
+		file.deleteOnExit();
+		FileCopyUtils.copy(new StringReader("<beans xmlns=\"http://www.springframework.org/schema/beans\" " +
+				"xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"" +
+				"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans.xsd\">" +
+				content + "</beans>"), new FileWriter(file));
+		return file;
+	}
+
+	private static ByteArrayResource writeSnapshot(AbstractRefreshableApplicationContext ctx) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ctx.writeBeanDefinitionSnapshot(out);
+		return new ByteArrayResource(out.toByteArray());
+	}
+
+
+	private static class CountingXmlApplicationContext extends ClassPathXmlApplicationContext {
+
+		private int loadCount;
+
+		public CountingXmlApplicationContext(String configLocation) {
+			super(new String[] {configLocation}, false);
+		}
+
+		@Override
+		protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws IOException {
+			this.loadCount++;
+			super.loadBeanDefinitions(beanFactory);
+		}
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.core.convert.support;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.convert.ConversionException;
@@ -44,6 +46,7 @@ import org.springframework.core.convert.converter.GenericConverter.ConvertiblePa
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -73,9 +76,22 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private final Converters converters = new Converters();
 
+	/** Cache for converters between types with annotations or element/key/value types */
 	private final Map<ConverterCacheKey, GenericConverter> converterCache =
 			new ConcurrentHashMap<ConverterCacheKey, GenericConverter>(64);
 
+	/** Cache for converters between plain types, keyed by source class and then target class */
+	private final ConcurrentMap<Class<?>, Map<Class<?>, ClassPairEntry>> classPairCache =
+			new ConcurrentHashMap<Class<?>, Map<Class<?>, ClassPairEntry>>(64);
+
+	/**
+	 * Whether {@link #convert(Object, Class)} may use the class pair cache directly,
+	 * i.e. whether a subclass does not customize the TypeDescriptor-based lookup
+	 */
+	private final boolean classPairConversion =
+			!isOverridden("getConverter", TypeDescriptor.class, TypeDescriptor.class) &&
+			!isOverridden("convert", Object.class, TypeDescriptor.class, TypeDescriptor.class);
+
 
 	// implementing ConverterRegistry
 
@@ -151,6 +167,10 @@ public class GenericConversionService implements ConfigurableConversionService {
 	@SuppressWarnings("unchecked")
 	public <T> T convert(Object source, Class<T> targetType) {
 		Assert.notNull(targetType,"The targetType to convert to cannot be null");
+		if (source != null && this.classPairConversion) {
+			// Fast path: no TypeDescriptor and cache key allocation for plain classes
+			return (T) convert(source, getClassPairEntry(source.getClass(), targetType));
+		}
 		return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
 	}
 
@@ -221,17 +241,17 @@ public class GenericConversionService implements ConfigurableConversionService {
 	 * @see #getDefaultConverter(TypeDescriptor, TypeDescriptor)
 	 */
 	protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		if (isPlainType(sourceType) && isPlainType(targetType)) {
+			return getClassPairEntry(sourceType.getType(), targetType.getType()).converter;
+		}
+
 		ConverterCacheKey key = new ConverterCacheKey(sourceType, targetType);
 		GenericConverter converter = this.converterCache.get(key);
 		if (converter != null) {
 			return (converter != NO_MATCH ? converter : null);
 		}
 
-		converter = this.converters.find(sourceType, targetType);
-		if (converter == null) {
-			converter = getDefaultConverter(sourceType, targetType);
-		}
-
+		converter = findConverter(sourceType, targetType);
 		if (converter != null) {
 			this.converterCache.put(key, converter);
 			return converter;
@@ -263,6 +283,70 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.classPairCache.clear();
+	}
+
+	private boolean isOverridden(String methodName, Class<?>... paramTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), methodName, paramTypes);
+		return (method != null && method.getDeclaringClass() != GenericConversionService.class);
+	}
+
+	/**
+	 * Determine whether the given type descriptor is fully described by its class,
+	 * i.e. equal to {@code TypeDescriptor.valueOf(type)}.
+	 */
+	private boolean isPlainType(TypeDescriptor typeDescriptor) {
+		return (typeDescriptor.getAnnotations().length == 0 && !typeDescriptor.isCollection() &&
+				!typeDescriptor.isArray() && !typeDescriptor.isMap());
+	}
+
+	private GenericConverter findConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		GenericConverter converter = this.converters.find(sourceType, targetType);
+		if (converter == null) {
+			converter = getDefaultConverter(sourceType, targetType);
+		}
+		return converter;
+	}
+
+	private ClassPairEntry getClassPairEntry(Class<?> sourceClass, Class<?> targetClass) {
+		Map<Class<?>, ClassPairEntry> entries = this.classPairCache.get(sourceClass);
+		if (entries == null) {
+			entries = new ConcurrentHashMap<Class<?>, ClassPairEntry>(8);
+			Map<Class<?>, ClassPairEntry> existing = this.classPairCache.putIfAbsent(sourceClass, entries);
+			if (existing != null) {
+				entries = existing;
+			}
+		}
+		ClassPairEntry entry = entries.get(targetClass);
+		if (entry == null) {
+			TypeDescriptor sourceType = TypeDescriptor.valueOf(sourceClass);
+			TypeDescriptor targetType = TypeDescriptor.valueOf(targetClass);
+			entry = new ClassPairEntry(sourceType, targetType, findConverter(sourceType, targetType));
+			entries.put(targetClass, entry);
+		}
+		return entry;
+	}
+
+	private Object convert(Object source, ClassPairEntry entry) {
+		if (entry.converter == null) {
+			return handleConverterNotFound(source, entry.sourceType, entry.targetType);
+		}
+		Object result;
+		if (entry.directConverter != null) {
+			try {
+				result = entry.directConverter.convert(source);
+			}
+			catch (ConversionFailedException ex) {
+				throw ex;
+			}
+			catch (Exception ex) {
+				throw new ConversionFailedException(entry.sourceType, entry.targetType, source, ex);
+			}
+		}
+		else {
+			result = ConversionUtils.invokeConverter(entry.converter, source, entry.sourceType, entry.targetType);
+		}
+		return handleResult(entry.sourceType, entry.targetType, result);
 	}
 
 	private Object handleConverterNotFound(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
@@ -387,6 +471,72 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Entry in the class pair cache: the converter for a pair of plain types,
+	 * along with a direct {@link Converter} for it where possible.
+	 */
+	private static final class ClassPairEntry {
+
+		private final TypeDescriptor sourceType;
+
+		private final TypeDescriptor targetType;
+
+		private final GenericConverter converter;
+
+		private final Converter<Object, Object> directConverter;
+
+
+		public ClassPairEntry(TypeDescriptor sourceType, TypeDescriptor targetType, GenericConverter converter) {
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+			this.converter = converter;
+			this.directConverter = getDirectConverter(converter, sourceType, targetType);
+		}
+
+
+		/**
+		 * Resolve a converter that can be called for non-null sources without any
+		 * TypeDescriptor: the identity for no-op conversions, the adapted converter
+		 * for a {@link Converter}, and the target-specific converter of a
+		 * {@link ConverterFactory} between primitive, wrapper and String types.
+		 */
+		@SuppressWarnings("unchecked")
+		private static Converter<Object, Object> getDirectConverter(GenericConverter converter,
+				TypeDescriptor sourceType, TypeDescriptor targetType) {
+
+			if (converter == NO_OP_CONVERTER) {
+				return IdentityConverter.INSTANCE;
+			}
+			if (converter instanceof ConverterAdapter) {
+				return ((ConverterAdapter) converter).converter;
+			}
+			if (converter instanceof ConverterFactoryAdapter &&
+					isSimpleValueType(sourceType.getType()) && isSimpleValueType(targetType.getType())) {
+				return (Converter<Object, Object>)
+						((ConverterFactoryAdapter) converter).converterFactory.getConverter(targetType.getObjectType());
+			}
+			return null;
+		}
+
+		private static boolean isSimpleValueType(Class<?> type) {
+			return (ClassUtils.isPrimitiveOrWrapper(type) || String.class.equals(type));
+		}
+	}
+
+
+	/**
+	 * Converter returning the source object as-is.
+	 */
+	private static class IdentityConverter implements Converter<Object, Object> {
+
+		public static final IdentityConverter INSTANCE = new IdentityConverter();
+
+		public Object convert(Object source) {
+			return source;
+		}
+	}
+
+
 	/**
 	 * Key for use with the converter cache.
 	 */
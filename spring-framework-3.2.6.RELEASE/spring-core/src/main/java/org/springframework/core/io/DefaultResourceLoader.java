@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +18,13 @@ package org.springframework.core.io;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -40,8 +44,17 @@ import org.springframework.util.StringUtils;
  */
 public class DefaultResourceLoader implements ResourceLoader {
 
+	/** Default maximum number of entries for each resource cache: 256 */
+	public static final int DEFAULT_RESOURCE_CACHE_LIMIT = 256;
+
+
 	private ClassLoader classLoader;
 
+	private volatile int resourceCacheLimit = DEFAULT_RESOURCE_CACHE_LIMIT;
+
+	private final ConcurrentMap<Class<?>, ConcurrentLruMap<Resource, ?>> resourceCaches =
+			new ConcurrentHashMap<Class<?>, ConcurrentLruMap<Resource, ?>>(4);
+
 
 	/**
 	 * Create a new DefaultResourceLoader.
@@ -83,6 +96,64 @@ public class DefaultResourceLoader implements ResourceLoader {
 		return (this.classLoader != null ? this.classLoader : ClassUtils.getDefaultClassLoader());
 	}
 
+	/**
+	 * Specify the maximum number of entries for each resource cache, applying
+	 * to existing caches as well. Default is 256. A limit of 0 or below turns
+	 * resource caching off.
+	 * @since 3.2.7
+	 * @see #getResourceCache
+	 */
+	public void setResourceCacheLimit(int resourceCacheLimit) {
+		this.resourceCacheLimit = resourceCacheLimit;
+		for (ConcurrentLruMap<Resource, ?> cache : this.resourceCaches.values()) {
+			cache.setMaxSize(resourceCacheLimit);
+		}
+	}
+
+	/**
+	 * Return the maximum number of entries for each resource cache.
+	 * @since 3.2.7
+	 */
+	public int getResourceCacheLimit() {
+		return this.resourceCacheLimit;
+	}
+
+	/**
+	 * Obtain a cache for the given value type, keyed by {@link Resource}.
+	 * <p>The cache is shared by all callers for the same value type, and
+	 * safe for concurrent access. It is bounded by the
+	 * {@linkplain #setResourceCacheLimit resource cache limit}, evicting
+	 * entries in approximate least-recently-used order.
+	 * @param valueType the value type, e.g. an ASM {@code MetadataReader}
+	 * @return the cache {@link Map}, shared at the {@code ResourceLoader} level
+	 * @since 3.2.7
+	 * @see #clearResourceCaches()
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Map<Resource, T> getResourceCache(Class<T> valueType) {
+		ConcurrentLruMap<Resource, ?> cache = this.resourceCaches.get(valueType);
+		if (cache == null) {
+			cache = new ConcurrentLruMap<Resource, T>(this.resourceCacheLimit);
+			ConcurrentLruMap<Resource, ?> existing = this.resourceCaches.putIfAbsent(valueType, cache);
+			if (existing != null) {
+				cache = existing;
+			}
+		}
+		return (Map<Resource, T>) cache;
+	}
+
+	/**
+	 * Clear all resource caches in this resource loader.
+	 * <p>Application contexts call this once their refresh has completed.
+	 * @since 3.2.7
+	 * @see #getResourceCache
+	 */
+	public void clearResourceCaches() {
+		for (Map<Resource, ?> cache : this.resourceCaches.values()) {
+			cache.clear();
+		}
+	}
+
 	//ȡResourceľʵַ
 	public Resource getResource(String location) {
 		Assert.notNull(location, "Location must not be null");
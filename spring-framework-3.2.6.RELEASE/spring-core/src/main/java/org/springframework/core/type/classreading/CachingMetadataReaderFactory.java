@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,17 +17,34 @@
 package org.springframework.core.type.classreading;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.ConcurrentLruMap;
 
 /**
  * Caching implementation of the {@link MetadataReaderFactory} interface,
  * caching {@link MetadataReader} per Spring {@link Resource} handle
  * (i.e. per ".class" file).
  *
+ * <p>If created for a {@link DefaultResourceLoader} (such as an application
+ * context), the cache is shared with all other factories for the same resource
+ * loader, e.g. between component scanners and configuration class processing,
+ * and gets evicted along with the loader's other
+ * {@linkplain DefaultResourceLoader#clearResourceCaches() resource caches}.
+ * Its size is bounded by the loader's
+ * {@linkplain DefaultResourceLoader#setResourceCacheLimit resource cache limit}.
+ * Otherwise, each factory keeps a local cache, bounded by its own
+ * {@linkplain #setCacheLimit cache limit}.
+ *
+ * <p>Lookups do not lock: a reader for the same resource might get created
+ * more than once in case of concurrent misses, with the last one being cached.
+ * Once the cache limit is exceeded, entries get evicted in approximate
+ * least-recently-used order.
+ *
  * @author Juergen Hoeller
  * @author Costin Leau
  * @since 2.5
@@ -40,47 +57,71 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
-	@SuppressWarnings("serial")
-	private final Map<Resource, MetadataReader> metadataReaderCache =
-			new LinkedHashMap<Resource, MetadataReader>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<Resource, MetadataReader> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	/** MetadataReader cache: either local or shared at the ResourceLoader level */
+	private final Map<Resource, MetadataReader> metadataReaderCache;
+
+	/** The local MetadataReader cache, or {@code null} if using a shared cache */
+	private final ConcurrentLruMap<Resource, MetadataReader> localCache;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
 
 
 	/**
-	 * Create a new CachingMetadataReaderFactory for the default class loader.
+	 * Create a new CachingMetadataReaderFactory for the default class loader,
+	 * using a local resource cache.
 	 */
 	public CachingMetadataReaderFactory() {
 		super();
+		this.localCache = new ConcurrentLruMap<Resource, MetadataReader>(DEFAULT_CACHE_LIMIT);
+		this.metadataReaderCache = this.localCache;
 	}
 
 	/**
-	 * Create a new CachingMetadataReaderFactory for the given resource loader.
+	 * Create a new CachingMetadataReaderFactory for the given resource loader,
+	 * using a shared resource cache if supported or a local resource cache otherwise.
 	 * @param resourceLoader the Spring ResourceLoader to use
 	 * (also determines the ClassLoader to use)
+	 * @see DefaultResourceLoader#getResourceCache
 	 */
 	public CachingMetadataReaderFactory(ResourceLoader resourceLoader) {
 		super(resourceLoader);
+		if (resourceLoader instanceof DefaultResourceLoader) {
+			this.localCache = null;
+			this.metadataReaderCache = ((DefaultResourceLoader) resourceLoader).getResourceCache(MetadataReader.class);
+		}
+		else {
+			this.localCache = new ConcurrentLruMap<Resource, MetadataReader>(DEFAULT_CACHE_LIMIT);
+			this.metadataReaderCache = this.localCache;
+		}
 	}
 
 	/**
-	 * Create a new CachingMetadataReaderFactory for the given class loader.
+	 * Create a new CachingMetadataReaderFactory for the given class loader,
+	 * using a local resource cache.
 	 * @param classLoader the ClassLoader to use
 	 */
 	public CachingMetadataReaderFactory(ClassLoader classLoader) {
 		super(classLoader);
+		this.localCache = new ConcurrentLruMap<Resource, MetadataReader>(DEFAULT_CACHE_LIMIT);
+		this.metadataReaderCache = this.localCache;
 	}
 
 
 	/**
 	 * Specify the maximum number of entries for the MetadataReader cache.
-	 * Default is 256.
+	 * Default is 256. A limit of 0 or below turns caching off.
+	 * <p>If this factory uses a cache shared at the {@link DefaultResourceLoader}
+	 * level, the size of that cache is determined by the resource loader instead
+	 * (see {@link DefaultResourceLoader#setResourceCacheLimit}), and a limit of 0
+	 * or below just turns off caching for this factory.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		if (this.localCache != null) {
+			this.localCache.setMaxSize(cacheLimit);
+		}
 	}
 
 	/**
@@ -90,29 +131,47 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 		return this.cacheLimit;
 	}
 
+	/**
+	 * Return the number of cached MetadataReaders that this factory has returned.
+	 * @since 3.2.7
+	 */
+	public long getCacheHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of MetadataReaders that this factory had to create
+	 * since they were not cached (including all requests with caching turned off).
+	 * @since 3.2.7
+	 */
+	public long getCacheMissCount() {
+		return this.missCount.get();
+	}
+
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		if (getCacheLimit() <= 0) {
+			this.missCount.incrementAndGet();
 			return super.getMetadataReader(resource);
 		}
-		synchronized (this.metadataReaderCache) {
-			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
-				this.metadataReaderCache.put(resource, metadataReader);
-			}
+		MetadataReader metadataReader = this.metadataReaderCache.get(resource);
+		if (metadataReader != null) {
+			this.hitCount.incrementAndGet();
 			return metadataReader;
 		}
+		this.missCount.incrementAndGet();
+		metadataReader = super.getMetadataReader(resource);
+		this.metadataReaderCache.put(resource, metadataReader);
+		return metadataReader;
 	}
 
 	/**
 	 * Clear the entire MetadataReader cache, removing all cached class metadata.
+	 * <p>Note that this affects all factories sharing the same resource cache.
 	 */
 	public void clearCache() {
-		synchronized (this.metadataReaderCache) {
-			this.metadataReaderCache.clear();
-		}
+		this.metadataReaderCache.clear();
 	}
 
 }
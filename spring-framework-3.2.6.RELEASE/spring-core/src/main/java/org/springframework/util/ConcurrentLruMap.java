@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size-bounded {@link Map} backed by a {@link ConcurrentHashMap}, evicting
+ * entries in approximate least-recently-used order once its maximum size has
+ * been exceeded.
+ *
+ * <p>Reads and writes do not lock: every access just records a timestamp for
+ * the entry. Once a write exceeds the maximum size, the writing thread evicts
+ * the least recently used entries in a batch, trimming the map to a little below
+ * its maximum size so that eviction does not happen on every subsequent write.
+ * Concurrent writes may temporarily exceed the maximum size while an eviction
+ * is in progress.
+ *
+ * <p>Like {@link ConcurrentHashMap}, this map does not allow {@code null} keys
+ * or values. Its {@link #entrySet()} is an unmodifiable snapshot.
+ *
+ * @since 3.2.7
+ */
+public class ConcurrentLruMap<K, V> extends AbstractMap<K, V> {
+
+	private final ConcurrentMap<K, Entry<V>> entries;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private volatile int maxSize;
+
+
+	/**
+	 * Create a new ConcurrentLruMap with the given maximum size.
+	 * @param maxSize the maximum number of entries (0 or below for not
+	 * retaining any entries)
+	 */
+	public ConcurrentLruMap(int maxSize) {
+		this.entries = new ConcurrentHashMap<K, Entry<V>>(Math.max(maxSize, 16));
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Set the maximum number of entries, evicting entries beyond that size
+	 * right away. A maximum size of 0 or below removes all entries and turns
+	 * off retaining further entries.
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		evictIfNecessary();
+	}
+
+	/**
+	 * Return the maximum number of entries.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	@Override
+	public V get(Object key) {
+		Entry<V> entry = this.entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		entry.lastAccess = this.clock.incrementAndGet();
+		return entry.value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.entries.containsKey(key);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		if (this.maxSize <= 0) {
+			return null;
+		}
+		Entry<V> previous = this.entries.put(key, new Entry<V>(value, this.clock.incrementAndGet()));
+		evictIfNecessary();
+		return (previous != null ? previous.value : null);
+	}
+
+	@Override
+	public V remove(Object key) {
+		Entry<V> entry = this.entries.remove(key);
+		return (entry != null ? entry.value : null);
+	}
+
+	@Override
+	public int size() {
+		return this.entries.size();
+	}
+
+	@Override
+	public void clear() {
+		this.entries.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		Map<K, V> snapshot = new LinkedHashMap<K, V>(this.entries.size());
+		for (Map.Entry<K, Entry<V>> entry : this.entries.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().value);
+		}
+		return Collections.unmodifiableMap(snapshot).entrySet();
+	}
+
+	private void evictIfNecessary() {
+		int maxSize = this.maxSize;
+		if (this.entries.size() <= Math.max(maxSize, 0) || !this.evictionLock.tryLock()) {
+			// Within bounds, or another thread is evicting already
+			return;
+		}
+		try {
+			if (maxSize <= 0) {
+				this.entries.clear();
+				return;
+			}
+			// Determine the access time up to which entries get evicted, from a
+			// snapshot of access times since entries keep being accessed meanwhile
+			long[] accessTimes = new long[this.entries.size()];
+			int count = 0;
+			for (Entry<V> entry : this.entries.values()) {
+				if (count == accessTimes.length) {
+					break;
+				}
+				accessTimes[count++] = entry.lastAccess;
+			}
+			int excess = count - (maxSize - maxSize / 8);
+			if (excess <= 0) {
+				return;
+			}
+			Arrays.sort(accessTimes, 0, count);
+			long threshold = accessTimes[excess - 1];
+			for (Map.Entry<K, Entry<V>> entry : this.entries.entrySet()) {
+				if (entry.getValue().lastAccess <= threshold) {
+					this.entries.remove(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private volatile long lastAccess;
+
+		public Entry(V value, long lastAccess) {
+			this.value = value;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+}
@@ -472,6 +472,99 @@ public class GenericConversionServiceTests {
 
 	public static Map<String, Integer> map;
 
+	@Test
+	public void testPerformanceClassPairConversion() {
+		Assume.group(TestGroup.PERFORMANCE);
+		GenericConversionService conversionService = new DefaultConversionService();
+		GenericConversionService descriptorBasedService = new DefaultConversionService() {
+			@Override
+			protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return super.getConverter(sourceType, targetType);
+			}
+		};
+		StopWatch watch = new StopWatch("string->integer conversionPerformance");
+		watch.start("convert 4,000,000 via TypeDescriptor lookup");
+		for (int i = 0; i < 4000000; i++) {
+			descriptorBasedService.convert("3", Integer.class);
+			descriptorBasedService.convert(3, long.class);
+		}
+		watch.stop();
+		long descriptorBasedTime = watch.getLastTaskTimeMillis();
+		watch.start("convert 4,000,000 via class pair cache");
+		for (int i = 0; i < 4000000; i++) {
+			conversionService.convert("3", Integer.class);
+			conversionService.convert(3, long.class);
+		}
+		watch.stop();
+		System.out.println(watch.prettyPrint());
+		assertTrue("Class pair conversion slower than TypeDescriptor-based conversion",
+				watch.getLastTaskTimeMillis() <= descriptorBasedTime);
+	}
+
+	@Test
+	public void classPairConversionHonorsRegisteredConverters() {
+		GenericConversionService conversionService = new DefaultConversionService();
+		assertEquals(Integer.valueOf(1), conversionService.convert("1", Integer.class));
+		assertEquals(Integer.valueOf(1), conversionService.convert("1", int.class));
+		assertEquals(Long.valueOf(1), conversionService.convert(1, Long.class));
+		assertEquals("1", conversionService.convert(1, String.class));
+		assertEquals(Boolean.TRUE, conversionService.convert("yes", boolean.class));
+		assertSame(conversionService, conversionService.convert(conversionService, Object.class));
+
+		conversionService.addConverter(new Converter<String, Integer>() {
+			@Override
+			public Integer convert(String source) {
+				return 42;
+			}
+		});
+		assertEquals(Integer.valueOf(42), conversionService.convert("1", Integer.class));
+		assertEquals(Integer.valueOf(42), conversionService.convert("1", TypeDescriptor.valueOf(Integer.class)));
+		conversionService.removeConvertible(String.class, Integer.class);
+		assertEquals(Integer.valueOf(1), conversionService.convert("1", Integer.class));
+	}
+
+	@Test
+	public void classPairConversionFailure() {
+		GenericConversionService conversionService = new DefaultConversionService();
+		try {
+			conversionService.convert("x", Integer.class);
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			assertEquals(TypeDescriptor.valueOf(String.class), ex.getSourceType());
+			assertEquals(TypeDescriptor.valueOf(Integer.class), ex.getTargetType());
+			assertTrue(ex.getCause() instanceof NumberFormatException);
+		}
+		try {
+			conversionService.convert("", int.class);
+			fail("Should have thrown ConversionFailedException");
+		}
+		catch (ConversionFailedException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+		}
+		try {
+			conversionService.convert(new Object(), UUID.class);
+			fail("Should have thrown ConverterNotFoundException");
+		}
+		catch (ConverterNotFoundException ex) {
+			assertEquals(TypeDescriptor.valueOf(Object.class), ex.getSourceType());
+		}
+	}
+
+	@Test
+	public void classPairConversionRespectsGetConverterOverride() {
+		final List<TypeDescriptor> lookups = new ArrayList<TypeDescriptor>();
+		GenericConversionService conversionService = new DefaultConversionService() {
+			@Override
+			protected GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+				lookups.add(targetType);
+				return super.getConverter(sourceType, targetType);
+			}
+		};
+		assertEquals(Integer.valueOf(1), conversionService.convert("1", Integer.class));
+		assertEquals(Arrays.asList(TypeDescriptor.valueOf(Integer.class)), lookups);
+	}
+
 	@Test
 	public void emptyListToArray() {
 		conversionService.addConverter(new CollectionToArrayConverter(conversionService));
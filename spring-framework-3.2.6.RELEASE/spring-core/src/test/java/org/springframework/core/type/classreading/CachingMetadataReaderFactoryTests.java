@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.type.classreading;
+
+import org.junit.Test;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CachingMetadataReaderFactory}.
+ */
+public class CachingMetadataReaderFactoryTests {
+
+	private static final String CLASS_NAME = CachingMetadataReaderFactoryTests.class.getName();
+
+
+	@Test
+	public void cachesMetadataReader() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		MetadataReader reader = factory.getMetadataReader(CLASS_NAME);
+		assertEquals(CLASS_NAME, reader.getClassMetadata().getClassName());
+		assertSame(reader, factory.getMetadataReader(CLASS_NAME));
+		assertEquals(1, factory.getCacheHitCount());
+		assertEquals(1, factory.getCacheMissCount());
+	}
+
+	@Test
+	public void sharesCacheForSameResourceLoader() throws Exception {
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		CachingMetadataReaderFactory factory1 = new CachingMetadataReaderFactory(resourceLoader);
+		CachingMetadataReaderFactory factory2 = new CachingMetadataReaderFactory(resourceLoader);
+		MetadataReader reader = factory1.getMetadataReader(CLASS_NAME);
+		assertSame(reader, factory2.getMetadataReader(CLASS_NAME));
+		assertEquals(0, factory2.getCacheMissCount());
+		assertEquals(1, factory2.getCacheHitCount());
+		assertEquals(1, resourceLoader.getResourceCache(MetadataReader.class).size());
+
+		resourceLoader.clearResourceCaches();
+		assertTrue(resourceLoader.getResourceCache(MetadataReader.class).isEmpty());
+		assertNotSame(reader, factory2.getMetadataReader(CLASS_NAME));
+		assertEquals(1, factory2.getCacheMissCount());
+	}
+
+	@Test
+	public void localCacheForOtherResourceLoader() throws Exception {
+		ResourceLoader resourceLoader = new PathMatchingResourcePatternResolver();
+		CachingMetadataReaderFactory factory1 = new CachingMetadataReaderFactory(resourceLoader);
+		CachingMetadataReaderFactory factory2 = new CachingMetadataReaderFactory(resourceLoader);
+		assertNotSame(factory1.getMetadataReader(CLASS_NAME), factory2.getMetadataReader(CLASS_NAME));
+	}
+
+	@Test
+	public void cacheLimit() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setCacheLimit(2);
+		MetadataReader reader = factory.getMetadataReader(CLASS_NAME);
+		factory.getMetadataReader(Foo.class.getName());
+		assertSame(reader, factory.getMetadataReader(CLASS_NAME));
+		factory.getMetadataReader(Bar.class.getName());
+		// least recently used entry evicted
+		assertSame(reader, factory.getMetadataReader(CLASS_NAME));
+		factory.getMetadataReader(Foo.class.getName());
+		assertEquals(4, factory.getCacheMissCount());
+	}
+
+	@Test
+	public void sharedCacheLimitedByResourceLoader() throws Exception {
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		resourceLoader.setResourceCacheLimit(2);
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory(resourceLoader);
+		MetadataReader reader = factory.getMetadataReader(CLASS_NAME);
+		factory.getMetadataReader(Foo.class.getName());
+		factory.getMetadataReader(CLASS_NAME);
+		factory.getMetadataReader(Bar.class.getName());
+		factory.getMetadataReader(Baz.class.getName());
+		assertEquals(2, resourceLoader.getResourceCache(MetadataReader.class).size());
+		assertEquals(4, factory.getCacheMissCount());
+		resourceLoader.setResourceCacheLimit(0);
+		assertTrue(resourceLoader.getResourceCache(MetadataReader.class).isEmpty());
+		assertNotSame(reader, factory.getMetadataReader(CLASS_NAME));
+	}
+
+	@Test
+	public void factoryCacheLimitDoesNotTrimSharedCache() throws Exception {
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		CachingMetadataReaderFactory factory1 = new CachingMetadataReaderFactory(resourceLoader);
+		CachingMetadataReaderFactory factory2 = new CachingMetadataReaderFactory(resourceLoader);
+		factory2.setCacheLimit(1);
+		factory1.getMetadataReader(CLASS_NAME);
+		factory1.getMetadataReader(Foo.class.getName());
+		factory2.getMetadataReader(Bar.class.getName());
+		factory2.getMetadataReader(Baz.class.getName());
+		assertEquals(4, resourceLoader.getResourceCache(MetadataReader.class).size());
+		factory2.setCacheLimit(0);
+		factory2.getMetadataReader(CLASS_NAME);
+		assertEquals(0, factory2.getCacheHitCount());
+		assertEquals(4, resourceLoader.getResourceCache(MetadataReader.class).size());
+	}
+
+	@Test
+	public void cacheLimitZeroTurnsCachingOff() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		factory.setCacheLimit(0);
+		assertNotSame(factory.getMetadataReader(CLASS_NAME), factory.getMetadataReader(CLASS_NAME));
+		assertEquals(0, factory.getCacheHitCount());
+		assertEquals(2, factory.getCacheMissCount());
+	}
+
+	@Test
+	public void clearCache() throws Exception {
+		CachingMetadataReaderFactory factory = new CachingMetadataReaderFactory();
+		MetadataReader reader = factory.getMetadataReader(CLASS_NAME);
+		factory.clearCache();
+		assertNotSame(reader, factory.getMetadataReader(CLASS_NAME));
+	}
+
+
+	private static class Foo {
+	}
+
+	private static class Bar {
+	}
+
+	private static class Baz {
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConcurrentLruMap}.
+ */
+public class ConcurrentLruMapTests {
+
+	@Test
+	public void putAndGet() {
+		ConcurrentLruMap<String, String> map = new ConcurrentLruMap<String, String>(4);
+		assertNull(map.put("a", "1"));
+		assertEquals("1", map.put("a", "2"));
+		assertEquals("2", map.get("a"));
+		assertTrue(map.containsKey("a"));
+		assertEquals(1, map.size());
+		assertEquals("2", map.entrySet().iterator().next().getValue());
+		assertEquals("2", map.remove("a"));
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		ConcurrentLruMap<String, String> map = new ConcurrentLruMap<String, String>(2);
+		map.put("a", "1");
+		map.put("b", "2");
+		map.get("a");
+		map.put("c", "3");
+		assertEquals(2, map.size());
+		assertTrue(map.containsKey("a"));
+		assertFalse(map.containsKey("b"));
+		assertTrue(map.containsKey("c"));
+	}
+
+	@Test
+	public void evictsBatchBelowMaxSize() {
+		ConcurrentLruMap<Integer, Integer> map = new ConcurrentLruMap<Integer, Integer>(16);
+		for (int i = 0; i < 16; i++) {
+			map.put(i, i);
+		}
+		map.get(0);
+		map.put(16, 16);
+		assertEquals(14, map.size());
+		assertTrue(map.containsKey(0));
+		assertTrue(map.containsKey(16));
+		assertFalse(map.containsKey(1));
+	}
+
+	@Test
+	public void changeMaxSize() {
+		ConcurrentLruMap<Integer, Integer> map = new ConcurrentLruMap<Integer, Integer>(8);
+		for (int i = 0; i < 8; i++) {
+			map.put(i, i);
+		}
+		map.setMaxSize(4);
+		assertTrue(map.size() <= 4);
+		assertTrue(map.containsKey(7));
+		map.setMaxSize(0);
+		assertTrue(map.isEmpty());
+		map.put(1, 1);
+		assertTrue(map.isEmpty());
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records intermediate compilation state as the bytecode for an expression is
+ * being generated, and provides bytecode helpers for the AST nodes.
+ *
+ * <p>Types are tracked as JVM descriptors, e.g. {@code I} for an {@code int}
+ * and {@code Ljava/lang/String;} for a String. Each compilation scope tracks
+ * the descriptors of the values that its nodes have left on the operand stack;
+ * a node that finds no previous descriptor in its scope operates on the root
+ * object, which is passed to the generated method as its first argument.
+ *
+ * @since 3.2.7
+ * @see org.springframework.expression.spel.ast.SpelNodeImpl#generateCode
+ */
+public class CodeFlow {
+
+	private static final String[][] BOXING = {
+			{"Z", "java/lang/Boolean", "booleanValue"},
+			{"B", "java/lang/Byte", "byteValue"},
+			{"C", "java/lang/Character", "charValue"},
+			{"S", "java/lang/Short", "shortValue"},
+			{"I", "java/lang/Integer", "intValue"},
+			{"J", "java/lang/Long", "longValue"},
+			{"F", "java/lang/Float", "floatValue"},
+			{"D", "java/lang/Double", "doubleValue"}};
+
+
+	private final LinkedList<List<String>> compilationScopes = new LinkedList<List<String>>();
+
+
+	public CodeFlow() {
+		enterCompilationScope();
+	}
+
+
+	/**
+	 * Enter a new compilation scope, for example to generate the code for a method
+	 * argument. Nodes in a new scope operate on the root object again.
+	 */
+	public void enterCompilationScope() {
+		this.compilationScopes.addLast(new ArrayList<String>());
+	}
+
+	/**
+	 * Exit the current compilation scope.
+	 */
+	public void exitCompilationScope() {
+		this.compilationScopes.removeLast();
+	}
+
+	/**
+	 * Record the descriptor of the value that the last generated code left on the stack.
+	 */
+	public void pushDescriptor(String descriptor) {
+		this.compilationScopes.getLast().add(descriptor);
+	}
+
+	/**
+	 * Return the descriptor of the value on top of the stack in the current scope,
+	 * or {@code null} if no code has been generated in this scope yet.
+	 */
+	public String lastDescriptor() {
+		List<String> scope = this.compilationScopes.getLast();
+		return (scope.isEmpty() ? null : scope.get(scope.size() - 1));
+	}
+
+	/**
+	 * Load the root object of the evaluation onto the stack.
+	 */
+	public void loadTarget(MethodVisitor mv) {
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+	}
+
+
+	/**
+	 * Return the descriptor for the given type.
+	 */
+	public static String toDescriptor(Class<?> type) {
+		return Type.getDescriptor(type);
+	}
+
+	/**
+	 * Determine whether the given descriptor denotes a primitive type.
+	 */
+	public static boolean isPrimitive(String descriptor) {
+		return (descriptor != null && descriptor.length() == 1);
+	}
+
+	/**
+	 * Return the primitive descriptor for the given primitive or wrapper descriptor.
+	 * @return the primitive descriptor, or {@code null} if the given descriptor
+	 * denotes neither a primitive type nor a primitive wrapper
+	 */
+	public static String toPrimitiveDescriptor(String descriptor) {
+		if (isPrimitive(descriptor)) {
+			return descriptor;
+		}
+		for (String[] boxing : BOXING) {
+			if (("L" + boxing[1] + ";").equals(descriptor)) {
+				return boxing[0];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determine whether a value of the given descriptor can be used as a boolean.
+	 */
+	public static boolean isBooleanCompatible(String descriptor) {
+		return "Z".equals(toPrimitiveDescriptor(descriptor));
+	}
+
+	/**
+	 * Box the primitive value on top of the stack, if necessary.
+	 * @param descriptor the descriptor of the value on top of the stack
+	 */
+	public static void insertBoxIfNecessary(MethodVisitor mv, String descriptor) {
+		if (isPrimitive(descriptor)) {
+			String[] boxing = getBoxing(descriptor);
+			mv.visitMethodInsn(Opcodes.INVOKESTATIC, boxing[1], "valueOf",
+					"(" + descriptor + ")L" + boxing[1] + ";");
+		}
+	}
+
+	/**
+	 * Unbox the wrapper value on top of the stack, if necessary.
+	 * @param descriptor the descriptor of the value on top of the stack
+	 */
+	public static void insertUnboxIfNecessary(MethodVisitor mv, String descriptor) {
+		String primitive = toPrimitiveDescriptor(descriptor);
+		if (primitive != null && !isPrimitive(descriptor)) {
+			String[] boxing = getBoxing(primitive);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxing[1], boxing[2], "()" + primitive);
+		}
+	}
+
+	/**
+	 * Cast the reference value on top of the stack to the type with the given descriptor.
+	 */
+	public static void insertCheckCast(MethodVisitor mv, String descriptor) {
+		if (descriptor.startsWith("[")) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, descriptor);
+		}
+		else if (descriptor.startsWith("L") && !"Ljava/lang/Object;".equals(descriptor)) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, descriptor.substring(1, descriptor.length() - 1));
+		}
+	}
+
+	/**
+	 * Determine whether a value with the given descriptor can be converted to
+	 * the given target type through boxing, unboxing or a cast.
+	 */
+	public static boolean isConvertible(String descriptor, Class<?> targetType) {
+		if (descriptor == null || "V".equals(descriptor)) {
+			return false;
+		}
+		if (targetType.isPrimitive()) {
+			return toDescriptor(targetType).equals(toPrimitiveDescriptor(descriptor));
+		}
+		if (isPrimitive(descriptor)) {
+			Class<?> wrapper = ClassUtils.resolvePrimitiveIfNecessary(
+					ClassUtils.resolvePrimitiveClassName(Type.getType(descriptor).getClassName()));
+			return targetType.isAssignableFrom(wrapper);
+		}
+		return true;
+	}
+
+	/**
+	 * Convert the value on top of the stack to the given target type.
+	 * @param descriptor the descriptor of the value on top of the stack
+	 * @see #isConvertible
+	 */
+	public static void insertConversion(MethodVisitor mv, String descriptor, Class<?> targetType) {
+		String targetDescriptor = toDescriptor(targetType);
+		if (targetDescriptor.equals(descriptor)) {
+			return;
+		}
+		if (targetType.isPrimitive()) {
+			insertUnboxIfNecessary(mv, descriptor);
+		}
+		else if (isPrimitive(descriptor)) {
+			insertBoxIfNecessary(mv, descriptor);
+		}
+		else {
+			insertCheckCast(mv, targetDescriptor);
+		}
+	}
+
+	private static String[] getBoxing(String primitiveDescriptor) {
+		for (String[] boxing : BOXING) {
+			if (boxing[0].equals(primitiveDescriptor)) {
+				return boxing;
+			}
+		}
+		throw new IllegalArgumentException("Not a primitive descriptor: " + primitiveDescriptor);
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import org.springframework.asm.MethodVisitor;
+import org.springframework.expression.PropertyAccessor;
+
+/**
+ * A compilable property accessor is able to generate bytecode that represents
+ * the access operation, facilitating compilation to bytecode of expressions
+ * that use the accessor.
+ *
+ * @since 3.2.7
+ */
+public interface CompilablePropertyAccessor extends PropertyAccessor {
+
+	/**
+	 * Return {@code true} if this property accessor is currently suitable for compilation.
+	 */
+	boolean isCompilable();
+
+	/**
+	 * Return the type of the accessed property.
+	 */
+	Class<?> getPropertyType();
+
+	/**
+	 * Generate the bytecode that performs the access operation into the specified
+	 * MethodVisitor, using context information from the codeflow to determine
+	 * whether the target object is already on the stack or the root object
+	 * needs to be loaded first.
+	 * @param propertyName the name of the property
+	 * @param mv the Asm method visitor into which code should be generated
+	 * @param codeflow the current state of the expression compiler
+	 */
+	void generateCode(String propertyName, MethodVisitor mv, CodeFlow codeflow);
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+/**
+ * Captures the possible configuration settings for a compiler that can be
+ * used when evaluating expressions.
+ *
+ * @since 3.2.7
+ * @see SpelParserConfiguration#getCompilerMode()
+ */
+public enum SpelCompilerMode {
+
+	/**
+	 * The compiler is switched off; this is the default.
+	 */
+	OFF,
+
+	/**
+	 * In immediate mode, expressions are compiled as soon as possible, i.e. after
+	 * their first interpreted evaluation. If a compiled expression fails, an
+	 * exception is thrown to the caller.
+	 */
+	IMMEDIATE,
+
+	/**
+	 * In mixed mode, expressions silently switch between interpreted and compiled
+	 * evaluation over time. After a number of interpreted runs they are compiled,
+	 * and if the compiled form later fails (for example because a type has changed),
+	 * the expression switches back to interpretation and may be recompiled.
+	 */
+	MIXED
+
+}
@@ -110,7 +110,8 @@ public enum SpelMessage {
 	NOT_ASSIGNABLE(Kind.ERROR,1068,"the expression component ''{0}'' is not assignable"), //
 	MISSING_CHARACTER(Kind.ERROR,1069,"missing expected character ''{0}''"),
 	LEFT_OPERAND_PROBLEM(Kind.ERROR,1070, "Problem parsing left operand"),
-	MISSING_SELECTION_EXPRESSION(Kind.ERROR, 1071, "A required selection expression has not been specified");
+	MISSING_SELECTION_EXPRESSION(Kind.ERROR, 1071, "A required selection expression has not been specified"), //
+	EXCEPTION_RUNNING_COMPILED_EXPRESSION(Kind.ERROR, 1072, "An exception occurred whilst evaluating a compiled expression");
 
 	private Kind kind;
 	private int code;
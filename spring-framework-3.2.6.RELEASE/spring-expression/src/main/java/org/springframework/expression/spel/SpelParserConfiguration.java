@@ -26,6 +26,32 @@ package org.springframework.expression.spel;
  */
 public class SpelParserConfiguration {
 
+	/**
+	 * System property that determines the default compiler mode, for all
+	 * configurations that do not specify one explicitly: "spring.expression.compiler.mode".
+	 * Accepts the names of the {@link SpelCompilerMode} constants (case-insensitive).
+	 */
+	public static final String SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME = "spring.expression.compiler.mode";
+
+	private static final SpelCompilerMode defaultCompilerMode;
+
+	static {
+		String compilerMode = null;
+		try {
+			compilerMode = System.getProperty(SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME);
+		}
+		catch (SecurityException ex) {
+			// Not allowed to read the system property - stick with OFF
+		}
+		defaultCompilerMode = (compilerMode != null ?
+				SpelCompilerMode.valueOf(compilerMode.trim().toUpperCase()) : SpelCompilerMode.OFF);
+	}
+
+
+	private final SpelCompilerMode compilerMode;
+
+	private final ClassLoader compilerClassLoader;
+
 	private final boolean autoGrowNullReferences;
 
 	private final boolean autoGrowCollections;
@@ -50,12 +76,60 @@ public class SpelParserConfiguration {
 	 * @param maximumAutoGrowSize the maximum size that the collection can auto grow
 	 */
 	public SpelParserConfiguration(boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize) {
+		this(null, null, autoGrowNullReferences, autoGrowCollections, maximumAutoGrowSize);
+	}
+
+	/**
+	 * Create a new {@link SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode for parsers using this configuration
+	 * (may be {@code null} to use the default mode)
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression
+	 * compilation (may be {@code null} to use the default ClassLoader)
+	 * @since 3.2.7
+	 */
+	public SpelParserConfiguration(SpelCompilerMode compilerMode, ClassLoader compilerClassLoader) {
+		this(compilerMode, compilerClassLoader, false, false, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a new {@link SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode for parsers using this configuration
+	 * (may be {@code null} to use the default mode)
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression
+	 * compilation (may be {@code null} to use the default ClassLoader)
+	 * @param autoGrowNullReferences if null references should automatically grow
+	 * @param autoGrowCollections if collections should automatically grow
+	 * @param maximumAutoGrowSize the maximum size that the collection can auto grow
+	 * @since 3.2.7
+	 */
+	public SpelParserConfiguration(SpelCompilerMode compilerMode, ClassLoader compilerClassLoader,
+			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize) {
+
+		this.compilerMode = (compilerMode != null ? compilerMode : defaultCompilerMode);
+		this.compilerClassLoader = compilerClassLoader;
 		this.autoGrowNullReferences = autoGrowNullReferences;
 		this.autoGrowCollections = autoGrowCollections;
 		this.maximumAutoGrowSize = maximumAutoGrowSize;
 	}
 
 
+	/**
+	 * @return the compiler mode for parsers using this configuration
+	 * @since 3.2.7
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return this.compilerMode;
+	}
+
+	/**
+	 * @return the ClassLoader to use as the basis for expression compilation,
+	 * or {@code null} for the default ClassLoader
+	 * @since 3.2.7
+	 */
+	public ClassLoader getCompilerClassLoader() {
+		return this.compilerClassLoader;
+	}
+
 	/**
 	 * @return {@code true} if {@code null} references should be automatically grown
 	 */
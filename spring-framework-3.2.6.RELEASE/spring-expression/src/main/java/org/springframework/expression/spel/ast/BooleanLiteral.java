@@ -15,6 +15,9 @@
  */
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.support.BooleanTypedValue;
 
 /**
@@ -30,6 +33,7 @@ public class BooleanLiteral extends Literal {
 	public BooleanLiteral(String payload, int pos, boolean value) {
 		super(payload, pos);
 		this.value = BooleanTypedValue.forValue(value);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -37,4 +41,10 @@ public class BooleanLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitInsn(this.value == BooleanTypedValue.TRUE ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,8 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 
@@ -92,6 +94,35 @@ public class CompoundExpression extends SpelNodeImpl {
 		return getValueRef(state).isWritable();
 	}
 
+	@Override
+	public String getExitDescriptor() {
+		return this.children[this.children.length - 1].getExitDescriptor();
+	}
+
+	/**
+	 * A compound expression is compilable if all of its pieces are. The pieces
+	 * after the first need to be property or method references, operating on
+	 * the value of the preceding piece.
+	 */
+	@Override
+	public boolean isCompilable() {
+		for (int i = 0; i < this.children.length; i++) {
+			SpelNodeImpl child = this.children[i];
+			if (!child.isCompilable() || (i > 0 &&
+					!(child instanceof PropertyOrFieldReference || child instanceof MethodReference))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		for (SpelNodeImpl child : this.children) {
+			child.generateCode(mv, codeflow);
+		}
+	}
+
 	@Override
 	public String toStringAST() {
 		StringBuilder sb = new StringBuilder();
@@ -15,7 +15,9 @@
  */
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Expression language AST node that represents a float literal.
@@ -29,10 +31,18 @@ public class FloatLiteral extends Literal {
 	FloatLiteral(String payload, int pos, float value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "F";
 	}
 
 	@Override
 	public TypedValue getLiteralValue() {
 		return this.value;
 	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitLdcInsn(this.value.getValue());
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
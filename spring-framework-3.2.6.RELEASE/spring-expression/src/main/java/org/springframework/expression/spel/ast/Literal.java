@@ -49,6 +49,11 @@ public abstract class Literal extends SpelNodeImpl {
 		return getLiteralValue();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		return getLiteralValue().getValue().toString();
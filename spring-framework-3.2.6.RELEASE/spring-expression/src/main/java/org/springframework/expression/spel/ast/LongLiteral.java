@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Expression language AST node that represents a long integer literal.
@@ -31,6 +33,7 @@ public class LongLiteral extends Literal {
 	LongLiteral(String payload, int pos, long value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "J";
 	}
 
 	@Override
@@ -38,4 +41,10 @@ public class LongLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitLdcInsn(this.value.getValue());
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
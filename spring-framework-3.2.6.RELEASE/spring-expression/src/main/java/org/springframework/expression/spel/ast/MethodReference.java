@@ -17,10 +17,15 @@
 package org.springframework.expression.spel.ast;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
@@ -29,9 +34,11 @@ import org.springframework.expression.ExpressionInvocationTargetException;
 import org.springframework.expression.MethodExecutor;
 import org.springframework.expression.MethodResolver;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.support.ReflectiveMethodExecutor;
 import org.springframework.expression.spel.support.ReflectiveMethodResolver;
 
 /**
@@ -92,7 +99,9 @@ public class MethodReference extends SpelNodeImpl {
 		MethodExecutor executorToUse = getCachedExecutor(evaluationContext, value, targetType, argumentTypes);
 		if (executorToUse != null) {
 			try {
-				return executorToUse.execute(evaluationContext, value, arguments);
+				TypedValue result = executorToUse.execute(evaluationContext, value, arguments);
+				updateExitTypeDescriptor(executorToUse);
+				return result;
 			}
 			catch (AccessException ae) {
 				// Two reasons this can occur:
@@ -119,7 +128,9 @@ public class MethodReference extends SpelNodeImpl {
 		this.cachedExecutor = new CachedMethodExecutor(
 				executorToUse, (value instanceof Class ? (Class<?>) value : null), targetType, argumentTypes);
 		try {
-			return executorToUse.execute(evaluationContext, value, arguments);
+			TypedValue result = executorToUse.execute(evaluationContext, value, arguments);
+			updateExitTypeDescriptor(executorToUse);
+			return result;
 		}
 		catch (AccessException ex) {
 			// Same unwrapping exception handling as above in above catch block
@@ -130,6 +141,11 @@ public class MethodReference extends SpelNodeImpl {
 		}
 	}
 
+	private void updateExitTypeDescriptor(MethodExecutor executor) {
+		this.exitTypeDescriptor = (executor instanceof ReflectiveMethodExecutor ?
+				CodeFlow.toDescriptor(((ReflectiveMethodExecutor) executor).getMethod().getReturnType()) : null);
+	}
+
 	private void throwIfNotNullSafe(List<TypeDescriptor> argumentTypes) {
 		if (!this.nullSafe) {
 			throw new SpelEvaluationException(getStartPosition(),
@@ -221,6 +237,70 @@ public class MethodReference extends SpelNodeImpl {
 		}
 	}
 
+	/**
+	 * A method reference is compilable if it was last resolved to a public instance
+	 * method of a public class, invoked without varargs or argument conversion, and
+	 * if all argument expressions are compilable.
+	 */
+	@Override
+	public boolean isCompilable() {
+		CachedMethodExecutor executorToCheck = this.cachedExecutor;
+		if (this.nullSafe || this.exitTypeDescriptor == null || executorToCheck == null ||
+				executorToCheck.staticClass != null || !(executorToCheck.get() instanceof ReflectiveMethodExecutor)) {
+			return false;
+		}
+		ReflectiveMethodExecutor executor = (ReflectiveMethodExecutor) executorToCheck.get();
+		Method method = executor.getMethod();
+		if (executor.isArgumentConversionRequired() || method.isVarArgs() ||
+				Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers()) ||
+				!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			return false;
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		if (parameterTypes.length != this.children.length) {
+			return false;
+		}
+		for (int i = 0; i < this.children.length; i++) {
+			SpelNodeImpl child = this.children[i];
+			if (!child.isCompilable() || !CodeFlow.isConvertible(child.getExitDescriptor(), parameterTypes[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		Method method = ((ReflectiveMethodExecutor) this.cachedExecutor.get()).getMethod();
+		Class<?> declaringClass = method.getDeclaringClass();
+		String owner = Type.getInternalName(declaringClass);
+		String descriptor = codeflow.lastDescriptor();
+		if (descriptor == null) {
+			codeflow.loadTarget(mv);
+		}
+		else {
+			CodeFlow.insertBoxIfNecessary(mv, descriptor);
+		}
+		if (!CodeFlow.toDescriptor(declaringClass).equals(descriptor)) {
+			mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+		}
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < this.children.length; i++) {
+			// Arguments are evaluated against the root object
+			String argumentDescriptor = generateCodeForOperand(this.children[i], mv, codeflow);
+			CodeFlow.insertConversion(mv, argumentDescriptor, parameterTypes[i]);
+		}
+		mv.visitMethodInsn((declaringClass.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL),
+				owner, method.getName(), Type.getMethodDescriptor(method));
+		if (void.class.equals(method.getReturnType())) {
+			mv.visitInsn(Opcodes.ACONST_NULL);
+			codeflow.pushDescriptor("Ljava/lang/Object;");
+		}
+		else {
+			codeflow.pushDescriptor(CodeFlow.toDescriptor(method.getReturnType()));
+		}
+	}
+
 	@Override
 	public String toStringAST() {
 		StringBuilder sb = new StringBuilder();
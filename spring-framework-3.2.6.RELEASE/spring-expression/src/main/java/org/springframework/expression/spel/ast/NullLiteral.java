@@ -16,7 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * @author Andy Clement
@@ -26,6 +29,7 @@ public class NullLiteral extends Literal {
 
 	public NullLiteral(int pos) {
 		super(null,pos);
+		this.exitTypeDescriptor = "Ljava/lang/Object;";
 	}
 
 	@Override
@@ -38,4 +42,10 @@ public class NullLiteral extends Literal {
 		return "null";
 	}
 
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitInsn(Opcodes.ACONST_NULL);
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,8 +16,12 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -35,6 +39,7 @@ public class OpAnd extends Operator {
 
 	public OpAnd(int pos, SpelNodeImpl... operands) {
 		super("and", pos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -64,4 +69,28 @@ public class OpAnd extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl left = getLeftOperand();
+		SpelNodeImpl right = getRightOperand();
+		return (left.isCompilable() && right.isCompilable() &&
+				CodeFlow.isBooleanCompatible(left.getExitDescriptor()) &&
+				CodeFlow.isBooleanCompatible(right.getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		// Only evaluate the right operand if the left one is true
+		Label evaluateRight = new Label();
+		Label end = new Label();
+		CodeFlow.insertUnboxIfNecessary(mv, generateCodeForOperand(getLeftOperand(), mv, codeflow));
+		mv.visitJumpInsn(Opcodes.IFNE, evaluateRight);
+		mv.visitInsn(Opcodes.ICONST_0);
+		mv.visitJumpInsn(Opcodes.GOTO, end);
+		mv.visitLabel(evaluateRight);
+		CodeFlow.insertUnboxIfNecessary(mv, generateCodeForOperand(getRightOperand(), mv, codeflow));
+		mv.visitLabel(end);
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
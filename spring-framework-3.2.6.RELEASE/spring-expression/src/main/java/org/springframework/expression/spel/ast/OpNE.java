@@ -16,7 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.support.BooleanTypedValue;
 
@@ -30,6 +33,7 @@ public class OpNE extends Operator {
 
 	public OpNE(int pos, SpelNodeImpl... operands) {
 		super("!=", pos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -57,4 +61,14 @@ public class OpNE extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (getCompilableNumericDescriptor("IJFD") != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		generateComparisonCode(mv, codeflow, Opcodes.IFNE);
+	}
+
 }
@@ -16,7 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -34,6 +38,7 @@ public class OpOr extends Operator {
 
 	public OpOr(int pos, SpelNodeImpl... operands) {
 		super("or", pos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -63,4 +68,28 @@ public class OpOr extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl left = getLeftOperand();
+		SpelNodeImpl right = getRightOperand();
+		return (left.isCompilable() && right.isCompilable() &&
+				CodeFlow.isBooleanCompatible(left.getExitDescriptor()) &&
+				CodeFlow.isBooleanCompatible(right.getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		// Only evaluate the right operand if the left one is false
+		Label evaluateRight = new Label();
+		Label end = new Label();
+		CodeFlow.insertUnboxIfNecessary(mv, generateCodeForOperand(getLeftOperand(), mv, codeflow));
+		mv.visitJumpInsn(Opcodes.IFEQ, evaluateRight);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitJumpInsn(Opcodes.GOTO, end);
+		mv.visitLabel(evaluateRight);
+		CodeFlow.insertUnboxIfNecessary(mv, generateCodeForOperand(getRightOperand(), mv, codeflow));
+		mv.visitLabel(end);
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,11 +16,14 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypeConverter;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.util.Assert;
 
@@ -41,6 +44,8 @@ import org.springframework.util.Assert;
  */
 public class OpPlus extends Operator {
 
+	private static final String STRING_DESCRIPTOR = "Ljava/lang/String;";
+
 	public OpPlus(int pos, SpelNodeImpl... operands) {
 		super("+", pos, operands);
 		Assert.notEmpty(operands);
@@ -114,6 +119,75 @@ public class OpPlus extends Operator {
 		return children[1];
 	}
 
+	/**
+	 * The result type follows from the operand types: numbers of the same kind
+	 * add up to that kind, and two Strings are concatenated.
+	 */
+	@Override
+	public String getExitDescriptor() {
+		String numeric = getCompilableNumericDescriptor("IJFD");
+		if (numeric != null) {
+			return numeric;
+		}
+		if (getChildCount() == 2 && STRING_DESCRIPTOR.equals(getLeftOperand().getExitDescriptor()) &&
+				STRING_DESCRIPTOR.equals(getRightOperand().getExitDescriptor())) {
+			return STRING_DESCRIPTOR;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isCompilable() {
+		String descriptor = getExitDescriptor();
+		if (STRING_DESCRIPTOR.equals(descriptor)) {
+			// The interpreter refuses to concatenate two null Strings
+			return (getLeftOperand().isCompilable() && getRightOperand().isCompilable() &&
+					(isNonNullString(getLeftOperand()) || isNonNullString(getRightOperand())));
+		}
+		return (descriptor != null);
+	}
+
+	private boolean isNonNullString(SpelNodeImpl operand) {
+		return (operand instanceof StringLiteral ||
+				(operand instanceof OpPlus && STRING_DESCRIPTOR.equals(operand.getExitDescriptor())));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		String descriptor = getExitDescriptor();
+		if (STRING_DESCRIPTOR.equals(descriptor)) {
+			mv.visitTypeInsn(Opcodes.NEW, "java/lang/StringBuilder");
+			mv.visitInsn(Opcodes.DUP);
+			mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V");
+			generateCodeForOperand(getLeftOperand(), mv, codeflow);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+					"(Ljava/lang/String;)Ljava/lang/StringBuilder;");
+			generateCodeForOperand(getRightOperand(), mv, codeflow);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+					"(Ljava/lang/String;)Ljava/lang/StringBuilder;");
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;");
+		}
+		else {
+			descriptor = generateNumericOperandsCode(mv, codeflow);
+			if ("I".equals(descriptor)) {
+				mv.visitInsn(Opcodes.IADD);
+			}
+			else if ("J".equals(descriptor)) {
+				mv.visitInsn(Opcodes.LADD);
+			}
+			else if ("F".equals(descriptor)) {
+				mv.visitInsn(Opcodes.FADD);
+			}
+			else if ("D".equals(descriptor)) {
+				mv.visitInsn(Opcodes.DADD);
+			}
+			else {
+				throw new IllegalStateException("Unsupported operand type for '+': " + descriptor);
+			}
+		}
+		codeflow.pushDescriptor(descriptor);
+	}
+
 	/**
 	 * Convert operand value to string using registered converter or using
 	 * {@code toString} method.
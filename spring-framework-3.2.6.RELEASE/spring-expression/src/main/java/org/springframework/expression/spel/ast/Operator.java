@@ -16,6 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Common supertype for operators that operate on either one or two operands. In the case of multiply or divide there
@@ -45,6 +49,75 @@ public abstract class Operator extends SpelNodeImpl {
 		return operatorName;
 	}
 
+	/**
+	 * Return the primitive descriptor shared by both operands, provided that both
+	 * are compilable and produce numbers of the same supported kind.
+	 * @param supportedDescriptors the supported primitive descriptors, e.g. "IJFD"
+	 * @return the common descriptor, or {@code null} if there is none
+	 */
+	protected String getCompilableNumericDescriptor(String supportedDescriptors) {
+		if (getChildCount() != 2 || !getLeftOperand().isCompilable() || !getRightOperand().isCompilable()) {
+			return null;
+		}
+		String left = CodeFlow.toPrimitiveDescriptor(getLeftOperand().getExitDescriptor());
+		String right = CodeFlow.toPrimitiveDescriptor(getRightOperand().getExitDescriptor());
+		if (left == null || !left.equals(right) || !supportedDescriptors.contains(left)) {
+			return null;
+		}
+		return left;
+	}
+
+	/**
+	 * Generate code that loads both operands as primitives of the same kind.
+	 * @return the primitive descriptor of the operands
+	 */
+	protected String generateNumericOperandsCode(MethodVisitor mv, CodeFlow codeflow) {
+		String left = generateCodeForOperand(getLeftOperand(), mv, codeflow);
+		CodeFlow.insertUnboxIfNecessary(mv, left);
+		String right = generateCodeForOperand(getRightOperand(), mv, codeflow);
+		CodeFlow.insertUnboxIfNecessary(mv, right);
+		String descriptor = CodeFlow.toPrimitiveDescriptor(left);
+		if (descriptor == null || !descriptor.equals(CodeFlow.toPrimitiveDescriptor(right))) {
+			throw new IllegalStateException("Operands of '" + this.operatorName + "' are not of the same numeric type");
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Generate code that compares both (numeric) operands, leaving a boolean on the stack.
+	 * @param compInstruction the single-operand jump instruction ({@code IFEQ},
+	 * {@code IFGT} etc.) that corresponds to the operator
+	 */
+	protected void generateComparisonCode(MethodVisitor mv, CodeFlow codeflow, int compInstruction) {
+		String descriptor = generateNumericOperandsCode(mv, codeflow);
+		Label trueLabel = new Label();
+		Label endLabel = new Label();
+		if ("I".equals(descriptor)) {
+			// IF_ICMPxx instructions are laid out in the same order as IFxx
+			mv.visitJumpInsn(compInstruction - Opcodes.IFEQ + Opcodes.IF_ICMPEQ, trueLabel);
+		}
+		else {
+			// NaN makes the comparison false, except for !=
+			boolean nanIsGreater = (compInstruction == Opcodes.IFLT || compInstruction == Opcodes.IFLE);
+			if ("J".equals(descriptor)) {
+				mv.visitInsn(Opcodes.LCMP);
+			}
+			else if ("F".equals(descriptor)) {
+				mv.visitInsn(nanIsGreater ? Opcodes.FCMPG : Opcodes.FCMPL);
+			}
+			else {
+				mv.visitInsn(nanIsGreater ? Opcodes.DCMPG : Opcodes.DCMPL);
+			}
+			mv.visitJumpInsn(compInstruction, trueLabel);
+		}
+		mv.visitInsn(Opcodes.ICONST_0);
+		mv.visitJumpInsn(Opcodes.GOTO, endLabel);
+		mv.visitLabel(trueLabel);
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitLabel(endLabel);
+		codeflow.pushDescriptor("Z");
+	}
+
 	/**
 	 * String format for all operators is the same '(' [operand] [operator] [operand] ')'
 	 */
@@ -16,7 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -34,6 +37,7 @@ public class OperatorNot extends SpelNodeImpl { // Not is a unary operator so do
 
 	public OperatorNot(int pos, SpelNodeImpl operand) {
 		super(pos, operand);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -58,4 +62,18 @@ public class OperatorNot extends SpelNodeImpl { // Not is a unary operator so do
 		return sb.toString();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		SpelNodeImpl operand = this.children[0];
+		return (operand.isCompilable() && CodeFlow.isBooleanCompatible(operand.getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		CodeFlow.insertUnboxIfNecessary(mv, generateCodeForOperand(this.children[0], mv, codeflow));
+		mv.visitInsn(Opcodes.ICONST_1);
+		mv.visitInsn(Opcodes.IXOR);
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
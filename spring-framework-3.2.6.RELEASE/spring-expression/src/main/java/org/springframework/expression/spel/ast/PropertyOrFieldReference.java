@@ -21,12 +21,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -163,6 +166,20 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		return this.name;
 	}
 
+	@Override
+	public boolean isCompilable() {
+		PropertyAccessor accessor = this.cachedReadAccessor;
+		return (!this.nullSafe && this.exitTypeDescriptor != null && accessor instanceof CompilablePropertyAccessor &&
+				((CompilablePropertyAccessor) accessor).isCompilable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		CompilablePropertyAccessor accessor = (CompilablePropertyAccessor) this.cachedReadAccessor;
+		accessor.generateCode(this.name, mv, codeflow);
+		codeflow.pushDescriptor(CodeFlow.toDescriptor(accessor.getPropertyType()));
+	}
+
 	/**
 	 * Attempt to read the named property from the current context object.
 	 * @return the value of the property
@@ -177,7 +194,9 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		PropertyAccessor accessorToUse = this.cachedReadAccessor;
 		if (accessorToUse != null) {
 			try {
-				return accessorToUse.read(eContext, contextObject.getValue(), name);
+				TypedValue result = accessorToUse.read(eContext, contextObject.getValue(), name);
+				updateExitTypeDescriptor(accessorToUse);
+				return result;
 			}
 			catch (AccessException ae) {
 				// this is OK - it may have gone stale due to a class change,
@@ -201,7 +220,9 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 									eContext, contextObject.getValue(), name);
 						}
 						this.cachedReadAccessor = accessor;
-						return accessor.read(eContext, contextObject.getValue(), name);
+						TypedValue result = accessor.read(eContext, contextObject.getValue(), name);
+						updateExitTypeDescriptor(accessor);
+						return result;
 					}
 				}
 			}
@@ -218,6 +239,11 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		}
 	}
 
+	private void updateExitTypeDescriptor(PropertyAccessor accessor) {
+		this.exitTypeDescriptor = (accessor instanceof CompilablePropertyAccessor ?
+				CodeFlow.toDescriptor(((CompilablePropertyAccessor) accessor).getPropertyType()) : null);
+	}
+
 	private void writeProperty(TypedValue contextObject, EvaluationContext eContext, String name, Object newValue) throws SpelEvaluationException {
 		if (contextObject.getValue() == null && this.nullSafe) {
 			return;
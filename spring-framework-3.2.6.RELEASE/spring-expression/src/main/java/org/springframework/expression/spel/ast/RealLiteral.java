@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * @author Andy Clement
@@ -29,6 +31,7 @@ public class RealLiteral extends Literal {
 	public RealLiteral(String payload, int pos, double value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "D";
 	}
 
 	@Override
@@ -36,4 +39,10 @@ public class RealLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitLdcInsn(this.value.getValue());
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,9 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -40,6 +42,13 @@ public abstract class SpelNodeImpl implements SpelNode {
 	protected SpelNodeImpl[] children = SpelNodeImpl.NO_CHILDREN;
 	private SpelNodeImpl parent;
 
+	/**
+	 * Descriptor of the type of value this node produced on its last evaluation,
+	 * as used when compiling the expression (e.g. {@code I} or {@code Ljava/lang/String;}).
+	 * {@code null} if unknown, in which case the node cannot be compiled.
+	 */
+	protected volatile String exitTypeDescriptor;
+
 	public SpelNodeImpl(int pos, SpelNodeImpl... operands) {
 		this.pos = pos;
 		// pos combines start and end so can never be zero because tokens cannot be zero length
@@ -149,4 +158,54 @@ public abstract class SpelNodeImpl implements SpelNode {
 	protected ValueRef getValueRef(ExpressionState state) throws EvaluationException {
 		throw new SpelEvaluationException(pos,SpelMessage.NOT_ASSIGNABLE,toStringAST());
 	}
+
+	/**
+	 * Return the descriptor of the type of value this node produced on its last
+	 * evaluation, or {@code null} if not known.
+	 * @since 3.2.7
+	 */
+	public String getExitDescriptor() {
+		return this.exitTypeDescriptor;
+	}
+
+	/**
+	 * Determine whether this node, in its current state, can be compiled to bytecode.
+	 * Evaluating the node may change the outcome, since the types that are involved
+	 * are only known once the node has been interpreted.
+	 * <p>The default implementation returns {@code false}.
+	 * @since 3.2.7
+	 * @see #generateCode
+	 */
+	public boolean isCompilable() {
+		return false;
+	}
+
+	/**
+	 * Generate the bytecode for this node into the supplied visitor, recording the
+	 * type of the resulting stack value in the given {@link CodeFlow}.
+	 * Only called if {@link #isCompilable()} returned {@code true}.
+	 * @param mv the method visitor into which code should be generated
+	 * @param codeflow the current state of the expression compiler
+	 * @since 3.2.7
+	 */
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		throw new IllegalStateException(getClass().getName() + " has no generateCode(..) method");
+	}
+
+	/**
+	 * Generate the code for the given child node in a scope of its own,
+	 * i.e. operating on the root object, leaving its value on the stack.
+	 * @return the descriptor of the child's value
+	 */
+	protected static String generateCodeForOperand(SpelNodeImpl operand, MethodVisitor mv, CodeFlow codeflow) {
+		codeflow.enterCompilationScope();
+		try {
+			operand.generateCode(mv, codeflow);
+			return codeflow.lastDescriptor();
+		}
+		finally {
+			codeflow.exitCompilationScope();
+		}
+	}
+
 }
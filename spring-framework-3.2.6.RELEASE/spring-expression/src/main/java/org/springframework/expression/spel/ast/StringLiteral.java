@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * @author Andy Clement
@@ -32,6 +34,7 @@ public class StringLiteral extends Literal {
 		// TODO should these have been skipped being created by the parser rules? or not?
 		value = value.substring(1, value.length() - 1);
 		this.value = new TypedValue(value.replaceAll("''", "'").replaceAll("\"\"", "\""));
+		this.exitTypeDescriptor = "Ljava/lang/String;";
 	}
 
 	@Override
@@ -44,4 +47,10 @@ public class StringLiteral extends Literal {
 		return "'" + getLiteralValue().getValue() + "'";
 	}
 
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow codeflow) {
+		mv.visitLdcInsn(this.value.getValue());
+		codeflow.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,13 +16,21 @@
 
 package org.springframework.expression.spel.standard;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.CompiledExpression;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.SpelNode;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.ast.SpelNodeImpl;
@@ -35,11 +43,22 @@ import org.springframework.util.Assert;
  * standalone or in a specified context. During expression evaluation the context
  * may be asked to resolve references to types, beans, properties, and methods.
  *
+ * <p>Depending on the {@link SpelParserConfiguration#getCompilerMode() compiler mode},
+ * an expression gets compiled to bytecode once it has been interpreted and all of
+ * its nodes are known to be compilable, see {@link SpelCompiler}.
+ *
  * @author Andy Clement
  * @since 3.0
  */
 public class SpelExpression implements Expression {
 
+	// Number of interpreted runs after which the expression is compiled in MIXED mode
+	static final int INTERPRETED_COUNT_THRESHOLD = 100;
+
+	// Number of failed compilation attempts after which compilation is no longer tried
+	static final int FAILED_ATTEMPTS_THRESHOLD = 100;
+
+
 	private final String expression;
 
 	private final SpelNodeImpl ast;
@@ -49,6 +68,17 @@ public class SpelExpression implements Expression {
 	// the default context is used if no override is supplied by the user
 	private EvaluationContext defaultContext;
 
+	// holds the compiled form of the expression (if it has been compiled)
+	private volatile CompiledState compiledState;
+
+	// count of how many times the expression has been interpreted - can trigger
+	// compilation when a certain limit is reached
+	private final AtomicInteger interpretedCount = new AtomicInteger();
+
+	// the number of times compilation was attempted and failed - enables us to eventually
+	// give up trying to compile it when it just doesn't seem to be possible
+	private final AtomicInteger failedAttempts = new AtomicInteger();
+
 
 	/**
 	 * Construct an expression, only used by the parser.
@@ -63,44 +93,140 @@ public class SpelExpression implements Expression {
 	// implementing Expression
 
 	public Object getValue() throws EvaluationException {
-		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), configuration);
-		return ast.getValue(expressionState);
+		EvaluationContext context = getEvaluationContext();
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				return compiled.expression.getValue(context.getRootObject().getValue(), context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile(expressionState);
+		return result;
 	}
 
 	public Object getValue(Object rootObject) throws EvaluationException {
-		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), toTypedValue(rootObject), configuration);
-		return ast.getValue(expressionState);
+		EvaluationContext context = getEvaluationContext();
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				return compiled.expression.getValue(rootObject, context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile(expressionState);
+		return result;
 	}
 
 	public <T> T getValue(Class<T> expectedResultType) throws EvaluationException {
-		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), configuration);
+		EvaluationContext context = getEvaluationContext();
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				Object result = compiled.expression.getValue(context.getRootObject().getValue(), context);
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
 		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile(expressionState);
 		return ExpressionUtils.convertTypedValue(expressionState.getEvaluationContext(), typedResultValue, expectedResultType);
 	}
 
 	public <T> T getValue(Object rootObject, Class<T> expectedResultType) throws EvaluationException {
-		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), toTypedValue(rootObject), configuration);
+		EvaluationContext context = getEvaluationContext();
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				Object result = compiled.expression.getValue(rootObject, context);
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
 		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile(expressionState);
 		return ExpressionUtils.convertTypedValue(expressionState.getEvaluationContext(), typedResultValue, expectedResultType);
 	}
 
 	public Object getValue(EvaluationContext context) throws EvaluationException {
 		Assert.notNull(context, "The EvaluationContext is required");
-		return ast.getValue(new ExpressionState(context, configuration));
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				return compiled.expression.getValue(context.getRootObject().getValue(), context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile(expressionState);
+		return result;
 	}
 
 	public Object getValue(EvaluationContext context, Object rootObject) throws EvaluationException {
 		Assert.notNull(context, "The EvaluationContext is required");
-		return ast.getValue(new ExpressionState(context, toTypedValue(rootObject), configuration));
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				return compiled.expression.getValue(rootObject, context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile(expressionState);
+		return result;
 	}
 
 	public <T> T getValue(EvaluationContext context, Class<T> expectedResultType) throws EvaluationException {
-		TypedValue typedResultValue = ast.getTypedValue(new ExpressionState(context, configuration));
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				Object result = compiled.expression.getValue(context.getRootObject().getValue(), context);
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
+		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile(expressionState);
 		return ExpressionUtils.convertTypedValue(context, typedResultValue, expectedResultType);
 	}
 
 	public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> expectedResultType) throws EvaluationException {
-		TypedValue typedResultValue = ast.getTypedValue(new ExpressionState(context, toTypedValue(rootObject), configuration));
+		CompiledState compiled = getCompiledState(context);
+		if (compiled != null) {
+			try {
+				Object result = compiled.expression.getValue(rootObject, context);
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(compiled, ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
+		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile(expressionState);
 		return ExpressionUtils.convertTypedValue(context, typedResultValue, expectedResultType);
 	}
 
@@ -180,6 +306,111 @@ public class SpelExpression implements Expression {
 
 	// impl only
 
+	/**
+	 * Perform expression compilation. This will only succeed once exit descriptors for
+	 * all nodes have been determined, i.e. after the expression has been evaluated
+	 * in interpreted mode, and if all nodes are compilable.
+	 * The compiled form is used for subsequent evaluations in evaluation contexts
+	 * with the same kinds of property accessors and method resolvers as the
+	 * default evaluation context of this expression.
+	 * @return {@code true} if the expression was successfully compiled
+	 * @since 3.2.7
+	 */
+	public boolean compileExpression() {
+		return compileExpression(getEvaluationContext());
+	}
+
+	private boolean compileExpression(EvaluationContext context) {
+		if (this.compiledState != null) {
+			// Previously compiled
+			return true;
+		}
+		if (this.failedAttempts.get() > FAILED_ATTEMPTS_THRESHOLD) {
+			// Don't try again
+			return false;
+		}
+		synchronized (this) {
+			if (this.compiledState != null) {
+				// Compiled by another thread before this thread got into the sync block
+				return true;
+			}
+			CompiledExpression compiledAst = null;
+			try {
+				SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
+				compiledAst = compiler.compile(this.ast);
+			}
+			catch (Throwable ex) {
+				// Unexpected trouble during code generation (e.g. a LinkageError) - treat as not compilable
+			}
+			if (compiledAst == null) {
+				this.failedAttempts.incrementAndGet();
+				return false;
+			}
+			this.compiledState = new CompiledState(compiledAst, context);
+			return true;
+		}
+	}
+
+	/**
+	 * Cause an expression to revert to being interpreted if it has been using
+	 * a compiled form. It also resets the compilation attempt failure count
+	 * (an expression is normally no longer considered compilable if it cannot
+	 * be compiled after 100 attempts).
+	 * @since 3.2.7
+	 */
+	public void revertToInterpreted() {
+		this.compiledState = null;
+		this.interpretedCount.set(0);
+		this.failedAttempts.set(0);
+	}
+
+	/**
+	 * Return whether this expression is currently evaluated in its compiled form.
+	 * @since 3.2.7
+	 */
+	public boolean isCompiled() {
+		return (this.compiledState != null);
+	}
+
+	private CompiledState getCompiledState(EvaluationContext context) {
+		CompiledState compiled = this.compiledState;
+		return (compiled != null && compiled.isApplicableTo(context) ? compiled : null);
+	}
+
+	/**
+	 * Compile the expression if it has been interpreted often enough for the
+	 * configured compiler mode.
+	 */
+	private void checkCompile(ExpressionState expressionState) {
+		SpelCompilerMode compilerMode = this.configuration.getCompilerMode();
+		if (compilerMode == SpelCompilerMode.OFF || this.configuration.isAutoGrowNullReferences() ||
+				this.compiledState != null) {
+			return;
+		}
+		int count = this.interpretedCount.incrementAndGet();
+		if (compilerMode == SpelCompilerMode.IMMEDIATE || count > INTERPRETED_COUNT_THRESHOLD) {
+			compileExpression(expressionState.getEvaluationContext());
+		}
+	}
+
+	/**
+	 * Handle a failure of the compiled expression: in MIXED mode, switch back to
+	 * interpretation (the caller then evaluates the expression in interpreted mode);
+	 * otherwise, propagate the failure as a SpelEvaluationException.
+	 */
+	private void handleCompiledFailure(CompiledState compiled, Throwable ex) {
+		if (this.configuration.getCompilerMode() != SpelCompilerMode.MIXED) {
+			throw new SpelEvaluationException(ex, SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION);
+		}
+		synchronized (this) {
+			if (this.compiledState == compiled) {
+				this.compiledState = null;
+				this.interpretedCount.set(0);
+				this.failedAttempts.incrementAndGet();
+			}
+		}
+	}
+
 	/**
 	 * @return return the Abstract Syntax Tree for the expression
 	 */
@@ -225,4 +456,56 @@ public class SpelExpression implements Expression {
 		}
 	}
 
+
+	/**
+	 * The compiled form of an expression, along with the kinds of property accessors
+	 * and method resolvers that the compiled code relies on.
+	 */
+	private static class CompiledState {
+
+		private final CompiledExpression expression;
+
+		private final List<Class<?>> propertyAccessorTypes;
+
+		private final List<Class<?>> methodResolverTypes;
+
+		public CompiledState(CompiledExpression expression, EvaluationContext context) {
+			this.expression = expression;
+			this.propertyAccessorTypes = getTypes(context.getPropertyAccessors());
+			this.methodResolverTypes = getTypes(context.getMethodResolvers());
+		}
+
+		/**
+		 * Determine whether the compiled code can be used in the given context: the
+		 * interpreter could resolve properties or methods differently otherwise.
+		 */
+		public boolean isApplicableTo(EvaluationContext context) {
+			return (hasTypes(context.getPropertyAccessors(), this.propertyAccessorTypes) &&
+					hasTypes(context.getMethodResolvers(), this.methodResolverTypes));
+		}
+
+		private static List<Class<?>> getTypes(List<?> objects) {
+			List<Class<?>> types = new ArrayList<Class<?>>();
+			if (objects != null) {
+				for (Object object : objects) {
+					types.add(object.getClass());
+				}
+			}
+			return types;
+		}
+
+		private static boolean hasTypes(List<?> objects, List<Class<?>> types) {
+			int size = (objects != null ? objects.size() : 0);
+			if (size != types.size()) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (objects.get(i).getClass() != types.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 }
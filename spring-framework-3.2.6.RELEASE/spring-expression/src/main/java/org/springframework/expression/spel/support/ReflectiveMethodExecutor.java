@@ -27,11 +27,15 @@ import org.springframework.expression.TypedValue;
 import org.springframework.util.ReflectionUtils;
 
 /**
+ * {@link MethodExecutor} that invokes a method found by the {@link ReflectiveMethodResolver}.
+ *
+ * <p>Public as of 3.2.7, exposing the resolved method for expression compilation.
+ *
  * @author Andy Clement
  * @author Juergen Hoeller
  * @since 3.0
  */
-class ReflectiveMethodExecutor implements MethodExecutor {
+public class ReflectiveMethodExecutor implements MethodExecutor {
 
 	private final Method method;
 
@@ -55,6 +59,23 @@ class ReflectiveMethodExecutor implements MethodExecutor {
 	}
 
 
+	/**
+	 * Return the method that this executor invokes.
+	 * @since 3.2.7
+	 */
+	public final Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return whether the arguments that this executor was resolved for need to be
+	 * converted in order to invoke the method.
+	 * @since 3.2.7
+	 */
+	public boolean isArgumentConversionRequired() {
+		return (this.argsRequiringConversion != null);
+	}
+
 	public TypedValue execute(EvaluationContext context, Object target, Object... arguments) throws AccessException {
 		try {
 			if (arguments != null) {
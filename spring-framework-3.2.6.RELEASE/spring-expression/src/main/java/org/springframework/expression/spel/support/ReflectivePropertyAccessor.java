@@ -29,6 +29,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
@@ -38,6 +41,8 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -548,7 +553,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 	 * accessor exists because looking up the appropriate reflective object by class/name
 	 * on each read is not cheap.
 	 */
-	private static class OptimalPropertyAccessor implements PropertyAccessor {
+	private static class OptimalPropertyAccessor implements CompilablePropertyAccessor {
 
 		private final Member member;
 
@@ -633,6 +638,51 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 		public void write(EvaluationContext context, Object target, String name, Object newValue) {
 			throw new UnsupportedOperationException("Should not be called on an OptimalPropertyAccessor");
 		}
+
+		public boolean isCompilable() {
+			return (Modifier.isPublic(this.member.getModifiers()) &&
+					Modifier.isPublic(this.member.getDeclaringClass().getModifiers()));
+		}
+
+		public Class<?> getPropertyType() {
+			if (this.member instanceof Field) {
+				return ((Field) this.member).getType();
+			}
+			return ((Method) this.member).getReturnType();
+		}
+
+		public void generateCode(String propertyName, MethodVisitor mv, CodeFlow codeflow) {
+			boolean isStatic = Modifier.isStatic(this.member.getModifiers());
+			String descriptor = codeflow.lastDescriptor();
+			Class<?> declaringClass = this.member.getDeclaringClass();
+			String owner = Type.getInternalName(declaringClass);
+			if (!isStatic) {
+				if (descriptor == null) {
+					codeflow.loadTarget(mv);
+				}
+				else {
+					CodeFlow.insertBoxIfNecessary(mv, descriptor);
+				}
+				if (!CodeFlow.toDescriptor(declaringClass).equals(descriptor)) {
+					mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+				}
+			}
+			else if (descriptor != null) {
+				// The target object left on the stack is not needed for static access
+				mv.visitInsn("J".equals(descriptor) || "D".equals(descriptor) ? Opcodes.POP2 : Opcodes.POP);
+			}
+			if (this.member instanceof Method) {
+				Method method = (Method) this.member;
+				int opcode = (isStatic ? Opcodes.INVOKESTATIC :
+						(declaringClass.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL));
+				mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method));
+			}
+			else {
+				Field field = (Field) this.member;
+				mv.visitFieldInsn((isStatic ? Opcodes.GETSTATIC : Opcodes.GETFIELD), owner,
+						field.getName(), Type.getDescriptor(field.getType()));
+			}
+		}
 	}
 
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the compilation of SpEL expressions to bytecode.
+ */
+public class SpelCompilerTests {
+
+	private final SpelExpressionParser immediateParser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+
+	private final SpelExpressionParser mixedParser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+
+
+	@Test
+	public void literalsAndOperators() {
+		assertCompiledValue(7, "3 + 4", null);
+		assertCompiledValue(3L, "1L + 2L", null);
+		assertCompiledValue(4.0d, "2.5d + 1.5d", null);
+		assertCompiledValue(3.0f, "1.5f + 1.5f", null);
+		assertCompiledValue("ab", "'a' + 'b'", null);
+		assertCompiledValue(null, "null", null);
+		assertCompiledValue(true, "3 > 2 and !(1 == 2)", null);
+		assertCompiledValue(true, "2L >= 2L or 1 < 0", null);
+		assertCompiledValue(false, "1.5d <= 1.0d", null);
+		assertCompiledValue(true, "1.0f != 2.0f", null);
+	}
+
+	@Test
+	public void propertiesAndMethods() {
+		Person person = new Person("Juergen", 42, "Linz");
+		assertCompiledValue("Juergen", "name", person);
+		assertCompiledValue("Linz", "address.city", person);
+		assertCompiledValue(4, "address.city.length()", person);
+		assertCompiledValue(43, "age + 1", person);
+		assertCompiledValue(true, "adult", person);
+		assertCompiledValue("Hello World from Juergen", "greet('World') + ' from ' + name", person);
+		assertCompiledValue(true, "name.startsWith('J') and age > 40", person);
+		assertCompiledValue("Austria", "country", person);
+		assertCompiledValue(null, "reset()", person);
+	}
+
+	@Test
+	public void typedResults() {
+		SpelExpression expression = (SpelExpression) this.immediateParser.parseExpression("age + 1");
+		Person person = new Person("Juergen", 42, "Linz");
+		assertEquals("43", expression.getValue(person, String.class));
+		assertTrue(expression.isCompiled());
+		assertEquals("43", expression.getValue(person, String.class));
+		assertEquals(Long.valueOf(43), expression.getValue(new StandardEvaluationContext(person), Long.class));
+	}
+
+	@Test
+	public void compiledAfterThresholdInMixedMode() {
+		SpelExpression expression = (SpelExpression) this.mixedParser.parseExpression("address.city");
+		Person person = new Person("Juergen", 42, "Linz");
+		for (int i = 0; i < SpelExpression.INTERPRETED_COUNT_THRESHOLD; i++) {
+			assertEquals("Linz", expression.getValue(person));
+		}
+		assertFalse(expression.isCompiled());
+		assertEquals("Linz", expression.getValue(person));
+		assertTrue(expression.isCompiled());
+		assertEquals("Linz", expression.getValue(person));
+	}
+
+	@Test
+	public void revertsToInterpretationWhenTypesChangeInMixedMode() {
+		SpelExpression expression = (SpelExpression) this.mixedParser.parseExpression("name");
+		expression.getValue(new Person("Juergen", 42, "Linz"));
+		assertTrue(expression.compileExpression());
+		assertEquals("Juergen", expression.getValue(new Person("Juergen", 42, "Linz")));
+		assertTrue(expression.isCompiled());
+
+		assertEquals("Pet", expression.getValue(new Pet()));
+		assertFalse(expression.isCompiled());
+		assertEquals("Pet", expression.getValue(new Pet()));
+	}
+
+	@Test
+	public void failureOfCompiledExpressionInImmediateMode() {
+		SpelExpression expression = (SpelExpression) this.immediateParser.parseExpression("name.length()");
+		assertEquals(7, expression.getValue(new Person("Juergen", 42, "Linz")));
+		assertTrue(expression.isCompiled());
+		try {
+			expression.getValue(new Person(null, 42, "Linz"));
+			fail("Should have thrown SpelEvaluationException");
+		}
+		catch (SpelEvaluationException ex) {
+			assertEquals(SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION, ex.getMessageCode());
+			assertTrue(ex.getCause() instanceof NullPointerException);
+		}
+	}
+
+	@Test
+	public void expressionsThatCannotBeCompiled() {
+		Person person = new Person("Juergen", 42, "Linz");
+		StandardEvaluationContext context = new StandardEvaluationContext(person);
+		context.setVariable("var", "value");
+		assertNotCompiled("#var", context);
+		assertNotCompiled("address?.city", context);
+		assertNotCompiled("age + 1.5d", context);
+		assertNotCompiled("name + age", context);
+		assertNotCompiled("T(java.lang.Math).max(age, 1)", context);
+		assertNotCompiled("name", new StandardEvaluationContext(new NonPublicPet()));
+	}
+
+	@Test
+	public void compiledCodeNotUsedWithOtherMethodResolvers() {
+		SpelExpression expression = (SpelExpression) this.immediateParser.parseExpression("greet('World')");
+		Person person = new Person("Juergen", 42, "Linz");
+		assertEquals("Hello World", expression.getValue(person));
+		assertTrue(expression.isCompiled());
+
+		StandardEvaluationContext context = new StandardEvaluationContext(person);
+		context.addMethodResolver(new ConstantMethodResolver());
+		assertEquals("Hello World", expression.getValue(new StandardEvaluationContext(person)));
+		assertEquals("constant", expression.getValue(context));
+	}
+
+	@Test
+	public void compilerOffByDefault() {
+		SpelExpression expression = (SpelExpression) new SpelExpressionParser().parseExpression("name");
+		Person person = new Person("Juergen", 42, "Linz");
+		for (int i = 0; i <= SpelExpression.INTERPRETED_COUNT_THRESHOLD; i++) {
+			expression.getValue(person);
+		}
+		assertFalse(expression.isCompiled());
+		assertTrue(expression.compileExpression());
+		assertEquals("Juergen", expression.getValue(person));
+		expression.revertToInterpreted();
+		assertFalse(expression.isCompiled());
+	}
+
+	@Test
+	public void compiledExpressionPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+
+		String expressionString = "address.city.length() + age > 10 and name.startsWith('J')";
+		Person person = new Person("Juergen", 42, "Linz");
+		SpelExpression interpreted = (SpelExpression) new SpelExpressionParser().parseExpression(expressionString);
+		SpelExpression compiled = (SpelExpression) this.immediateParser.parseExpression(expressionString);
+		EvaluationContext context = new StandardEvaluationContext(person);
+		compiled.getValue(context);
+		assertTrue(compiled.isCompiled());
+		int iterations = 1000000;
+
+		StopWatch sw = new StopWatch();
+		sw.start("interpreted");
+		for (int i = 0; i < iterations; i++) {
+			interpreted.getValue(context);
+		}
+		sw.stop();
+		long interpretedTime = sw.getLastTaskTimeMillis();
+
+		sw.start("compiled");
+		for (int i = 0; i < iterations; i++) {
+			compiled.getValue(context);
+		}
+		sw.stop();
+		long compiledTime = sw.getLastTaskTimeMillis();
+		assertTrue("Compiled expression slower than interpreted one: " + sw.prettyPrint(),
+				compiledTime < interpretedTime);
+	}
+
+
+	private void assertCompiledValue(Object expected, String expressionString, Object root) {
+		SpelExpression expression = (SpelExpression) this.immediateParser.parseExpression(expressionString);
+		assertEquals(expected, expression.getValue(root));
+		assertTrue("Not compiled: " + expressionString, expression.isCompiled());
+		assertEquals(expected, expression.getValue(root));
+		assertEquals(expected, expression.getValue(new StandardEvaluationContext(root)));
+	}
+
+	private void assertNotCompiled(String expressionString, EvaluationContext context) {
+		SpelExpression expression = (SpelExpression) this.immediateParser.parseExpression(expressionString);
+		Object value = expression.getValue(context);
+		assertFalse("Should not be compiled: " + expressionString, expression.compileExpression());
+		assertEquals(value, expression.getValue(context));
+	}
+
+
+	public static class Person {
+
+		public final String country = "Austria";
+
+		private final String name;
+
+		private final int age;
+
+		private final Address address;
+
+		public Person(String name, int age, String city) {
+			this.name = name;
+			this.age = age;
+			this.address = new Address(city);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public boolean isAdult() {
+			return this.age >= 18;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+
+		public String greet(String whom) {
+			return "Hello " + whom;
+		}
+
+		public void reset() {
+		}
+
+	}
+
+
+	public static class Address {
+
+		private final String city;
+
+		public Address(String city) {
+			this.city = city;
+		}
+
+		public String getCity() {
+			return this.city;
+		}
+	}
+
+
+	public static class Pet {
+
+		public String getName() {
+			return "Pet";
+		}
+	}
+
+
+	static class NonPublicPet {
+
+		public String getName() {
+			return "Pet";
+		}
+	}
+
+
+	private static class ConstantMethodResolver implements MethodResolver {
+
+		@Override
+		public MethodExecutor resolve(EvaluationContext context, Object targetObject, String name,
+				List<TypeDescriptor> argumentTypes) {
+			return new MethodExecutor() {
+				@Override
+				public TypedValue execute(EvaluationContext context, Object target, Object... arguments) {
+					return new TypedValue("constant");
+				}
+			};
+		}
+	}
+
+}
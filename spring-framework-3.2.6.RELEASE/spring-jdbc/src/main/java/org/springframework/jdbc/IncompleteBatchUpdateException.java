@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc;
+
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+
+/**
+ * Exception thrown when a batch update that has been split into independently
+ * executed chunks failed for some of its chunks. The other chunks have been
+ * executed (and committed, in the absence of a transaction) regardless.
+ *
+ * <p>Exposes the update counts for all rows, with
+ * {@link Statement#EXECUTE_FAILED} for the rows of failed chunks, as well
+ * as the failure of each chunk, keyed by the index of its first row.
+ *
+ * @since 3.2.7
+ * @see org.springframework.jdbc.core.BatchUpdateUtils
+ */
+@SuppressWarnings("serial")
+public class IncompleteBatchUpdateException extends IncorrectUpdateSemanticsDataAccessException {
+
+	private final int[] updateCounts;
+
+	private final Map<Integer, Throwable> chunkFailures;
+
+
+	/**
+	 * Constructor for IncompleteBatchUpdateException.
+	 * @param sql the SQL of the batch update
+	 * @param updateCounts the update counts for all rows of the batch
+	 * @param chunkFailures the failure of each failed chunk, keyed by the
+	 * index of the first row of the chunk (must not be empty)
+	 */
+	public IncompleteBatchUpdateException(String sql, int[] updateCounts, Map<Integer, Throwable> chunkFailures) {
+		super("Batch update '" + sql + "' failed for " + chunkFailures.size() + " chunk(s) starting at rows " +
+				chunkFailures.keySet(), chunkFailures.values().iterator().next());
+		this.updateCounts = updateCounts;
+		this.chunkFailures = Collections.unmodifiableMap(chunkFailures);
+	}
+
+
+	/**
+	 * Return the update counts for all rows of the batch, with
+	 * {@link Statement#EXECUTE_FAILED} for the rows of failed chunks.
+	 * <p>Note that, depending on the JDBC driver, some rows of a failed
+	 * chunk may nevertheless have been applied.
+	 */
+	public int[] getUpdateCounts() {
+		return this.updateCounts;
+	}
+
+	/**
+	 * Return the failure of each failed chunk, keyed by the index of the first
+	 * row of the chunk, in ascending order.
+	 */
+	public Map<Integer, Throwable> getChunkFailures() {
+		return this.chunkFailures;
+	}
+
+	@Override
+	public boolean wasDataUpdated() {
+		for (int updateCount : this.updateCounts) {
+			if (updateCount != Statement.EXECUTE_FAILED) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
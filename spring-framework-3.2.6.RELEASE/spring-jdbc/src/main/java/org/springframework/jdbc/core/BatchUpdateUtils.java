@@ -16,9 +16,23 @@
 
 package org.springframework.jdbc.core;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.IncompleteBatchUpdateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 
 /**
  * Generic utility methods for working with JDBC batch statements. Mainly for internal use
@@ -44,6 +58,124 @@ public abstract class BatchUpdateUtils {
 				});
 	}
 
+	/**
+	 * Execute the given batch in chunks of {@code chunkSize} rows, with up to
+	 * {@code parallelism} chunks running concurrently on the given executor.
+	 * <p>Each chunk is executed as a separate batch on its own connection, so
+	 * this is only allowed outside of a transaction. Failed chunks do not affect
+	 * the execution of the other chunks; their failures are reported through an
+	 * {@link IncompleteBatchUpdateException} once all chunks have completed.
+	 * @param sql the SQL statement to execute
+	 * @param batchValues the argument arrays for all rows of the batch
+	 * @param columnTypes the SQL types of the arguments (may be {@code null})
+	 * @param jdbcOperations the JdbcOperations to execute each chunk with
+	 * @param chunkSize the maximum number of rows per chunk
+	 * @param parallelism the maximum number of chunks to execute concurrently
+	 * @param executor the executor to run the chunks on
+	 * @return the update counts for all rows, in the order of the given batch
+	 * @throws IncompleteBatchUpdateException if one or more chunks failed
+	 * @since 3.2.7
+	 */
+	public static int[] executeBatchUpdate(String sql, final List<Object[]> batchValues, final int[] columnTypes,
+			final JdbcOperations jdbcOperations, int chunkSize, int parallelism, Executor executor) {
+
+		final String sqlToUse = sql;
+		return executeInChunks(sql, batchValues.size(), chunkSize, parallelism, executor, new BatchChunkCallback() {
+			public int[] doInChunk(int offset, int size) {
+				return executeBatchUpdate(sqlToUse, batchValues.subList(offset, offset + size), columnTypes, jdbcOperations);
+			}
+		});
+	}
+
+	/**
+	 * Split a batch of the given size into chunks and execute them through the
+	 * given callback, with up to {@code parallelism} chunks running concurrently.
+	 * <p>Chunks are handed out in order to at most {@code parallelism} workers
+	 * submitted to the executor. A worker that the executor rejects runs in the
+	 * calling thread instead. The update counts of failed chunks are reported
+	 * as {@link Statement#EXECUTE_FAILED}.
+	 * @param sql the SQL statement, for exception messages
+	 * @param batchSize the total number of rows
+	 * @param chunkSize the maximum number of rows per chunk
+	 * @param parallelism the maximum number of chunks to execute concurrently
+	 * @param executor the executor to run the chunks on
+	 * @param callback the callback executing a single chunk
+	 * @return the update counts for all rows
+	 * @throws IncompleteBatchUpdateException if one or more chunks failed
+	 * @since 3.2.7
+	 */
+	protected static int[] executeInChunks(String sql, int batchSize, final int chunkSize, int parallelism,
+			Executor executor, final BatchChunkCallback callback) {
+
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+		Assert.notNull(executor, "Executor must not be null");
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new InvalidDataAccessApiUsageException("Chunked batch update for SQL [" + sql +
+					"] is not supported within a transaction: chunks are executed on separate connections");
+		}
+
+		final int[] updateCounts = new int[batchSize];
+		final Map<Integer, Throwable> failures = Collections.synchronizedMap(new TreeMap<Integer, Throwable>());
+		final int total = batchSize;
+		final int chunkCount = (batchSize + chunkSize - 1) / chunkSize;
+		final AtomicInteger nextChunk = new AtomicInteger();
+		int workerCount = Math.min(parallelism, chunkCount);
+		final CountDownLatch latch = new CountDownLatch(workerCount);
+
+		Runnable worker = new Runnable() {
+			public void run() {
+				try {
+					int chunk;
+					while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+						int offset = chunk * chunkSize;
+						int size = Math.min(chunkSize, total - offset);
+						try {
+							int[] chunkCounts = callback.doInChunk(offset, size);
+							System.arraycopy(chunkCounts, 0, updateCounts, offset, Math.min(chunkCounts.length, size));
+						}
+						catch (Throwable ex) {
+							Arrays.fill(updateCounts, offset, offset + size, Statement.EXECUTE_FAILED);
+							failures.put(offset, ex);
+						}
+					}
+				}
+				finally {
+					latch.countDown();
+				}
+			}
+		};
+
+		for (int i = 0; i < workerCount; i++) {
+			try {
+				executor.execute(worker);
+			}
+			catch (RejectedExecutionException ex) {
+				worker.run();
+			}
+		}
+
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			}
+			catch (InterruptedException ex) {
+				// Chunks may already be running: wait for them to report their results
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (!failures.isEmpty()) {
+			throw new IncompleteBatchUpdateException(sql, updateCounts, new TreeMap<Integer, Throwable>(failures));
+		}
+		return updateCounts;
+	}
+
 	protected static void setStatementParameters(Object[] values, PreparedStatement ps, int[] columnTypes) throws SQLException {
 		int colIndex = 0;
 		for (Object value : values) {
@@ -65,4 +197,21 @@ public abstract class BatchUpdateUtils {
 		}
 	}
 
+
+	/**
+	 * Callback for executing a single chunk of a batch.
+	 * @since 3.2.7
+	 * @see #executeInChunks
+	 */
+	protected interface BatchChunkCallback {
+
+		/**
+		 * Execute the rows {@code offset} to {@code offset + size - 1} of the batch.
+		 * @param offset the index of the first row of the chunk
+		 * @param size the number of rows in the chunk
+		 * @return the update counts for the rows of the chunk
+		 */
+		int[] doInChunk(int offset, int size);
+	}
+
 }
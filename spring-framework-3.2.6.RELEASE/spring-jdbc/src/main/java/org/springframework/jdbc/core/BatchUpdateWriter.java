@@ -0,0 +1,379 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Writer that accepts the arguments for a parameterized update statement one
+ * row at a time and executes them in JDBC batches, so that producers can
+ * stream an arbitrary number of rows with bounded memory.
+ *
+ * <p>Buffered rows are flushed once the {@link #setBatchSize batch size} has
+ * been reached or, when {@link #write} is called, once the oldest buffered
+ * row has waited longer than the {@link #setFlushInterval flush interval}.
+ * Since JDBC connections are bound to the producing thread, there is no
+ * background flushing: a producer that pauses should call {@link #flush()}
+ * itself. Remaining rows get flushed on {@link #close()}.
+ *
+ * <p>Statements are executed through the given {@link JdbcOperations}, so they
+ * participate in the current transaction. When rows are written within a
+ * synchronized transaction, the writer registers itself to flush right before
+ * commit and to discard rows still buffered on rollback.
+ *
+ * <p>For an {@code INSERT ... VALUES (...)} statement, the writer can
+ * {@link #setMultiRowInsert rewrite} each batch into a single multi-row
+ * {@code INSERT ... VALUES (...), (...), ...} statement, which some drivers
+ * (e.g. MySQL or PostgreSQL) execute considerably faster than a JDBC batch.
+ * A batch whose rows exceed the {@link #setMaxBindParameters maximum number of
+ * bind parameters} gets split into several such statements.
+ *
+ * <p>Note that this class is a <b>non-thread-safe object</b>: it is meant to
+ * be used by a single producer thread.
+ *
+ * @since 3.2.7
+ * @see JdbcOperations#batchUpdate(String, List, int[])
+ * @see org.springframework.jdbc.object.BatchSqlUpdate
+ */
+public class BatchUpdateWriter implements Closeable {
+
+	/** Default number of rows to buffer before executing a batch: 1000 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Default maximum number of bind parameters per multi-row insert
+	 * statement: 2000, staying below SQL Server's limit of 2100
+	 */
+	public static final int DEFAULT_MAX_BIND_PARAMETERS = 2000;
+
+	private static final Pattern INSERT_VALUES_PATTERN =
+			Pattern.compile("(?is)^\\s*(insert\\s+into\\s.+?\\svalues\\s*)(\\(.*\\))\\s*;?\\s*$");
+
+
+	private final JdbcOperations jdbcOperations;
+
+	private final String sql;
+
+	private int[] argTypes;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long flushInterval = 0;
+
+	private int maxBindParameters = DEFAULT_MAX_BIND_PARAMETERS;
+
+	private String insertPrefix;
+
+	private String valuesClause;
+
+	private final List<Object[]> bufferedRows = new ArrayList<Object[]>();
+
+	private long firstBufferedTime;
+
+	private long rowsWritten = 0;
+
+	private boolean synchronizationRegistered = false;
+
+
+	/**
+	 * Create a new BatchUpdateWriter for the given DataSource and SQL.
+	 * @param dataSource the JDBC DataSource to obtain connections from
+	 * @param sql the SQL statement to execute for each row, using
+	 * traditional '?' placeholders
+	 */
+	public BatchUpdateWriter(DataSource dataSource, String sql) {
+		this(new JdbcTemplate(dataSource), sql);
+	}
+
+	/**
+	 * Create a new BatchUpdateWriter for the given JdbcOperations and SQL.
+	 * @param jdbcOperations the JdbcOperations to execute the statements with
+	 * @param sql the SQL statement to execute for each row, using
+	 * traditional '?' placeholders
+	 */
+	public BatchUpdateWriter(JdbcOperations jdbcOperations, String sql) {
+		Assert.notNull(jdbcOperations, "JdbcOperations must not be null");
+		Assert.hasText(sql, "SQL must not be empty");
+		this.jdbcOperations = jdbcOperations;
+		this.sql = sql;
+	}
+
+
+	/**
+	 * Specify the SQL types of the arguments, as defined in
+	 * {@code java.sql.Types}. Default is none, leaving it to the
+	 * PreparedStatement to guess the SQL types.
+	 */
+	public void setArgTypes(int... argTypes) {
+		this.argTypes = argTypes;
+	}
+
+	/**
+	 * Set the number of rows to buffer before executing them as one batch.
+	 * Default is 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the maximum number of milliseconds that a buffered row may wait
+	 * before the next {@link #write} call flushes the batch. Default is 0,
+	 * flushing based on the batch size only.
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Set whether to rewrite each batch into a single multi-row
+	 * {@code INSERT ... VALUES (...), (...)} statement instead of executing
+	 * a JDBC batch. Default is {@code false}.
+	 * <p>Requires the SQL to be an {@code INSERT} statement ending with a
+	 * single {@code VALUES (...)} clause. Batches are split into several
+	 * statements where necessary to respect the
+	 * {@link #setMaxBindParameters maximum number of bind parameters}.
+	 * @throws InvalidDataAccessApiUsageException if the SQL cannot be rewritten
+	 */
+	public void setMultiRowInsert(boolean multiRowInsert) {
+		if (multiRowInsert) {
+			Matcher matcher = INSERT_VALUES_PATTERN.matcher(this.sql);
+			if (!matcher.matches() || !isSingleGroup(matcher.group(2))) {
+				throw new InvalidDataAccessApiUsageException(
+						"Cannot rewrite SQL into a multi-row insert: [" + this.sql + "]");
+			}
+			this.insertPrefix = matcher.group(1);
+			this.valuesClause = matcher.group(2);
+		}
+		else {
+			this.insertPrefix = null;
+			this.valuesClause = null;
+		}
+	}
+
+	/**
+	 * Return whether batches get rewritten into multi-row insert statements.
+	 */
+	public boolean isMultiRowInsert() {
+		return (this.valuesClause != null);
+	}
+
+	/**
+	 * Set the maximum number of bind parameters per multi-row insert statement.
+	 * Default is 2000, which stays within the limits of common drivers (e.g.
+	 * 2100 on SQL Server, 32767 on PostgreSQL).
+	 * <p>A batch whose rows would exceed this limit gets executed as several
+	 * multi-row insert statements. A single row always gets executed, even if
+	 * its arguments exceed the limit on their own.
+	 * @see #setMultiRowInsert
+	 */
+	public void setMaxBindParameters(int maxBindParameters) {
+		Assert.isTrue(maxBindParameters > 0, "Max bind parameters must be greater than 0");
+		this.maxBindParameters = maxBindParameters;
+	}
+
+	/**
+	 * Return the maximum number of bind parameters per multi-row insert statement.
+	 */
+	public int getMaxBindParameters() {
+		return this.maxBindParameters;
+	}
+
+	/**
+	 * Return the number of rows that are currently buffered.
+	 */
+	public int getBufferedRowCount() {
+		return this.bufferedRows.size();
+	}
+
+	/**
+	 * Return the number of rows that have been flushed to the database so far.
+	 */
+	public long getWrittenRowCount() {
+		return this.rowsWritten;
+	}
+
+
+	/**
+	 * Buffer the given arguments for one execution of the statement,
+	 * flushing the batch if it is full or the flush interval has elapsed.
+	 * <p>The given array is copied, so callers may reuse it for the next row.
+	 * @param args the arguments to bind to the statement
+	 * @throws DataAccessException if a flush was triggered and failed
+	 */
+	public void write(Object... args) throws DataAccessException {
+		registerSynchronizationIfNecessary();
+		if (this.bufferedRows.isEmpty()) {
+			this.firstBufferedTime = System.currentTimeMillis();
+		}
+		this.bufferedRows.add(args != null ? args.clone() : new Object[0]);
+		if (this.bufferedRows.size() >= this.batchSize ||
+				(this.flushInterval > 0 && System.currentTimeMillis() - this.firstBufferedTime >= this.flushInterval)) {
+			flush();
+		}
+	}
+
+	/**
+	 * Execute all buffered rows.
+	 * @return the update counts as returned by the JDBC driver: one per row
+	 * for JDBC batches, one per executed statement for multi-row inserts
+	 * @throws DataAccessException if the execution failed, in which case
+	 * the buffered rows are discarded
+	 */
+	public int[] flush() throws DataAccessException {
+		if (this.bufferedRows.isEmpty()) {
+			return new int[0];
+		}
+		List<Object[]> rows = new ArrayList<Object[]>(this.bufferedRows);
+		this.bufferedRows.clear();
+		int[] updateCounts;
+		if (this.valuesClause != null) {
+			updateCounts = executeMultiRowInserts(rows);
+		}
+		else if (this.argTypes != null) {
+			updateCounts = this.jdbcOperations.batchUpdate(this.sql, rows, this.argTypes);
+		}
+		else {
+			updateCounts = this.jdbcOperations.batchUpdate(this.sql, rows);
+		}
+		this.rowsWritten += rows.size();
+		return updateCounts;
+	}
+
+	/**
+	 * Flush all buffered rows.
+	 * @throws DataAccessException if the execution failed
+	 */
+	public void close() throws DataAccessException {
+		flush();
+	}
+
+	/**
+	 * Discard all buffered rows without executing them.
+	 */
+	public void reset() {
+		this.bufferedRows.clear();
+	}
+
+
+	/**
+	 * Execute the given rows as multi-row insert statements, each binding no
+	 * more than the maximum number of parameters.
+	 */
+	private int[] executeMultiRowInserts(List<Object[]> rows) {
+		List<Integer> updateCounts = new ArrayList<Integer>();
+		int start = 0;
+		int parameterCount = 0;
+		for (int i = 0; i < rows.size(); i++) {
+			int rowParameterCount = rows.get(i).length;
+			if (i > start && parameterCount + rowParameterCount > this.maxBindParameters) {
+				updateCounts.add(executeMultiRowInsert(rows.subList(start, i)));
+				start = i;
+				parameterCount = 0;
+			}
+			parameterCount += rowParameterCount;
+		}
+		updateCounts.add(executeMultiRowInsert(rows.subList(start, rows.size())));
+		int[] result = new int[updateCounts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = updateCounts.get(i);
+		}
+		return result;
+	}
+
+	private int executeMultiRowInsert(List<Object[]> rows) {
+		StringBuilder sql = new StringBuilder(this.insertPrefix.length() + rows.size() * (this.valuesClause.length() + 2));
+		sql.append(this.insertPrefix);
+		List<Object> args = new ArrayList<Object>();
+		for (int i = 0; i < rows.size(); i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(this.valuesClause);
+			for (Object arg : rows.get(i)) {
+				args.add(arg);
+			}
+		}
+		if (this.argTypes != null) {
+			int[] types = new int[this.argTypes.length * rows.size()];
+			for (int i = 0; i < rows.size(); i++) {
+				System.arraycopy(this.argTypes, 0, types, i * this.argTypes.length, this.argTypes.length);
+			}
+			return this.jdbcOperations.update(sql.toString(), args.toArray(), types);
+		}
+		return this.jdbcOperations.update(sql.toString(), args.toArray());
+	}
+
+	private void registerSynchronizationIfNecessary() {
+		if (!this.synchronizationRegistered && TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new FlushingTransactionSynchronization());
+			this.synchronizationRegistered = true;
+		}
+	}
+
+	/**
+	 * Check that the given VALUES clause consists of exactly one parenthesized group.
+	 */
+	private static boolean isSingleGroup(String clause) {
+		int depth = 0;
+		for (int i = 0; i < clause.length(); i++) {
+			char c = clause.charAt(i);
+			if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+				if (depth == 0 && i < clause.length() - 1) {
+					return false;
+				}
+			}
+		}
+		return (depth == 0);
+	}
+
+
+	/**
+	 * Flushes buffered rows before transaction commit and discards them on rollback.
+	 */
+	private class FlushingTransactionSynchronization extends TransactionSynchronizationAdapter {
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// Qualified, since TransactionSynchronization declares a flush method of its own
+			BatchUpdateWriter.this.flush();
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			BatchUpdateWriter.this.reset();
+			synchronizationRegistered = false;
+		}
+	}
+
+}
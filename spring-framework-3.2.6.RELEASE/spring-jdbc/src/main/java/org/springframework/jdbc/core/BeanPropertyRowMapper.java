@@ -20,6 +20,7 @@ import java.beans.PropertyDescriptor;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -225,6 +226,25 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	}
 
 
+	/**
+	 * Determine the bean property that the given column is mapped to.
+	 * @param column the column name as obtained from result set metadata
+	 * @return the matching property descriptor, or {@code null} if none
+	 * @since 3.2.7
+	 */
+	protected PropertyDescriptor getMappedField(String column) {
+		return this.mappedFields.get(column.replaceAll(" ", "").toLowerCase());
+	}
+
+	/**
+	 * Return the names of all bean properties that we provide mapping for.
+	 * @since 3.2.7
+	 */
+	protected final Set<String> getMappedProperties() {
+		return Collections.unmodifiableSet(this.mappedProperties);
+	}
+
+
 	/**
 	 * Extract the values for all columns in the current row.
 	 * <p>Utilizes public setters and result set metadata.
@@ -242,7 +262,7 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
 		for (int index = 1; index <= columnCount; index++) {
 			String column = JdbcUtils.lookupColumnName(rsmd, index);
-			PropertyDescriptor pd = this.mappedFields.get(column.replaceAll(" ", "").toLowerCase());
+			PropertyDescriptor pd = getMappedField(column);
 			if (pd != null) {
 				try {
 					Object value = getColumnValue(rs, index, pd);
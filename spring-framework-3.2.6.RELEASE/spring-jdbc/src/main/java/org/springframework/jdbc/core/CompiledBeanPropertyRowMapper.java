@@ -0,0 +1,440 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.MethodInvocationException;
+import org.springframework.beans.NotWritablePropertyException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link BeanPropertyRowMapper} variant that resolves the mapping between
+ * columns and bean properties only once per {@link ResultSet}, from the
+ * {@link ResultSetMetaData} seen for the first row, instead of once per row.
+ *
+ * <p>For properties of the common types supported by
+ * {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)} (String, the
+ * primitives and their wrappers, BigDecimal, the JDBC date/time types,
+ * {@code java.util.Date}, byte arrays, Blob and Clob) the resulting plan
+ * binds a typed accessor such as {@code rs.getLong(index)} directly to the
+ * property's write method, avoiding the per-row {@link BeanWrapper} as well
+ * as the per-row column name lookups. Properties of any other type are still
+ * populated through a BeanWrapper, applying the usual type conversion; only
+ * for those properties are {@link #initBeanWrapper} and {@link #getColumnValue}
+ * consulted.
+ *
+ * <p>Column name matching, the {@code checkFullyPopulated} validation and
+ * the {@code primitivesDefaultedForNullValue} handling follow the semantics
+ * of {@link BeanPropertyRowMapper}. A single instance may be shared across
+ * threads and queries with different result set layouts.
+ *
+ * @since 3.2.7
+ * @see BeanPropertyRowMapper
+ */
+public class CompiledBeanPropertyRowMapper<T> extends BeanPropertyRowMapper<T> {
+
+	private static final int STRING = 0;
+
+	private static final int BOOLEAN = 1;
+
+	private static final int BYTE = 2;
+
+	private static final int SHORT = 3;
+
+	private static final int INT = 4;
+
+	private static final int LONG = 5;
+
+	private static final int FLOAT = 6;
+
+	private static final int DOUBLE = 7;
+
+	private static final int BYTES = 8;
+
+	private static final int DATE = 9;
+
+	private static final int TIME = 10;
+
+	private static final int TIMESTAMP = 11;
+
+	private static final int BIG_DECIMAL = 12;
+
+	private static final int BLOB = 13;
+
+	private static final int CLOB = 14;
+
+	private static final int CONVERTED = -1;
+
+
+	/** Mapping plans per ResultSet, weakly referenced so that closed ResultSets can be collected */
+	private final Map<ResultSet, ColumnMapping[]> mappingPlans =
+			new ConcurrentReferenceHashMap<ResultSet, ColumnMapping[]>(16, 0.75f, 16, ReferenceType.WEAK);
+
+
+	/**
+	 * Create a new CompiledBeanPropertyRowMapper for bean-style configuration.
+	 * @see #setMappedClass
+	 * @see #setCheckFullyPopulated
+	 */
+	public CompiledBeanPropertyRowMapper() {
+	}
+
+	/**
+	 * Create a new CompiledBeanPropertyRowMapper, accepting unpopulated
+	 * properties in the target bean.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public CompiledBeanPropertyRowMapper(Class<T> mappedClass) {
+		super(mappedClass);
+	}
+
+	/**
+	 * Create a new CompiledBeanPropertyRowMapper.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param checkFullyPopulated whether we're strictly validating that
+	 * all bean properties have been mapped from corresponding database fields
+	 */
+	public CompiledBeanPropertyRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		super(mappedClass, checkFullyPopulated);
+	}
+
+
+	/**
+	 * Extract the values for all columns in the current row, using the
+	 * mapping plan built for the given ResultSet.
+	 * @see #buildMappingPlan
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		Assert.state(getMappedClass() != null, "Mapped class was not specified");
+		ColumnMapping[] plan = this.mappingPlans.get(rs);
+		if (plan == null) {
+			plan = buildMappingPlan(rs.getMetaData());
+			this.mappingPlans.put(rs, plan);
+		}
+
+		T mappedObject = BeanUtils.instantiate(getMappedClass());
+		BeanWrapper bw = null;
+		for (ColumnMapping mapping : plan) {
+			if (mapping.type == CONVERTED) {
+				if (bw == null) {
+					bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
+					initBeanWrapper(bw);
+				}
+				setConvertedValue(rs, rowNumber, mapping, bw);
+			}
+			else {
+				setTypedValue(rs, rowNumber, mapping, mappedObject);
+			}
+		}
+		return mappedObject;
+	}
+
+	/**
+	 * Resolve the column-to-property mapping for the given result set metadata.
+	 * @param rsmd the metadata of the ResultSet to map
+	 * @return the mapping for each mapped column, in column order
+	 * @throws SQLException if thrown by the JDBC API
+	 * @throws InvalidDataAccessApiUsageException if we're checking for a fully
+	 * populated object and the ResultSet does not cover all mapped properties
+	 */
+	protected ColumnMapping[] buildMappingPlan(ResultSetMetaData rsmd) throws SQLException {
+		int columnCount = rsmd.getColumnCount();
+		List<ColumnMapping> mappings = new ArrayList<ColumnMapping>(columnCount);
+		Set<String> populatedProperties = new HashSet<String>();
+		for (int index = 1; index <= columnCount; index++) {
+			String column = JdbcUtils.lookupColumnName(rsmd, index);
+			PropertyDescriptor pd = getMappedField(column);
+			if (pd != null) {
+				int type = determineType(pd.getPropertyType());
+				Method writeMethod = pd.getWriteMethod();
+				if (type != CONVERTED) {
+					ReflectionUtils.makeAccessible(writeMethod);
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" +
+							pd.getName() + "' of type " + pd.getPropertyType());
+				}
+				mappings.add(new ColumnMapping(index, column, pd, writeMethod, type));
+				populatedProperties.add(pd.getName());
+			}
+		}
+		if (isCheckFullyPopulated() && !populatedProperties.equals(getMappedProperties())) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of class [" + getMappedClass() + "]: " + getMappedProperties());
+		}
+		return mappings.toArray(new ColumnMapping[mappings.size()]);
+	}
+
+	private void setTypedValue(ResultSet rs, int rowNumber, ColumnMapping mapping, Object mappedObject)
+			throws SQLException {
+
+		Object value = getTypedValue(rs, mapping.index, mapping.type);
+		if (value == null && mapping.primitive) {
+			if (isPrimitivesDefaultedForNullValue()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Skipped null value for row " + rowNumber + " and column '" + mapping.column +
+							"' when setting primitive property '" + mapping.propertyName + "' of type " +
+							mapping.propertyType + " on object: " + mappedObject);
+				}
+				return;
+			}
+			throw new TypeMismatchException(
+					new PropertyChangeEvent(mappedObject, mapping.propertyName, null, null), mapping.propertyType);
+		}
+		try {
+			mapping.writeMethod.invoke(mappedObject, value);
+		}
+		catch (InvocationTargetException ex) {
+			throw new MethodInvocationException(
+					new PropertyChangeEvent(mappedObject, mapping.propertyName, null, value), ex.getTargetException());
+		}
+		catch (Exception ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column " + mapping.column + " to property " + mapping.propertyName, ex);
+		}
+	}
+
+	private void setConvertedValue(ResultSet rs, int rowNumber, ColumnMapping mapping, BeanWrapper bw)
+			throws SQLException {
+
+		Object value = getColumnValue(rs, mapping.index, mapping.propertyDescriptor);
+		try {
+			bw.setPropertyValue(mapping.propertyName, value);
+		}
+		catch (TypeMismatchException ex) {
+			if (value == null && isPrimitivesDefaultedForNullValue()) {
+				logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+						" and column '" + mapping.column + "' with value " + value +
+						" when setting property '" + mapping.propertyName + "' of type " + mapping.propertyType +
+						" on object: " + bw.getWrappedInstance());
+			}
+			else {
+				throw ex;
+			}
+		}
+		catch (NotWritablePropertyException ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column " + mapping.column + " to property " + mapping.propertyName, ex);
+		}
+	}
+
+	/**
+	 * Read the value of the given column through the typed accessor matching
+	 * the given type, returning {@code null} for SQL NULL values. The wasNull
+	 * check is only performed where the driver may have returned a default
+	 * value standing in for NULL.
+	 */
+	private static Object getTypedValue(ResultSet rs, int index, int type) throws SQLException {
+		switch (type) {
+			case STRING:
+				return rs.getString(index);
+			case BOOLEAN: {
+				boolean value = rs.getBoolean(index);
+				return (!value && rs.wasNull() ? null : Boolean.valueOf(value));
+			}
+			case BYTE: {
+				byte value = rs.getByte(index);
+				return (value == 0 && rs.wasNull() ? null : Byte.valueOf(value));
+			}
+			case SHORT: {
+				short value = rs.getShort(index);
+				return (value == 0 && rs.wasNull() ? null : Short.valueOf(value));
+			}
+			case INT: {
+				int value = rs.getInt(index);
+				return (value == 0 && rs.wasNull() ? null : Integer.valueOf(value));
+			}
+			case LONG: {
+				long value = rs.getLong(index);
+				return (value == 0 && rs.wasNull() ? null : Long.valueOf(value));
+			}
+			case FLOAT: {
+				float value = rs.getFloat(index);
+				return (value == 0 && rs.wasNull() ? null : Float.valueOf(value));
+			}
+			case DOUBLE: {
+				double value = rs.getDouble(index);
+				return (value == 0 && rs.wasNull() ? null : Double.valueOf(value));
+			}
+			case BYTES:
+				return rs.getBytes(index);
+			case DATE:
+				return rs.getDate(index);
+			case TIME:
+				return rs.getTime(index);
+			case TIMESTAMP:
+				return rs.getTimestamp(index);
+			case BIG_DECIMAL:
+				return rs.getBigDecimal(index);
+			case BLOB:
+				return rs.getBlob(index);
+			case CLOB:
+				return rs.getClob(index);
+			default:
+				throw new IllegalStateException("Unsupported column type: " + type);
+		}
+	}
+
+	/**
+	 * Determine the typed accessor for the given property type, analogous to
+	 * {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)}, or
+	 * {@code CONVERTED} if the value needs to go through type conversion.
+	 */
+	private static int determineType(Class<?> propertyType) {
+		if (String.class.equals(propertyType)) {
+			return STRING;
+		}
+		else if (boolean.class.equals(propertyType) || Boolean.class.equals(propertyType)) {
+			return BOOLEAN;
+		}
+		else if (byte.class.equals(propertyType) || Byte.class.equals(propertyType)) {
+			return BYTE;
+		}
+		else if (short.class.equals(propertyType) || Short.class.equals(propertyType)) {
+			return SHORT;
+		}
+		else if (int.class.equals(propertyType) || Integer.class.equals(propertyType)) {
+			return INT;
+		}
+		else if (long.class.equals(propertyType) || Long.class.equals(propertyType)) {
+			return LONG;
+		}
+		else if (float.class.equals(propertyType) || Float.class.equals(propertyType)) {
+			return FLOAT;
+		}
+		else if (double.class.equals(propertyType) || Double.class.equals(propertyType) ||
+				Number.class.equals(propertyType)) {
+			return DOUBLE;
+		}
+		else if (byte[].class.equals(propertyType)) {
+			return BYTES;
+		}
+		else if (java.sql.Date.class.equals(propertyType)) {
+			return DATE;
+		}
+		else if (java.sql.Time.class.equals(propertyType)) {
+			return TIME;
+		}
+		else if (java.sql.Timestamp.class.equals(propertyType) || java.util.Date.class.equals(propertyType)) {
+			return TIMESTAMP;
+		}
+		else if (BigDecimal.class.equals(propertyType)) {
+			return BIG_DECIMAL;
+		}
+		else if (Blob.class.equals(propertyType)) {
+			return BLOB;
+		}
+		else if (Clob.class.equals(propertyType)) {
+			return CLOB;
+		}
+		return CONVERTED;
+	}
+
+
+	/**
+	 * Static factory method to create a new CompiledBeanPropertyRowMapper
+	 * (with the mapped class specified only once).
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public static <T> CompiledBeanPropertyRowMapper<T> newInstance(Class<T> mappedClass) {
+		CompiledBeanPropertyRowMapper<T> newInstance = new CompiledBeanPropertyRowMapper<T>();
+		newInstance.setMappedClass(mappedClass);
+		return newInstance;
+	}
+
+
+	/**
+	 * The resolved mapping of a single column to a bean property.
+	 */
+	protected static final class ColumnMapping {
+
+		private final int index;
+
+		private final String column;
+
+		private final PropertyDescriptor propertyDescriptor;
+
+		private final String propertyName;
+
+		private final Class<?> propertyType;
+
+		private final Method writeMethod;
+
+		private final int type;
+
+		private final boolean primitive;
+
+		private ColumnMapping(int index, String column, PropertyDescriptor pd, Method writeMethod, int type) {
+			this.index = index;
+			this.column = column;
+			this.propertyDescriptor = pd;
+			this.propertyName = pd.getName();
+			this.propertyType = pd.getPropertyType();
+			this.writeMethod = writeMethod;
+			this.type = type;
+			this.primitive = this.propertyType.isPrimitive();
+		}
+
+		/**
+		 * Return the index of the mapped column.
+		 */
+		public int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * Return the name of the mapped column.
+		 */
+		public String getColumn() {
+			return this.column;
+		}
+
+		/**
+		 * Return the name of the bean property that the column is mapped to.
+		 */
+		public String getPropertyName() {
+			return this.propertyName;
+		}
+	}
+
+}
@@ -34,6 +34,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
@@ -221,6 +222,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 * processing speed at the cost of memory consumption; setting this lower can
 	 * avoid transferring row data that will never be read by the application.
 	 * <p>Default is 0, indicating to use the JDBC driver's default.
+	 * <p>Negative values are only applied to the Statements behind a
+	 * {@link #queryForIterator(PreparedStatementCreator, RowMapper) RowIterator},
+	 * e.g. {@code Integer.MIN_VALUE} for streaming results row by row on MySQL.
 	 * @see java.sql.Statement#setFetchSize
 	 */
 	public void setFetchSize(int fetchSize) {
@@ -720,6 +724,137 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return query(sql, args, new RowMapperResultSetExtractor<T>(rowMapper));
 	}
 
+	/**
+	 * Query using a prepared statement, mapping each row to a Java object
+	 * via a RowMapper as the returned iterator advances.
+	 * <p>In contrast to {@link #query(PreparedStatementCreator, RowMapper)},
+	 * the result is not materialized: the Connection and ResultSet are held
+	 * open until the iterator has been exhausted or closed, so the caller
+	 * needs to make sure to {@link RowIterator#close() close} it.
+	 * @param psc object that can create a PreparedStatement given a Connection
+	 * @param rowMapper object that will map one object per row
+	 * @return the result iterator, reading rows lazily
+	 * @throws DataAccessException if the query fails
+	 * @since 3.2.7
+	 */
+	public <T> RowIterator<T> queryForIterator(PreparedStatementCreator psc, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForIterator(psc, null, rowMapper);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper as the returned iterator advances.
+	 * <p>The Connection and ResultSet are held open until the iterator has
+	 * been exhausted or closed, so the caller needs to make sure to
+	 * {@link RowIterator#close() close} it.
+	 * @param sql SQL query to execute
+	 * @param rowMapper object that will map one object per row
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may also contain {@link SqlParameterValue} objects which indicate not
+	 * only the argument value but also the SQL type and optionally the scale
+	 * @return the result iterator, reading rows lazily
+	 * @throws DataAccessException if the query fails
+	 * @since 3.2.7
+	 */
+	public <T> RowIterator<T> queryForIterator(String sql, RowMapper<T> rowMapper, Object... args)
+			throws DataAccessException {
+
+		return queryForIterator(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
+	}
+
+	/**
+	 * Query using a prepared statement, returning an iterator that maps each
+	 * row via the given RowMapper while holding on to the Connection, Statement
+	 * and ResultSet until it has been exhausted or closed.
+	 * <p>The Connection is obtained through {@link DataSourceUtils}, so an
+	 * iteration within a transaction uses the transactional Connection.
+	 * This template's {@link #setFetchSize fetch size} is applied to the
+	 * Statement, including negative values such as {@code Integer.MIN_VALUE}
+	 * which MySQL expects for row-by-row streaming. Note that some drivers
+	 * (e.g. PostgreSQL) only honor the fetch size outside of auto-commit mode.
+	 * @param psc Callback handler that can create a PreparedStatement given a
+	 * Connection
+	 * @param pss object that knows how to set values on the prepared statement.
+	 * If this is null, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper object that will map one object per row
+	 * @return the result iterator
+	 * @throws DataAccessException if the query fails
+	 * @since 3.2.7
+	 */
+	public <T> RowIterator<T> queryForIterator(
+			PreparedStatementCreator psc, PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		Assert.notNull(psc, "PreparedStatementCreator must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			String sql = getSql(psc);
+			logger.debug("Executing prepared SQL query for iteration" + (sql != null ? " [" + sql + "]" : ""));
+		}
+
+		Connection con = DataSourceUtils.getConnection(getDataSource());
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			Connection conToUse = con;
+			if (this.nativeJdbcExtractor != null &&
+					this.nativeJdbcExtractor.isNativeConnectionNecessaryForNativePreparedStatements()) {
+				conToUse = this.nativeJdbcExtractor.getNativeConnection(con);
+			}
+			ps = psc.createPreparedStatement(conToUse);
+			applyStatementSettings(ps);
+			if (getFetchSize() < 0) {
+				ps.setFetchSize(getFetchSize());
+			}
+			PreparedStatement psToUse = ps;
+			if (this.nativeJdbcExtractor != null) {
+				psToUse = this.nativeJdbcExtractor.getNativePreparedStatement(ps);
+			}
+			if (pss != null) {
+				pss.setValues(psToUse);
+			}
+			rs = psToUse.executeQuery();
+			ResultSet rsToUse = rs;
+			if (this.nativeJdbcExtractor != null) {
+				rsToUse = this.nativeJdbcExtractor.getNativeResultSet(rs);
+			}
+			return new ResultSetRowIterator<T>(con, ps, rs, rsToUse, psc, pss, rowMapper);
+		}
+		catch (SQLException ex) {
+			// Release Connection early, to avoid potential connection pool deadlock
+			// in the case when the exception translator hasn't been initialized yet.
+			String sql = getSql(psc);
+			releaseIterationResources(con, ps, rs, psc, pss);
+			throw getExceptionTranslator().translate("PreparedStatementCallback", sql, ex);
+		}
+		catch (RuntimeException ex) {
+			releaseIterationResources(con, ps, rs, psc, pss);
+			throw ex;
+		}
+		catch (Error err) {
+			releaseIterationResources(con, ps, rs, psc, pss);
+			throw err;
+		}
+	}
+
+	private void releaseIterationResources(Connection con, PreparedStatement ps, ResultSet rs,
+			PreparedStatementCreator psc, PreparedStatementSetter pss) {
+
+		JdbcUtils.closeResultSet(rs);
+		if (pss instanceof ParameterDisposer) {
+			((ParameterDisposer) pss).cleanupParameters();
+		}
+		if (psc instanceof ParameterDisposer) {
+			((ParameterDisposer) psc).cleanupParameters();
+		}
+		JdbcUtils.closeStatement(ps);
+		DataSourceUtils.releaseConnection(con, getDataSource());
+	}
+
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
 			throws DataAccessException {
 
@@ -1479,6 +1614,120 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * RowIterator over an open ResultSet, releasing the JDBC resources
+	 * once exhausted or closed.
+	 */
+	private class ResultSetRowIterator<T> implements RowIterator<T> {
+
+		private final Connection con;
+
+		private final PreparedStatement ps;
+
+		private final ResultSet rs;
+
+		private final ResultSet rsToUse;
+
+		private final PreparedStatementCreator psc;
+
+		private final PreparedStatementSetter pss;
+
+		private final RowMapper<T> rowMapper;
+
+		private int rowNum = 0;
+
+		private Boolean hasNext;
+
+		private boolean closed = false;
+
+		public ResultSetRowIterator(Connection con, PreparedStatement ps, ResultSet rs, ResultSet rsToUse,
+				PreparedStatementCreator psc, PreparedStatementSetter pss, RowMapper<T> rowMapper) {
+
+			this.con = con;
+			this.ps = ps;
+			this.rs = rs;
+			this.rsToUse = rsToUse;
+			this.psc = psc;
+			this.pss = pss;
+			this.rowMapper = rowMapper;
+		}
+
+		public boolean hasNext() {
+			if (this.hasNext == null) {
+				try {
+					this.hasNext = this.rsToUse.next();
+				}
+				catch (SQLException ex) {
+					throw translateException("ResultSet.next", ex);
+				}
+				if (!this.hasNext) {
+					close();
+				}
+			}
+			return this.hasNext;
+		}
+
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No further rows");
+			}
+			this.hasNext = null;
+			try {
+				return this.rowMapper.mapRow(this.rsToUse, this.rowNum++);
+			}
+			catch (SQLException ex) {
+				throw translateException("RowMapper", ex);
+			}
+			catch (RuntimeException ex) {
+				release();
+				throw ex;
+			}
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Rows cannot be removed");
+		}
+
+		public int getRowCount() {
+			return this.rowNum;
+		}
+
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			SQLException warningFailure = null;
+			try {
+				handleWarnings(this.ps);
+			}
+			catch (SQLException ex) {
+				warningFailure = ex;
+			}
+			finally {
+				release();
+			}
+			if (warningFailure != null) {
+				throw getExceptionTranslator().translate("PreparedStatementCallback", getSql(this.psc), warningFailure);
+			}
+		}
+
+		private DataAccessException translateException(String task, SQLException ex) {
+			// Release Connection early, to avoid potential connection pool deadlock
+			// in the case when the exception translator hasn't been initialized yet.
+			release();
+			return getExceptionTranslator().translate(task, getSql(this.psc), ex);
+		}
+
+		private void release() {
+			if (!this.closed) {
+				this.closed = true;
+				this.hasNext = Boolean.FALSE;
+				releaseIterationResources(this.con, this.ps, this.rs, this.psc, this.pss);
+			}
+		}
+	}
+
+
 	/**
 	 * Adapter to enable use of a RowCallbackHandler inside a ResultSetExtractor.
 	 * <p>Uses a regular ResultSet, so we have to be careful when using it:
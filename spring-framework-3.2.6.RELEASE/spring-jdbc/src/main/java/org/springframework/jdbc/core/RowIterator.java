@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Lazily mapped iteration over the rows of a query result, holding on to
+ * the underlying JDBC {@code Connection}, {@code Statement} and
+ * {@code ResultSet} until the iteration has been completed or closed.
+ *
+ * <p>Rows are read from the open ResultSet one at a time, so a result of
+ * arbitrary size can be processed with constant memory as long as the JDBC
+ * driver itself does not buffer the entire result (see
+ * {@link JdbcTemplate#setFetchSize}).
+ *
+ * <p>Resources get released as soon as {@link #hasNext()} returns
+ * {@code false} or a row fails to be read or mapped. A caller that does not
+ * iterate to the end <i>must</i> call {@link #close()}, typically in a
+ * {@code finally} block. Any {@link java.sql.SQLException} is translated
+ * into a {@link DataAccessException}.
+ *
+ * <p>Instances are not thread-safe and are meant to be consumed by the
+ * thread that obtained them.
+ *
+ * @since 3.2.7
+ * @see JdbcTemplate#queryForIterator(PreparedStatementCreator, RowMapper)
+ */
+public interface RowIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * Return whether there is another row, reading it from the ResultSet
+	 * if necessary. Releases all resources once the end has been reached.
+	 * @throws DataAccessException if the ResultSet could not be advanced
+	 */
+	boolean hasNext() throws DataAccessException;
+
+	/**
+	 * Map the next row via the RowMapper.
+	 * @throws java.util.NoSuchElementException if there are no further rows
+	 * @throws DataAccessException if the row could not be mapped
+	 */
+	T next() throws DataAccessException;
+
+	/**
+	 * Return the number of rows returned so far.
+	 */
+	int getRowCount();
+
+	/**
+	 * Release the underlying ResultSet, Statement and Connection, unless
+	 * they have been released already. Any further call to {@link #hasNext()}
+	 * returns {@code false}.
+	 * @throws DataAccessException if SQL warnings are not ignored and the
+	 * statement reported any
+	 */
+	void close() throws DataAccessException;
+
+}
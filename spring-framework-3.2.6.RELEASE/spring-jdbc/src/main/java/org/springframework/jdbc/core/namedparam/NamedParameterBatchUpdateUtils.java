@@ -18,6 +18,7 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.concurrent.Executor;
 
 import org.springframework.jdbc.core.BatchUpdateUtils;
 import org.springframework.jdbc.core.JdbcOperations;
@@ -53,4 +54,48 @@ public class NamedParameterBatchUpdateUtils extends BatchUpdateUtils {
 				});
 	}
 
+	/**
+	 * Execute the given batch in chunks of {@code chunkSize} rows, with up to
+	 * {@code parallelism} chunks running concurrently on the given executor,
+	 * each on its own connection. Only allowed outside of a transaction.
+	 * @param parsedSql the parsed SQL statement
+	 * @param batchArgs the parameter sources for all rows of the batch
+	 * @param jdbcOperations the JdbcOperations to execute each chunk with
+	 * @param chunkSize the maximum number of rows per chunk
+	 * @param parallelism the maximum number of chunks to execute concurrently
+	 * @param executor the executor to run the chunks on
+	 * @return the update counts for all rows, in the order of the given batch
+	 * @throws org.springframework.jdbc.IncompleteBatchUpdateException if one or more chunks failed
+	 * @since 3.2.7
+	 * @see BatchUpdateUtils#executeBatchUpdate(String, java.util.List, int[], JdbcOperations, int, int, Executor)
+	 */
+	public static int[] executeBatchUpdateWithNamedParameters(final ParsedSql parsedSql,
+			final SqlParameterSource[] batchArgs, final JdbcOperations jdbcOperations,
+			int chunkSize, int parallelism, Executor executor) {
+
+		if (batchArgs.length <= 0) {
+			return new int[] {0};
+		}
+		final String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, batchArgs[0]);
+		return executeInChunks(sqlToUse, batchArgs.length, chunkSize, parallelism, executor, new BatchChunkCallback() {
+			public int[] doInChunk(final int offset, final int size) {
+				return jdbcOperations.batchUpdate(
+						sqlToUse,
+						new BatchPreparedStatementSetter() {
+
+							public void setValues(PreparedStatement ps, int i) throws SQLException {
+								SqlParameterSource paramSource = batchArgs[offset + i];
+								Object[] values = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+								int[] columnTypes = NamedParameterUtils.buildSqlTypeArray(parsedSql, paramSource);
+								setStatementParameters(values, ps, columnTypes);
+							}
+
+							public int getBatchSize() {
+								return size;
+							}
+						});
+			}
+		});
+	}
+
 }
@@ -16,12 +16,17 @@
 
 package org.springframework.jdbc.core.namedparam;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.JdbcOperations;
@@ -31,13 +36,16 @@ import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowIterator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -52,6 +60,12 @@ import org.springframework.util.Assert;
  * exposed to allow for convenient access to the traditional
  * {@link org.springframework.jdbc.core.JdbcTemplate} methods.
  *
+ * <p>Parsed SQL statements are cached, as are the substituted SQL and the
+ * {@link PreparedStatementCreatorFactory} for each combination of statement
+ * and parameter shape (i.e. the expansion of collection values and the
+ * declared SQL types). Cache lookups do not lock; once the
+ * {@link #setCacheLimit cache limit} is exceeded, arbitrary entries get evicted.
+ *
  * @author Thomas Risberg
  * @author Juergen Hoeller
  * @since 2.0
@@ -70,14 +84,12 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation */
-	@SuppressWarnings("serial")
 	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+			new ConcurrentHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT);
+
+	/** Cache of original SQL String and parameter shape to PreparedStatementCreatorFactory */
+	private final Map<ParameterShape, PreparedStatementCreatorFactory> statementFactoryCache =
+			new ConcurrentHashMap<ParameterShape, PreparedStatementCreatorFactory>(DEFAULT_CACHE_LIMIT);
 
 
 	/**
@@ -111,7 +123,9 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
-	 * Default is 256.
+	 * Default is 256. A limit of 0 or below turns caching off.
+	 * <p>The limit applies to parsed statements and to prepared statement
+	 * factories per parameter shape separately.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -185,6 +199,55 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, new MapSqlParameterSource(paramMap), rowMapper);
 	}
 
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper as the returned iterator advances.
+	 * <p>The Connection and ResultSet are held open until the iterator has
+	 * been exhausted or closed, so the caller needs to make sure to
+	 * {@link RowIterator#close() close} it.
+	 * @param sql SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param rowMapper object that will map one object per row
+	 * @return the result iterator, reading rows lazily
+	 * @throws DataAccessException if the query fails
+	 * @throws InvalidDataAccessApiUsageException if the wrapped
+	 * {@link #getJdbcOperations() JdbcOperations} is not a {@link JdbcTemplate}
+	 * @since 3.2.7
+	 * @see JdbcTemplate#queryForIterator(PreparedStatementCreator, RowMapper)
+	 */
+	public <T> RowIterator<T> queryForIterator(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		if (!(this.classicJdbcTemplate instanceof JdbcTemplate)) {
+			throw new InvalidDataAccessApiUsageException(
+					"Row iteration requires a JdbcTemplate, not " + this.classicJdbcTemplate.getClass().getName());
+		}
+		return ((JdbcTemplate) this.classicJdbcTemplate).queryForIterator(
+				getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper as the returned iterator advances.
+	 * <p>The Connection and ResultSet are held open until the iterator has
+	 * been exhausted or closed, so the caller needs to make sure to
+	 * {@link RowIterator#close() close} it.
+	 * @param sql SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param rowMapper object that will map one object per row
+	 * @return the result iterator, reading rows lazily
+	 * @throws DataAccessException if the query fails
+	 * @since 3.2.7
+	 */
+	public <T> RowIterator<T> queryForIterator(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForIterator(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	public <T> List<T> query(String sql, RowMapper<T> rowMapper) throws DataAccessException {
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
 	}
@@ -324,6 +387,34 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return NamedParameterBatchUpdateUtils.executeBatchUpdateWithNamedParameters(parsedSql, batchArgs, getJdbcOperations());
 	}
 
+	/**
+	 * Execute a batch using the supplied SQL statement with the batch of supplied
+	 * arguments, split into chunks of {@code chunkSize} rows that are executed as
+	 * separate batches, with up to {@code parallelism} chunks running concurrently
+	 * on the given executor.
+	 * <p>Each chunk obtains its own connection from the DataSource, so the pool
+	 * should allow for {@code parallelism} connections. Intended for bulk loads:
+	 * this is only allowed outside of a transaction, and each chunk is committed
+	 * on its own. A failed chunk does not prevent the other chunks from executing.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the array of {@link SqlParameterSource} containing the batch of arguments for the query
+	 * @param chunkSize the maximum number of rows per chunk
+	 * @param parallelism the maximum number of chunks to execute concurrently
+	 * @param executor the executor to run the chunks on, e.g. a
+	 * {@link org.springframework.core.task.SimpleAsyncTaskExecutor}
+	 * @return an array containing the numbers of rows affected by each update in the batch
+	 * @throws org.springframework.jdbc.IncompleteBatchUpdateException if one or more chunks failed,
+	 * exposing the update counts and the failure of each failed chunk
+	 * @since 3.2.7
+	 */
+	public int[] batchUpdate(String sql, SqlParameterSource[] batchArgs, int chunkSize, int parallelism,
+			Executor executor) {
+
+		ParsedSql parsedSql = getParsedSql(sql);
+		return NamedParameterBatchUpdateUtils.executeBatchUpdateWithNamedParameters(
+				parsedSql, batchArgs, getJdbcOperations(), chunkSize, parallelism, executor);
+	}
+
 	/**
 	 * Build a PreparedStatementCreator based on the given SQL and named parameters.
 	 * <p>Note: Not used for the {@code update} variant with generated key handling.
@@ -333,31 +424,141 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 */
 	protected PreparedStatementCreator getPreparedStatementCreator(String sql, SqlParameterSource paramSource) {
 		ParsedSql parsedSql = getParsedSql(sql);
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
-		PreparedStatementCreatorFactory pscf = new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
+		int cacheLimit = getCacheLimit();
+		if (cacheLimit <= 0) {
+			return createPreparedStatementCreatorFactory(parsedSql, paramSource).newPreparedStatementCreator(params);
+		}
+		ParameterShape shape = new ParameterShape(parsedSql, paramSource, params);
+		PreparedStatementCreatorFactory pscf = this.statementFactoryCache.get(shape);
+		if (pscf == null) {
+			pscf = createPreparedStatementCreatorFactory(parsedSql, paramSource);
+			this.statementFactoryCache.put(shape, pscf);
+			if (this.statementFactoryCache.size() > cacheLimit) {
+				evictEntries(this.statementFactoryCache, cacheLimit);
+			}
+		}
 		return pscf.newPreparedStatementCreator(params);
 	}
 
+	private PreparedStatementCreatorFactory createPreparedStatementCreatorFactory(
+			ParsedSql parsedSql, SqlParameterSource paramSource) {
+
+		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
+	}
+
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit
+	 * <p>The default implementation uses a concurrent cache with an upper limit
 	 * of 256 entries.
 	 * @param sql the original SQL
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		if (getCacheLimit() <= 0) {
+		int cacheLimit = getCacheLimit();
+		if (cacheLimit <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		ParsedSql parsedSql = this.parsedSqlCache.get(sql);
+		if (parsedSql == null) {
+			parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+			this.parsedSqlCache.put(sql, parsedSql);
+			if (this.parsedSqlCache.size() > cacheLimit) {
+				evictEntries(this.parsedSqlCache, cacheLimit);
 			}
-			return parsedSql;
+		}
+		return parsedSql;
+	}
+
+	private static void evictEntries(Map<?, ?> cache, int cacheLimit) {
+		Iterator<?> it = cache.keySet().iterator();
+		while (it.hasNext() && cache.size() > cacheLimit) {
+			it.next();
+			it.remove();
+		}
+	}
+
+
+	/**
+	 * Cache key for a parsed statement in combination with the shape of its
+	 * parameters: the declared SQL type and type name of each parameter as well
+	 * as the number of placeholders that each collection value expands to.
+	 */
+	private static final class ParameterShape {
+
+		private static final int SCALAR = -1;
+
+		private final String sql;
+
+		private final int[] layout;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		public ParameterShape(ParsedSql parsedSql, SqlParameterSource paramSource, Object[] params) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int[] layout = new int[paramNames.size() * 2];
+			String[] typeNames = null;
+			int pos = 0;
+			for (int i = 0; i < paramNames.size(); i++) {
+				String paramName = paramNames.get(i);
+				Object value = params[i];
+				if (value instanceof SqlParameterValue) {
+					value = ((SqlParameterValue) value).getValue();
+				}
+				int size = (value instanceof Collection ? ((Collection<?>) value).size() : 0);
+				if (pos + 2 + size > layout.length) {
+					layout = copyOf(layout, Math.max(layout.length * 2, pos + 2 + size));
+				}
+				layout[pos++] = paramSource.getSqlType(paramName);
+				if (value instanceof Collection) {
+					layout[pos++] = size;
+					for (Object entryItem : (Collection<?>) value) {
+						layout[pos++] = (entryItem instanceof Object[] ? ((Object[]) entryItem).length : SCALAR);
+					}
+				}
+				else {
+					layout[pos++] = SCALAR;
+				}
+				String typeName = paramSource.getTypeName(paramName);
+				if (typeName != null) {
+					if (typeNames == null) {
+						typeNames = new String[paramNames.size()];
+					}
+					typeNames[i] = typeName;
+				}
+			}
+			this.sql = parsedSql.getOriginalSql();
+			this.layout = (pos < layout.length ? copyOf(layout, pos) : layout);
+			this.typeNames = typeNames;
+			this.hashCode = this.sql.hashCode() * 29 + Arrays.hashCode(this.layout);
+		}
+
+		private static int[] copyOf(int[] original, int newLength) {
+			int[] copy = new int[newLength];
+			System.arraycopy(original, 0, copy, 0, Math.min(original.length, newLength));
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ParameterShape)) {
+				return false;
+			}
+			ParameterShape otherShape = (ParameterShape) other;
+			return (this.sql.equals(otherShape.sql) && Arrays.equals(this.layout, otherShape.layout) &&
+					ObjectUtils.nullSafeEquals(this.typeNames, otherShape.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
 		}
 	}
 
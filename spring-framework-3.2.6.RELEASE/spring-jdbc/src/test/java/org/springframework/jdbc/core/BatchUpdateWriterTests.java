@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Types;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BatchUpdateWriter}.
+ */
+public class BatchUpdateWriterTests {
+
+	private static final String INSERT_SQL = "insert into item (id, name) values (?, ?)";
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("create table item (id int primary key, name varchar(50))");
+	}
+
+	@After
+	public void shutdown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void flushOnBatchSize() {
+		BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL);
+		writer.setBatchSize(3);
+		for (int i = 0; i < 7; i++) {
+			writer.write(i, "item" + i);
+		}
+		assertEquals(1, writer.getBufferedRowCount());
+		assertEquals(6, writer.getWrittenRowCount());
+		assertEquals(6, countItems());
+		writer.close();
+		assertEquals(0, writer.getBufferedRowCount());
+		assertEquals(7, countItems());
+	}
+
+	@Test
+	public void flushOnInterval() throws Exception {
+		BatchUpdateWriter writer = new BatchUpdateWriter(this.database, INSERT_SQL);
+		writer.setFlushInterval(20);
+		writer.write(1, "item1");
+		assertEquals(0, countItems());
+		Thread.sleep(40);
+		writer.write(2, "item2");
+		assertEquals(2, countItems());
+	}
+
+	@Test
+	public void multiRowInsert() {
+		BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL + ";");
+		writer.setMultiRowInsert(true);
+		writer.setArgTypes(Types.INTEGER, Types.VARCHAR);
+		writer.setBatchSize(4);
+		assertTrue(writer.isMultiRowInsert());
+		for (int i = 0; i < 5; i++) {
+			writer.write(i, "item" + i);
+		}
+		assertEquals(4, countItems());
+		assertArrayEquals(new int[] {1}, writer.flush());
+		assertEquals(5, countItems());
+		assertEquals("item3", this.jdbcTemplate.queryForObject("select name from item where id = 3", String.class));
+	}
+
+	@Test
+	public void multiRowInsertSplitByMaxBindParameters() {
+		BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL);
+		writer.setMultiRowInsert(true);
+		writer.setMaxBindParameters(5);
+		writer.setBatchSize(10);
+		for (int i = 0; i < 5; i++) {
+			writer.write(i, "item" + i);
+		}
+		assertArrayEquals(new int[] {2, 2, 1}, writer.flush());
+		assertEquals(5, countItems());
+		assertEquals(5, writer.getWrittenRowCount());
+	}
+
+	@Test
+	public void reusedArgumentsArrayNotShared() {
+		BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL);
+		Object[] args = new Object[2];
+		for (int i = 0; i < 3; i++) {
+			args[0] = i;
+			args[1] = "item" + i;
+			writer.write(args);
+		}
+		writer.close();
+		assertEquals(3, countItems());
+		assertEquals("item0", this.jdbcTemplate.queryForObject("select name from item where id = 0", String.class));
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void multiRowInsertNotApplicable() {
+		new BatchUpdateWriter(this.jdbcTemplate, "update item set name = ? where id = ?").setMultiRowInsert(true);
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void multiRowInsertFromSelectNotApplicable() {
+		new BatchUpdateWriter(this.jdbcTemplate,
+				"insert into item (id, name) values (?, ?) on duplicate key update name = ?").setMultiRowInsert(true);
+	}
+
+	@Test
+	public void flushBeforeCommit() {
+		final BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(this.database));
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				writer.write(1, "item1");
+				writer.write(2, "item2");
+			}
+		});
+		assertEquals(2, countItems());
+		assertEquals(0, writer.getBufferedRowCount());
+	}
+
+	@Test
+	public void discardOnRollback() {
+		final BatchUpdateWriter writer = new BatchUpdateWriter(this.jdbcTemplate, INSERT_SQL);
+		writer.setBatchSize(2);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(this.database));
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				for (int i = 0; i < 3; i++) {
+					writer.write(i, "item" + i);
+				}
+				status.setRollbackOnly();
+			}
+		});
+		assertEquals(0, countItems());
+		assertEquals(0, writer.getBufferedRowCount());
+		writer.write(5, "item5");
+		writer.close();
+		assertEquals(1, countItems());
+	}
+
+
+	private int countItems() {
+		return this.jdbcTemplate.queryForObject("select count(*) from item", Integer.class);
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.test.ConcretePerson;
+import org.springframework.jdbc.core.test.ExtendedPerson;
+import org.springframework.jdbc.core.test.Person;
+import org.springframework.jdbc.core.test.SpacePerson;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link CompiledBeanPropertyRowMapper}.
+ */
+public class CompiledBeanPropertyRowMapperTests extends AbstractRowMapperTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private EmbeddedDatabase database;
+
+
+	@After
+	public void shutdown() {
+		if (this.database != null) {
+			this.database.shutdown();
+		}
+	}
+
+
+	@Test
+	public void testStaticQueryWithRowMapper() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new CompiledBeanPropertyRowMapper<Person>(Person.class));
+		assertEquals(1, result.size());
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithNoUnpopulatedFieldsFound() throws Exception {
+		Mock mock = new Mock();
+		List<ConcretePerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new CompiledBeanPropertyRowMapper<ConcretePerson>(ConcretePerson.class, true));
+		assertEquals(1, result.size());
+		verifyConcretePerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithUnpopulatedFieldsNotAccepted() throws Exception {
+		Mock mock = new Mock();
+		thrown.expect(InvalidDataAccessApiUsageException.class);
+		mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new CompiledBeanPropertyRowMapper<ExtendedPerson>(ExtendedPerson.class, true));
+	}
+
+	@Test
+	public void testQueryWithSpaceInColumnName() throws Exception {
+		Mock mock = new Mock(MockType.THREE);
+		List<SpacePerson> result = mock.getJdbcTemplate().query(
+				"select last_name as \"Last Name\", age, birth_date, balance from people",
+				new CompiledBeanPropertyRowMapper<SpacePerson>(SpacePerson.class));
+		assertEquals(1, result.size());
+		verifySpacePerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMetaDataResolvedOncePerResultSet() throws Exception {
+		ResultSet resultSet = mock(ResultSet.class);
+		ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+		given(resultSet.getMetaData()).willReturn(resultSetMetaData);
+		given(resultSet.getString(1)).willReturn("Bubba", "Gump");
+		given(resultSet.getLong(2)).willReturn(22L, 0L);
+		given(resultSet.getTimestamp(3)).willReturn(new Timestamp(1221222L));
+		given(resultSet.getBigDecimal(4)).willReturn(new BigDecimal("1234.56"));
+		given(resultSetMetaData.getColumnCount()).willReturn(4);
+		given(resultSetMetaData.getColumnLabel(1)).willReturn("name");
+		given(resultSetMetaData.getColumnLabel(2)).willReturn("age");
+		given(resultSetMetaData.getColumnLabel(3)).willReturn("birth_date");
+		given(resultSetMetaData.getColumnLabel(4)).willReturn("balance");
+
+		CompiledBeanPropertyRowMapper<Person> mapper = CompiledBeanPropertyRowMapper.newInstance(Person.class);
+		verifyPerson(mapper.mapRow(resultSet, 0));
+		Person second = mapper.mapRow(resultSet, 1);
+		assertEquals("Gump", second.getName());
+		assertEquals(0L, second.getAge());
+		verify(resultSet, times(1)).getMetaData();
+		verify(resultSetMetaData, times(1)).getColumnCount();
+		verify(resultSet, times(1)).wasNull();
+	}
+
+	@Test
+	public void testEmbeddedDatabase() throws Exception {
+		JdbcTemplate jdbcTemplate = createReports(3);
+		jdbcTemplate.update("insert into report values (99, null, null, 0, null, null)");
+		String sql = "select id, title, amount, ratio, created_at, status from report order by id";
+
+		List<Report> expected = jdbcTemplate.query(sql, new BeanPropertyRowMapper<Report>(Report.class));
+		List<Report> actual = jdbcTemplate.query(sql, new CompiledBeanPropertyRowMapper<Report>(Report.class));
+		assertEquals(4, actual.size());
+		assertEquals(expected, actual);
+		assertEquals("title1", actual.get(1).getTitle());
+		assertEquals(Status.CLOSED, actual.get(1).getStatus());
+		assertNull(actual.get(3).getAmount());
+		assertNull(actual.get(3).getCreatedAt());
+		assertNull(actual.get(3).getStatus());
+
+		// Same mapper, different column layout
+		CompiledBeanPropertyRowMapper<Report> mapper = new CompiledBeanPropertyRowMapper<Report>(Report.class);
+		assertEquals(3.0d, jdbcTemplate.query(sql, mapper).get(2).getRatio(), 0.0d);
+		Report report = jdbcTemplate.query("select ratio as id, title from report where title = 'title2'", mapper).get(0);
+		assertEquals(3L, report.getId());
+		assertEquals("title2", report.getTitle());
+		assertEquals(0.0d, report.getRatio(), 0.0d);
+	}
+
+	@Test
+	public void testMappingNullValue() throws Exception {
+		JdbcTemplate jdbcTemplate = createReports(0);
+		jdbcTemplate.update("insert into report values (1, 'title', null, null, null, null)");
+		thrown.expect(TypeMismatchException.class);
+		jdbcTemplate.query("select * from report", new CompiledBeanPropertyRowMapper<Report>(Report.class));
+	}
+
+	@Test
+	public void testNullPrimitiveDefaulted() throws Exception {
+		JdbcTemplate jdbcTemplate = createReports(0);
+		jdbcTemplate.update("insert into report values (1, 'title', null, null, null, null)");
+		CompiledBeanPropertyRowMapper<Report> mapper = new CompiledBeanPropertyRowMapper<Report>(Report.class);
+		mapper.setPrimitivesDefaultedForNullValue(true);
+		Report report = jdbcTemplate.queryForObject("select * from report", mapper);
+		assertEquals(0.0d, report.getRatio(), 0.0d);
+		assertEquals("title", report.getTitle());
+	}
+
+	@Test
+	public void testMappingPerformance() throws Exception {
+		Assume.group(TestGroup.PERFORMANCE);
+
+		JdbcTemplate jdbcTemplate = createReports(100000);
+		String sql = "select id, title, amount, ratio, created_at, status from report";
+		StopWatch sw = new StopWatch("Mapping 100000 rows");
+		for (int i = 0; i < 5; i++) {
+			sw.start("BeanPropertyRowMapper");
+			List<Report> expected = jdbcTemplate.query(sql, new BeanPropertyRowMapper<Report>(Report.class));
+			sw.stop();
+			sw.start("CompiledBeanPropertyRowMapper");
+			List<Report> actual = jdbcTemplate.query(sql, new CompiledBeanPropertyRowMapper<Report>(Report.class));
+			sw.stop();
+			assertEquals(expected, actual);
+		}
+		System.out.println(sw.prettyPrint());
+	}
+
+
+	private JdbcTemplate createReports(int count) {
+		this.database = new EmbeddedDatabaseBuilder().build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+		jdbcTemplate.execute("create table report (id bigint primary key, title varchar(50), " +
+				"amount decimal(10,2), ratio double, created_at timestamp, status varchar(10))");
+		List<Object[]> rows = new ArrayList<Object[]>(count);
+		for (int i = 0; i < count; i++) {
+			rows.add(new Object[] {i, "title" + i, new BigDecimal(i + ".25"), i * 1.5d,
+					new Timestamp(1221222L + i), Status.values()[i % 2].name()});
+		}
+		jdbcTemplate.batchUpdate("insert into report values (?, ?, ?, ?, ?, ?)", rows);
+		return jdbcTemplate;
+	}
+
+
+	public static enum Status {OPEN, CLOSED};
+
+
+	public static class Report {
+
+		private long id;
+
+		private String title;
+
+		private BigDecimal amount;
+
+		private double ratio;
+
+		private java.util.Date createdAt;
+
+		private Status status;
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public void setTitle(String title) {
+			this.title = title;
+		}
+
+		public BigDecimal getAmount() {
+			return amount;
+		}
+
+		public void setAmount(BigDecimal amount) {
+			this.amount = amount;
+		}
+
+		public double getRatio() {
+			return ratio;
+		}
+
+		public void setRatio(double ratio) {
+			this.ratio = ratio;
+		}
+
+		public java.util.Date getCreatedAt() {
+			return createdAt;
+		}
+
+		public void setCreatedAt(java.util.Date createdAt) {
+			this.createdAt = createdAt;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public void setStatus(Status status) {
+			this.status = status;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Report)) {
+				return false;
+			}
+			Report that = (Report) other;
+			return (this.id == that.id && this.ratio == that.ratio &&
+					ObjectUtils.nullSafeEquals(this.title, that.title) &&
+					ObjectUtils.nullSafeEquals(this.amount, that.amount) &&
+					ObjectUtils.nullSafeEquals(this.createdAt, that.createdAt) &&
+					ObjectUtils.nullSafeEquals(this.status, that.status));
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) this.id;
+		}
+	}
+
+}
@@ -33,7 +33,11 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.*;
@@ -360,4 +364,85 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForIterator() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		this.template.setFetchSize(100);
+		RowIterator<Integer> it = this.template.queryForIterator(sql, new SingleColumnRowMapper<Integer>(Integer.class), 3);
+		verify(this.preparedStatement).setFetchSize(100);
+		verify(this.preparedStatement).setObject(1, 3);
+		assertTrue(it.hasNext());
+		assertEquals(Integer.valueOf(11), it.next());
+		assertEquals(Integer.valueOf(12), it.next());
+		verify(this.resultSet, never()).close();
+		verify(this.preparedStatement, never()).close();
+		verify(this.connection, never()).close();
+		assertFalse(it.hasNext());
+		assertEquals(2, it.getRowCount());
+		it.close();
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForIteratorClosedEarly() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		this.template.setFetchSize(Integer.MIN_VALUE);
+		RowIterator<Integer> it = this.template.queryForIterator(sql, new SingleColumnRowMapper<Integer>(Integer.class));
+		verify(this.preparedStatement).setFetchSize(Integer.MIN_VALUE);
+		assertEquals(Integer.valueOf(11), it.next());
+		it.close();
+		it.close();
+		assertFalse(it.hasNext());
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForIteratorReleasesResourcesOnFailure() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true).willThrow(new SQLException("failure"));
+		given(this.resultSet.getInt(1)).willReturn(11);
+		this.template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		RowIterator<Integer> it = this.template.queryForIterator(sql, new SingleColumnRowMapper<Integer>(Integer.class));
+		assertEquals(Integer.valueOf(11), it.next());
+		try {
+			it.hasNext();
+			fail("Should have thrown DataAccessException");
+		}
+		catch (DataAccessException ex) {
+			// expected
+		}
+		assertFalse(it.hasNext());
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForIteratorWithTransactionalConnection() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR";
+		given(this.resultSet.next()).willReturn(true, false);
+		given(this.resultSet.getInt(1)).willReturn(11);
+		TransactionSynchronizationManager.bindResource(this.dataSource, new ConnectionHolder(this.connection));
+		try {
+			RowIterator<Integer> it = this.template.queryForIterator(sql, new SingleColumnRowMapper<Integer>(Integer.class));
+			assertEquals(Integer.valueOf(11), it.next());
+			assertFalse(it.hasNext());
+		}
+		finally {
+			TransactionSynchronizationManager.unbindResource(this.dataSource);
+		}
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection, never()).close();
+		verify(this.dataSource, never()).getConnection();
+	}
+
 }
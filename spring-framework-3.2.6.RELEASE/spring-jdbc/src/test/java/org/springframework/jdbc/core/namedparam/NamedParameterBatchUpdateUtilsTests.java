@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.IncompleteBatchUpdateException;
+import org.springframework.jdbc.core.BatchUpdateUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for chunked batch execution through {@link NamedParameterBatchUpdateUtils}.
+ */
+public class NamedParameterBatchUpdateUtilsTests {
+
+	private static final String INSERT_SQL = "insert into item (id, name) values (:id, :name)";
+
+	private EmbeddedDatabase database;
+
+	private NamedParameterJdbcTemplate template;
+
+	private ExecutorService executor;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).build();
+		this.template = new NamedParameterJdbcTemplate(this.database);
+		this.template.getJdbcOperations().execute("create table item (id int primary key, name varchar(50))");
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void shutdown() {
+		this.executor.shutdownNow();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void chunkedBatchUpdate() {
+		SqlParameterSource[] batchArgs = items(0, 103);
+		int[] updateCounts = this.template.batchUpdate(INSERT_SQL, batchArgs, 10, 4, this.executor);
+		assertEquals(103, updateCounts.length);
+		for (int updateCount : updateCounts) {
+			assertEquals(1, updateCount);
+		}
+		assertEquals(103, countItems());
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithFewerChunksThanParallelism() {
+		int[] updateCounts = this.template.batchUpdate(INSERT_SQL, items(0, 5), 10, 4, this.executor);
+		assertEquals(5, updateCounts.length);
+		assertEquals(5, countItems());
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithEmptyBatch() {
+		int[] updateCounts = this.template.batchUpdate(INSERT_SQL, new SqlParameterSource[0], 10, 4, this.executor);
+		assertEquals(1, updateCounts.length);
+		assertEquals(0, updateCounts[0]);
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithFailedChunk() {
+		this.template.update(INSERT_SQL, new MapSqlParameterSource("id", 25).addValue("name", "existing"));
+		try {
+			this.template.batchUpdate(INSERT_SQL, items(0, 50), 10, 4, this.executor);
+			fail("Should have thrown IncompleteBatchUpdateException");
+		}
+		catch (IncompleteBatchUpdateException ex) {
+			assertEquals(1, ex.getChunkFailures().size());
+			assertTrue(ex.getChunkFailures().get(20) instanceof DuplicateKeyException);
+			assertSame(ex.getChunkFailures().get(20), ex.getCause());
+			assertTrue(ex.wasDataUpdated());
+			int[] updateCounts = ex.getUpdateCounts();
+			assertEquals(50, updateCounts.length);
+			for (int i = 0; i < 50; i++) {
+				assertEquals(i >= 20 && i < 30 ? Statement.EXECUTE_FAILED : 1, updateCounts[i]);
+			}
+		}
+		// the other chunks have been committed on their own connections,
+		// the failed chunk may have been applied partially by the driver
+		assertTrue(countItems() >= 41);
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithRejectingExecutor() {
+		Executor rejectingExecutor = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		};
+		int[] updateCounts = this.template.batchUpdate(INSERT_SQL, items(0, 30), 10, 2, rejectingExecutor);
+		assertEquals(30, updateCounts.length);
+		assertEquals(30, countItems());
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithinTransaction() {
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(this.database));
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				try {
+					template.batchUpdate(INSERT_SQL, items(0, 10), 5, 2, executor);
+					fail("Should have thrown InvalidDataAccessApiUsageException");
+				}
+				catch (InvalidDataAccessApiUsageException ex) {
+					// expected
+				}
+			}
+		});
+		assertEquals(0, countItems());
+	}
+
+	@Test
+	public void chunkedBatchUpdateWithPositionalParameters() {
+		List<Object[]> batchValues = new ArrayList<Object[]>();
+		for (int i = 0; i < 25; i++) {
+			batchValues.add(new Object[] {i, "item" + i});
+		}
+		int[] updateCounts = BatchUpdateUtils.executeBatchUpdate("insert into item (id, name) values (?, ?)",
+				batchValues, null, this.template.getJdbcOperations(), 7, 3, this.executor);
+		assertEquals(25, updateCounts.length);
+		assertEquals(25, countItems());
+	}
+
+
+	private SqlParameterSource[] items(int from, int count) {
+		SqlParameterSource[] batchArgs = new SqlParameterSource[count];
+		for (int i = 0; i < count; i++) {
+			batchArgs[i] = new MapSqlParameterSource("id", from + i).addValue("name", "item" + (from + i));
+		}
+		return batchArgs;
+	}
+
+	private int countItems() {
+		return this.template.getJdbcOperations().queryForObject("select count(*) from item", Integer.class);
+	}
+
+}
@@ -22,6 +22,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -367,6 +368,67 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testQueryWithCollectionsOfDifferentSize() throws SQLException {
+		given(resultSet.next()).willReturn(false);
+		String sql = "select id, forename from custmr where id in (:ids)";
+		RowCallbackHandler rch = new RowCallbackHandler() {
+			@Override
+			public void processRow(ResultSet rs) {
+			}
+		};
+		for (List<Integer> ids : Arrays.asList(Arrays.asList(1, 2), Arrays.asList(1, 2, 3), Arrays.asList(3, 4))) {
+			namedParameterTemplate.query(sql, Collections.singletonMap("ids", ids), rch);
+		}
+		verify(connection, times(2)).prepareStatement("select id, forename from custmr where id in (?, ?)");
+		verify(connection).prepareStatement("select id, forename from custmr where id in (?, ?, ?)");
+		verify(preparedStatement, times(2)).setObject(1, 1);
+		verify(preparedStatement).setObject(1, 3);
+		verify(preparedStatement).setObject(3, 3);
+		verify(preparedStatement).setObject(2, 4);
+	}
+
+	@Test
+	public void testQueryWithDifferentParameterTypes() throws SQLException {
+		given(resultSet.next()).willReturn(false);
+		RowCallbackHandler rch = new RowCallbackHandler() {
+			@Override
+			public void processRow(ResultSet rs) {
+			}
+		};
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS,
+				new MapSqlParameterSource("id", 1).addValue("country", "UK"), rch);
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS,
+				new MapSqlParameterSource().addValue("id", 2, Types.DECIMAL).addValue("country", "UK"), rch);
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS,
+				new MapSqlParameterSource("id", 3).addValue("country", "UK"), rch);
+		verify(connection, times(3)).prepareStatement(SELECT_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1);
+		verify(preparedStatement).setObject(1, 2, Types.DECIMAL);
+		verify(preparedStatement).setObject(1, 3);
+	}
+
+	@Test
+	public void testQueryWithCacheLimit() throws SQLException {
+		given(resultSet.next()).willReturn(false);
+		RowCallbackHandler rch = new RowCallbackHandler() {
+			@Override
+			public void processRow(ResultSet rs) {
+			}
+		};
+		namedParameterTemplate.setCacheLimit(1);
+		params.put("id", 1);
+		params.put("country", "UK");
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS, params, rch);
+		namedParameterTemplate.query(SELECT_NO_PARAMETERS, params, rch);
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS, params, rch);
+		namedParameterTemplate.setCacheLimit(0);
+		namedParameterTemplate.query(SELECT_NAMED_PARAMETERS, params, rch);
+		verify(connection, times(3)).prepareStatement(SELECT_NAMED_PARAMETERS_PARSED);
+		verify(connection).prepareStatement(SELECT_NO_PARAMETERS);
+		verify(preparedStatement, times(3)).setObject(1, 1);
+	}
+
 	@Test
 	public void testUpdate() throws SQLException {
 		given(preparedStatement.executeUpdate()).willReturn(1);
@@ -17,11 +17,15 @@
 package org.springframework.web.context.support;
 
 import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.xml.ResourceEntityResolver;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.context.support.BeanDefinitionSnapshot;
+import org.springframework.core.io.Resource;
 
 /**
  * {@link org.springframework.web.context.WebApplicationContext} implementation
@@ -92,6 +96,9 @@ public class XmlWebApplicationContext extends AbstractRefreshableWebApplicationC
 		// Allow a subclass to provide custom initialization of the reader,
 		// then proceed with actually loading the bean definitions.
 		initBeanDefinitionReader(beanDefinitionReader);
+		if (getBeanDefinitionSourceTracker() != null) {
+			beanDefinitionReader.setEventListener(getBeanDefinitionSourceTracker());
+		}
 		loadBeanDefinitions(beanDefinitionReader);
 	}
 
@@ -120,10 +127,15 @@ public class XmlWebApplicationContext extends AbstractRefreshableWebApplicationC
 	 * @see #getResourcePatternResolver
 	 */
 	protected void loadBeanDefinitions(XmlBeanDefinitionReader reader) throws IOException {
+		BeanDefinitionSnapshot.SourceTracker sourceTracker = getBeanDefinitionSourceTracker();
 		String[] configLocations = getConfigLocations();
 		if (configLocations != null) {
 			for (String configLocation : configLocations) {
-				reader.loadBeanDefinitions(configLocation);
+				Set<Resource> actualResources = (sourceTracker != null ? new LinkedHashSet<Resource>() : null);
+				reader.loadBeanDefinitions(configLocation, actualResources);
+				if (sourceTracker != null) {
+					sourceTracker.addLocation(configLocation, actualResources.toArray(new Resource[actualResources.size()]));
+				}
 			}
 		}
 	}